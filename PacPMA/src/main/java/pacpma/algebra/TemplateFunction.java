@@ -21,15 +21,24 @@
 package pacpma.algebra;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import pacpma.util.ParallelBlocks;
+
 /**
  * @author Andrea Turrini
  *
  */
 public interface TemplateFunction {
     
+    /**
+     * Number of samples evaluated together by 
+     * {@link #evaluate(double[], int, double[])}.
+     */
+    public static final int BULK_BLOCK_SIZE = 1024;
+    
     /**
      * States whether the template function is a valid template function, like 
      * using only defined variables and expressions.
@@ -58,6 +67,47 @@ public interface TemplateFunction {
      */
     Map<String, BigDecimal> evaluate(Map<Variable, BigDecimal> values);
     
+    /**
+     * Evaluates the terms in this template function for a batch of samples, in
+     * double precision. 
+     * <p>
+     * The samples are given as a column-major matrix with one row for each
+     * sample and one column for each variable, in the order of
+     * {@link Variable#getVariables()}: the value of the variable {@code v} in
+     * the sample {@code s} is {@code samples[v * numberSamples + s]}. The
+     * values of the terms are stored in the same way in {@code designMatrix},
+     * with one column for each term in the order of
+     * {@link #getCoefficients()}: the value of the term {@code k} in the
+     * sample {@code s} is stored in
+     * {@code designMatrix[k * numberSamples + s]}.
+     * <p>
+     * The default implementation calls {@link #evaluate(Map)} for each sample;
+     * blocks of samples are evaluated in parallel.
+     * 
+     * @param samples
+     *            the values of the variables
+     * @param numberSamples
+     *            the number of samples
+     * @param designMatrix
+     *            the matrix receiving the values of the terms
+     */
+    default void evaluate(double[] samples, int numberSamples, double[] designMatrix) {
+        List<Variable> variables = Variable.getVariables();
+        List<String> coefficients = getCoefficients();
+        ParallelBlocks.run(numberSamples, BULK_BLOCK_SIZE, (from, to) -> {
+            for (int sample = from; sample < to; sample++) {
+                Map<Variable, BigDecimal> values = new HashMap<>();
+                for (int var = 0; var < variables.size(); var++) {
+                    values.put(variables.get(var), BigDecimal.valueOf(samples[var * numberSamples + sample]));
+                }
+                Map<String, BigDecimal> terms = evaluate(values);
+                for (int k = 0; k < coefficients.size(); k++) {
+                    designMatrix[k * numberSamples + sample] = terms.get(coefficients.get(k)).doubleValue();
+                }
+            }
+        });
+    }
+    
     /**
      * Generates a LaTeX expression for this template function, with 
      * coefficients for the terms taken from {@code coefficientValues}.
@@ -22,20 +22,36 @@ package pacpma.algebra.function;
 
 import java.io.StringReader;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import pacpma.algebra.TemplateFunction;
 import pacpma.algebra.Variable;
+import pacpma.algebra.function.expression.ExpressionProgram;
 import pacpma.algebra.function.expression.ExpressionTerm;
 import pacpma.algebra.function.parser.ExpressionParser;
+import pacpma.log.LogEngine;
+import pacpma.options.OptionsPacPMA;
+import pacpma.util.ParallelBlocks;
 
 /**
+ * A template function given as a list of terms, each one being an arbitrary
+ * expression over the variables; each term is multiplied by its own
+ * coefficient. The coefficient of a term is named after the term identifier.
+ * The terms are evaluated through a single {@link ExpressionProgram}, so 
+ * subexpressions shared by several terms are evaluated once for each sample.
+ * 
  * @author Andrea Turrini
  *
  */
 public class ExpressionFunction implements TemplateFunction {
     private List<ExpressionTerm> terms;
+    private List<String> coefficients;
+    private ExpressionProgram program;
     
     /**
      * Parses the expressions in the list as function terms.
@@ -45,6 +61,22 @@ public class ExpressionFunction implements TemplateFunction {
     public ExpressionFunction(String termsList) {
         ExpressionParser parser = new ExpressionParser(new StringReader(termsList)); 
         terms = parser.parseTerms();
+        if (terms != null) {
+            List<String> names = new ArrayList<>(terms.size());
+            for (ExpressionTerm term : terms) {
+                names.add(term.getIdentifier());
+            }
+            try {
+                program = new ExpressionProgram(terms);
+                OptionsPacPMA.getLogEngineInstance().log(LogEngine.LEVEL_DEBUG, 
+                        "ExpressionFunction: " + program.getNumberNodes() + " nodes evaluated by " 
+                        + program.size() + " shared instructions");
+            } catch (UnsupportedOperationException uoe) {
+                OptionsPacPMA.getLogEngineInstance().log(LogEngine.LEVEL_ERROR, "ExpressionFunction: " + uoe.getMessage());
+                terms = null;
+            }
+            coefficients = Collections.unmodifiableList(names);
+        }
     }
 
     @Override
@@ -54,31 +86,100 @@ public class ExpressionFunction implements TemplateFunction {
     
     @Override
     public List<String> getCoefficients() {
-        // TODO Auto-generated method stub
-        return null;
+        return coefficients;
     }
 
     @Override
     public Map<String, BigDecimal> evaluate(Map<Variable, BigDecimal> values) {
-        // TODO Auto-generated method stub
-        return null;
+        List<Variable> variables = Variable.getVariables();
+        BigDecimal[] variableValues = new BigDecimal[variables.size()];
+        for (int index = 0; index < variableValues.length; index++) {
+            variableValues[index] = values.get(variables.get(index));
+        }
+        BigDecimal[] results = program.evaluate(variableValues);
+        Map<String, BigDecimal> termValues = new HashMap<>();
+        for (int index = 0; index < results.length; index++) {
+            termValues.put(coefficients.get(index), results[index]);
+        }
+        return termValues;
+    }
+    
+    /**
+     * Evaluates the terms of this function with respect to the given values
+     * of the variables, in double precision.
+     * 
+     * @param values
+     *            the values of the variables, in the order of
+     *            {@link Variable#getVariables()}
+     * @return the values of the terms, in the order of
+     *         {@link #getCoefficients()}
+     */
+    public double[] evaluate(double[] values) {
+        return program.evaluate(values);
+    }
+    
+    /**
+     * @return the number of samples evaluated in double precision
+     */
+    public long getNumberEvaluations() {
+        return program.getNumberEvaluations();
+    }
+    
+    /**
+     * @return the number of samples whose double values did not meet the 
+     *         expression tolerance and have been evaluated again with 
+     *         arbitrary precision
+     */
+    public long getNumberFallbacks() {
+        return program.getNumberFallbacks();
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The terms are evaluated on whole blocks of samples, so each instruction
+     * of the shared program is applied once to a column of values.
+     */
+    @Override
+    public void evaluate(double[] samples, int numberSamples, double[] designMatrix) {
+        ParallelBlocks.run(numberSamples, BULK_BLOCK_SIZE, 
+                (from, to) -> program.evaluate(samples, numberSamples, from, to, designMatrix));
     }
 
     @Override
     public String getLatexExpression(Map<String, BigDecimal> coefficientValues) {
-        // TODO Auto-generated method stub
-        return null;
+        return getExpression(coefficientValues, ExpressionTerm::getLatexExpression, " \\cdot ");
     }
 
     @Override
     public String getMathExpression(Map<String, BigDecimal> coefficientValues) {
-        // TODO Auto-generated method stub
-        return null;
+        return getExpression(coefficientValues, ExpressionTerm::getMathExpression, " * ");
     }
 
     @Override
     public String getMatlabExpression(Map<String, BigDecimal> coefficientValues) {
-        // TODO Auto-generated method stub
-        return null;
+        return getExpression(coefficientValues, ExpressionTerm::getMatlabExpression, " .* ");
+    }
+    
+    private String getExpression(Map<String, BigDecimal> coefficientValues, Function<ExpressionTerm, String> formatter, String times) {
+        StringBuilder sb = new StringBuilder();
+        boolean isFirst = true;
+        for (ExpressionTerm term : terms) {
+            BigDecimal value = coefficientValues.get(term.getIdentifier());
+            assert value != null;
+            if (isFirst) {
+                isFirst = false;
+                sb.append(value.toPlainString());
+            } else {
+                if (value.compareTo(BigDecimal.ZERO) >= 0) {
+                    sb.append(" + ");
+                } else {
+                    sb.append(" - ");
+                }
+                sb.append(value.abs().toPlainString());
+            }
+            sb.append(times).append(formatter.apply(term));
+        }
+        return sb.toString();
     }
 }
@@ -40,6 +40,19 @@ public interface Expression {
      */
     BigDecimal evaluate(Map<Variable, BigDecimal> values);
     
+    /**
+     * Appends the instructions computing this expression to the given
+     * program, sharing the instructions already in the program for identical
+     * subexpressions and folding the constant ones.
+     * 
+     * @param program
+     *            the program
+     * @return the slot of the program holding the value of this expression
+     * @throws UnsupportedOperationException
+     *             if the expression contains an undefined identifier
+     */
+    int appendTo(ExpressionProgram program);
+    
     /**
      * Generates a LaTeX expression for this expression, with coefficients for 
      * the terms taken from {@code coefficientValues}.
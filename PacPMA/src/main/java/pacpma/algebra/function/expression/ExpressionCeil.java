@@ -42,6 +42,11 @@ public class ExpressionCeil implements Expression {
         return inner.evaluate(values).setScale(0, RoundingMode.CEILING);
     }
 
+    @Override
+    public int appendTo(ExpressionProgram program) {
+        return program.unary(ExpressionProgram.CEIL, inner.appendTo(program));
+    }
+
     @Override
     public String getLatexExpression() {
         return "\\lceil" + inner.getLatexExpression() + "\\rceil";
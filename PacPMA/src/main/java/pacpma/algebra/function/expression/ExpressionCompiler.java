@@ -0,0 +1,315 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.function.expression;
+
+import static pacpma.algebra.function.expression.ExpressionProgram.CEIL;
+import static pacpma.algebra.function.expression.ExpressionProgram.CONSTANT;
+import static pacpma.algebra.function.expression.ExpressionProgram.DIVIDE;
+import static pacpma.algebra.function.expression.ExpressionProgram.MINUS;
+import static pacpma.algebra.function.expression.ExpressionProgram.NEGATE;
+import static pacpma.algebra.function.expression.ExpressionProgram.PLUS;
+import static pacpma.algebra.function.expression.ExpressionProgram.SQRT;
+import static pacpma.algebra.function.expression.ExpressionProgram.TIMES;
+import static pacpma.algebra.function.expression.ExpressionProgram.VARIABLE;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiler of an {@link ExpressionProgram} into a method handle of type
+ * {@code (double[] samples, int numberSamples, int from, int to, 
+ * double[] results)void} behaving as 
+ * {@link ExpressionProgram#evaluate(double[], int, int, int, double[])}.
+ * <p>
+ * The handle is a counted loop over the samples; its body binds the value
+ * and the error bound of each instruction to two arguments of the handle
+ * computing the following instructions, so an instruction shared by several
+ * expressions is still evaluated once for each sample. Once the handle has
+ * been invoked a few times, the JIT compiler inlines the whole tree, so the
+ * evaluation costs about as much as the corresponding handwritten code.
+ * After the values have been stored, a chain of guards checks them against
+ * their error bounds and falls back to arbitrary precision for the sample
+ * when some of them is not reliable.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+class ExpressionCompiler {
+    /**
+     * The largest program that is compiled: the value and the error bound of
+     * each instruction take four of the 255 argument slots of the loop body.
+     */
+    private final static int MAXIMUM_SIZE = 48;
+    /**
+     * The largest number of expressions of a compiled program: with longer
+     * chains of guards, the JIT compiler no longer inlines the whole loop 
+     * body and the compiled handle becomes slower than the interpreter.
+     */
+    private final static int MAXIMUM_OUTPUTS = 12;
+    
+    /** The arguments of the loop body: sample, samples, number of samples, from, to, results */
+    private final static List<Class<?>> BODY = Arrays.asList(int.class, double[].class, int.class, int.class, int.class, double[].class);
+    private final static int BODY_SAMPLE = 0;
+    private final static int BODY_SAMPLES = 1;
+    private final static int BODY_NUMBER_SAMPLES = 2;
+    private final static int BODY_FROM = 3;
+    private final static int BODY_TO = 4;
+    private final static int BODY_RESULTS = 5;
+    
+    private final static MethodType UNARY = MethodType.methodType(double.class, double.class);
+    private final static MethodType BINARY = MethodType.methodType(double.class, double.class, double.class);
+    
+    private final static MethodHandle LOAD;
+    private final static MethodHandle STORE;
+    private final static MethodHandle[] OPERATIONS = new MethodHandle[CEIL + 1];
+    private final static MethodHandle[] ERRORS = new MethodHandle[CEIL + 1];
+    private final static MethodHandle IS_RELIABLE;
+    private final static MethodHandle FALLBACK;
+    
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            LOAD = lookup.findStatic(ExpressionCompiler.class, "load", 
+                    MethodType.methodType(double.class, double[].class, int.class, int.class, int.class));
+            STORE = lookup.findStatic(ExpressionCompiler.class, "store", 
+                    MethodType.methodType(void.class, double[].class, int.class, int.class, int.class, double.class));
+            IS_RELIABLE = lookup.findStatic(ExpressionProgram.class, "isReliable", 
+                    MethodType.methodType(boolean.class, double.class, double.class, double.class));
+            FALLBACK = lookup.findVirtual(ExpressionProgram.class, "fallback", 
+                    MethodType.methodType(void.class, double[].class, int.class, int.class, double[].class));
+            OPERATIONS[PLUS] = lookup.findStatic(ExpressionCompiler.class, "add", BINARY);
+            OPERATIONS[MINUS] = lookup.findStatic(ExpressionCompiler.class, "subtract", BINARY);
+            OPERATIONS[TIMES] = lookup.findStatic(ExpressionCompiler.class, "multiply", BINARY);
+            OPERATIONS[DIVIDE] = lookup.findStatic(ExpressionCompiler.class, "divide", BINARY);
+            OPERATIONS[NEGATE] = lookup.findStatic(ExpressionCompiler.class, "negate", UNARY);
+            OPERATIONS[SQRT] = lookup.findStatic(Math.class, "sqrt", UNARY);
+            OPERATIONS[CEIL] = lookup.findStatic(Math.class, "ceil", UNARY);
+            // errors of binary operations: (a, ea, b, eb, result); of unary ones: (a, ea, result)
+            MethodHandle plusError = lookup.findStatic(ExpressionProgram.class, "plusError", 
+                    MethodType.methodType(double.class, double.class, double.class, double.class));
+            ERRORS[PLUS] = MethodHandles.dropArguments(
+                    MethodHandles.dropArguments(plusError, 0, double.class), 2, double.class);
+            ERRORS[MINUS] = ERRORS[PLUS];
+            MethodType binaryError = MethodType.methodType(double.class, double.class, double.class, double.class, double.class, double.class);
+            ERRORS[TIMES] = lookup.findStatic(ExpressionProgram.class, "timesError", binaryError);
+            ERRORS[DIVIDE] = lookup.findStatic(ExpressionProgram.class, "divideError", binaryError);
+            MethodType unaryError = MethodType.methodType(double.class, double.class, double.class, double.class);
+            ERRORS[NEGATE] = MethodHandles.dropArguments(
+                    MethodHandles.dropArguments(MethodHandles.identity(double.class), 0, double.class), 2, double.class);
+            ERRORS[SQRT] = lookup.findStatic(ExpressionProgram.class, "sqrtError", unaryError);
+            ERRORS[CEIL] = lookup.findStatic(ExpressionProgram.class, "ceilError", unaryError);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private ExpressionCompiler() {}
+    
+    private static double load(double[] samples, int numberSamples, int sample, int variable) {
+        return samples[variable * numberSamples + sample];
+    }
+    
+    private static void store(double[] results, int numberSamples, int sample, int expression, double value) {
+        results[expression * numberSamples + sample] = value;
+    }
+    
+    private static double negate(double a) {
+        return -a;
+    }
+    
+    private static double add(double a, double b) {
+        return a + b;
+    }
+    
+    private static double subtract(double a, double b) {
+        return a - b;
+    }
+    
+    private static double multiply(double a, double b) {
+        return a * b;
+    }
+    
+    private static double divide(double a, double b) {
+        return a / b;
+    }
+    
+    /**
+     * Compiles the given program.
+     * 
+     * @param program
+     *            the program to compile
+     * @return the handle evaluating the program, or {@code null} if the
+     *         program is too large to be compiled
+     */
+    static MethodHandle compile(ExpressionProgram program) {
+        int size = program.size();
+        int[] outputs = program.getOutputs();
+        if (size > MAXIMUM_SIZE || outputs.length > MAXIMUM_OUTPUTS) {
+            return null;
+        }
+        
+        // the body after all instructions: store the values, then check them
+        MethodType type = type(void.class, size);
+        MethodHandle body = checkOutputs(program, size);
+        for (int index = 0; index < outputs.length; index++) {
+            MethodHandle store = MethodHandles.insertArguments(STORE, 3, index);
+            body = MethodHandles.foldArguments(body, bind(store, type, 
+                    body(size, BODY_RESULTS), body(size, BODY_NUMBER_SAMPLES), body(size, BODY_SAMPLE), 
+                    value(size, outputs[index])));
+        }
+        
+        // bind the instructions, from the last one to the first one
+        for (int slot = size - 1; slot >= 0; slot--) {
+            body = MethodHandles.foldArguments(body, errorOf(program, slot));
+            body = MethodHandles.foldArguments(body, valueOf(program, slot));
+        }
+        
+        MethodType bounds = MethodType.methodType(int.class, BODY.subList(1, BODY.size()));
+        MethodHandle from = bind(MethodHandles.identity(int.class), bounds, BODY_FROM - 1);
+        MethodHandle to = bind(MethodHandles.identity(int.class), bounds, BODY_TO - 1);
+        return MethodHandles.countedLoop(from, to, null, body);
+    }
+    
+    /**
+     * @return the handle checking the values of the expressions and falling
+     *         back to arbitrary precision for the sample when some of them
+     *         is not reliable, taking the arguments of the body with all 
+     *         {@code size} instructions bound
+     */
+    private static MethodHandle checkOutputs(ExpressionProgram program, int size) {
+        MethodType type = type(void.class, size);
+        MethodHandle fallback = bind(FALLBACK.bindTo(program), type, 
+                body(size, BODY_SAMPLES), body(size, BODY_NUMBER_SAMPLES), body(size, BODY_SAMPLE), body(size, BODY_RESULTS));
+        MethodHandle isReliable = MethodHandles.insertArguments(IS_RELIABLE, 2, program.getTolerance());
+        MethodHandle check = MethodHandles.empty(type);
+        int[] outputs = program.getOutputs();
+        for (int index = outputs.length - 1; index >= 0; index--) {
+            MethodHandle test = bind(isReliable, type(boolean.class, size), 
+                    value(size, outputs[index]), error(size, outputs[index]));
+            check = MethodHandles.guardWithTest(test, check, fallback);
+        }
+        return check;
+    }
+    
+    /**
+     * @return the handle computing the value of the instruction in the given
+     *         slot, taking the arguments of the body with the previous 
+     *         instructions bound
+     */
+    private static MethodHandle valueOf(ExpressionProgram program, int slot) {
+        MethodType type = type(double.class, slot);
+        int operation = program.getOperation(slot);
+        switch (operation) {
+        case CONSTANT:
+            return bind(MethodHandles.constant(double.class, program.getConstantValue(slot)), type);
+        case VARIABLE:
+            return bind(MethodHandles.insertArguments(LOAD, 3, program.getFirstOperand(slot)), type, 
+                    body(slot, BODY_SAMPLES), body(slot, BODY_NUMBER_SAMPLES), body(slot, BODY_SAMPLE));
+        case NEGATE:
+        case SQRT:
+        case CEIL:
+            return bind(OPERATIONS[operation], type, value(slot, program.getFirstOperand(slot)));
+        default:
+            return bind(OPERATIONS[operation], type, 
+                    value(slot, program.getFirstOperand(slot)), value(slot, program.getSecondOperand(slot)));
+        }
+    }
+    
+    /**
+     * @return the handle computing the error bound of the instruction in the
+     *         given slot, taking its value followed by the arguments of the 
+     *         body with the previous instructions bound
+     */
+    private static MethodHandle errorOf(ExpressionProgram program, int slot) {
+        MethodType type = type(double.class, slot).insertParameterTypes(0, double.class);
+        int operation = program.getOperation(slot);
+        // the positions are shifted by the value of the instruction
+        int first = 1 + value(slot, program.getFirstOperand(slot));
+        int firstError = 1 + error(slot, program.getFirstOperand(slot));
+        switch (operation) {
+        case CONSTANT:
+            return bind(MethodHandles.constant(double.class, program.getConstantError(slot)), type);
+        case VARIABLE:
+            return bind(MethodHandles.constant(double.class, 0.0), type);
+        case NEGATE:
+        case SQRT:
+        case CEIL:
+            return bind(ERRORS[operation], type, first, firstError, 0);
+        default:
+            int second = 1 + value(slot, program.getSecondOperand(slot));
+            int secondError = 1 + error(slot, program.getSecondOperand(slot));
+            return bind(ERRORS[operation], type, first, firstError, second, secondError, 0);
+        }
+    }
+    
+    /**
+     * Adapts the given handle to the given type, passing it the arguments at
+     * the given positions and ignoring the other ones.
+     */
+    private static MethodHandle bind(MethodHandle handle, MethodType type, int... positions) {
+        return MethodHandles.permuteArguments(handle, type, positions);
+    }
+    
+    /**
+     * @return the type of a handle taking the arguments of the body with 
+     *         {@code slots} bound instructions: the error bound and the value
+     *         of each instruction, from the last one to the first one, 
+     *         followed by the arguments of the loop body
+     */
+    private static MethodType type(Class<?> returnType, int slots) {
+        List<Class<?>> parameters = new ArrayList<>(2 * slots + BODY.size());
+        for (int slot = 0; slot < 2 * slots; slot++) {
+            parameters.add(double.class);
+        }
+        parameters.addAll(BODY);
+        return MethodType.methodType(returnType, parameters);
+    }
+    
+    /**
+     * @return the position of the value of the instruction in the given slot
+     *         among the arguments of the body with {@code slots} bound
+     *         instructions
+     */
+    private static int value(int slots, int slot) {
+        return 2 * (slots - 1 - slot) + 1;
+    }
+    
+    /**
+     * @return the position of the error bound of the instruction in the
+     *         given slot among the arguments of the body with {@code slots}
+     *         bound instructions
+     */
+    private static int error(int slots, int slot) {
+        return 2 * (slots - 1 - slot);
+    }
+    
+    /**
+     * @return the position of the given argument of the loop body among the
+     *         arguments of the body with {@code slots} bound instructions
+     */
+    private static int body(int slots, int argument) {
+        return 2 * slots + argument;
+    }
+}
@@ -43,6 +43,11 @@ public class ExpressionNumber implements Expression {
         return numberValue;
     }
 
+    @Override
+    public int appendTo(ExpressionProgram program) {
+        return program.constant(numberValue);
+    }
+
     @Override
     public String getLatexExpression() {
         return number;
@@ -0,0 +1,660 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.function.expression;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import pacpma.algebra.Variable;
+import pacpma.options.OptionsPacPMA;
+import pacpma.util.VectorKernels;
+
+/**
+ * A straight-line program evaluating several expressions at once. Each
+ * instruction computes the value of a node into its own slot; identical
+ * subexpressions, also across different expressions, are mapped to the same
+ * instruction, so they are evaluated only once for each point, and 
+ * instructions whose operands are constant are folded into constants.
+ * Commutative operations are normalized, so {@code p*q} and {@code q*p} 
+ * share the same instruction.
+ * <p>
+ * The evaluation in double precision propagates a bound on the rounding 
+ * error and falls back to {@link BigDecimal} only for the points where the 
+ * bound shows that the double values are not reliable. It is compiled by
+ * {@link ExpressionCompiler} into a single method handle, so it costs about
+ * as much as handwritten code; programs too large to be compiled are
+ * interpreted one instruction at a time on chunks of samples.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class ExpressionProgram {
+    static final int CONSTANT = 0;
+    static final int VARIABLE = 1;
+    static final int PLUS = 2;
+    static final int MINUS = 3;
+    static final int TIMES = 4;
+    static final int DIVIDE = 5;
+    static final int NEGATE = 6;
+    static final int SQRT = 7;
+    static final int CEIL = 8;
+    
+    private int size = 0;
+    private int[] operations = new int[16];
+    private int[] firstOperands = new int[16];
+    private int[] secondOperands = new int[16];
+    private BigDecimal[] constants = new BigDecimal[16];
+    private double[] constantValues = new double[16];
+    private double[] constantErrors = new double[16];
+    
+    /** The instructions already in the program, for sharing */
+    private final Map<Instruction, Integer> instructions = new HashMap<>();
+    
+    /** The slots holding the values of the expressions */
+    private final int[] outputs;
+    
+    /** The compiled evaluation in double precision, or {@code null} if the program is too large */
+    private final MethodHandle compiled;
+    
+    /** The number of nodes in the expressions, before sharing and folding */
+    private int numberNodes = 0;
+    
+    private final MathContext mc = new MathContext(OptionsPacPMA.getExpressionPrecision());
+    
+    /** The unit roundoff of double precision */
+    private static final double UNIT_ROUNDOFF = 0x1.0p-53;
+    
+    private final double tolerance = OptionsPacPMA.getExpressionTolerance();
+    
+    /** The precision used when the double values are not reliable */
+    private final MathContext fallbackMc = new MathContext(
+            Math.max(OptionsPacPMA.getExpressionPrecision(), MathContext.DECIMAL128.getPrecision()));
+    
+    /** The number of samples evaluated together by the instructions */
+    private static final int CHUNK_LENGTH = 128;
+    
+    private final AtomicLong numberEvaluations = new AtomicLong();
+    private final AtomicLong numberFallbacks = new AtomicLong();
+    
+    /**
+     * Creates the program evaluating the given expressions.
+     * 
+     * @param expressions
+     *            the expressions
+     * @throws UnsupportedOperationException
+     *             if an expression contains an undefined identifier
+     */
+    public ExpressionProgram(List<? extends Expression> expressions) {
+        outputs = new int[expressions.size()];
+        for (int index = 0; index < outputs.length; index++) {
+            outputs[index] = expressions.get(index).appendTo(this);
+        }
+        compiled = ExpressionCompiler.compile(this);
+    }
+    
+    private static class Instruction {
+        private final int operation;
+        private final int firstOperand;
+        private final int secondOperand;
+        private final BigDecimal constant;
+        
+        Instruction(int operation, int firstOperand, int secondOperand, BigDecimal constant) {
+            this.operation = operation;
+            this.firstOperand = firstOperand;
+            this.secondOperand = secondOperand;
+            this.constant = constant;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(operation, firstOperand, secondOperand, constant);
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof Instruction) {
+                Instruction instruction = (Instruction) other;
+                return operation == instruction.operation
+                        && firstOperand == instruction.firstOperand
+                        && secondOperand == instruction.secondOperand
+                        && Objects.equals(constant, instruction.constant);
+            }
+            return false;
+        }
+    }
+    
+    private int append(int operation, int firstOperand, int secondOperand, BigDecimal constant) {
+        numberNodes++;
+        Instruction instruction = new Instruction(operation, firstOperand, secondOperand, constant);
+        Integer slot = instructions.get(instruction);
+        if (slot != null) {
+            return slot;
+        }
+        if (size == operations.length) {
+            int capacity = 2 * size;
+            operations = Arrays.copyOf(operations, capacity);
+            firstOperands = Arrays.copyOf(firstOperands, capacity);
+            secondOperands = Arrays.copyOf(secondOperands, capacity);
+            constants = Arrays.copyOf(constants, capacity);
+            constantValues = Arrays.copyOf(constantValues, capacity);
+            constantErrors = Arrays.copyOf(constantErrors, capacity);
+        }
+        operations[size] = operation;
+        firstOperands[size] = firstOperand;
+        secondOperands[size] = secondOperand;
+        constants[size] = constant;
+        constantValues[size] = (constant == null) ? 0.0 : constant.doubleValue();
+        constantErrors[size] = (constant == null || !Double.isFinite(constantValues[size]) 
+                || new BigDecimal(constantValues[size]).compareTo(constant) == 0) 
+                ? 0.0 : UNIT_ROUNDOFF * Math.abs(constantValues[size]);
+        instructions.put(instruction, size);
+        return size++;
+    }
+    
+    /**
+     * Appends a constant.
+     * 
+     * @param value
+     *            the value of the constant
+     * @return the slot of the constant
+     */
+    int constant(BigDecimal value) {
+        BigDecimal normalized = value.stripTrailingZeros();
+        return append(CONSTANT, -1, -1, normalized);
+    }
+    
+    /**
+     * Appends a variable.
+     * 
+     * @param index
+     *            the index of the variable in {@link Variable#getVariables()}
+     * @return the slot of the variable
+     */
+    int variable(int index) {
+        return append(VARIABLE, index, -1, null);
+    }
+    
+    /**
+     * Appends a unary operation, folding it when its operand is constant.
+     * 
+     * @param operation
+     *            the operation
+     * @param operand
+     *            the slot of the operand
+     * @return the slot of the result
+     */
+    int unary(int operation, int operand) {
+        if (operations[operand] == CONSTANT) {
+            try {
+                BigDecimal[] slots = new BigDecimal[size];
+                slots[operand] = constants[operand];
+                return constant(apply(operation, slots, operand, -1, mc));
+            } catch (ArithmeticException ae) {
+                // e.g., square root of a negative number: left to the evaluation
+            }
+        }
+        return append(operation, operand, -1, null);
+    }
+    
+    /**
+     * Appends a binary operation, folding it when its operands are constant.
+     * 
+     * @param operation
+     *            the operation
+     * @param left
+     *            the slot of the left operand
+     * @param right
+     *            the slot of the right operand
+     * @return the slot of the result
+     */
+    int binary(int operation, int left, int right) {
+        if (operations[left] == CONSTANT && operations[right] == CONSTANT) {
+            try {
+                BigDecimal[] slots = new BigDecimal[size];
+                slots[left] = constants[left];
+                slots[right] = constants[right];
+                return constant(apply(operation, slots, left, right, mc));
+            } catch (ArithmeticException ae) {
+                // division by zero: left to the evaluation
+            }
+        }
+        if ((operation == PLUS || operation == TIMES) && left > right) {
+            int swap = left;
+            left = right;
+            right = swap;
+        }
+        return append(operation, left, right, null);
+    }
+    
+    private static BigDecimal apply(int operation, BigDecimal[] slots, int first, int second, MathContext mc) {
+        switch (operation) {
+        case PLUS:
+            return slots[first].add(slots[second]);
+        case MINUS:
+            return slots[first].subtract(slots[second]);
+        case TIMES:
+            return slots[first].multiply(slots[second]);
+        case DIVIDE:
+            return slots[first].divide(slots[second], mc);
+        case NEGATE:
+            return slots[first].negate();
+        case SQRT:
+            return slots[first].sqrt(mc);
+        case CEIL:
+            return slots[first].setScale(0, RoundingMode.CEILING);
+        default:
+            throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+    
+    /**
+     * @return the number of instructions of this program
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * @return the number of nodes of the expressions, before sharing and 
+     *         folding
+     */
+    public int getNumberNodes() {
+        return numberNodes;
+    }
+    
+    /**
+     * @return whether the evaluation in double precision is compiled
+     */
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+    
+    int getOperation(int slot) {
+        return operations[slot];
+    }
+    
+    int getFirstOperand(int slot) {
+        return firstOperands[slot];
+    }
+    
+    int getSecondOperand(int slot) {
+        return secondOperands[slot];
+    }
+    
+    double getConstantValue(int slot) {
+        return constantValues[slot];
+    }
+    
+    double getConstantError(int slot) {
+        return constantErrors[slot];
+    }
+    
+    int[] getOutputs() {
+        return outputs;
+    }
+    
+    double getTolerance() {
+        return tolerance;
+    }
+    
+    /**
+     * @return the number of points evaluated so far in double precision
+     */
+    public long getNumberEvaluations() {
+        return numberEvaluations.get();
+    }
+    
+    /**
+     * @return the number of points evaluated so far in double precision whose
+     *         values have been evaluated again with arbitrary precision
+     */
+    public long getNumberFallbacks() {
+        return numberFallbacks.get();
+    }
+    
+    /**
+     * Evaluates the expressions with respect to the given values of the
+     * variables.
+     * 
+     * @param values
+     *            the values of the variables, in the order of
+     *            {@link Variable#getVariables()}
+     * @return the values of the expressions
+     * @throws UnsupportedOperationException
+     *             if the value of a variable used by the expressions is missing
+     */
+    public BigDecimal[] evaluate(BigDecimal[] values) {
+        return evaluate(values, mc);
+    }
+    
+    private BigDecimal[] evaluate(BigDecimal[] values, MathContext mc) {
+        BigDecimal[] slots = new BigDecimal[size];
+        for (int slot = 0; slot < size; slot++) {
+            switch (operations[slot]) {
+            case CONSTANT:
+                slots[slot] = constants[slot];
+                break;
+            case VARIABLE:
+                slots[slot] = values[firstOperands[slot]];
+                if (slots[slot] == null) {
+                    throw new UnsupportedOperationException("Undefined identifier " 
+                            + Variable.getVariables().get(firstOperands[slot]).getName());
+                }
+                break;
+            default:
+                slots[slot] = apply(operations[slot], slots, firstOperands[slot], secondOperands[slot], mc);
+            }
+        }
+        BigDecimal[] results = new BigDecimal[outputs.length];
+        for (int index = 0; index < outputs.length; index++) {
+            results[index] = slots[outputs[index]];
+        }
+        return results;
+    }
+    
+    /**
+     * Evaluates the expressions with respect to the given values of the
+     * variables, in double precision; values not meeting the tolerance are
+     * evaluated again with arbitrary precision, as in 
+     * {@link #evaluate(double[], int, int, int, double[])}.
+     * 
+     * @param values
+     *            the values of the variables, in the order of
+     *            {@link Variable#getVariables()}
+     * @return the values of the expressions
+     */
+    public double[] evaluate(double[] values) {
+        double[] results = new double[outputs.length];
+        // a single point is a batch with one sample
+        evaluate(values, 1, 0, 1, results);
+        return results;
+    }
+    
+    /**
+     * Evaluates the expressions in double precision for the samples from 
+     * {@code from} (inclusive) to {@code to} (exclusive) of a batch of samples,
+     * given as in
+     * {@link pacpma.algebra.TemplateFunction#evaluate(double[], int, double[])};
+     * the value of the expression {@code k} for the sample {@code s} is stored
+     * in {@code results[k * numberSamples + s]}. When the program is not
+     * compiled, each instruction is executed on a chunk of samples through
+     * {@link VectorKernels}.
+     * <p>
+     * Together with the values, a bound on their rounding error is propagated
+     * through the instructions; the samples for which the bound of some
+     * expression exceeds {@link OptionsPacPMA#getExpressionTolerance()}, 
+     * relatively to the value (or absolutely, for values smaller than 1), are
+     * evaluated again in {@link BigDecimal}, with at least the precision of 
+     * {@link MathContext#DECIMAL128}. Non-finite values are kept as they are.
+     * 
+     * @param samples
+     *            the values of the variables
+     * @param numberSamples
+     *            the number of samples in the batch
+     * @param from
+     *            the first sample to evaluate
+     * @param to
+     *            the sample after the last one to evaluate
+     * @param results
+     *            the array receiving the values
+     */
+    public void evaluate(double[] samples, int numberSamples, int from, int to, double[] results) {
+        if (compiled != null) {
+            try {
+                compiled.invokeExact(samples, numberSamples, from, to, results);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        } else {
+            int chunkLength = Math.min(CHUNK_LENGTH, to - from);
+            boolean[] unreliable = new boolean[chunkLength];
+            double[] slots = new double[size * chunkLength];
+            double[] errors = new double[size * chunkLength];
+            for (int chunk = from; chunk < to; chunk += chunkLength) {
+                int chunkTo = Math.min(chunk + chunkLength, to);
+                interpret(samples, numberSamples, chunk, chunkTo, slots, errors);
+                int length = chunkTo - chunk;
+                for (int index = 0; index < outputs.length; index++) {
+                    System.arraycopy(slots, outputs[index] * length, results, index * numberSamples + chunk, length);
+                }
+                check(samples, numberSamples, chunk, chunkTo, results, errors, unreliable);
+            }
+        }
+        numberEvaluations.addAndGet(to - from);
+    }
+    
+    /**
+     * Executes the instructions on a chunk of samples, short enough for the
+     * values and the error bounds of all instructions to stay in the cache.
+     */
+    private void interpret(double[] samples, int numberSamples, int from, int to, double[] slots, double[] errors) {
+        int length = to - from;
+        for (int slot = 0; slot < size; slot++) {
+            int offset = slot * length;
+            int first = firstOperands[slot] * length;
+            int second = secondOperands[slot] * length;
+            switch (operations[slot]) {
+            case CONSTANT:
+                Arrays.fill(slots, offset, offset + length, constantValues[slot]);
+                Arrays.fill(errors, offset, offset + length, constantErrors[slot]);
+                break;
+            case VARIABLE:
+                System.arraycopy(samples, firstOperands[slot] * numberSamples + from, slots, offset, length);
+                break;
+            case PLUS:
+                VectorKernels.add(slots, first, slots, second, slots, offset, length);
+                break;
+            case MINUS:
+                VectorKernels.subtract(slots, first, slots, second, slots, offset, length);
+                break;
+            case TIMES:
+                VectorKernels.multiply(slots, first, slots, second, slots, offset, length);
+                break;
+            case DIVIDE:
+                VectorKernels.divide(slots, first, slots, second, slots, offset, length);
+                break;
+            case NEGATE:
+                VectorKernels.negate(slots, first, slots, offset, length);
+                break;
+            case SQRT:
+                VectorKernels.sqrt(slots, first, slots, offset, length);
+                break;
+            case CEIL:
+                VectorKernels.ceil(slots, first, slots, offset, length);
+                break;
+            }
+            if (operations[slot] > VARIABLE) {
+                propagateErrors(operations[slot], slots, errors, first, second, offset, length);
+            }
+        }
+    }
+    
+    /**
+     * Checks the values of the expressions already stored in {@code results}
+     * for the samples from {@code from} to {@code to} against their error 
+     * bounds, and evaluates again with arbitrary precision the samples with
+     * some unreliable value.
+     */
+    private void check(double[] samples, int numberSamples, int from, int to, double[] results,
+            double[] errors, boolean[] unreliable) {
+        int length = to - from;
+        boolean anyUnreliable = false;
+        for (int index = 0; index < outputs.length; index++) {
+            int offset = index * numberSamples + from;
+            int errorOffset = outputs[index] * length;
+            for (int sample = 0; sample < length; sample++) {
+                if (!isReliable(results[offset + sample], errors[errorOffset + sample], tolerance)) {
+                    unreliable[sample] = true;
+                    anyUnreliable = true;
+                }
+            }
+        }
+        if (anyUnreliable) {
+            for (int sample = 0; sample < length; sample++) {
+                if (unreliable[sample]) {
+                    unreliable[sample] = false;
+                    fallback(samples, numberSamples, from + sample, results);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Evaluates again the given sample with arbitrary precision, replacing the
+     * double values already stored in {@code results}; they are kept when the
+     * evaluation fails, e.g., because of a division by zero.
+     */
+    void fallback(double[] samples, int numberSamples, int sample, double[] results) {
+        numberFallbacks.incrementAndGet();
+        int numberVariables = Variable.getVariables().size();
+        BigDecimal[] values = new BigDecimal[numberVariables];
+        for (int var = 0; var < numberVariables; var++) {
+            // the double is converted exactly
+            values[var] = new BigDecimal(samples[var * numberSamples + sample]);
+        }
+        try {
+            BigDecimal[] exact = evaluate(values, fallbackMc);
+            for (int index = 0; index < outputs.length; index++) {
+                results[index * numberSamples + sample] = exact[index].doubleValue();
+            }
+        } catch (ArithmeticException ae) {
+            // e.g., division by zero: the double values are the best available
+        }
+    }
+    
+    /**
+     * Checks whether the given value meets the tolerance, that is, whether
+     * its error bound is at most {@code tolerance} times its absolute value,
+     * or {@code tolerance} for values smaller than 1; non-finite values are
+     * always reliable.
+     */
+    static boolean isReliable(double value, double error, double tolerance) {
+        // the same as error ≤ tolerance * max(1, |value|), without branching on the maximum
+        return error <= tolerance || error <= tolerance * Math.abs(value) || !Double.isFinite(value);
+    }
+    
+    /**
+     * Computes the bounds on the absolute error of the results of an 
+     * instruction, given the values and the bounds of its operands, by 
+     * standard forward error analysis; each operation in double precision 
+     * adds at most {@link #UNIT_ROUNDOFF} times the absolute value of its 
+     * result.
+     */
+    private static void propagateErrors(int operation, double[] slots, double[] errors,
+            int first, int second, int offset, int length) {
+        switch (operation) {
+        case PLUS:
+        case MINUS:
+            for (int i = 0; i < length; i++) {
+                errors[offset + i] = plusError(errors[first + i], errors[second + i], slots[offset + i]);
+            }
+            break;
+        case TIMES:
+            for (int i = 0; i < length; i++) {
+                errors[offset + i] = timesError(slots[first + i], errors[first + i], 
+                        slots[second + i], errors[second + i], slots[offset + i]);
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                errors[offset + i] = divideError(slots[first + i], errors[first + i], 
+                        slots[second + i], errors[second + i], slots[offset + i]);
+            }
+            break;
+        case NEGATE:
+            System.arraycopy(errors, first, errors, offset, length);
+            break;
+        case SQRT:
+            for (int i = 0; i < length; i++) {
+                errors[offset + i] = sqrtError(slots[first + i], errors[first + i], slots[offset + i]);
+            }
+            break;
+        case CEIL:
+            for (int i = 0; i < length; i++) {
+                errors[offset + i] = ceilError(slots[first + i], errors[first + i], slots[offset + i]);
+            }
+            break;
+        default:
+            throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+    
+    /**
+     * @return the error bound of the sum or difference {@code result} of two
+     *         operands with error bounds {@code ea} and {@code eb}
+     */
+    static double plusError(double ea, double eb, double result) {
+        return ea + eb + UNIT_ROUNDOFF * Math.abs(result);
+    }
+    
+    /**
+     * @return the error bound of the product {@code result} of {@code a} and
+     *         {@code b}, with error bounds {@code ea} and {@code eb}
+     */
+    static double timesError(double a, double ea, double b, double eb, double result) {
+        return Math.abs(a) * eb + Math.abs(b) * ea + ea * eb + UNIT_ROUNDOFF * Math.abs(result);
+    }
+    
+    /**
+     * @return the error bound of the quotient {@code result} of {@code a} and
+     *         {@code b}, with error bounds {@code ea} and {@code eb}
+     */
+    static double divideError(double a, double ea, double b, double eb, double result) {
+        double absB = Math.abs(b);
+        if (absB <= eb) {
+            // the divisor might be zero
+            return Double.POSITIVE_INFINITY;
+        }
+        return (Math.abs(a) * eb + absB * ea) / (absB * (absB - eb)) + UNIT_ROUNDOFF * Math.abs(result);
+    }
+    
+    /**
+     * @return the error bound of the square root {@code result} of {@code a},
+     *         with error bound {@code ea}
+     */
+    static double sqrtError(double a, double ea, double result) {
+        if (ea == 0.0) {
+            return UNIT_ROUNDOFF * result;
+        }
+        // |√x - √y| ≤ min(√|x - y|, |x - y| / (√x + √y))
+        return Math.min(Math.sqrt(ea), ea / (result + Math.sqrt(Math.max(a - ea, 0.0)))) + UNIT_ROUNDOFF * result;
+    }
+    
+    /**
+     * @return the error bound of the ceiling {@code result} of {@code a},
+     *         with error bound {@code ea}
+     */
+    static double ceilError(double a, double ea, double result) {
+        // the result is exact, unless the operand is close to an integer, 
+        // that is, unless ceil(a - ea) or ceil(a + ea) differ from ceil(a)
+        return (ea == 0.0 || (a + ea <= result && a - ea > result - 1.0)) ? 0.0 : Double.POSITIVE_INFINITY;
+    }
+}
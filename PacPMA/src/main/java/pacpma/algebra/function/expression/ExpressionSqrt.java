@@ -44,6 +44,11 @@ public class ExpressionSqrt implements Expression {
         return inner.evaluate(values).sqrt(mc);
     }
 
+    @Override
+    public int appendTo(ExpressionProgram program) {
+        return program.unary(ExpressionProgram.SQRT, inner.appendTo(program));
+    }
+
     @Override
     public String getLatexExpression() {
         return "\\sqrt{" + inner.getLatexExpression() + "}";
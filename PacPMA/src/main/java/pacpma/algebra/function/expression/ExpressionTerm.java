@@ -62,6 +62,11 @@ public class ExpressionTerm implements Expression {
         return expression.evaluate(values);
     }
 
+    @Override
+    public int appendTo(ExpressionProgram program) {
+        return expression.appendTo(program);
+    }
+
     @Override
     public String getLatexExpression() {
         return expression.getLatexExpression();
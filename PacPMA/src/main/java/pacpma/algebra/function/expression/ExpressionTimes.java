@@ -0,0 +1,68 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.function.expression;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import pacpma.algebra.Variable;
+
+/**
+ * The product of two expressions.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class ExpressionTimes implements Expression {
+    private final Expression left;
+    private final Expression right;
+    
+    public ExpressionTimes(Expression left, Expression right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public BigDecimal evaluate(Map<Variable, BigDecimal> values) {
+        return left.evaluate(values).multiply(right.evaluate(values));
+    }
+
+    @Override
+    public int appendTo(ExpressionProgram program) {
+        return program.binary(ExpressionProgram.TIMES, left.appendTo(program), right.appendTo(program));
+    }
+
+    @Override
+    public String getLatexExpression() {
+        return "(" + left.getLatexExpression() + " \\cdot " + right.getLatexExpression() + ")";
+    }
+
+    @Override
+    public String getMathExpression() {
+        return "(" + left.getMathExpression() + " * " + right.getMathExpression() + ")";
+    }
+
+    @Override
+    public String getMatlabExpression() {
+        return "(" + left.getMatlabExpression() + " .* " + right.getMatlabExpression() + ")";
+    }
+
+}
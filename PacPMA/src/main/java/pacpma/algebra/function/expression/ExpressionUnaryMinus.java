@@ -0,0 +1,66 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.function.expression;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import pacpma.algebra.Variable;
+
+/**
+ * The negation of an expression.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class ExpressionUnaryMinus implements Expression {
+    private final Expression inner;
+    
+    public ExpressionUnaryMinus(Expression inner) {
+        this.inner = inner;
+    }
+
+    @Override
+    public BigDecimal evaluate(Map<Variable, BigDecimal> values) {
+        return inner.evaluate(values).negate();
+    }
+
+    @Override
+    public int appendTo(ExpressionProgram program) {
+        return program.unary(ExpressionProgram.NEGATE, inner.appendTo(program));
+    }
+
+    @Override
+    public String getLatexExpression() {
+        return "(-" + inner.getLatexExpression() + ")";
+    }
+
+    @Override
+    public String getMathExpression() {
+        return "(-" + inner.getMathExpression() + ")";
+    }
+
+    @Override
+    public String getMatlabExpression() {
+        return "(-" + inner.getMatlabExpression() + ")";
+    }
+
+}
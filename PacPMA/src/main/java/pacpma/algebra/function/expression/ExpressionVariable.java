@@ -35,6 +35,7 @@ public class ExpressionVariable implements Expression {
     private final String identifier;
     private final BigDecimal constantValue;
     private final Variable variable;
+    private final int variableIndex;
     
     public ExpressionVariable(String identifier) {
         this.identifier = identifier;
@@ -47,6 +48,7 @@ public class ExpressionVariable implements Expression {
             }
         }
         variable = var;
+        variableIndex = Variable.getVariables().indexOf(var);
         
         BigDecimal cv = null;
         for (Constant c : OptionsPacPMA.getConstants()) {
@@ -73,6 +75,16 @@ public class ExpressionVariable implements Expression {
         throw new UnsupportedOperationException("Undefined identifier " + identifier);
     }
 
+    @Override
+    public int appendTo(ExpressionProgram program) {
+        if (constantValue != null) {
+            return program.constant(constantValue);
+        } else if (variable != null) {
+            return program.variable(variableIndex);
+        }
+        throw new UnsupportedOperationException("Undefined identifier " + identifier);
+    }
+
     @Override
     public String getLatexExpression() {
         return "\\mathit{" + identifier + "}";
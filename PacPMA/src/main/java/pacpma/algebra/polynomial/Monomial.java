@@ -1,7 +1,7 @@
 /****************************************************************************
 
     PacPMA - the PAC-based Parametric Model Analyzer
-    Copyright (C) 2023
+    Copyright (C) 2025
 
     This program is free software: you can redistribute it and/or modify
     it under the terms of the GNU General Public License as published by
@@ -21,16 +21,14 @@
 package pacpma.algebra.polynomial;
 
 import java.math.BigDecimal;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import pacpma.algebra.Variable;
 
 /**
- * A class representing a monomial, with variables taken from
+ * Formatting of monomials, each one given by the exponents of the variables in
+ * the order of an array of variables, and of the corresponding products of
+ * the polynomials of a {@link PolynomialBasis}. The strings are generated on
+ * demand, so no object is kept for each monomial.
  * 
  * @author Andrea Turrini
  *
@@ -38,159 +36,45 @@ import pacpma.algebra.Variable;
 class Monomial {
     
     private static final char[] superscriptDigits = new char[] {'⁰','¹','²','³','⁴','⁵','⁶','⁷','⁸', '⁹'};
+    private static final char[] subscriptDigits = new char[] {'₀','₁','₂','₃','₄','₅','₆','₇','₈', '₉'};
 
-    /** We keep only one monomial with degree zero */
-    private static Monomial zeroDegreeMonomial = null;
+    private Monomial() {}
 
-    /** Used to fix variable order for generating */
-    private static Variable[] variablesMonomial = null;
-
-    /** Mapping each variable in the monomial to its exponent */
-    private final Map<Variable, Integer> exponents;
-
-    private final String latexExpression;
-
-    private final String mathExpression;
-
-    private final String matlabExpression;
-
-    private final String namedCoefficient;
-
-    /**
-     * Generates the monomial with degree zero
-     */
-    private Monomial() {
-        exponents = new HashMap<>();
-
-        for (Variable v : variablesMonomial) {
-            exponents.put(v, 0);
-        }
-        latexExpression = __getLatexExpression();
-        mathExpression = __getMathExpression();
-        matlabExpression = __getMatlabExpression();
-        namedCoefficient = __getNamedCoefficient();
-    }
-
-    private Monomial(Monomial m, Variable v) {
-        exponents = new HashMap<>();
-        for (Entry<Variable, Integer> entry : m.exponents.entrySet()) {
-            Variable var = entry.getKey();
-            Integer exp = entry.getValue() + (var.equals(v) ? 1 : 0);
-            exponents.put(var, exp);
-        }
-        latexExpression = __getLatexExpression();
-        mathExpression = __getMathExpression();
-        matlabExpression = __getMatlabExpression();
-        namedCoefficient = __getNamedCoefficient();
-    }
-
-    /**
-     * Initialize the monomials that can be generated, by providing the variables
-     * that can be used in the monomial. Successive invocations of this method are
-     * ignored, even if different variables are provided.
-     * 
-     * @param variables
-     *            the variables that can be used in the monomial
-     * @return the monomial with all variables with exponent set to zero
-     */
-    static void initializeMonomial(List<Variable> variables) {
-        if (zeroDegreeMonomial == null) {
-            variablesMonomial = new Variable[variables.size()];
-            int i = 0;
-            for (Variable v : variables) {
-                variablesMonomial[i++] = v;
-            }
-            zeroDegreeMonomial = new Monomial();
-        }
-    }
-
-    /**
-     * Get the monomial with degree zero based on the current variables, which need
-     * to be set by a previous invocation of
-     * {@link Monomial#initializeMonomial(Collection)}.
-     * 
-     * @return the zero degree monomial
-     * @throws IllegalStateException
-     *             if {@link Monomial#initializeMonomial(Collection)} has not been
-     *             called
-     */
-    static Monomial getZeroDegreeMonomial() throws IllegalStateException {
-        if (zeroDegreeMonomial == null) {
-            throw new IllegalStateException();
-        }
-        return zeroDegreeMonomial;
-    }
-
-    /**
-     * Increase the exponent of the variable v in the monomial m by 1.
-     * 
-     * @param m
-     *            the monomial
-     * @param v
-     *            the variable whose exponent is to be increased
-     * @return a new monomial with the exponent of v increased by 1
-     */
-    static Monomial increaseDegree(Monomial m, Variable v) {
-        return new Monomial(m, v);
-    }
-
-    /**
-     * Evaluates the monomial with respect to the given value of the variables.
-     * 
-     * @param values
-     *            the values of the variables
-     * @return the value of this monomial
-     */
-    BigDecimal evaluate(Map<Variable, BigDecimal> values) {
-        assert values.keySet().containsAll(exponents.keySet());
-
-        BigDecimal result = new BigDecimal(1.0);
-        for (Entry<Variable, Integer> entry : exponents.entrySet()) {
-            BigDecimal base = values.get(entry.getKey());
-            int exponent = entry.getValue();
-            switch (exponent) {
-            case 0:
-                break;
-            case 1:
-                result = result.multiply(base);
-                break;
-            default:
-                result = result.multiply(base.pow(exponent));
-                break;
+    private static boolean isZeroDegree(int[] exponents) {
+        for (int exp : exponents) {
+            if (exp > 0) {
+                return false;
             }
         }
-
-        return result;
+        return true;
     }
 
     /**
-     * Provides a formatted string representing the coefficient for this monomial.
-     * The implementation ensures that the variables appear in the same order for
-     * all monomials generated in the current execution.
+     * Provides a formatted string representing the coefficient for the given
+     * monomial. 
      * 
-     * The name has the format {@code coeff(_var_exp)*}.
+     * The name has the format {@code coeff(_var_exp)*}, with one pair for each
+     * variable.
      * 
-     * @return the coefficient name for this monomial
+     * @param variables
+     *            the variables
+     * @param exponents
+     *            the exponent of each variable
+     * @return the coefficient name for the monomial
      */
-    public String getNamedCoefficient() {
-        return namedCoefficient;
-    }
-
-    private String __getNamedCoefficient() {
+    static String getNamedCoefficient(Variable[] variables, int[] exponents) {
         StringBuilder sb = new StringBuilder("coeff");
-        for (Entry<Variable, Integer> entry : exponents.entrySet()) {
+        for (int var = 0; var < variables.length; var++) {
             sb.append("_")
-                .append(entry.getKey().toString())
+                .append(variables[var].toString())
                 .append("_")
-                .append(entry.getValue());
+                .append(exponents[var]);
         }
         return sb.toString();
     }
 
     /**
-     * Provides a LaTeX expression representing this monomial. The
-     * implementation ensures that the variables appear in the same order for all
-     * monomials generated in the current execution.
+     * Provides a LaTeX expression representing the given monomial.
      * 
      * The LaTeX expression has the format {@code 1} for the monomial with
      * degree zero, and the format
@@ -198,27 +82,27 @@ class Monomial {
      * the monomials with higher degree; only variables with exponent
      * {@code exp > 0} are included.
      * 
-     * @return the LaTeX expression for this monomial
+     * @param variables
+     *            the variables
+     * @param exponents
+     *            the exponent of each variable
+     * @return the LaTeX expression for the monomial
      */
-    public String getLatexExpression() {
-        return latexExpression;
-    }
-
-    private String __getLatexExpression() {
-        if (this.equals(zeroDegreeMonomial)) {
+    static String getLatexExpression(Variable[] variables, int[] exponents) {
+        if (isZeroDegree(exponents)) {
             return "1";
         }
         StringBuilder sb = new StringBuilder();
         boolean isFirst = true;
-        for (Entry<Variable, Integer> entry : exponents.entrySet()) {
-            int exp = entry.getValue();
+        for (int var = 0; var < variables.length; var++) {
+            int exp = exponents[var];
             if (exp > 0) {
                 if (isFirst) {
                     isFirst = false;
                 } else {
                     sb.append(" \\cdot ");
                 }
-                sb.append(entry.getKey().getName())
+                sb.append(variables[var].getName())
                     .append("^{")
                     .append(exp)
                     .append("}");
@@ -228,9 +112,7 @@ class Monomial {
     }
 
     /**
-     * Provides a mathematical expression representing this monomial. The
-     * implementation ensures that the variables appear in the same order for all
-     * monomials generated in the current execution.
+     * Provides a mathematical expression representing the given monomial.
      * 
      * The mathematical expression has the format {@code 1} for the monomial with
      * degree zero, and the format
@@ -238,27 +120,27 @@ class Monomial {
      * the monomials with higher degree; only variables with exponent
      * {@code exp > 0} are included.
      * 
-     * @return the mathematical expression for this monomial
+     * @param variables
+     *            the variables
+     * @param exponents
+     *            the exponent of each variable
+     * @return the mathematical expression for the monomial
      */
-    public String getMathExpression() {
-        return mathExpression;
-    }
-
-    private String __getMathExpression() {
-        if (this.equals(zeroDegreeMonomial)) {
+    static String getMathExpression(Variable[] variables, int[] exponents) {
+        if (isZeroDegree(exponents)) {
             return "1";
         }
         StringBuilder sb = new StringBuilder();
         boolean isFirst = true;
-        for (Entry<Variable, Integer> entry : exponents.entrySet()) {
-            int exp = entry.getValue();
+        for (int var = 0; var < variables.length; var++) {
+            int exp = exponents[var];
             if (exp > 0) {
                 if (isFirst) {
                     isFirst = false;
                 } else {
                     sb.append(" * ");
                 }
-                sb.append(entry.getKey().getName());
+                sb.append(variables[var].getName());
                 for (char d : Integer.toString(exp).toCharArray()) {
                     sb.append(superscriptDigits[d - '0']);
                 }
@@ -268,9 +150,7 @@ class Monomial {
     }
 
     /**
-     * Provides a MATLAB expression representing this monomial. The
-     * implementation ensures that the variables appear in the same order for all
-     * monomials generated in the current execution.
+     * Provides a MATLAB expression representing the given monomial.
      * 
      * The mathematical expression has the format {@code 1} for the monomial with
      * degree zero, and the format
@@ -278,20 +158,20 @@ class Monomial {
      * the monomials with higher degree; only variables with exponent
      * {@code exp > 0} are included.
      * 
-     * @return the MATLAB expression for this monomial
+     * @param variables
+     *            the variables
+     * @param exponents
+     *            the exponent of each variable
+     * @return the MATLAB expression for the monomial
      */
-    public String getMatlabExpression() {
-        return matlabExpression;
-    }
-
-    private String __getMatlabExpression() {
-        if (this.equals(zeroDegreeMonomial)) {
+    static String getMatlabExpression(Variable[] variables, int[] exponents) {
+        if (isZeroDegree(exponents)) {
             return "1";
         }
         StringBuilder sb = new StringBuilder();
         boolean isFirst = true;
-        for (Entry<Variable, Integer> entry : exponents.entrySet()) {
-            int exp = entry.getValue();
+        for (int var = 0; var < variables.length; var++) {
+            int exp = exponents[var];
             if (exp > 0) {
                 if (isFirst) {
                     isFirst = false;
@@ -299,7 +179,7 @@ class Monomial {
                     sb.append(" .* ");
                 }
                 sb.append('(')
-                    .append(entry.getKey().getName())
+                    .append(variables[var].getName())
                     .append(" .^ ")
                     .append(exp)
                     .append(')');
@@ -308,21 +188,156 @@ class Monomial {
         return sb.toString();
     }
 
-    @Override
-    public String toString() {
-        return mathExpression;
+    /**
+     * Provides a LaTeX expression representing the product of the basis
+     * polynomials of the given degrees.
+     * 
+     * The LaTeX expression has the format {@code 1} for the product with
+     * degree zero, and the format 
+     * {@code P_{k}\left(arg\right)}({@code  \cdot P_{k}\left(arg\right)})*
+     * for the products with higher degree, where {@code P} is the symbol of 
+     * the basis and {@code arg} the argument of the variable; only variables
+     * with degree {@code k > 0} are included.
+     * 
+     * @param basis
+     *            the basis
+     * @param arguments
+     *            the argument of the basis polynomials of each variable
+     * @param exponents
+     *            the degree of the basis polynomial of each variable
+     * @return the LaTeX expression for the product
+     */
+    static String getBasisLatexExpression(PolynomialBasis basis, String[] arguments, int[] exponents) {
+        if (isZeroDegree(exponents)) {
+            return "1";
+        }
+        StringBuilder sb = new StringBuilder();
+        boolean isFirst = true;
+        for (int var = 0; var < arguments.length; var++) {
+            int exp = exponents[var];
+            if (exp > 0) {
+                if (isFirst) {
+                    isFirst = false;
+                } else {
+                    sb.append(" \\cdot ");
+                }
+                sb.append(basis.getSymbol())
+                    .append("_{")
+                    .append(exp)
+                    .append("}\\left(")
+                    .append(arguments[var])
+                    .append("\\right)");
+            }
+        }
+        return sb.toString();
     }
 
-    @Override
-    public int hashCode() {
-        return exponents.hashCode();
+    /**
+     * Provides a mathematical expression representing the product of the 
+     * basis polynomials of the given degrees.
+     * 
+     * The mathematical expression has the format {@code 1} for the product 
+     * with degree zero, and the format 
+     * {@code P}<sub>{@code k}</sub>{@code (arg)}({@code  * P}<sub>{@code k}</sub>{@code (arg)})*
+     * for the products with higher degree, where {@code P} is the symbol of 
+     * the basis and {@code arg} the argument of the variable; only variables
+     * with degree {@code k > 0} are included.
+     * 
+     * @param basis
+     *            the basis
+     * @param arguments
+     *            the argument of the basis polynomials of each variable
+     * @param exponents
+     *            the degree of the basis polynomial of each variable
+     * @return the mathematical expression for the product
+     */
+    static String getBasisMathExpression(PolynomialBasis basis, String[] arguments, int[] exponents) {
+        if (isZeroDegree(exponents)) {
+            return "1";
+        }
+        StringBuilder sb = new StringBuilder();
+        boolean isFirst = true;
+        for (int var = 0; var < arguments.length; var++) {
+            int exp = exponents[var];
+            if (exp > 0) {
+                if (isFirst) {
+                    isFirst = false;
+                } else {
+                    sb.append(" * ");
+                }
+                sb.append(basis.getSymbol());
+                for (char d : Integer.toString(exp).toCharArray()) {
+                    sb.append(subscriptDigits[d - '0']);
+                }
+                sb.append('(')
+                    .append(arguments[var])
+                    .append(')');
+            }
+        }
+        return sb.toString();
     }
 
-    @Override
-    public boolean equals(Object other) {
-        if (other instanceof Monomial) {
-            return exponents.equals(((Monomial) other).exponents);
+    /**
+     * Provides a MATLAB expression representing the product of the basis
+     * polynomials of the given degrees. Since MATLAB has no function for the
+     * basis polynomials, each of them is written out with its exact 
+     * coefficients in the argument, which ranges in [-1, 1].
+     * 
+     * The MATLAB expression has the format {@code 1} for the product with
+     * degree zero, and the format
+     * {@code (c .* arg .^ j + ...)}({@code .* (c .* arg .^ j + ...)})* for
+     * the products with higher degree; only variables with degree 
+     * {@code k > 0} are included.
+     * 
+     * @param basisCoefficients
+     *            the coefficients of the basis polynomials, as given by 
+     *            {@link PolynomialBasis#getCoefficients(int)}
+     * @param arguments
+     *            the argument of the basis polynomials of each variable
+     * @param exponents
+     *            the degree of the basis polynomial of each variable
+     * @return the MATLAB expression for the product
+     */
+    static String getBasisMatlabExpression(BigDecimal[][] basisCoefficients, String[] arguments, int[] exponents) {
+        if (isZeroDegree(exponents)) {
+            return "1";
         }
-        return false;
+        StringBuilder sb = new StringBuilder();
+        boolean isFirst = true;
+        for (int var = 0; var < arguments.length; var++) {
+            int exp = exponents[var];
+            if (exp > 0) {
+                if (isFirst) {
+                    isFirst = false;
+                } else {
+                    sb.append(" .* ");
+                }
+                sb.append('(');
+                boolean isFirstPower = true;
+                for (int power = exp; power >= 0; power--) {
+                    BigDecimal coefficient = basisCoefficients[exp][power];
+                    if (coefficient.signum() == 0) {
+                        continue;
+                    }
+                    if (isFirstPower) {
+                        isFirstPower = false;
+                        if (coefficient.signum() < 0) {
+                            sb.append("-");
+                        }
+                    } else {
+                        sb.append(coefficient.signum() < 0 ? " - " : " + ");
+                    }
+                    sb.append(coefficient.abs().toPlainString());
+                    if (power > 0) {
+                        sb.append(" .* ")
+                            .append(arguments[var])
+                            .append(" .^ ")
+                            .append(power);
+                    }
+                }
+                sb.append(')');
+            }
+        }
+        return sb.toString();
     }
 }
@@ -0,0 +1,212 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.polynomial;
+
+/**
+ * Enumeration of the monomials over {@code n} variables with total degree at
+ * most {@code d}, in graded lexicographic order: the monomials are sorted by
+ * degree, and the monomials with the same degree are sorted by decreasing
+ * exponent of the first variable, then of the second variable, and so on. For
+ * instance, for two variables x and y and degree 2 the order is 1, x, y, x²,
+ * xy, y².
+ * <p>
+ * A monomial is represented by the array of the exponents of its variables;
+ * its index in the enumeration is computed by {@link #rank(int[])} and
+ * converted back by {@link #unrank(int, int[])}, both in time linear in the
+ * number of variables, so no monomial needs to be stored.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+class MonomialEnumerator {
+    private final int numberVariables;
+    private final int maximumDegree;
+    private final int size;
+    
+    /** {@code binomial[i][j]} is the binomial coefficient C(i, j) */
+    private final long[][] binomial;
+    
+    /**
+     * Creates the enumeration of the monomials over {@code numberVariables}
+     * variables with total degree at most {@code maximumDegree}.
+     * 
+     * @param numberVariables
+     *            the number of variables
+     * @param maximumDegree
+     *            the maximum degree
+     * @throws ArithmeticException
+     *             if the number of monomials exceeds the range of {@code int}
+     */
+    MonomialEnumerator(int numberVariables, int maximumDegree) {
+        assert numberVariables >= 0;
+        assert maximumDegree >= 0;
+        
+        this.numberVariables = numberVariables;
+        this.maximumDegree = maximumDegree;
+        
+        int rows = numberVariables + maximumDegree + 1;
+        binomial = new long[rows][];
+        for (int i = 0; i < rows; i++) {
+            binomial[i] = new long[i + 1];
+            binomial[i][0] = 1;
+            binomial[i][i] = 1;
+            for (int j = 1; j < i; j++) {
+                binomial[i][j] = Math.addExact(binomial[i - 1][j - 1], binomial[i - 1][j]);
+            }
+        }
+        size = Math.toIntExact(atMost(numberVariables, maximumDegree));
+    }
+    
+    /**
+     * @return the number of monomials with degree at most {@code degree} in
+     *         {@code variables} variables
+     */
+    private long atMost(int variables, int degree) {
+        if (degree < 0) {
+            return 0;
+        }
+        return binomial[degree + variables][variables];
+    }
+    
+    /**
+     * @return the number of monomials with degree exactly {@code degree} in
+     *         {@code variables} variables
+     */
+    private long exactly(int variables, int degree) {
+        if (variables == 0) {
+            return degree == 0 ? 1 : 0;
+        }
+        return binomial[degree + variables - 1][variables - 1];
+    }
+    
+    /**
+     * @return the number of variables
+     */
+    int getNumberVariables() {
+        return numberVariables;
+    }
+    
+    /**
+     * @return the maximum degree of the monomials
+     */
+    int getMaximumDegree() {
+        return maximumDegree;
+    }
+    
+    /**
+     * @return the number of monomials
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Provides the index of the given monomial in the enumeration.
+     * 
+     * @param exponents
+     *            the exponents of the monomial
+     * @return the index of the monomial
+     */
+    int rank(int[] exponents) {
+        assert exponents.length == numberVariables;
+        
+        int degree = 0;
+        for (int exponent : exponents) {
+            degree += exponent;
+        }
+        assert degree <= maximumDegree;
+        
+        long rank = atMost(numberVariables, degree - 1);
+        int remaining = degree;
+        for (int var = 0; var < numberVariables - 1; var++) {
+            // the monomials with the same prefix and a larger exponent for var come first
+            rank += atMost(numberVariables - var - 1, remaining - exponents[var] - 1);
+            remaining -= exponents[var];
+        }
+        return (int) rank;
+    }
+    
+    /**
+     * Stores in {@code exponents} the exponents of the monomial with the given
+     * index in the enumeration.
+     * 
+     * @param index
+     *            the index of the monomial, with {@code 0 ≤ index < size()}
+     * @param exponents
+     *            the array receiving the exponents
+     */
+    void unrank(int index, int[] exponents) {
+        assert 0 <= index && index < size;
+        assert exponents.length == numberVariables;
+        
+        int degree = 0;
+        while (atMost(numberVariables, degree) <= index) {
+            degree++;
+        }
+        long rank = index - atMost(numberVariables, degree - 1);
+        int remaining = degree;
+        for (int var = 0; var < numberVariables - 1; var++) {
+            int exponent = remaining;
+            long count = exactly(numberVariables - var - 1, remaining - exponent);
+            while (rank >= count) {
+                rank -= count;
+                exponent--;
+                count = exactly(numberVariables - var - 1, remaining - exponent);
+            }
+            exponents[var] = exponent;
+            remaining -= exponent;
+        }
+        if (numberVariables > 0) {
+            exponents[numberVariables - 1] = remaining;
+        }
+    }
+    
+    /**
+     * Replaces the exponents of a monomial with the exponents of the next
+     * monomial in the enumeration.
+     * 
+     * @param exponents
+     *            the exponents of the monomial, updated in place
+     * @return {@code false} if the monomial was the last one, in which case 
+     *         {@code exponents} is left unchanged
+     */
+    boolean next(int[] exponents) {
+        assert exponents.length == numberVariables;
+        
+        int last = numberVariables - 1;
+        for (int var = last - 1; var >= 0; var--) {
+            if (exponents[var] > 0) {
+                int moved = exponents[last] + 1;
+                exponents[var]--;
+                exponents[last] = 0;
+                exponents[var + 1] = moved;
+                return true;
+            }
+        }
+        int degree = (last >= 0) ? exponents[last] : 0;
+        if (degree >= maximumDegree || last < 0) {
+            return false;
+        }
+        exponents[last] = 0;
+        exponents[0] = degree + 1;
+        return true;
+    }
+}
@@ -0,0 +1,295 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.polynomial;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A set of monomials over a fixed number of variables, each monomial being
+ * given by the exponents of the variables. The monomials are indexed in the
+ * graded lexicographic order of {@link MonomialEnumerator}; the set is stored
+ * as the sorted ranks of its monomials in the enumeration of all monomials up
+ * to its maximum degree, or not stored at all when it contains all of them.
+ * <p>
+ * Besides the complete set of monomials with bounded total degree, sparse sets
+ * can be obtained by pruning it (hyperbolic cross, maximum interaction order,
+ * per-variable degree caps) or by listing the monomials explicitly; the pruned
+ * sets have far fewer monomials than the complete set when there are many
+ * variables.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class MonomialSet {
+    private final MonomialEnumerator enumerator;
+    
+    /** The ranks of the monomials in {@link #enumerator}; {@code null} if all monomials are included */
+    private final int[] ranks;
+    
+    private MonomialSet(MonomialEnumerator enumerator, int[] ranks) {
+        this.enumerator = enumerator;
+        this.ranks = ranks;
+    }
+    
+    /**
+     * Provides the set of all monomials over {@code numberVariables} variables
+     * with total degree at most {@code maximumDegree}.
+     * 
+     * @param numberVariables
+     *            the number of variables
+     * @param maximumDegree
+     *            the maximum total degree
+     * @return the set of monomials
+     */
+    public static MonomialSet totalDegree(int numberVariables, int maximumDegree) {
+        return new MonomialSet(new MonomialEnumerator(numberVariables, maximumDegree), null);
+    }
+    
+    /**
+     * Provides the set of the monomials over {@code numberVariables} variables
+     * with total degree at most {@code maximumDegree} that satisfy all the given
+     * restrictions.
+     * 
+     * @param numberVariables
+     *            the number of variables
+     * @param maximumDegree
+     *            the maximum total degree
+     * @param hyperbolicCross
+     *            whether to keep only the monomials in the hyperbolic cross,
+     *            i.e., whose exponents e<sub>i</sub> satisfy 
+     *            ∏<sub>i</sub> (e<sub>i</sub> + 1) ≤ {@code maximumDegree} + 1
+     * @param interactionOrder
+     *            the maximum number of variables with positive exponent in a
+     *            monomial
+     * @param degreeCaps
+     *            the maximum exponent of each variable; it can be {@code null}
+     *            when the exponents are bounded only by {@code maximumDegree}
+     * @return the set of monomials
+     */
+    public static MonomialSet pruned(int numberVariables, int maximumDegree, boolean hyperbolicCross, int interactionOrder, int[] degreeCaps) {
+        assert degreeCaps == null || degreeCaps.length == numberVariables;
+        
+        MonomialEnumerator enumerator = new MonomialEnumerator(numberVariables, maximumDegree);
+        int[] caps = new int[numberVariables];
+        for (int var = 0; var < numberVariables; var++) {
+            caps[var] = (degreeCaps == null) ? maximumDegree : Math.min(maximumDegree, degreeCaps[var]);
+        }
+        RankCollector collector = new RankCollector(enumerator);
+        collect(0, new int[numberVariables], maximumDegree, hyperbolicCross ? maximumDegree + 1 : Long.MAX_VALUE, interactionOrder, caps, collector);
+        return new MonomialSet(enumerator, collector.toSortedRanks()).compact();
+    }
+    
+    /**
+     * Depth-first generation of the monomials satisfying the restrictions; 
+     * since all restrictions are preserved by decreasing an exponent, each 
+     * exponent is increased only while the restrictions hold.
+     */
+    private static void collect(int var, int[] exponents, int remainingDegree, long remainingProduct, int remainingInteractions, int[] caps, RankCollector collector) {
+        if (var == exponents.length) {
+            collector.add(exponents);
+            return;
+        }
+        collect(var + 1, exponents, remainingDegree, remainingProduct, remainingInteractions, caps, collector);
+        if (remainingInteractions > 0) {
+            for (int exp = 1; exp <= Math.min(remainingDegree, caps[var]) && exp + 1 <= remainingProduct; exp++) {
+                exponents[var] = exp;
+                collect(var + 1, exponents, remainingDegree - exp, remainingProduct / (exp + 1), remainingInteractions - 1, caps, collector);
+            }
+            exponents[var] = 0;
+        }
+    }
+    
+    /**
+     * Provides the set made of the given monomials.
+     * 
+     * @param numberVariables
+     *            the number of variables
+     * @param monomials
+     *            the exponents of the monomials; duplicates are ignored
+     * @return the set of monomials
+     */
+    public static MonomialSet of(int numberVariables, Collection<int[]> monomials) {
+        int maximumDegree = 0;
+        for (int[] exponents : monomials) {
+            assert exponents.length == numberVariables;
+            maximumDegree = Math.max(maximumDegree, Arrays.stream(exponents).sum());
+        }
+        MonomialEnumerator enumerator = new MonomialEnumerator(numberVariables, maximumDegree);
+        RankCollector collector = new RankCollector(enumerator);
+        monomials.forEach(collector::add);
+        return new MonomialSet(enumerator, collector.toSortedRanks()).compact();
+    }
+    
+    /**
+     * @return this set, without the explicit ranks if it contains all 
+     *         monomials up to its maximum degree
+     */
+    private MonomialSet compact() {
+        if (ranks != null && ranks.length == enumerator.size()) {
+            return new MonomialSet(enumerator, null);
+        }
+        return this;
+    }
+    
+    /**
+     * @return the number of variables
+     */
+    public int getNumberVariables() {
+        return enumerator.getNumberVariables();
+    }
+    
+    /**
+     * @return the maximum total degree of the monomials
+     */
+    public int getMaximumDegree() {
+        return enumerator.getMaximumDegree();
+    }
+    
+    /**
+     * @return the number of monomials in this set
+     */
+    public int size() {
+        return (ranks == null) ? enumerator.size() : ranks.length;
+    }
+    
+    /**
+     * Provides the index of the given monomial in this set.
+     * 
+     * @param exponents
+     *            the exponents of the monomial
+     * @return the index of the monomial, or a negative value if the monomial
+     *         does not belong to this set
+     */
+    public int indexOf(int[] exponents) {
+        int degree = 0;
+        for (int exponent : exponents) {
+            degree += exponent;
+        }
+        if (degree > enumerator.getMaximumDegree()) {
+            return -1;
+        }
+        int rank = enumerator.rank(exponents);
+        return (ranks == null) ? rank : Arrays.binarySearch(ranks, rank);
+    }
+    
+    /**
+     * Stores in {@code exponents} the exponents of the monomial with the given
+     * index in this set.
+     * 
+     * @param index
+     *            the index of the monomial
+     * @param exponents
+     *            the array receiving the exponents
+     */
+    public void getExponents(int index, int[] exponents) {
+        enumerator.unrank((ranks == null) ? index : ranks[index], exponents);
+    }
+    
+    /**
+     * Provides the smallest set containing this set and closed under division,
+     * i.e., containing also all monomials dividing a monomial in the set. The
+     * complete and the pruned sets are already closed under division.
+     * 
+     * @return the closure of this set
+     */
+    public MonomialSet getDivisorClosure() {
+        if (ranks == null) {
+            return this;
+        }
+        int numberVariables = getNumberVariables();
+        int[] exponents = new int[numberVariables];
+        boolean isClosed = true;
+        for (int index = 0; index < ranks.length && isClosed; index++) {
+            getExponents(index, exponents);
+            for (int var = 0; var < numberVariables && isClosed; var++) {
+                if (exponents[var] > 0) {
+                    exponents[var]--;
+                    isClosed = indexOf(exponents) >= 0;
+                    exponents[var]++;
+                }
+            }
+        }
+        if (isClosed) {
+            return this;
+        }
+        
+        RankCollector collector = new RankCollector(enumerator);
+        int[] divisor = new int[numberVariables];
+        for (int index = 0; index < ranks.length; index++) {
+            getExponents(index, exponents);
+            Arrays.fill(divisor, 0);
+            do {
+                collector.add(divisor);
+            } while (nextDivisor(divisor, exponents));
+        }
+        return new MonomialSet(enumerator, collector.toSortedRanks()).compact();
+    }
+    
+    /**
+     * Advances {@code exponents} to the next exponents bounded componentwise 
+     * by {@code bound}, in odometer order.
+     * 
+     * @return {@code false} if all bounded exponents have been visited
+     */
+    static boolean nextDivisor(int[] exponents, int[] bound) {
+        for (int var = exponents.length - 1; var >= 0; var--) {
+            if (exponents[var] < bound[var]) {
+                exponents[var]++;
+                return true;
+            }
+            exponents[var] = 0;
+        }
+        return false;
+    }
+    
+    /**
+     * Growable collection of monomial ranks.
+     */
+    private static class RankCollector {
+        private final MonomialEnumerator enumerator;
+        private int[] ranks = new int[16];
+        private int size = 0;
+        
+        RankCollector(MonomialEnumerator enumerator) {
+            this.enumerator = enumerator;
+        }
+        
+        void add(int[] exponents) {
+            if (size == ranks.length) {
+                ranks = Arrays.copyOf(ranks, 2 * size);
+            }
+            ranks[size++] = enumerator.rank(exponents);
+        }
+        
+        int[] toSortedRanks() {
+            int[] sorted = Arrays.copyOf(ranks, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int index = 0; index < sorted.length; index++) {
+                if (index == 0 || sorted[index] != sorted[distinct - 1]) {
+                    sorted[distinct++] = sorted[index];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
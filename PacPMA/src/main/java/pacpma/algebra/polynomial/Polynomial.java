@@ -21,15 +21,19 @@
 package pacpma.algebra.polynomial;
 
 import java.math.BigDecimal;
-import java.util.Collection;
+import java.math.MathContext;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
+import pacpma.algebra.Parameter;
 import pacpma.algebra.TemplateFunction;
 import pacpma.algebra.Variable;
+import pacpma.util.ParallelBlocks;
+import pacpma.util.VectorKernels;
 
 /**
  * A class representing a polynomial.
@@ -38,8 +42,61 @@ import pacpma.algebra.Variable;
  *
  */
 public class Polynomial implements TemplateFunction {
+    private static final MathContext MC = MathContext.DECIMAL128;
+
     private final int maximumDegree;
-    private final Map<Integer, Collection<Monomial>> monomials;
+    
+    /** The monomials used for the evaluation, closed under division */
+    private final MonomialSet monomials;
+    
+    /** The indices in {@link #monomials} of the terms of this polynomial; {@code null} if all monomials are terms */
+    private final int[] terms;
+
+    private final PolynomialBasis basis;
+    
+    /** The basis polynomials P<sub>k</sub>(t) in the monomial basis */
+    private BigDecimal[][] basisCoefficients;
+
+    /** For each variable x, the scale a of the map t = a * x + b onto [-1, 1] */
+    private Map<Variable, BigDecimal> scales;
+
+    /** For each variable x, the offset b of the map t = a * x + b onto [-1, 1] */
+    private Map<Variable, BigDecimal> offsets;
+    
+    /* The mapped variables t = (2 * x - (l + u)) / (u - l) as the arguments of
+     * the basis polynomials in the expressions, in the order of the compiled 
+     * variables */
+    
+    private String[] latexArguments;
+    private String[] mathArguments;
+    private String[] matlabArguments;
+    
+    /* double versions of the maps onto [-1, 1], in the order of the compiled 
+     * variables; in double precision, the basis polynomials are evaluated by
+     * their three-term recurrence */
+    
+    private double[] scaleValues;
+    private double[] offsetValues;
+    
+    /* Compiled form of the monomials, used for the evaluation. The monomials 
+     * are ordered as in the monomial set, and each monomial of positive degree 
+     * is the product of a previous monomial, its parent, and of a power of a 
+     * single variable: the last variable with positive exponent. */
+    
+    /** The variables, in the order used by the compiled monomials */
+    private final Variable[] variables;
+    
+    /** The coefficient names of the terms, generated on demand */
+    private String[] coefficientNames = null;
+    
+    /** For each monomial of positive degree, the index of its parent */
+    private int[] parentIndex;
+    
+    /** For each monomial of positive degree, the variable multiplied to the parent */
+    private int[] parentVariable;
+    
+    /** For each monomial of positive degree, the exponent of the variable multiplied to the parent */
+    private int[] parentExponent;
 
     /**
      * Generates a complete polynomial over the variables defined in
@@ -50,103 +107,459 @@ public class Polynomial implements TemplateFunction {
      *            the maximum degree of this polynomial
      */
     public Polynomial(int maximumDegree) {
-        this.maximumDegree = maximumDegree;
-        this.monomials = new HashMap<>();
+        this(maximumDegree, PolynomialBasis.MONOMIAL, null);
+    }
+
+    /**
+     * Generates a complete polynomial over the variables defined in
+     * {@link Variable}, with total degree at most {@code maximumDegree}, whose
+     * terms are the products of the polynomials of the given basis. For each
+     * variable, the basis polynomials are evaluated after mapping the interval
+     * of the corresponding parameter onto [-1, 1], so the terms stay of the same
+     * magnitude over the whole parameter space and the resulting LP problem is
+     * better conditioned than the one for the monomial basis. The number of
+     * coefficients does not depend on the basis.
+     * 
+     * The expressions generated by this polynomial are given in its basis: 
+     * each term is the product of the basis polynomials applied to the 
+     * variables mapped onto [-1, 1], so the expressions coincide with the
+     * fitted function. Converting them to the monomial basis of the original
+     * variables would suffer from cancellation on narrow or offset intervals.
+     * 
+     * @param maximumDegree
+     *            the maximum degree of this polynomial
+     * @param basis
+     *            the basis to use for the terms
+     * @param parameters
+     *            the parameters providing the interval of each variable; it can
+     *            be {@code null} when {@code basis} is
+     *            {@link PolynomialBasis#MONOMIAL}
+     */
+    public Polynomial(int maximumDegree, PolynomialBasis basis, List<Parameter> parameters) {
+        this(MonomialSet.totalDegree(Variable.getVariables().size(), maximumDegree), basis, parameters);
+    }
+
+    /**
+     * Generates a polynomial over the variables defined in {@link Variable}
+     * whose terms are the products of the polynomials of the given basis
+     * corresponding to the given monomials; for instance, the monomial
+     * x<sup>2</sup>y corresponds to the term P<sub>2</sub>(x)P<sub>1</sub>(y).
+     * The number of coefficients is the number of monomials, so a sparse set
+     * of monomials requires fewer samples than the complete polynomial.
+     * 
+     * @param monomials
+     *            the monomials of this polynomial, with variables in the order 
+     *            of {@link Variable#getVariables()}
+     * @param basis
+     *            the basis to use for the terms
+     * @param parameters
+     *            the parameters providing the interval of each variable; it can
+     *            be {@code null} when {@code basis} is
+     *            {@link PolynomialBasis#MONOMIAL}
+     */
+    public Polynomial(MonomialSet monomials, PolynomialBasis basis, List<Parameter> parameters) {
+        assert basis != null;
+        assert basis == PolynomialBasis.MONOMIAL || parameters != null;
+        assert monomials.size() > 0;
+        assert monomials.getNumberVariables() == Variable.getVariables().size();
         
-        Monomial.initializeMonomial(Variable.getVariables());
-
-        Collection<Monomial> cm = new HashSet<Monomial>();
-        cm.add(Monomial.getZeroDegreeMonomial());
-        monomials.put(0, cm);
-
-        for (int currentDegree = 1; currentDegree <= maximumDegree; currentDegree++) {
-            Collection<Monomial> currentDegreeMonomials = new HashSet<>();
-            Collection<Monomial> previousDegreeMonomials = monomials.get(currentDegree - 1);
-            for (Variable v : Variable.getVariables()) {
-                for (Monomial m : previousDegreeMonomials) {
-                    currentDegreeMonomials.add(Monomial.increaseDegree(m, v));
-                }
+        this.maximumDegree = monomials.getMaximumDegree();
+        this.basis = basis;
+        this.variables = Variable.getVariables().toArray(new Variable[0]);
+        this.monomials = monomials.getDivisorClosure();
+        if (this.monomials == monomials) {
+            this.terms = null;
+        } else {
+            this.terms = new int[monomials.size()];
+            int[] exponents = new int[variables.length];
+            for (int index = 0; index < terms.length; index++) {
+                monomials.getExponents(index, exponents);
+                terms[index] = this.monomials.indexOf(exponents);
             }
-            monomials.put(currentDegree, currentDegreeMonomials);
+        }
+        
+        compileMonomials();
+        if (basis != PolynomialBasis.MONOMIAL) {
+            initializeBasis(parameters);
         }
     }
     
+    private void compileMonomials() {
+        int size = monomials.size();
+        parentIndex = new int[size];
+        parentVariable = new int[size];
+        parentExponent = new int[size];
+        
+        int[] exponents = new int[variables.length];
+        for (int index = 1; index < size; index++) {
+            monomials.getExponents(index, exponents);
+            int lastVariable = variables.length - 1;
+            while (exponents[lastVariable] == 0) {
+                lastVariable--;
+            }
+            int exponent = exponents[lastVariable];
+            parentVariable[index] = lastVariable;
+            parentExponent[index] = exponent;
+            exponents[lastVariable] = 0;
+            parentIndex[index] = monomials.indexOf(exponents);
+            exponents[lastVariable] = exponent;
+        }
+    }
+    
+    private synchronized String[] getCoefficientNames() {
+        if (coefficientNames == null) {
+            String[] names = new String[getNumberTerms()];
+            int[] exponents = new int[variables.length];
+            for (int index = 0; index < names.length; index++) {
+                monomials.getExponents(getMonomialIndex(index), exponents);
+                names[index] = Monomial.getNamedCoefficient(variables, exponents);
+            }
+            coefficientNames = names;
+        }
+        return coefficientNames;
+    }
+    
+    private int getNumberTerms() {
+        return (terms == null) ? monomials.size() : terms.length;
+    }
+    
+    private int getMonomialIndex(int term) {
+        return (terms == null) ? term : terms[term];
+    }
+    
+    private boolean isTerm(int monomialIndex) {
+        return (terms == null) || Arrays.binarySearch(terms, monomialIndex) >= 0;
+    }
+    
+    /**
+     * @return the values of the terms, given the values of all monomials
+     */
+    private <T> T[] selectTerms(T[] monomialValues, T[] termValues) {
+        for (int index = 0; index < termValues.length; index++) {
+            termValues[index] = monomialValues[terms[index]];
+        }
+        return termValues;
+    }
+    
+    private void initializeBasis(List<Parameter> parameters) {
+        basisCoefficients = basis.getCoefficients(maximumDegree);
+        scales = new HashMap<>();
+        offsets = new HashMap<>();
+        for (Parameter parameter : parameters) {
+            Variable variable = Variable.asVariable(parameter);
+            BigDecimal width = parameter.getUpperbound().subtract(parameter.getLowerbound());
+            BigDecimal scale = BigDecimal.valueOf(2).divide(width, MC);
+            BigDecimal offset = parameter.getUpperbound().add(parameter.getLowerbound()).negate().divide(width, MC);
+            scales.put(variable, scale);
+            offsets.put(variable, offset);
+        }
+        
+        scaleValues = new double[variables.length];
+        offsetValues = new double[variables.length];
+        for (int var = 0; var < variables.length; var++) {
+            scaleValues[var] = scales.get(variables[var]).doubleValue();
+            offsetValues[var] = offsets.get(variables[var]).doubleValue();
+        }
+        
+        latexArguments = new String[variables.length];
+        mathArguments = new String[variables.length];
+        matlabArguments = new String[variables.length];
+        for (Parameter parameter : parameters) {
+            Variable variable = Variable.asVariable(parameter);
+            int var = Arrays.asList(variables).indexOf(variable);
+            BigDecimal sum = parameter.getUpperbound().add(parameter.getLowerbound());
+            String width = toPlainString(parameter.getUpperbound().subtract(parameter.getLowerbound()));
+            String name = variable.getName();
+            String shift = "";
+            if (sum.signum() != 0) {
+                shift = (sum.signum() > 0 ? " - " : " + ") + toPlainString(sum.abs());
+            }
+            latexArguments[var] = "\\frac{2 " + name + shift + "}{" + width + "}";
+            mathArguments[var] = "(2 * " + name + shift + ") / " + width;
+            matlabArguments[var] = "((2 .* " + name + shift + ") ./ " + width + ")";
+        }
+    }
+    
+    private static String toPlainString(BigDecimal value) {
+        BigDecimal stripped = value.stripTrailingZeros();
+        return (stripped.scale() < 0 ? stripped.setScale(0) : stripped).toPlainString();
+    }
+    
+    /**
+     * @return the basis used by this polynomial
+     */
+    public PolynomialBasis getBasis() {
+        return basis;
+    }
+    
     @Override
     public List<String> getCoefficients() {
-        List<String> coefficients = new LinkedList<>();
-        monomials.values().forEach(
-                mons -> mons.forEach(
-                        monomial -> coefficients.add(monomial.getNamedCoefficient())
-                )
-        );
-        return coefficients;
+        return new LinkedList<>(Arrays.asList(getCoefficientNames()));
     }
 
     @Override
     public Map<String, BigDecimal> evaluate(Map<Variable, BigDecimal> values) {
+        BigDecimal[] variableValues = new BigDecimal[variables.length];
+        for (int var = 0; var < variables.length; var++) {
+            variableValues[var] = values.get(variables[var]);
+        }
+        BigDecimal[] termValues = evaluate(variableValues);
         Map<String, BigDecimal> coefficients = new HashMap<>();
-        monomials.values().forEach(
-                mons -> mons.forEach(
-                        monomial -> coefficients.put(monomial.getNamedCoefficient(), monomial.evaluate(values))
-                )
-        );
+        for (int index = 0; index < termValues.length; index++) {
+            coefficients.put(getCoefficientNames()[index], termValues[index]);
+        }
         return coefficients;
     }
     
-    @Override
-    public String getLatexExpression(Map<String, BigDecimal> coefficientValues) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(coefficientValues.get(Monomial.getZeroDegreeMonomial().getNamedCoefficient()));
-        for (int degree = 1; degree <= maximumDegree; degree++) {
-            for (Monomial monomial : monomials.get(degree)) {
-                BigDecimal value = coefficientValues.get(monomial.getNamedCoefficient());
-                assert value != null;
-                if (value.compareTo(BigDecimal.ZERO) >= 0) {
-                    sb.append(" + ");
-                } else {
-                    sb.append(" - ");
+    /**
+     * Evaluates the terms of this polynomial with respect to the given values
+     * of the variables. The powers (or the basis polynomials) of each variable
+     * are computed only once, and each term is obtained from a previous term by
+     * a single multiplication. For the monomial basis, the computation is
+     * exact.
+     * 
+     * @param values
+     *            the values of the variables, in the order of
+     *            {@link Variable#getVariables()}
+     * @return the values of the terms, in the order of
+     *         {@link #getCoefficients()}
+     */
+    public BigDecimal[] evaluate(BigDecimal[] values) {
+        assert values.length == variables.length;
+        
+        BigDecimal[][] table = new BigDecimal[variables.length][];
+        for (int var = 0; var < variables.length; var++) {
+            table[var] = new BigDecimal[maximumDegree + 1];
+            BigDecimal[] varTable = table[var];
+            if (basis == PolynomialBasis.MONOMIAL) {
+                varTable[0] = BigDecimal.ONE;
+                for (int exp = 1; exp <= maximumDegree; exp++) {
+                    varTable[exp] = varTable[exp - 1].multiply(values[var]);
+                }
+            } else {
+                Variable variable = variables[var];
+                BigDecimal t = values[var].multiply(scales.get(variable), MC).add(offsets.get(variable), MC);
+                for (int k = 0; k <= maximumDegree; k++) {
+                    BigDecimal value = BigDecimal.ZERO;
+                    for (int j = k; j >= 0; j--) {
+                        value = value.multiply(t, MC).add(basisCoefficients[k][j], MC);
+                    }
+                    varTable[k] = value;
                 }
-                sb.append(value.abs().toPlainString()).append(" \\cdot ").append(monomial.getLatexExpression());
             }
         }
-        return sb.toString();
+        
+        BigDecimal[] monomialValues = new BigDecimal[monomials.size()];
+        // same value as new BigDecimal(1.0), the initial value of Monomial#evaluate
+        monomialValues[0] = BigDecimal.ONE;
+        for (int index = 1; index < monomialValues.length; index++) {
+            BigDecimal factor = table[parentVariable[index]][parentExponent[index]];
+            if (basis == PolynomialBasis.MONOMIAL) {
+                monomialValues[index] = monomialValues[parentIndex[index]].multiply(factor);
+            } else {
+                monomialValues[index] = monomialValues[parentIndex[index]].multiply(factor, MC);
+            }
+        }
+        if (terms == null) {
+            return monomialValues;
+        }
+        return selectTerms(monomialValues, new BigDecimal[terms.length]);
+    }
+    
+    /**
+     * Evaluates the terms of this polynomial with respect to the given values
+     * of the variables, in double precision. The powers (or the basis
+     * polynomials, by their three-term recurrence) of each variable are 
+     * computed only once, and each term is obtained from a previous term by a
+     * single multiplication.
+     * 
+     * @param values
+     *            the values of the variables, in the order of
+     *            {@link Variable#getVariables()}
+     * @return the values of the terms, in the order of
+     *         {@link #getCoefficients()}
+     */
+    public double[] evaluate(double[] values) {
+        assert values.length == variables.length;
+        
+        double[][] table = new double[variables.length][maximumDegree + 1];
+        for (int var = 0; var < variables.length; var++) {
+            double[] varTable = table[var];
+            if (basis == PolynomialBasis.MONOMIAL) {
+                varTable[0] = 1.0;
+                for (int exp = 1; exp <= maximumDegree; exp++) {
+                    varTable[exp] = varTable[exp - 1] * values[var];
+                }
+            } else {
+                basis.evaluate(values[var] * scaleValues[var] + offsetValues[var], varTable);
+            }
+        }
+        
+        double[] monomialValues = new double[monomials.size()];
+        monomialValues[0] = 1.0;
+        for (int index = 1; index < monomialValues.length; index++) {
+            monomialValues[index] = monomialValues[parentIndex[index]] * table[parentVariable[index]][parentExponent[index]];
+        }
+        if (terms == null) {
+            return monomialValues;
+        }
+        double[] termValues = new double[terms.length];
+        for (int index = 0; index < termValues.length; index++) {
+            termValues[index] = monomialValues[terms[index]];
+        }
+        return termValues;
     }
     
+    /**
+     * {@inheritDoc}
+     * <p>
+     * For each block of samples, the powers (or the basis polynomials) of each
+     * variable are tabulated column-wise and each column of the design matrix
+     * is obtained from the column of its parent term by a single element-wise
+     * multiplication, executed through {@link VectorKernels}. The values
+     * coincide with the ones computed by {@link #evaluate(double[])}.
+     */
     @Override
-    public String getMathExpression(Map<String, BigDecimal> coefficientValues) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(coefficientValues.get(Monomial.getZeroDegreeMonomial().getNamedCoefficient()));
-        for (int degree = 1; degree <= maximumDegree; degree++) {
-            for (Monomial monomial : monomials.get(degree)) {
-                BigDecimal value = coefficientValues.get(monomial.getNamedCoefficient());
-                assert value != null;
-                if (value.compareTo(BigDecimal.ZERO) >= 0) {
-                    sb.append(" + ");
-                } else {
-                    sb.append(" - ");
+    public void evaluate(double[] samples, int numberSamples, double[] designMatrix) {
+        assert samples.length >= variables.length * numberSamples;
+        assert designMatrix.length >= getNumberTerms() * numberSamples;
+        
+        ParallelBlocks.run(numberSamples, BULK_BLOCK_SIZE, (from, to) -> {
+            if (terms == null) {
+                evaluateBlock(samples, numberSamples, from, to, designMatrix, numberSamples, from);
+            } else {
+                int length = to - from;
+                double[] monomialValues = new double[monomials.size() * length];
+                evaluateBlock(samples, numberSamples, from, to, monomialValues, length, 0);
+                for (int index = 0; index < terms.length; index++) {
+                    System.arraycopy(monomialValues, terms[index] * length, designMatrix, index * numberSamples + from, length);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Evaluates all monomials for the samples from {@code from} to {@code to};
+     * the value of the monomial {@code index} for the sample {@code from + i} 
+     * is stored in {@code columns[index * stride + offset + i]}.
+     */
+    private void evaluateBlock(double[] samples, int numberSamples, int from, int to, double[] columns, int stride, int offset) {
+        int length = to - from;
+        double[][][] table = new double[variables.length][maximumDegree + 1][];
+        for (int var = 0; var < variables.length; var++) {
+            double[][] varTable = table[var];
+            int column = var * numberSamples + from;
+            if (basis == PolynomialBasis.MONOMIAL) {
+                if (maximumDegree > 0) {
+                    varTable[1] = Arrays.copyOfRange(samples, column, column + length);
+                }
+                for (int exp = 2; exp <= maximumDegree; exp++) {
+                    varTable[exp] = new double[length];
+                    VectorKernels.multiply(varTable[exp - 1], 0, varTable[1], 0, varTable[exp], 0, length);
+                }
+            } else {
+                varTable[0] = new double[length];
+                Arrays.fill(varTable[0], 1.0);
+                if (maximumDegree > 0) {
+                    varTable[1] = new double[length];
+                    VectorKernels.affine(samples, column, scaleValues[var], offsetValues[var], varTable[1], 0, length);
+                }
+                for (int k = 2; k <= maximumDegree; k++) {
+                    varTable[k] = new double[length];
+                    VectorKernels.recurrence(basis.getRecurrenceScale(k), varTable[1], 0, varTable[k - 1], 0, 
+                            basis.getRecurrenceShift(k), varTable[k - 2], 0, varTable[k], 0, length);
                 }
-                sb.append(value.abs().toPlainString()).append(" * ").append(monomial.getMathExpression());
             }
         }
-        return sb.toString();
+        
+        Arrays.fill(columns, offset, offset + length, 1.0);
+        for (int index = 1; index < monomials.size(); index++) {
+            VectorKernels.multiply(columns, parentIndex[index] * stride + offset, 
+                    table[parentVariable[index]][parentExponent[index]], 0, 
+                    columns, index * stride + offset, length);
+        }
+    }
+    
+    @Override
+    public String getLatexExpression(Map<String, BigDecimal> coefficientValues) {
+        if (basis == PolynomialBasis.MONOMIAL) {
+            return getExpression(coefficientValues, " \\cdot ", exponents -> Monomial.getLatexExpression(variables, exponents));
+        }
+        return getExpression(coefficientValues, " \\cdot ", exponents -> Monomial.getBasisLatexExpression(basis, latexArguments, exponents));
+    }
+    
+    @Override
+    public String getMathExpression(Map<String, BigDecimal> coefficientValues) {
+        if (basis == PolynomialBasis.MONOMIAL) {
+            return getExpression(coefficientValues, " * ", exponents -> Monomial.getMathExpression(variables, exponents));
+        }
+        return getExpression(coefficientValues, " * ", exponents -> Monomial.getBasisMathExpression(basis, mathArguments, exponents));
     }
     
     @Override
     public String getMatlabExpression(Map<String, BigDecimal> coefficientValues) {
+        if (basis == PolynomialBasis.MONOMIAL) {
+            return getExpression(coefficientValues, " * ", exponents -> Monomial.getMatlabExpression(variables, exponents));
+        }
+        return getExpression(coefficientValues, " * ", exponents -> Monomial.getBasisMatlabExpression(basisCoefficients, matlabArguments, exponents));
+    }
+    
+    /**
+     * Provides the expression of this polynomial in its basis, where each 
+     * term is given by its coefficient, {@code times}, and the formatting of
+     * its exponents. 
+     */
+    private String getExpression(Map<String, BigDecimal> coefficientValues, String times, Function<int[], String> formatter) {
+        BigDecimal[] values = getMonomialValues(coefficientValues);
         StringBuilder sb = new StringBuilder();
-        sb.append(coefficientValues.get(Monomial.getZeroDegreeMonomial().getNamedCoefficient()));
-        for (int degree = 1; degree <= maximumDegree; degree++) {
-            for (Monomial monomial : monomials.get(degree)) {
-                BigDecimal value = coefficientValues.get(monomial.getNamedCoefficient());
-                assert value != null;
-                if (value.compareTo(BigDecimal.ZERO) >= 0) {
-                    sb.append(" + ");
-                } else {
-                    sb.append(" - ");
-                }
-                sb.append(value.abs().toPlainString()).append(" * ").append(monomial.getMatlabExpression());
+        sb.append(values[0]);
+        int[] exponents = new int[variables.length];
+        for (int index = 1; index < values.length; index++) {
+            BigDecimal value = values[index];
+            if (value.signum() == 0 && !isTerm(index)) {
+                continue;
             }
+            monomials.getExponents(index, exponents);
+            if (value.compareTo(BigDecimal.ZERO) >= 0) {
+                sb.append(" + ");
+            } else {
+                sb.append(" - ");
+            }
+            sb.append(value.abs().toPlainString()).append(times).append(formatter.apply(exponents));
         }
         return sb.toString();
     }
+    
+    /**
+     * @return the values of the coefficients, for all monomials used for the
+     *         evaluation; the monomials not being terms get zero
+     */
+    private BigDecimal[] getMonomialValues(Map<String, BigDecimal> coefficientValues) {
+        String[] names = getCoefficientNames();
+        BigDecimal[] values = new BigDecimal[monomials.size()];
+        Arrays.fill(values, BigDecimal.ZERO);
+        for (int index = 0; index < names.length; index++) {
+            values[getMonomialIndex(index)] = coefficientValues.get(names[index]);
+            assert values[getMonomialIndex(index)] != null;
+        }
+        return values;
+    }
+    
+    /**
+     * Provides the exponents of the terms of this polynomial: the term with
+     * exponents e<sub>1</sub>, ..., e<sub>n</sub> is the product of the basis
+     * polynomials P<sub>e<sub>i</sub></sub> applied to each variable, mapped
+     * onto [-1, 1] unless the basis is {@link PolynomialBasis#MONOMIAL}.
+     * 
+     * @return the exponents of the terms, in the order of
+     *         {@link #getCoefficients()} and with variables in the order of
+     *         {@link Variable#getVariables()}
+     */
+    public int[][] getTermExponents() {
+        int[][] exponents = new int[getNumberTerms()][variables.length];
+        for (int index = 0; index < exponents.length; index++) {
+            monomials.getExponents(getMonomialIndex(index), exponents[index]);
+        }
+        return exponents;
+    }
 }
@@ -0,0 +1,243 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.polynomial;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * The univariate bases that can be used to build the terms of a
+ * {@link Polynomial}. Each basis is given by its polynomials
+ * P<sub>0</sub>, P<sub>1</sub>, ..., where P<sub>k</sub> has degree
+ * {@code k}; apart from {@link #MONOMIAL}, the polynomials are orthogonal on
+ * [-1, 1], so they are evaluated after mapping each parameter interval onto
+ * [-1, 1].
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public enum PolynomialBasis {
+    /** The usual basis 1, t, t², ... */
+    MONOMIAL("monomial", "t") {
+        @Override
+        BigDecimal[][] getCoefficients(int maximumDegree) {
+            BigDecimal[][] coefficients = initializeCoefficients(maximumDegree);
+            for (int k = 0; k <= maximumDegree; k++) {
+                coefficients[k][k] = BigDecimal.ONE;
+            }
+            return coefficients;
+        }
+        
+        @Override
+        double getRecurrenceScale(int k) {
+            return 1.0;
+        }
+        
+        @Override
+        double getRecurrenceShift(int k) {
+            return 0.0;
+        }
+    },
+    
+    /** The Chebyshev polynomials of the first kind, T<sub>k+1</sub>(t) = 2t T<sub>k</sub>(t) - T<sub>k-1</sub>(t) */
+    CHEBYSHEV("chebyshev", "T") {
+        @Override
+        BigDecimal[][] getCoefficients(int maximumDegree) {
+            BigDecimal[][] coefficients = initializeCoefficients(maximumDegree);
+            coefficients[0][0] = BigDecimal.ONE;
+            if (maximumDegree > 0) {
+                coefficients[1][1] = BigDecimal.ONE;
+            }
+            BigDecimal two = BigDecimal.valueOf(2);
+            for (int k = 2; k <= maximumDegree; k++) {
+                for (int j = 0; j <= k; j++) {
+                    BigDecimal value = coefficients[k - 2][j].negate();
+                    if (j > 0) {
+                        value = value.add(two.multiply(coefficients[k - 1][j - 1]));
+                    }
+                    coefficients[k][j] = value;
+                }
+            }
+            return coefficients;
+        }
+        
+        @Override
+        double getRecurrenceScale(int k) {
+            return 2.0;
+        }
+        
+        @Override
+        double getRecurrenceShift(int k) {
+            return 1.0;
+        }
+    },
+    
+    /** The Legendre polynomials, P<sub>k</sub>(t) = 2<sup>-k</sup> Σ<sub>i</sub> (-1)<sup>i</sup> C(k,i) C(2k-2i,k) t<sup>k-2i</sup> */
+    LEGENDRE("legendre", "P") {
+        @Override
+        BigDecimal[][] getCoefficients(int maximumDegree) {
+            BigDecimal[][] coefficients = initializeCoefficients(maximumDegree);
+            for (int k = 0; k <= maximumDegree; k++) {
+                // 2^-k = 5^k / 10^k, so the division is exact
+                BigDecimal scale = new BigDecimal(BigInteger.valueOf(5).pow(k), k);
+                for (int i = 0; 2 * i <= k; i++) {
+                    BigInteger value = binomial(k, i).multiply(binomial(2 * k - 2 * i, k));
+                    if (i % 2 == 1) {
+                        value = value.negate();
+                    }
+                    coefficients[k][k - 2 * i] = new BigDecimal(value).multiply(scale).stripTrailingZeros();
+                }
+            }
+            return coefficients;
+        }
+        
+        // k P_k(t) = (2k - 1) t P_{k-1}(t) - (k - 1) P_{k-2}(t)
+        
+        @Override
+        double getRecurrenceScale(int k) {
+            return (2.0 * k - 1) / k;
+        }
+        
+        @Override
+        double getRecurrenceShift(int k) {
+            return (k - 1.0) / k;
+        }
+    };
+    
+    private final String name;
+    private final String symbol;
+    
+    private PolynomialBasis(String name, String symbol) {
+        this.name = name;
+        this.symbol = symbol;
+    }
+    
+    /**
+     * Provides the coefficients of the polynomials of this basis up to the given
+     * degree, expressed in the monomial basis.
+     * 
+     * @param maximumDegree
+     *            the maximum degree
+     * @return the matrix {@code c} such that P<sub>k</sub>(t) = Σ<sub>j</sub>
+     *         {@code c[k][j]} t<sup>j</sup>; entries with {@code j > k} are zero
+     */
+    abstract BigDecimal[][] getCoefficients(int maximumDegree);
+    
+    /**
+     * Provides the factor {@code a} of the three-term recurrence
+     * P<sub>k</sub>(t) = a t P<sub>k-1</sub>(t) - b P<sub>k-2</sub>(t) of
+     * this basis, with P<sub>0</sub>(t) = 1 and P<sub>1</sub>(t) = t.
+     * 
+     * @param k
+     *            the degree, at least 2
+     * @return the factor {@code a}
+     */
+    abstract double getRecurrenceScale(int k);
+    
+    /**
+     * Provides the factor {@code b} of the three-term recurrence of this 
+     * basis, as in {@link #getRecurrenceScale(int)}.
+     * 
+     * @param k
+     *            the degree, at least 2
+     * @return the factor {@code b}
+     */
+    abstract double getRecurrenceShift(int k);
+    
+    /**
+     * Evaluates the polynomials P<sub>0</sub>, ..., P<sub>n</sub> of this basis
+     * at the given point by means of their three-term recurrence, which is 
+     * stable on [-1, 1], unlike the evaluation of their expansion in the 
+     * monomial basis, whose coefficients grow as 2<sup>k</sup>.
+     * 
+     * @param t
+     *            the point, usually in [-1, 1]
+     * @param values
+     *            the array receiving P<sub>k</sub>(t) in {@code values[k]}; its
+     *            length is {@code n + 1}
+     */
+    public void evaluate(double t, double[] values) {
+        for (int k = 0; k < values.length; k++) {
+            if (k == 0) {
+                values[k] = 1.0;
+            } else if (k == 1) {
+                values[k] = t;
+            } else {
+                values[k] = getRecurrenceScale(k) * t * values[k - 1] - getRecurrenceShift(k) * values[k - 2];
+            }
+        }
+    }
+    
+    /**
+     * @return the symbol of the polynomials of this basis, as used in the
+     *         generated expressions
+     */
+    String getSymbol() {
+        return symbol;
+    }
+    
+    /**
+     * @return the name of this basis, as used in the command line
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Provides the basis having the given name.
+     * 
+     * @param name
+     *            the name of the basis
+     * @return the basis with the given name, or {@code null} if no basis has
+     *         such name
+     */
+    public static PolynomialBasis fromName(String name) {
+        for (PolynomialBasis basis : values()) {
+            if (basis.name.equals(name)) {
+                return basis;
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public String toString() {
+        return name;
+    }
+    
+    private static BigDecimal[][] initializeCoefficients(int maximumDegree) {
+        BigDecimal[][] coefficients = new BigDecimal[maximumDegree + 1][maximumDegree + 1];
+        for (BigDecimal[] row : coefficients) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = BigDecimal.ZERO;
+            }
+        }
+        return coefficients;
+    }
+
+    private static BigInteger binomial(int n, int k) {
+        BigInteger result = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            result = result.multiply(BigInteger.valueOf(n - i)).divide(BigInteger.valueOf(i + 1));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,210 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    Since this is a rewriting in JAVA of the original implementation of 
+    AdaptLIPO given in https://github.com/UBC-CS/lipo-python/src/sequential.py
+    this file is provided with the same license, as follows:
+    
+    MIT License
+
+    Copyright (c) 2018 UBC Computer Science
+    
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+    
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+    
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+
+ *****************************************************************************/
+
+package pacpma.approach.lipo;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import pacpma.algebra.Constant;
+import pacpma.log.LogEngine;
+import pacpma.modelchecker.ModelCheckerResult;
+import pacpma.modelchecker.interactive.InteractiveModelCheckerPool;
+import pacpma.options.OptionsPacPMA;
+
+/**
+ * Asynchronous variant of {@link LIPOApproach}, keeping one candidate in 
+ * flight for each model checker of a pool. Whenever a result arrives, the
+ * Lipschitz constant estimate and the best values are updated with it, and
+ * a new candidate is drawn and filtered against the potential maximizers
+ * given by the results available so far, without waiting for the other 
+ * candidates in flight.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class AsynchronousLIPOApproach extends LIPOApproach {
+    
+    /** A candidate together with its result from the model checker */
+    private static class Evaluation {
+        final double[] point;
+        final ModelCheckerResult result;
+        
+        Evaluation(double[] point, ModelCheckerResult result) {
+            this.point = point;
+            this.result = result;
+        }
+    }
+    
+    private final BlockingQueue<Evaluation> evaluations = new LinkedBlockingQueue<>();
+
+    public AsynchronousLIPOApproach(LogEngine logEngineInstance) {
+        super(logEngineInstance);
+    }
+
+    @Override
+    public void doAnalysis() {
+        Random randomNumberGenerator = new Random(OptionsPacPMA.getSeed());
+        
+        int numberWorkers = OptionsPacPMA.getModelCheckerThreads();
+        InteractiveModelCheckerPool modelCheckerPool = 
+                new InteractiveModelCheckerPool(numberWorkers, LIPOApproach::newModelChecker);
+        
+        // dimension of the domain
+        final int d = parameters.length;
+        
+        double alpha = 0.01/d;
+
+        // the evaluated points and their values
+        LipschitzBound evaluated = new LipschitzBound(d);
+
+        // the lower/upper bounds on each dimension
+        double[] bound_mins = new double[d];
+        double[] bound_maxs = new double[d];
+        for (int i = 0; i < d; i++) {
+            bound_mins[i] = parameters[i].getLowerbound().doubleValue();
+            bound_maxs[i] = parameters[i].getUpperbound().doubleValue();
+        }
+        
+        Integer iterationLimit = OptionsPacPMA.getOptimizationStoppingIterationLimit();
+        
+        // initialization with one randomly drawn point in domain for each worker and k = 0
+        double k = 0;
+        double k_est = Double.NEGATIVE_INFINITY;
+        int submitted = 0;
+        int inFlight = 0;
+        while (inFlight < numberWorkers && (iterationLimit == null || submitted < iterationLimit || submitted == 0)) {
+            submit(modelCheckerPool, randomPoint(randomNumberGenerator, bound_mins, bound_maxs));
+            submitted++;
+            inFlight++;
+        }
+        
+        int tMax = 0;
+        boolean failed = false;
+        boolean stopping = false;
+        iterationCounter = 0;
+        while (inFlight > 0) {
+            Evaluation evaluation = takeEvaluation();
+            inFlight--;
+            if (evaluation.result == null) {
+                logEngineInstance.log(LogEngine.LEVEL_ERROR, "AsynchronousLIPOApproach: model checking result is null for instance " + toConstants(evaluation.point));
+                failed = true;
+                stopping = true;
+                continue;
+            }
+            if (evaluation.result.isInfinite()) {
+                logEngineInstance.log(LogEngine.LEVEL_WARNING, "AsynchronousLIPOApproach: model checking result is infinite for instance " + toConstants(evaluation.point));
+                failed = true;
+                stopping = true;
+                continue;
+            }
+            if (failed) {
+                continue;
+            }
+            
+            double yValue = optimalValue(evaluation.result.getResult().doubleValue());
+            if (iterationCounter > 0) {
+                double slope = evaluated.maximumSlope(evaluation.point, yValue);
+                if (k_est < slope) {
+                    k_est = slope;
+                }
+                double i_t = Math.ceil(Math.log(k_est)/Math.log(1+alpha));
+                k = Math.pow(1+alpha, i_t);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "AsynchronousLIPOApproach: Lipschitz constant estimate: " + k);
+            }
+            evaluated.add(evaluation.point, yValue);
+            if (iterationCounter == 0) {
+                valueMax = yValue;
+                coordinatesValueMax = evaluation.point;
+            } else if (valueMax < yValue) {
+                valueMaxSecond = valueMax;
+                valueMax = yValue;
+                coordinatesValueMaxSecond = coordinatesValueMax;
+                coordinatesValueMax = evaluation.point;
+                tMax = iterationCounter;
+            }
+            iterationCounter++;
+            
+            // the candidates still in flight are not waited for
+            stopping = stopping || !improve() || (iterationLimit != null && submitted >= iterationLimit);
+            if (stopping) {
+                continue;
+            }
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "AsynchronousLIPOApproach: iteration: " + submitted);
+            double[] x_prop = randomPoint(randomNumberGenerator, bound_mins, bound_maxs);
+            // check if we are exploring or exploiting
+            if (randomNumberGenerator.nextDouble() > exploitationThreshold) { // enter to exploit w/ prob (1-p)
+                // exploiting - ensure we're drawing from potential maximizers
+                x_prop = potentialMaximizer(randomNumberGenerator, x_prop, bound_mins, bound_maxs, evaluated, k, valueMax);
+            }
+            submit(modelCheckerPool, x_prop);
+            submitted++;
+            inFlight++;
+        }
+        
+        modelCheckerPool.stop();
+        if (failed) {
+            return;
+        }
+        
+        valueMax = optimalValue(valueMax);
+        
+        List<Constant> optParameters = toConstants(coordinatesValueMax);
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "AsynchronousLIPOApproach: analysis completed; computed optimal value " + valueMax + " at " + optParameters + " during iteration " + tMax);
+        System.out.println("Optimal value: " + valueMax);
+        System.out.println("Coordinates of optimal value: " + optParameters);
+        System.out.println("Iteration of optimal value: " + tMax);      
+    }
+    
+    private void submit(InteractiveModelCheckerPool modelCheckerPool, double[] point) {
+        modelCheckerPool.submit(toConstants(point))
+            .whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    logEngineInstance.log(LogEngine.LEVEL_ERROR, "AsynchronousLIPOApproach: model checking failed: " + throwable);
+                }
+                evaluations.add(new Evaluation(point, result));
+            });
+    }
+    
+    private Evaluation takeEvaluation() {
+        while (true) {
+            try {
+                return evaluations.take();
+            } catch (InterruptedException ie) {
+                continue;
+            }
+        }
+    }
+}
@@ -53,17 +53,20 @@ import pacpma.options.OptionsPacPMA;
  *
  */
 public class LIPOApproach implements Approach {
-    private static LogEngine logEngineInstance;
-    private final Parameter[] parameters;
-    private final double exploitationThreshold;
-    private final double exploitationCounterLimit;
+    /** Number of candidates drawn and screened together while exploiting */
+    static final int SCREENING_BATCH_SIZE = 64;
     
-    private int iterationCounter;
+    static LogEngine logEngineInstance;
+    final Parameter[] parameters;
+    final double exploitationThreshold;
+    final double exploitationCounterLimit;
+    
+    int iterationCounter;
 
-    private double valueMax;
-    private Double[] coordinatesValueMax;
-    private Double valueMaxSecond = null;
-    private Double[] coordinatesValueMaxSecond = null;
+    double valueMax;
+    double[] coordinatesValueMax;
+    Double valueMaxSecond = null;
+    double[] coordinatesValueMaxSecond = null;
 
     public LIPOApproach(LogEngine logEngineInstance) {
         LIPOApproach.logEngineInstance = logEngineInstance;
@@ -76,12 +79,7 @@ public class LIPOApproach implements Approach {
     public void doAnalysis() {
         Random randomNumberGenerator = new Random(OptionsPacPMA.getSeed());
         
-        InteractiveModelChecker modelChecker = new StormCWrapper();
-        modelChecker.setModelType(OptionsPacPMA.getModelType());
-        modelChecker.setModelFile(OptionsPacPMA.getModelFile());
-        modelChecker.setPropertyFormula(OptionsPacPMA.getPropertyFormula());
-        modelChecker.setConstants(OptionsPacPMA.getConstants());
-        modelChecker.setOptions(OptionsPacPMA.getModelCheckerOptions());
+        InteractiveModelChecker modelChecker = newModelChecker();
         modelChecker.startModelChecker();
                 
         // dimension of the domain
@@ -89,11 +87,8 @@ public class LIPOApproach implements Approach {
         
         double alpha = 0.01/d;
 
-        // preallocate the output arrays
-        List<Double> y = new ArrayList<>();
-        List<Double[]> x = new ArrayList<>();
-        List<Double> loss = new ArrayList<>();
-        List<Double> k_arr = new ArrayList<>();
+        // the evaluated points and their values
+        LipschitzBound evaluated = new LipschitzBound(d);
 
         // the lower/upper bounds on each dimension
         double[] bound_mins = new double[d];
@@ -106,20 +101,9 @@ public class LIPOApproach implements Approach {
         // initialization with randomly drawn point in domain and k = 0
         double k = 0;
         double k_est = Double.NEGATIVE_INFINITY;
-        Double[] u = new Double[d];
-        for (int i = 0; i < d; i++) {
-            u[i] = randomNumberGenerator.nextDouble();
-        }
-        coordinatesValueMax = new Double[d];
-        for (int i = 0; i < d; i++) {
-            coordinatesValueMax[i] = u[i] * (bound_maxs[i] - bound_mins[i]) + bound_mins[i];
-        }
-        x.add(coordinatesValueMax);
+        coordinatesValueMax = randomPoint(randomNumberGenerator, bound_mins, bound_maxs);
         
-        List<Constant> instances = new ArrayList<>(d);
-        for (int i = 0; i < d; i++) {
-            instances.add(new Constant(parameters[i].getName(), String.valueOf(coordinatesValueMax[i])));
-        }
+        List<Constant> instances = toConstants(coordinatesValueMax);
         ModelCheckerResult result = modelChecker.check(instances);
         if (result == null) {
             logEngineInstance.log(LogEngine.LEVEL_ERROR, "LIPOApproach: model checking result is null for instance " + instances.toString());
@@ -129,54 +113,32 @@ public class LIPOApproach implements Approach {
             logEngineInstance.log(LogEngine.LEVEL_WARNING, "LIPOApproach: model checking result is infinite for instance " + instances.toString());
             return;
         }
-        y.add(optimalValue(result.getResult().doubleValue()));
-        k_arr.add(k);
-        
-        valueMax = y.get(0);
+        valueMax = optimalValue(result.getResult().doubleValue());
+        evaluated.add(coordinatesValueMax, valueMax);
         int tMax = 0;
         
         iterationCounter = 1;
         while (improve()) {
             logEngineInstance.log(LogEngine.LEVEL_INFO, "LIPOApproach: iteration: " + iterationCounter);
             
-            Double[] x_prop = new Double[d];
-            for (int i = 0; i < d; i++) {
-                u[i] = randomNumberGenerator.nextDouble();
-            }
-            for (int i = 0; i < d; i++) {
-                x_prop[i] = u[i] * (bound_maxs[i] - bound_mins[i]) + bound_mins[i];
-            }
+            double[] x_prop = randomPoint(randomNumberGenerator, bound_mins, bound_maxs);
             // check if we are exploring or exploiting
             if (randomNumberGenerator.nextDouble() > exploitationThreshold) { // enter to exploit w/ prob (1-p)
                 logEngineInstance.log(LogEngine.LEVEL_INFO, "LIPOApproach: starting exploiting");
                 // exploiting - ensure we're drawing from potential maximizers
-                int iters = 0;
-                while (iters < exploitationCounterLimit && upper_bound(iterationCounter, x_prop, y, x, k) < valueMax) {
-                    for (int i = 0; i < d; i++) {
-                        u[i] = randomNumberGenerator.nextDouble();
-                    }
-                    for (int i = 0; i < d; i++) {
-                        x_prop[i] = u[i] * (bound_maxs[i] - bound_mins[i]) + bound_mins[i];
-                    }
-                    iters++;
-                }
+                x_prop = potentialMaximizer(randomNumberGenerator, x_prop, bound_mins, bound_maxs, evaluated, k, valueMax);
                 logEngineInstance.log(LogEngine.LEVEL_INFO, "LIPOApproach: exploiting done");
             } else {
                 logEngineInstance.log(LogEngine.LEVEL_INFO, "LIPOApproach: no exploiting in this iteration");
             }
-            x.add(x_prop);
             
-            instances = new ArrayList<>(d);
-            for (int i = 0; i < d; i++) {
-                instances.add(new Constant(parameters[i].getName(), String.valueOf(x_prop[i])));
-            }
+            instances = toConstants(x_prop);
             result = modelChecker.check(instances);
             if (result.isInfinite()) {
                 logEngineInstance.log(LogEngine.LEVEL_WARNING, "LIPOApproach: model checking result is infinite for instance " + instances.toString());
                 return;
             }
             double yValue = optimalValue(result.getResult().doubleValue());
-            y.add(yValue);
             if (valueMax < yValue) {
                 valueMaxSecond = valueMax;
                 valueMax = yValue;
@@ -184,31 +146,15 @@ public class LIPOApproach implements Approach {
                 coordinatesValueMax = x_prop;
                 tMax = iterationCounter;
             }
-            loss.add(valueMax);
             
-            double[] new_x_dist = new double[iterationCounter];
-            for (int i = 0; i < iterationCounter; i++) {
-                double sum = 0;
-                Double[] x_prev = x.get(i);
-                for (int j = 0; j < d; j++) {
-                    sum = sum + Math.pow(x_prev[j] - x_prop[j], 2);
-                }
-                new_x_dist[i] = Math.sqrt(sum);
-            }
-            double[] new_y_dist = new double[iterationCounter];
-            for (int i = 0; i < iterationCounter; i++) {
-                new_y_dist[i] = Math.abs(y.get(i) - yValue);
-            }
-            for (int i = 0; i < iterationCounter; i++) {
-                double div = new_y_dist[i]/new_x_dist[i];
-                if (k_est < div) {
-                    k_est = div;
-                }
+            double slope = evaluated.maximumSlope(x_prop, yValue);
+            if (k_est < slope) {
+                k_est = slope;
             }
+            evaluated.add(x_prop, yValue);
             double i_t = Math.ceil(Math.log(k_est)/Math.log(1+alpha));
             k = Math.pow(1+alpha, i_t);
             logEngineInstance.log(LogEngine.LEVEL_WARNING, "LIPOApproach: Lipschitz constant estimate: " + k);
-            k_arr.add(k);
             
             iterationCounter++;
         }
@@ -217,17 +163,107 @@ public class LIPOApproach implements Approach {
         
         valueMax = optimalValue(valueMax);
         
-        List<Constant> optParameters = new ArrayList<>(d);
-        for (int i = 0; i < d; i++) {
-            optParameters.add(new Constant(parameters[i].getName(), Double.toString(coordinatesValueMax[i])));
-        }
+        List<Constant> optParameters = toConstants(coordinatesValueMax);
         logEngineInstance.log(LogEngine.LEVEL_INFO, "LIPOApproach: analysis completed; computed optimal value " + valueMax + " at " + optParameters + " during iteration " + tMax);
         System.out.println("Optimal value: " + valueMax);
         System.out.println("Coordinates of optimal value: " + optParameters);
         System.out.println("Iteration of optimal value: " + tMax);      
     }
     
-    private boolean improve() {
+    /**
+     * Draws candidates until one of them is a potential maximizer according 
+     * to the evaluated points, starting from the given candidate and drawing
+     * at most as many further candidates as the exploitation limit. The 
+     * further candidates are drawn in batches and each batch is screened at
+     * once, possibly in parallel.
+     * 
+     * @param randomNumberGenerator
+     *            the random number generator
+     * @param candidate
+     *            the first candidate
+     * @param bound_mins
+     *            the lower bound of each dimension
+     * @param bound_maxs
+     *            the upper bound of each dimension
+     * @param evaluated
+     *            the evaluated points
+     * @param k
+     *            the Lipschitz constant
+     * @param valueMax
+     *            the best value so far
+     * @return the first candidate being a potential maximizer, or the last 
+     *         drawn candidate if there is none
+     */
+    double[] potentialMaximizer(Random randomNumberGenerator, double[] candidate, 
+            double[] bound_mins, double[] bound_maxs, LipschitzBound evaluated, double k, double valueMax) {
+        if (evaluated.isPotentialMaximizer(candidate, k, valueMax)) {
+            return candidate;
+        }
+        int remaining = (int) Math.ceil(exploitationCounterLimit);
+        while (remaining > 0) {
+            double[][] candidates = new double[Math.min(SCREENING_BATCH_SIZE, remaining)][];
+            for (int c = 0; c < candidates.length; c++) {
+                candidates[c] = randomPoint(randomNumberGenerator, bound_mins, bound_maxs);
+            }
+            remaining -= candidates.length;
+            int first = evaluated.firstPotentialMaximizer(candidates, k, valueMax);
+            if (first >= 0) {
+                return candidates[first];
+            }
+            candidate = candidates[candidates.length - 1];
+        }
+        return candidate;
+    }
+    
+    double[] randomPoint(Random randomNumberGenerator, double[] bound_mins, double[] bound_maxs) {
+        double[] point = new double[bound_mins.length];
+        for (int i = 0; i < point.length; i++) {
+            point[i] = randomNumberGenerator.nextDouble() * (bound_maxs[i] - bound_mins[i]) + bound_mins[i];
+        }
+        return point;
+    }
+    
+    List<Constant> toConstants(double[] point) {
+        List<Constant> instances = new ArrayList<>(point.length);
+        for (int i = 0; i < point.length; i++) {
+            instances.add(new Constant(parameters[i].getName(), String.valueOf(point[i])));
+        }
+        return instances;
+    }
+    
+    /**
+     * @return a new model checker for the model and property, not yet started
+     */
+    static InteractiveModelChecker newModelChecker() {
+        InteractiveModelChecker modelChecker = new StormCWrapper();
+        modelChecker.setModelType(OptionsPacPMA.getModelType());
+        modelChecker.setModelFile(OptionsPacPMA.getModelFile());
+        modelChecker.setPropertyFormula(OptionsPacPMA.getPropertyFormula());
+        modelChecker.setConstants(OptionsPacPMA.getConstants());
+        modelChecker.setOptions(OptionsPacPMA.getModelCheckerOptions());
+        return modelChecker;
+    }
+    
+    boolean improve() {
+        return improve(valueMax, valueMaxSecond, coordinatesValueMax, coordinatesValueMaxSecond);
+    }
+    
+    /**
+     * Checks the stopping criteria against the given best and second best
+     * values and their coordinates.
+     * 
+     * @param valueMax
+     *            the best value
+     * @param valueMaxSecond
+     *            the second best value; {@code null} if not yet available
+     * @param coordinatesValueMax
+     *            the coordinates of the best value
+     * @param coordinatesValueMaxSecond
+     *            the coordinates of the second best value; {@code null} if 
+     *            not yet available
+     * @return whether the search has to continue
+     */
+    boolean improve(double valueMax, Double valueMaxSecond, double[] coordinatesValueMax, double[] coordinatesValueMaxSecond) {
         boolean canImprove = true;
         
         Integer icl = OptionsPacPMA.getOptimizationStoppingIterationLimit();
@@ -259,38 +295,27 @@ public class LIPOApproach implements Approach {
         return canImprove;
     }
     
-    private double optimalValue(double value) {
+    double optimalValue(double value) {
         if (OptionsPacPMA.isOptimizationDirectionMin()) {
             return -value;
         }
         return value;
     }
 
-    private double upper_bound(int limit, Double[] x_prop, List<Double> y, List<Double[]> x, double k) {
-        double min_value = Double.POSITIVE_INFINITY;
-        for (int i = 0; i < limit; i++) {
-            double cur_value = y.get(i) + k * norm(x.get(i), x_prop);
-            if (min_value > cur_value) {
-                min_value = cur_value;
-            }
-        }
-        return min_value;
-    }
-    
-    private double norm(Double[] v1, Double[] v2) {
+    double norm(double[] v1, double[] v2) {
         assert (v1.length == v2.length);
         
         double norm2 = 0;
         for (int j = 0; j < v1.length; j++) {
-            norm2 = norm2 + Math.pow(v1[j] - v2[j], 2);
+            norm2 = norm2 + (v1[j] - v2[j]) * (v1[j] - v2[j]);
         }
         return Math.sqrt(norm2);
     }
     
-    private double norm(Double[] vect) {
+    double norm(double[] vect) {
         double norm2 = 0;
         for (int j = 0; j < vect.length; j++) {
-            norm2 = norm2 + Math.pow(vect[j], 2);
+            norm2 = norm2 + vect[j] * vect[j];
         }
         return Math.sqrt(norm2);
     }
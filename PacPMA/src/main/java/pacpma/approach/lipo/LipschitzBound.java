@@ -0,0 +1,346 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.approach.lipo;
+
+import java.util.Arrays;
+
+import pacpma.util.ParallelBlocks;
+
+/**
+ * The points evaluated by LIPO together with their values, stored in flat 
+ * arrays and indexed by a k-d tree, providing the Lipschitz upper bound
+ * min<sub>i</sub> (y<sub>i</sub> + k ‖x<sub>i</sub> − x‖) of the function at
+ * a point {@code x}. Each node of the tree keeps the bounding box and the 
+ * minimum value of its points, so that y<sub>min</sub> + k · dist(x, box)
+ * bounds from below the contribution of the whole node and the nodes not 
+ * able to lower the bound are pruned, for any value of k.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+class LipschitzBound {
+    /** Maximum number of points in a leaf, unless they all coincide */
+    private static final int LEAF_SIZE = 32;
+    
+    /** Number of points times candidates above which candidates are screened in parallel */
+    private static final int PARALLEL_SCREENING_THRESHOLD = 1 << 15;
+
+    private class Node {
+        final double[] lower;
+        final double[] upper;
+        double minimumValue = Double.POSITIVE_INFINITY;
+        
+        int[] indices = new int[LEAF_SIZE];
+        int count = 0;
+        
+        int splitDimension;
+        double splitValue;
+        Node left = null;
+        Node right = null;
+        
+        Node() {
+            lower = new double[dimension];
+            upper = new double[dimension];
+            Arrays.fill(lower, Double.POSITIVE_INFINITY);
+            Arrays.fill(upper, Double.NEGATIVE_INFINITY);
+        }
+        
+        boolean isLeaf() {
+            return left == null;
+        }
+        
+        void include(int index) {
+            int offset = index * dimension;
+            for (int j = 0; j < dimension; j++) {
+                double coordinate = points[offset + j];
+                if (lower[j] > coordinate) {
+                    lower[j] = coordinate;
+                }
+                if (upper[j] < coordinate) {
+                    upper[j] = coordinate;
+                }
+            }
+            if (minimumValue > values[index]) {
+                minimumValue = values[index];
+            }
+        }
+        
+        void append(int index) {
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, 2 * count);
+            }
+            indices[count++] = index;
+        }
+        
+        /**
+         * Splits the leaf at the median of its widest dimension; a leaf whose
+         * points coincide is not split.
+         */
+        void split() {
+            int widest = 0;
+            for (int j = 1; j < dimension; j++) {
+                if (upper[j] - lower[j] > upper[widest] - lower[widest]) {
+                    widest = j;
+                }
+            }
+            if (!(upper[widest] > lower[widest])) {
+                return;
+            }
+            double[] coordinates = new double[count];
+            for (int i = 0; i < count; i++) {
+                coordinates[i] = points[indices[i] * dimension + widest];
+            }
+            Arrays.sort(coordinates);
+            double median = coordinates[count / 2];
+            if (median == coordinates[count - 1]) {
+                // all points from the median on coincide in the widest dimension
+                median = coordinates[0];
+                for (double coordinate : coordinates) {
+                    if (coordinate < coordinates[count - 1]) {
+                        median = coordinate;
+                    }
+                }
+            }
+            splitDimension = widest;
+            splitValue = median;
+            left = new Node();
+            right = new Node();
+            for (int i = 0; i < count; i++) {
+                int index = indices[i];
+                Node child = (points[index * dimension + widest] <= median) ? left : right;
+                child.append(index);
+                child.include(index);
+            }
+            indices = null;
+            count = 0;
+        }
+        
+        /**
+         * @return a lower bound of y<sub>i</sub> + k ‖x<sub>i</sub> − x‖ over
+         *         the points of this node
+         */
+        double lowerBound(double[] point, double k) {
+            double distance2 = 0;
+            for (int j = 0; j < dimension; j++) {
+                double gap = Math.max(lower[j] - point[j], point[j] - upper[j]);
+                if (gap > 0) {
+                    distance2 += gap * gap;
+                }
+            }
+            if (distance2 == 0) {
+                return minimumValue;
+            }
+            return minimumValue + k * Math.sqrt(distance2);
+        }
+    }
+    
+    private final int dimension;
+    private double[] points;
+    private double[] values;
+    private int size = 0;
+    private final Node root;
+    
+    /**
+     * @param dimension
+     *            the number of coordinates of each point
+     */
+    LipschitzBound(int dimension) {
+        this.dimension = dimension;
+        points = new double[dimension * 1024];
+        values = new double[1024];
+        root = new Node();
+    }
+    
+    /**
+     * @return the number of points
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Adds the given point with its value.
+     * 
+     * @param point
+     *            the point
+     * @param value
+     *            the value at the point
+     */
+    void add(double[] point, double value) {
+        assert point.length == dimension;
+        
+        if (size == values.length) {
+            values = Arrays.copyOf(values, 2 * size);
+            points = Arrays.copyOf(points, 2 * size * dimension);
+        }
+        System.arraycopy(point, 0, points, size * dimension, dimension);
+        values[size] = value;
+        int index = size++;
+        
+        Node node = root;
+        node.include(index);
+        while (!node.isLeaf()) {
+            node = (point[node.splitDimension] <= node.splitValue) ? node.left : node.right;
+            node.include(index);
+        }
+        node.append(index);
+        if (node.count > LEAF_SIZE) {
+            node.split();
+        }
+    }
+    
+    /**
+     * Provides the largest slope |y<sub>i</sub> − y| / ‖x<sub>i</sub> − x‖ 
+     * between the given point and the points added so far.
+     * 
+     * @param point
+     *            the point
+     * @param value
+     *            the value at the point
+     * @return the largest slope, or negative infinity if there are no points
+     */
+    double maximumSlope(double[] point, double value) {
+        double slope = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            double div = Math.abs(values[i] - value) / distance(i, point);
+            if (slope < div) {
+                slope = div;
+            }
+        }
+        return slope;
+    }
+    
+    /**
+     * Provides the Lipschitz upper bound 
+     * min<sub>i</sub> (y<sub>i</sub> + k ‖x<sub>i</sub> − x‖) at the given 
+     * point.
+     * 
+     * @param point
+     *            the point
+     * @param k
+     *            the Lipschitz constant
+     * @return the upper bound, or positive infinity if there are no points
+     */
+    double upperBound(double[] point, double k) {
+        return search(root, point, k, Double.POSITIVE_INFINITY, false);
+    }
+    
+    /**
+     * Checks whether the given point is a potential maximizer, that is, 
+     * whether its Lipschitz upper bound is at least {@code threshold}; the
+     * search stops at the first point witnessing the contrary.
+     * 
+     * @param point
+     *            the point
+     * @param k
+     *            the Lipschitz constant
+     * @param threshold
+     *            the value to reach
+     * @return whether the upper bound at {@code point} is at least 
+     *         {@code threshold}
+     */
+    boolean isPotentialMaximizer(double[] point, double k, double threshold) {
+        return search(root, point, k, threshold, true) >= threshold;
+    }
+    
+    /**
+     * Screens the given candidates, in parallel when there are enough points
+     * and candidates.
+     * 
+     * @param candidates
+     *            the candidates
+     * @param k
+     *            the Lipschitz constant
+     * @param threshold
+     *            the value to reach
+     * @return the index of the first candidate being a potential maximizer,
+     *         or -1 if there is none
+     */
+    int firstPotentialMaximizer(double[][] candidates, double k, double threshold) {
+        if ((long) size * candidates.length < PARALLEL_SCREENING_THRESHOLD) {
+            for (int c = 0; c < candidates.length; c++) {
+                if (isPotentialMaximizer(candidates[c], k, threshold)) {
+                    return c;
+                }
+            }
+            return -1;
+        }
+        boolean[] potentialMaximizers = new boolean[candidates.length];
+        ParallelBlocks.run(candidates.length, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                potentialMaximizers[c] = isPotentialMaximizer(candidates[c], k, threshold);
+            }
+        });
+        for (int c = 0; c < candidates.length; c++) {
+            if (potentialMaximizers[c]) {
+                return c;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Branch and bound search of the minimum of y<sub>i</sub> + 
+     * k ‖x<sub>i</sub> − x‖ below {@code best}, returning {@code best} when
+     * there is no smaller value; with {@code stopAtFirst}, any value smaller
+     * than {@code best} is returned.
+     */
+    private double search(Node node, double[] point, double k, double best, boolean stopAtFirst) {
+        if (node.lowerBound(point, k) >= best) {
+            return best;
+        }
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.count; i++) {
+                int index = node.indices[i];
+                double distance = distance(index, point);
+                double bound = (distance == 0) ? values[index] : values[index] + k * distance;
+                if (bound < best) {
+                    best = bound;
+                    if (stopAtFirst) {
+                        return best;
+                    }
+                }
+            }
+            return best;
+        }
+        Node first = node.left;
+        Node second = node.right;
+        if (point[node.splitDimension] > node.splitValue) {
+            first = node.right;
+            second = node.left;
+        }
+        double firstBest = search(first, point, k, best, stopAtFirst);
+        if (stopAtFirst && firstBest < best) {
+            return firstBest;
+        }
+        return search(second, point, k, firstBest, stopAtFirst);
+    }
+    
+    private double distance(int index, double[] point) {
+        int offset = index * dimension;
+        double distance2 = 0;
+        for (int j = 0; j < dimension; j++) {
+            double difference = points[offset + j] - point[j];
+            distance2 += difference * difference;
+        }
+        return Math.sqrt(distance2);
+    }
+}
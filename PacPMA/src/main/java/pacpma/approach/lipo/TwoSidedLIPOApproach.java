@@ -0,0 +1,174 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    Since this is a rewriting in JAVA of the original implementation of 
+    AdaptLIPO given in https://github.com/UBC-CS/lipo-python/src/sequential.py
+    this file is provided with the same license, as follows:
+    
+    MIT License
+
+    Copyright (c) 2018 UBC Computer Science
+    
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+    
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+    
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+
+ *****************************************************************************/
+
+package pacpma.approach.lipo;
+
+import java.util.List;
+import java.util.Random;
+
+import pacpma.algebra.Constant;
+import pacpma.log.LogEngine;
+import pacpma.modelchecker.ModelCheckerResult;
+import pacpma.modelchecker.interactive.InteractiveModelChecker;
+import pacpma.options.OptionsPacPMA;
+
+/**
+ * Two-sided variant of {@link LIPOApproach}, looking for the minimum and the
+ * maximum in the same run. Each model checking result is used for both 
+ * extrema: the Lipschitz constant estimate is shared, since it does not 
+ * depend on the direction, while each extremum has its own index of the
+ * evaluated points to filter the potential maximizers of the value or of its
+ * opposite. The iterations alternate between exploiting for the maximum and
+ * for the minimum.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class TwoSidedLIPOApproach extends LIPOApproach {
+    
+    /** One of the extrema, found as the maximum of the value or of its opposite */
+    private static class Extremum {
+        final LipschitzBound evaluated;
+        double value;
+        double[] coordinates;
+        Double valueSecond = null;
+        double[] coordinatesSecond = null;
+        int iteration = 0;
+        
+        Extremum(int dimension) {
+            evaluated = new LipschitzBound(dimension);
+        }
+        
+        void update(double[] point, double yValue, int iterationCounter) {
+            if (evaluated.size() == 0) {
+                value = yValue;
+                coordinates = point;
+            } else if (value < yValue) {
+                valueSecond = value;
+                value = yValue;
+                coordinatesSecond = coordinates;
+                coordinates = point;
+                iteration = iterationCounter;
+            }
+            evaluated.add(point, yValue);
+        }
+    }
+    
+    public TwoSidedLIPOApproach(LogEngine logEngineInstance) {
+        super(logEngineInstance);
+    }
+
+    @Override
+    public void doAnalysis() {
+        Random randomNumberGenerator = new Random(OptionsPacPMA.getSeed());
+        
+        InteractiveModelChecker modelChecker = newModelChecker();
+        modelChecker.startModelChecker();
+                
+        // dimension of the domain
+        final int d = parameters.length;
+        
+        double alpha = 0.01/d;
+
+        Extremum maximum = new Extremum(d);
+        Extremum minimum = new Extremum(d);
+
+        // the lower/upper bounds on each dimension
+        double[] bound_mins = new double[d];
+        double[] bound_maxs = new double[d];
+        for (int i = 0; i < d; i++) {
+            bound_mins[i] = parameters[i].getLowerbound().doubleValue();
+            bound_maxs[i] = parameters[i].getUpperbound().doubleValue();
+        }
+        
+        double k = 0;
+        double k_est = Double.NEGATIVE_INFINITY;
+        iterationCounter = 0;
+        while (iterationCounter == 0 || improve(maximum) || improve(minimum)) {
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "TwoSidedLIPOApproach: iteration: " + iterationCounter);
+            
+            double[] x_prop = randomPoint(randomNumberGenerator, bound_mins, bound_maxs);
+            // check if we are exploring or exploiting, alternating the extremum to exploit for
+            if (iterationCounter > 0 && randomNumberGenerator.nextDouble() > exploitationThreshold) { // enter to exploit w/ prob (1-p)
+                Extremum exploited = (iterationCounter % 2 == 1) ? maximum : minimum;
+                x_prop = potentialMaximizer(randomNumberGenerator, x_prop, bound_mins, bound_maxs, exploited.evaluated, k, exploited.value);
+            }
+            
+            List<Constant> instances = toConstants(x_prop);
+            ModelCheckerResult result = modelChecker.check(instances);
+            if (result == null) {
+                logEngineInstance.log(LogEngine.LEVEL_ERROR, "TwoSidedLIPOApproach: model checking result is null for instance " + instances.toString());
+                modelChecker.stopModelChecker();
+                return;
+            }
+            if (result.isInfinite()) {
+                logEngineInstance.log(LogEngine.LEVEL_WARNING, "TwoSidedLIPOApproach: model checking result is infinite for instance " + instances.toString());
+                modelChecker.stopModelChecker();
+                return;
+            }
+            double yValue = result.getResult().doubleValue();
+            
+            if (iterationCounter > 0) {
+                double slope = maximum.evaluated.maximumSlope(x_prop, yValue);
+                if (k_est < slope) {
+                    k_est = slope;
+                }
+                double i_t = Math.ceil(Math.log(k_est)/Math.log(1+alpha));
+                k = Math.pow(1+alpha, i_t);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "TwoSidedLIPOApproach: Lipschitz constant estimate: " + k);
+            }
+            maximum.update(x_prop, yValue, iterationCounter);
+            minimum.update(x_prop, -yValue, iterationCounter);
+            
+            iterationCounter++;
+        }
+        
+        modelChecker.stopModelChecker();
+        
+        List<Constant> minParameters = toConstants(minimum.coordinates);
+        List<Constant> maxParameters = toConstants(maximum.coordinates);
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "TwoSidedLIPOApproach: analysis completed; computed minimum value " + (-minimum.value) + " at " + minParameters + " during iteration " + minimum.iteration
+                + " and maximum value " + maximum.value + " at " + maxParameters + " during iteration " + maximum.iteration);
+        System.out.println("Minimum value: " + (-minimum.value));
+        System.out.println("Coordinates of minimum value: " + minParameters);
+        System.out.println("Iteration of minimum value: " + minimum.iteration);
+        System.out.println("Maximum value: " + maximum.value);
+        System.out.println("Coordinates of maximum value: " + maxParameters);
+        System.out.println("Iteration of maximum value: " + maximum.iteration);
+        System.out.println("Range of values: [" + (-minimum.value) + ", " + maximum.value + "]");
+    }
+    
+    private boolean improve(Extremum extremum) {
+        return improve(extremum.value, extremum.valueSecond, extremum.coordinates, extremum.coordinatesSecond);
+    }
+}
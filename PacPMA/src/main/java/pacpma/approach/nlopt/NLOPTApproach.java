@@ -22,8 +22,14 @@ package pacpma.approach.nlopt;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import nlopt.DoubleVector;
+import nlopt.ForcedStopException;
 import nlopt.Opt;
 import nlopt.Result;
 import pacpma.algebra.Constant;
@@ -32,11 +38,24 @@ import pacpma.approach.Approach;
 import pacpma.log.LogEngine;
 import pacpma.modelchecker.ModelCheckerResult;
 import pacpma.modelchecker.interactive.InteractiveModelChecker;
+import pacpma.modelchecker.interactive.InteractiveModelCheckerPool;
 import pacpma.modelchecker.interactive.storm.StormCWrapper;
 import pacpma.options.OptionsPacPMA;
+import pacpma.sample.HaltonSampler;
 
 /**
- * NLOPT approach to find minimum.
+ * NLOPT approach to find minimum, maximum, or both. 
+ * 
+ * With several starts, the optimizations run in parallel from quasi-random
+ * starting points, each one with its own model checkers; the extrema found so
+ * far and the number of evaluations are shared, so that the iteration limit 
+ * stops all of them. Only the iteration limit is shared: the thresholds on 
+ * the variation of the value and of the parameters compare two successive 
+ * steps of the same optimization, so each start stops by itself when it 
+ * meets them.
+ * 
+ * For the gradient-based algorithms, the gradient is approximated by finite
+ * differences, whose points are model checked in parallel.
  * 
  * @author Andrea Turrini
  *
@@ -44,7 +63,22 @@ import pacpma.options.OptionsPacPMA;
 public class NLOPTApproach implements Approach {
     private static LogEngine logEngineInstance;
     private static List<Parameter> parameters;
-    private static InteractiveModelChecker modelChecker;
+    private static InteractiveModelCheckerPool modelCheckerPool;
+    
+    // the extrema among all evaluated points, shared by all starts
+    private static double minimumValue;
+    private static double[] minimumCoordinates;
+    private static double maximumValue;
+    private static double[] maximumCoordinates;
+    
+    // the bounds of the parameters and the steps of the finite differences
+    private static double[] lowerbounds;
+    private static double[] upperbounds;
+    private static double[] gradientSteps;
+    
+    // the evaluations done by all starts, to stop all of them at the iteration limit
+    private static final AtomicInteger evaluations = new AtomicInteger();
+    private static Integer sharedIterationLimit;
     
     public NLOPTApproach(LogEngine logEngineInstance) {
         NLOPTApproach.logEngineInstance = logEngineInstance;
@@ -56,15 +90,30 @@ public class NLOPTApproach implements Approach {
     public void doAnalysis() {
         parameters = OptionsPacPMA.getParameters();
         
-        modelChecker = new StormCWrapper();
-        modelChecker.setModelType(OptionsPacPMA.getModelType());
-        modelChecker.setModelFile(OptionsPacPMA.getModelFile());
-        modelChecker.setPropertyFormula(OptionsPacPMA.getPropertyFormula());
-        modelChecker.setConstants(OptionsPacPMA.getConstants());
-        modelChecker.setOptions(OptionsPacPMA.getModelCheckerOptions());
-        modelChecker.startModelChecker();
+        int starts = OptionsPacPMA.getNloptStarts();
+        int numberParameters = parameters.size();
+        lowerbounds = new double[numberParameters];
+        upperbounds = new double[numberParameters];
+        gradientSteps = new double[numberParameters];
+        for (int j = 0; j < numberParameters; j++) {
+            lowerbounds[j] = parameters.get(j).getLowerbound().doubleValue();
+            upperbounds[j] = parameters.get(j).getUpperbound().doubleValue();
+            gradientSteps[j] = OptionsPacPMA.getNloptGradientStep() * (upperbounds[j] - lowerbounds[j]);
+        }
         
-        Opt optProblem = new Opt(OptionsPacPMA.getDirectAlgorithm(), parameters.size());
+        // one model checker for each point needed by the value and gradient of each start 
+        int modelCheckersPerStart = 1;
+        if (OptionsPacPMA.isNloptGradientBased()) {
+            modelCheckersPerStart = OptionsPacPMA.isNloptGradientCentral() ? 2 * numberParameters + 1 : numberParameters + 1;
+        }
+        modelCheckerPool = new InteractiveModelCheckerPool(starts * modelCheckersPerStart, NLOPTApproach::newModelChecker);
+        
+        minimumValue = Double.POSITIVE_INFINITY;
+        minimumCoordinates = null;
+        maximumValue = Double.NEGATIVE_INFINITY;
+        maximumCoordinates = null;
+        evaluations.set(0);
+        sharedIterationLimit = null;
         
         DoubleVector lb = new DoubleVector();
         DoubleVector ub = new DoubleVector();
@@ -73,13 +122,161 @@ public class NLOPTApproach implements Approach {
             ub.add(p.getUpperbound().doubleValue());
         }
         
+        Integer iterationLimit = OptionsPacPMA.getOptimizationStoppingIterationLimit();
+        
+        if (starts > 1) {
+            multiStart(starts, lb, ub, iterationLimit);
+            return;
+        }
+        
+        if (OptionsPacPMA.isOptimizationDirectionBoth()) {
+            // the evaluation budget is split between the two extrema and the
+            // search for the maximum starts from the largest value found
+            // while looking for the minimum
+            Integer minimumLimit = (iterationLimit == null) ? null : Math.max(1, iterationLimit / 2);
+            Integer maximumLimit = (iterationLimit == null) ? null : Math.max(1, iterationLimit - minimumLimit);
+            
+            Opt minProblem = newOptProblem(lb, ub, true, minimumLimit);
+            minProblem.optimize(lb);
+            int minimumEvaluations = minProblem.getNumevals();
+            Result minResult = minProblem.lastOptimizeResult();
+            
+            Opt maxProblem = newOptProblem(lb, ub, false, maximumLimit);
+            maxProblem.optimize((maximumCoordinates == null) ? lb : new DoubleVector(maximumCoordinates));
+            int maximumEvaluations = maxProblem.getNumevals();
+            Result maxResult = maxProblem.lastOptimizeResult();
+            
+            modelCheckerPool.stop();
+            
+            System.out.println("Number of iterations: " + (minimumEvaluations + maximumEvaluations));
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: number of iterations: " + minimumEvaluations + " for the minimum, " + maximumEvaluations + " for the maximum");
+            if (!isSuccess(minResult) || !isSuccess(maxResult) || minimumCoordinates == null) {
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: failed analysis with results " + minResult + " and " + maxResult);
+                System.out.println("NLOPTApproach: failed analysis with results " + minResult + " and " + maxResult);
+                return;
+            }
+            printRange();
+            return;
+        }
+        
+        Opt optProblem = newOptProblem(lb, ub, OptionsPacPMA.isOptimizationDirectionMin(), iterationLimit);
+        
+        DoubleVector resultVector = optProblem.optimize(lb);
+        
+        modelCheckerPool.stop();
+        
+        double optVal = optProblem.lastOptimumValue();
+        System.out.println("Number of iterations: " + optProblem.getNumevals());
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: number of iterations: " + optProblem.getNumevals());
+        
+        Result result = optProblem.lastOptimizeResult();
+        if (isSuccess(result)) {
+            int nPars = resultVector.size();
+            List<Constant> optParameters = new ArrayList<>(nPars);
+            for (int i = 0; i < nPars; i++) {
+                optParameters.add(new Constant(parameters.get(i).getName(), resultVector.get(i).toString()));
+            }
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: analysis completed; computed optimal value " + optVal + " at " + optParameters);
+            System.out.println("Optimal value: " + optVal);
+            System.out.println("Coordinates of optimal value: " + optParameters);
+        } else {
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: failed analysis with result " + result);
+            System.out.println("NLOPTApproach: failed analysis with result " + result);
+        }
+    }
+    
+    /**
+     * Runs the given number of optimizations in parallel, each one from its
+     * own quasi-random starting point; when looking for both extrema, the 
+     * starts alternate between minimization and maximization.
+     */
+    private void multiStart(int starts, DoubleVector lb, DoubleVector ub, Integer iterationLimit) {
+        sharedIterationLimit = iterationLimit;
+        boolean both = OptionsPacPMA.isOptimizationDirectionBoth();
+        List<double[]> startingPoints = new HaltonSampler(OptionsPacPMA.getSeed(), starts).stream(parameters).toList();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(starts);
+        List<CompletableFuture<Result>> results = new ArrayList<>(starts);
+        for (int start = 0; start < starts; start++) {
+            final boolean minimize = both ? (start % 2 == 0) : OptionsPacPMA.isOptimizationDirectionMin();
+            final DoubleVector startingPoint = new DoubleVector(startingPoints.get(start));
+            results.add(CompletableFuture.supplyAsync(() -> {
+                Opt optProblem = newOptProblem(lb, ub, minimize, null);
+                try {
+                    optProblem.optimize(startingPoint);
+                } catch (ForcedStopException fse) {
+                    return Result.FORCED_STOP;
+                }
+                return optProblem.lastOptimizeResult();
+            }, executor));
+        }
+        List<Result> startResults = new ArrayList<>(starts);
+        Throwable failure = null;
+        for (CompletableFuture<Result> result : results) {
+            try {
+                startResults.add(result.join());
+            } catch (RuntimeException re) {
+                failure = (re.getCause() == null) ? re : re.getCause();
+                startResults.add(Result.FAILURE);
+            }
+        }
+        executor.shutdown();
+        modelCheckerPool.stop();
+        
+        System.out.println("Number of iterations: " + evaluations.get());
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: number of iterations: " + evaluations.get() + " over " + starts + " starts with results " + startResults);
+        if (failure != null || minimumCoordinates == null) {
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: failed analysis with results " + startResults + (failure == null ? "" : ": " + failure.getMessage()));
+            System.out.println("NLOPTApproach: failed analysis with results " + startResults);
+            return;
+        }
+        if (both) {
+            printRange();
+            return;
+        }
+        boolean minimize = OptionsPacPMA.isOptimizationDirectionMin();
+        double optVal = minimize ? minimumValue : maximumValue;
+        List<Constant> optParameters = toConstants(minimize ? minimumCoordinates : maximumCoordinates);
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: analysis completed; computed optimal value " + optVal + " at " + optParameters);
+        System.out.println("Optimal value: " + optVal);
+        System.out.println("Coordinates of optimal value: " + optParameters);
+    }
+    
+    private static void printRange() {
+        List<Constant> minParameters = toConstants(minimumCoordinates);
+        List<Constant> maxParameters = toConstants(maximumCoordinates);
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: analysis completed; computed minimum value " + minimumValue + " at " + minParameters
+                + " and maximum value " + maximumValue + " at " + maxParameters);
+        System.out.println("Minimum value: " + minimumValue);
+        System.out.println("Coordinates of minimum value: " + minParameters);
+        System.out.println("Maximum value: " + maximumValue);
+        System.out.println("Coordinates of maximum value: " + maxParameters);
+        System.out.println("Range of values: [" + minimumValue + ", " + maximumValue + "]");
+    }
+    
+    /**
+     * @return a new model checker for the model and property, not yet started
+     */
+    private static InteractiveModelChecker newModelChecker() {
+        InteractiveModelChecker modelChecker = new StormCWrapper();
+        modelChecker.setModelType(OptionsPacPMA.getModelType());
+        modelChecker.setModelFile(OptionsPacPMA.getModelFile());
+        modelChecker.setPropertyFormula(OptionsPacPMA.getPropertyFormula());
+        modelChecker.setConstants(OptionsPacPMA.getConstants());
+        modelChecker.setOptions(OptionsPacPMA.getModelCheckerOptions());
+        return modelChecker;
+    }
+    
+    private static Opt newOptProblem(DoubleVector lb, DoubleVector ub, boolean minimize, Integer maximumEvaluations) {
+        Opt optProblem = new Opt(OptionsPacPMA.getDirectAlgorithm(), parameters.size());
+        
         optProblem.setLowerBounds(lb);
         optProblem.setUpperBounds(ub);
         
-        if (OptionsPacPMA.isOptimizationDirectionMin()) {
-            optProblem.setMinObjective(NLOPTApproach::f);
+        if (minimize) {
+            optProblem.setMinObjective((x, grad) -> f(optProblem, minimize, x, grad));
         } else {
-            optProblem.setMaxObjective(NLOPTApproach::f);
+            optProblem.setMaxObjective((x, grad) -> f(optProblem, minimize, x, grad));
         }
         
         Double d = OptionsPacPMA.getOptimizationStoppingValueAbsolute();
@@ -98,16 +295,13 @@ public class NLOPTApproach implements Approach {
         if (d != null) {
             optProblem.setXtolRel(d);
         }
-        
-        DoubleVector resultVector = optProblem.optimize(lb);
-        
-        modelChecker.stopModelChecker();
-        
-        double optVal = optProblem.lastOptimumValue();
-        System.out.println("Number of iterations: " + optProblem.getNumevals());
-        logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: number of iterations: " + optProblem.getNumevals());
-        
-        Result result = optProblem.lastOptimizeResult();
+        if (maximumEvaluations != null) {
+            optProblem.setMaxeval(maximumEvaluations);
+        }
+        return optProblem;
+    }
+    
+    private static boolean isSuccess(Result result) {
         switch (result) {
             case SUCCESS:
             case STOPVAL_REACHED:
@@ -115,38 +309,120 @@ public class NLOPTApproach implements Approach {
             case XTOL_REACHED:
             case MAXEVAL_REACHED:
             case MAXTIME_REACHED:
-                int nPars = resultVector.size();
-                List<Constant> optParameters = new ArrayList<>(nPars);
-                for (int i = 0; i < nPars; i++) {
-                    optParameters.add(new Constant(parameters.get(i).getName(), resultVector.get(i).toString()));
-                }
-                logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: analysis completed; computed optimal value " + optVal + " at " + optParameters);
-                System.out.println("Optimal value: " + optVal);
-                System.out.println("Coordinates of optimal value: " + optParameters);
-                break;
+                return true;
             default:
-                logEngineInstance.log(LogEngine.LEVEL_INFO, "NLOPTApproach: failed analysis with result " + result);
-                System.out.println("NLOPTApproach: failed analysis with result " + result);
-                break;
+                return false;
         }
     }
-
-    private static double f(double[] x, double[] grad) {
+    
+    private static List<Constant> toConstants(double[] x) {
         int nPars = x.length;
         List<Constant> instances = new ArrayList<>(nPars);
         for (int i = 0; i < nPars; i++) {
             instances.add(new Constant(parameters.get(i).getName(), String.valueOf(x[i])));
         }
-        ModelCheckerResult result = modelChecker.check(instances);
+        return instances;
+    }
+
+    private static double f(Opt optProblem, boolean minimize, double[] x, double[] grad) {
+        if (sharedIterationLimit != null && evaluations.getAndIncrement() >= sharedIterationLimit) {
+            // the starts have used up the iterations
+            evaluations.decrementAndGet();
+            optProblem.forceStop();
+            return minimize ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+        if (sharedIterationLimit == null) {
+            evaluations.incrementAndGet();
+        }
+        if (grad != null && grad.length > 0) {
+            return valueAndGradient(x, grad);
+        }
+        return value(x, modelCheckerPool.check(toConstants(x)));
+    }
+    
+    /**
+     * Evaluates the objective at {@code x} and approximates its gradient by
+     * forward or central finite differences; the perturbed points are model
+     * checked concurrently with {@code x}, so the gradient costs about as 
+     * much as the value when there are enough model checkers.
+     */
+    private static double valueAndGradient(double[] x, double[] grad) {
+        int d = x.length;
+        boolean central = OptionsPacPMA.isNloptGradientCentral();
+        
+        double[][] points = new double[central ? 2 * d + 1 : d + 1][];
+        points[0] = x;
+        for (int j = 0; j < d; j++) {
+            double[] forward = x.clone();
+            if (x[j] + gradientSteps[j] <= upperbounds[j]) {
+                forward[j] = x[j] + gradientSteps[j];
+            } else {
+                // backward difference at the upper bound
+                forward[j] = x[j] - gradientSteps[j];
+            }
+            points[j + 1] = forward;
+            if (central) {
+                double[] backward = x.clone();
+                forward[j] = Math.min(x[j] + gradientSteps[j], upperbounds[j]);
+                backward[j] = Math.max(x[j] - gradientSteps[j], lowerbounds[j]);
+                points[d + j + 1] = backward;
+            }
+        }
+        
+        List<CompletableFuture<ModelCheckerResult>> results = new ArrayList<>(points.length);
+        for (double[] point : points) {
+            results.add(modelCheckerPool.submit(toConstants(point)));
+        }
+        double[] values = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            ModelCheckerResult result;
+            try {
+                result = results.get(i).join();
+            } catch (CompletionException ce) {
+                throw new IllegalStateException("NLOPTApproach: model checking failed for instance " + toConstants(points[i]), ce.getCause());
+            }
+            values[i] = value(points[i], result);
+        }
+        
+        for (int j = 0; j < d; j++) {
+            double[] from = central ? points[d + j + 1] : x;
+            double fromValue = central ? values[d + j + 1] : values[0];
+            double[] to = points[j + 1];
+            double toValue = values[j + 1];
+            double derivative = (toValue - fromValue) / (to[j] - from[j]);
+            grad[j] = Double.isFinite(derivative) ? derivative : 0;
+        }
+        return values[0];
+    }
+    
+    /**
+     * @return the value of the objective at {@code x} given by the model 
+     *         checking result 
+     */
+    private static double value(double[] x, ModelCheckerResult result) {
         if (result == null) {
+            List<Constant> instances = toConstants(x);
             logEngineInstance.log(LogEngine.LEVEL_ERROR, "NLOPTApproach: model checking result is null for instance " + instances.toString());
             throw new IllegalStateException("NLOPTApproach: model checking result is null for instance " + instances.toString());
         }
         if (result.isInfinite()) {
-            logEngineInstance.log(LogEngine.LEVEL_WARNING, "NLOPTApproach: model checking result is infinite for instance " + instances.toString());
+            logEngineInstance.log(LogEngine.LEVEL_WARNING, "NLOPTApproach: model checking result is infinite for instance " + toConstants(x).toString());
             return Double.POSITIVE_INFINITY;
         } else {
-            return result.getResult().doubleValue();
+            double value = result.getResult().doubleValue();
+            updateExtrema(x, value);
+            return value;
+        }
+    }
+    
+    private static synchronized void updateExtrema(double[] x, double value) {
+        if (minimumValue > value) {
+            minimumValue = value;
+            minimumCoordinates = x.clone();
+        }
+        if (maximumValue < value) {
+            maximumValue = value;
+            maximumCoordinates = x.clone();
         }
     }
 }
@@ -0,0 +1,151 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.approach.scenario;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import pacpma.algebra.Parameter;
+
+/**
+ * A box of the parameter space, on which a template function is fitted with
+ * its own samples when using piecewise templates. Each region has its own 
+ * seed, so its samples do not depend on the other regions.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+class Region {
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    
+    private final List<Parameter> parameters;
+    private final long seed;
+
+    /**
+     * @param parameters
+     *            the parameters with the bounds of the region
+     * @param seed
+     *            the seed for the samples of the region
+     */
+    Region(List<Parameter> parameters, long seed) {
+        this.parameters = parameters;
+        this.seed = seed;
+    }
+
+    /**
+     * @return the parameters with the bounds of the region
+     */
+    List<Parameter> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the seed for the samples of the region
+     */
+    long getSeed() {
+        return seed;
+    }
+    
+    /**
+     * Partitions the parameters' ranges in a grid of regions, by splitting 
+     * each range in the given number of intervals of equal width. The seeds
+     * of the regions are drawn from {@code seeds}, in the order of the 
+     * regions.
+     * 
+     * @param parameters
+     *            the parameters
+     * @param intervals
+     *            the number of intervals of each range
+     * @param seeds
+     *            the generator of the seeds of the regions
+     * @return the regions of the grid
+     */
+    static List<Region> grid(List<Parameter> parameters, int intervals, SplittableRandom seeds) {
+        List<List<Parameter>> boxes = new ArrayList<>();
+        boxes.add(new ArrayList<>(parameters.size()));
+        for (Parameter parameter : parameters) {
+            BigDecimal lowerbound = parameter.getLowerbound();
+            BigDecimal width = parameter.getUpperbound().subtract(lowerbound);
+            List<List<Parameter>> extendedBoxes = new ArrayList<>(boxes.size() * intervals);
+            for (List<Parameter> box : boxes) {
+                BigDecimal intervalLowerbound = lowerbound;
+                for (int interval = 1; interval <= intervals; interval++) {
+                    BigDecimal intervalUpperbound = (interval == intervals) 
+                            ? parameter.getUpperbound() 
+                            : lowerbound.add(width.multiply(BigDecimal.valueOf(interval))
+                                .divide(BigDecimal.valueOf(intervals), MathContext.DECIMAL128));
+                    List<Parameter> extendedBox = new ArrayList<>(parameters.size());
+                    extendedBox.addAll(box);
+                    extendedBox.add(new Parameter(parameter.getName(), intervalLowerbound, intervalUpperbound));
+                    extendedBoxes.add(extendedBox);
+                    intervalLowerbound = intervalUpperbound;
+                }
+            }
+            boxes = extendedBoxes;
+        }
+        List<Region> regions = new ArrayList<>(boxes.size());
+        boxes.forEach(box -> regions.add(new Region(box, seeds.nextLong())));
+        return regions;
+    }
+    
+    /**
+     * Splits this region in two halves, along the parameter whose interval
+     * is the widest relative to its whole range. The seeds of the halves are
+     * drawn from {@code seeds}, lower half first.
+     * 
+     * @param box
+     *            the parameters with their whole ranges
+     * @param seeds
+     *            the generator of the seeds of the regions
+     * @return the two halves of this region
+     */
+    List<Region> bisect(List<Parameter> box, SplittableRandom seeds) {
+        int widest = 0;
+        BigDecimal widestRatio = BigDecimal.ZERO;
+        for (int p = 0; p < parameters.size(); p++) {
+            Parameter parameter = parameters.get(p);
+            BigDecimal ratio = parameter.getUpperbound().subtract(parameter.getLowerbound())
+                    .divide(box.get(p).getUpperbound().subtract(box.get(p).getLowerbound()), MathContext.DECIMAL64);
+            if (ratio.compareTo(widestRatio) > 0) {
+                widest = p;
+                widestRatio = ratio;
+            }
+        }
+        Parameter parameter = parameters.get(widest);
+        BigDecimal middle = parameter.getLowerbound().add(parameter.getUpperbound()).divide(TWO);
+        List<Parameter> lower = new ArrayList<>(parameters);
+        lower.set(widest, new Parameter(parameter.getName(), parameter.getLowerbound(), middle));
+        List<Parameter> upper = new ArrayList<>(parameters);
+        upper.set(widest, new Parameter(parameter.getName(), middle, parameter.getUpperbound()));
+        List<Region> halves = new ArrayList<>(2);
+        halves.add(new Region(lower, seeds.nextLong()));
+        halves.add(new Region(upper, seeds.nextLong()));
+        return halves;
+    }
+
+    @Override
+    public String toString() {
+        return parameters.toString();
+    }
+}
@@ -22,32 +22,43 @@ package pacpma.approach.scenario;
 
 import static pacpma.util.Util.formatConstants;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 
 import pacpma.algebra.Constant;
 import pacpma.algebra.Parameter;
 import pacpma.algebra.TemplateFunction;
 import pacpma.algebra.Variable;
+import pacpma.algebra.function.ExpressionFunction;
+import pacpma.algebra.polynomial.Polynomial;
+import pacpma.algebra.polynomial.PolynomialBasis;
 import pacpma.approach.Approach;
 import pacpma.log.LogEngine;
 import pacpma.lp.ConstraintComparison;
 import pacpma.lp.LPVariable;
 import pacpma.lp.OptimizationDirection;
+import pacpma.lp.presolve.Presolver;
 import pacpma.lp.solver.LPSolver;
 import pacpma.modelchecker.ModelCheckerResult;
 import pacpma.modelchecker.Range;
 import pacpma.modelchecker.batch.BatchModelChecker;
-import pacpma.modelchecker.batch.parallel.ModelCheckerInstance;
 import pacpma.modelchecker.batch.parallel.ModelCheckerParallel;
 import pacpma.options.OptionsPacPMA;
 import pacpma.sample.BoundaryPointsGenerator;
 import pacpma.sample.RandomSampler;
+import pacpma.sample.SampleBlocks;
+import pacpma.sample.SampleMatrix;
+import pacpma.surrogate.Surrogate;
+import pacpma.util.Util;
 
 /**
  * Scenario approach to synthesize the function.
@@ -60,14 +71,15 @@ public class ScenarioApproach implements Approach {
     
     private final LogEngine logEngineInstance;
     
+    /** The ranges of the model checker results of each property, when requested */
+    private Range[] ranges = null;
+    
     public ScenarioApproach(LogEngine logEngineInstance) {
         this.logEngineInstance = logEngineInstance;
     }
 
     @Override
     public void doAnalysis() {
-        Random randomNumberGenerator = new Random(OptionsPacPMA.getSeed());
-        
         List<Parameter> parameters = OptionsPacPMA.getParameters();
         Variable.setVariables(parameters);
         
@@ -79,22 +91,42 @@ public class ScenarioApproach implements Approach {
             return;
         }
         
-        List<Map<Parameter, BigDecimal>> samples = new LinkedList<>();
+        if (OptionsPacPMA.isPiecewise()) {
+            piecewise(parameters, templateFunction);
+            return;
+        }
         
+        boolean sequential = OptionsPacPMA.isSequential();
+        SampleMatrix samples = new SampleMatrix(parameters, OptionsPacPMA.getNumberSamples());
+        
+        long samplingStart = System.currentTimeMillis();
         logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Generating samples");
+        // the samples are generated block by block while model checking them
+        SampleBlocks blocks = new SampleBlocks(samples);
         if (OptionsPacPMA.useVerticesAsSamples()) {
-            samples.addAll(new BoundaryPointsGenerator().getSamples(parameters));
+            BoundaryPointsGenerator boundaryPointsGenerator = new BoundaryPointsGenerator();
+            blocks.add(boundaryPointsGenerator, parameters, 0, boundaryPointsGenerator.getNumberSamples(parameters));
         }
+        int boundarySamples = samples.size();
         
-        int randomSamples = OptionsPacPMA.getNumberSamples();
+        int maximumRandomSamples = OptionsPacPMA.getNumberSamples();
         if (!OptionsPacPMA.useVerticesAsAdditionalSamples()) {
-            randomSamples = randomSamples - samples.size();
+            maximumRandomSamples = maximumRandomSamples - samples.size();
+        }
+        maximumRandomSamples = Math.max(maximumRandomSamples, 0);
+        int randomSamples = maximumRandomSamples;
+        if (sequential) {
+            randomSamples = Math.min(OptionsPacPMA.getSequentialSamples(), maximumRandomSamples);
         }
+        // the random samples of later batches extend the ones of the first batch
+        RandomSampler randomSampler = new RandomSampler(OptionsPacPMA.getSeed(), maximumRandomSamples);
         if (randomSamples > 0) {
-            samples.addAll(new RandomSampler(randomNumberGenerator, randomSamples).getSamples(parameters));
+            blocks.add(randomSampler, parameters, 0, randomSamples);
         }
         logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Generating samples done");
+        long samplingTime = System.currentTimeMillis() - samplingStart;
         
+        List<Integer> sweepDegrees = OptionsPacPMA.getSweepDegrees();
         if (OptionsPacPMA.printStatistics()) {
             System.out.println("Value of ε: " + OptionsPacPMA.getEpsilon());
             System.out.println("Value of η: " + OptionsPacPMA.getEta());
@@ -102,14 +134,33 @@ public class ScenarioApproach implements Approach {
             if (!OptionsPacPMA.isLambdaUnbounded()) {
                 System.out.println("Value of λ: " + OptionsPacPMA.getLambda());
             }
-            System.out.println("Degree of the polynomial: " + OptionsPacPMA.getDegree());
+            if (templateFunction instanceof Polynomial) {
+                System.out.println("Degree of the polynomial: " + OptionsPacPMA.getDegree());
+                if (sweepDegrees != null) {
+                    System.out.println("Degrees of the sweep: " + sweepDegrees);
+                }
+                System.out.println("Basis of the polynomial: " + OptionsPacPMA.getPolynomialBasis());
+            }
             System.out.println("Number of parameters: " + parameters.size());
             System.out.println("Number of random samples: " + OptionsPacPMA.getNumberSamples());
+            if (sequential) {
+                System.out.println("Number of random samples in the first batch: " + randomSamples);
+            }
             System.out.println("Number of total samples: " + samples.size());
             System.out.println("Number of template function coefficients: " + templateFunction.getCoefficients().size());
             return;
         }
         
+        if (sweepDegrees != null) {
+            sweep(sweepDegrees, blocks, boundarySamples, samplingTime);
+            return;
+        }
+        List<String> propertyFormulas = OptionsPacPMA.getPropertyFormulas();
+        if (propertyFormulas.size() > 1) {
+            analyzeProperties(propertyFormulas, templateFunction, blocks);
+            return;
+        }
+        
         logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Setting up LP solver");
         List<String> lpVariableNames = new LinkedList<>();
         lpVariableNames.add(LAMBDA);
@@ -120,118 +171,863 @@ public class ScenarioApproach implements Approach {
         
         List<LPVariable> lpVariables = LPVariable.getVariables();
         
-        LPSolver lpSolver = OptionsPacPMA.getLPSolverInstance();
-        lpSolver.setVariables(lpVariables);
+        List<String> coefficients = templateFunction.getCoefficients();
+        LPVariable[] coefficientVariables = new LPVariable[coefficients.size()];
+        for (int k = 0; k < coefficientVariables.length; k++) {
+            coefficientVariables[k] = LPVariable.asVariable(coefficients.get(k));
+        }
+        
+        List<BigDecimal> results = new ArrayList<>(samples.size());
+        if (!checkSamples(blocks, results)) {
+            return;
+        }
+        
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Evaluating template function");
+        // the variables follow the order of the parameters, as the columns
+        double[] designMatrix = new double[coefficientVariables.length * samples.size()];
+        templateFunction.evaluate(samples.toColumnMajor(), samples.size(), designMatrix);
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Evaluating template function done");
+        
+        LPSolver lpSolver = null;
+        Map<LPVariable, BigDecimal> lpSolution;
+        int constrainedSamples = 0;
+        int batch = 0;
+        try {
+            while (true) {
+                int numberSamples = samples.size();
+            
+                Presolver presolver = null;
+                if (OptionsPacPMA.useLPSolverPresolve()) {
+                    presolver = new Presolver(lpVariables);
+                }
+                if (lpSolver == null || presolver != null || !lpSolver.supportsIncrementalSolving()) {
+                    if (lpSolver != null) {
+                        lpSolver.dispose();
+                    }
+                    lpSolver = OptionsPacPMA.getLPSolverInstance();
+                    lpSolver.setVariables(lpVariables);
+                
+                    Map<LPVariable, BigDecimal> lpObjectiveFunction = new HashMap<>();
+                    lpVariables.forEach(lpvar -> lpObjectiveFunction.put(lpvar, BigDecimal.ZERO));
+                    lpObjectiveFunction.put(LP_LAMBDA, BigDecimal.ONE);
+                    lpSolver.setObjectiveFunction(OptimizationDirection.MIN, lpObjectiveFunction);
+                    constrainedSamples = 0;
+                }
+            
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Collecting model checker results");
+                for (int identifier = constrainedSamples; identifier < numberSamples; identifier++) {
+                    BigDecimal result = results.get(identifier);
+                    Map<LPVariable, BigDecimal> lpConstraint = new HashMap<>();
+                    for (int k = 0; k < coefficientVariables.length; k++) {
+                        lpConstraint.put(coefficientVariables[k], BigDecimal.valueOf(designMatrix[k * numberSamples + identifier]));
+                    }
+                    if (presolver == null) {
+                        lpConstraint.put(LP_LAMBDA, BigDecimal.ONE);
+                        lpSolver.addConstraint(lpConstraint, ConstraintComparison.GE, result);
+                        lpConstraint.put(LP_LAMBDA, BigDecimal.ONE.negate());
+                        lpSolver.addConstraint(lpConstraint, ConstraintComparison.LE, result);
+                    } else {
+                        lpConstraint.put(LP_LAMBDA, BigDecimal.ONE);
+                        presolver.addConstraint(lpConstraint, ConstraintComparison.GE, result);
+                        lpConstraint.put(LP_LAMBDA, BigDecimal.ONE.negate());
+                        presolver.addConstraint(lpConstraint, ConstraintComparison.LE, result);
+                    }
+                }
+                constrainedSamples = numberSamples;
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Collecting model checker results done");
+                if (presolver != null) {
+                    logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Presolving LP problem");
+                    presolver.transferConstraints(lpSolver);
+                    logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: LP presolve: " + presolver.getSummary());
+                    logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Presolving LP problem done");
+                }
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Setting up LP solver done");
+            
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Calling LP solver");
+                lpSolution = lpSolver.solve();
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Calling LP solver done");
+                if (!sequential || lpSolution == null || randomSamples >= maximumRandomSamples) {
+                    break;
+                }
+            
+                // risk and complexity: batch j uses η/2^(j+2), the a-priori number of samples η/2
+                double batchEta = OptionsPacPMA.getEta().doubleValue() / Math.pow(2, batch + 2);
+                double epsilon = OptionsPacPMA.getEpsilon().doubleValue();
+                int supportConstraints = countSupportConstraints(lpSolution, LP_LAMBDA, lpVariables, coefficientVariables, 
+                        designMatrix, results, boundarySamples, 
+                        Util.aPosterioriEpsilon(randomSamples, 0, batchEta) <= epsilon);
+                double aPosterioriEpsilon = Util.aPosterioriEpsilon(randomSamples, supportConstraints, batchEta);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: a-posteriori ε with a compression set of " 
+                        + supportConstraints + " random samples out of " + randomSamples + ": " + aPosterioriEpsilon);
+                if (aPosterioriEpsilon <= epsilon) {
+                    System.out.println("Size of the compression set: " + supportConstraints);
+                    System.out.println("A-posteriori value of ε: " + aPosterioriEpsilon);
+                    logEngineInstance.log(LogEngine.LEVEL_INFO, "Size of the compression set: " + supportConstraints);
+                    logEngineInstance.log(LogEngine.LEVEL_INFO, "A-posteriori value of ε: " + aPosterioriEpsilon);
+                    break;
+                }
+                batch++;
+                double nextEta = OptionsPacPMA.getEta().doubleValue() / Math.pow(2, batch + 2);
+                int nextRandomSamples = Util.aPosterioriNumberSamples(supportConstraints, epsilon, nextEta, 
+                        Math.min(2 * randomSamples, maximumRandomSamples), maximumRandomSamples);
+            
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Generating samples " 
+                        + randomSamples + " to " + nextRandomSamples);
+                SampleBlocks newBlocks = new SampleBlocks(samples, numberSamples);
+                newBlocks.add(randomSampler, parameters, randomSamples, nextRandomSamples);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Generating samples done");
+                randomSamples = nextRandomSamples;
+                if (!checkSamples(newBlocks, results)) {
+                    return;
+                }
+            
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Evaluating template function on the new samples");
+                int newNumberSamples = samples.size() - numberSamples;
+                double[] newDesignMatrix = new double[coefficientVariables.length * newNumberSamples];
+                templateFunction.evaluate(samples.toColumnMajor(numberSamples, samples.size()), newNumberSamples, newDesignMatrix);
+                double[] extendedDesignMatrix = new double[coefficientVariables.length * samples.size()];
+                for (int k = 0; k < coefficientVariables.length; k++) {
+                    System.arraycopy(designMatrix, k * numberSamples, extendedDesignMatrix, k * samples.size(), numberSamples);
+                    System.arraycopy(newDesignMatrix, k * newNumberSamples, extendedDesignMatrix, k * samples.size() + numberSamples, newNumberSamples);
+                }
+                designMatrix = extendedDesignMatrix;
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Evaluating template function on the new samples done");
+            }
+        } finally {
+            if (lpSolver != null) {
+                lpSolver.dispose();
+            }
+        }
+        if (lpSolution == null) {
+            System.out.println("Failed to approximate the function for " + OptionsPacPMA.getPropertyFormula());
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "Failed to approximate the function for " + OptionsPacPMA.getPropertyFormula());
+        } else {
+            String lambdaValue = lpSolver.getLambdaValue().toString();
+            Map<String, BigDecimal> solution = new HashMap<>();
+            lpSolution.forEach((variable, value) -> solution.put(variable.getName(), value));
+            String templateExpression = getTemplateExpression(templateFunction, solution);
+            System.out.println("Value of λ: " + lambdaValue);
+            System.out.println("Appromixated function: " + templateExpression);
+            printBasis(templateFunction);
+            System.out.println("Number of samples: " + samples.size());
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "Value of λ: " + lambdaValue);
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "Appromixated function: " + templateExpression);
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "Number of samples: " + samples.size());
+            printFallbacks(templateFunction);
+            
+            String surrogateFile = OptionsPacPMA.getSurrogateFile();
+            if (surrogateFile != null) {
+                if (templateFunction instanceof Polynomial) {
+                    logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Saving surrogate to " + surrogateFile);
+                    try {
+                        Surrogate.fromPolynomial(OptionsPacPMA.getPropertyFormula(), parameters, (Polynomial) templateFunction, solution, lpSolver.getLambdaValue())
+                            .write(surrogateFile);
+                        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Saving surrogate done");
+                    } catch (IOException ioe) {
+                        System.out.println("Failed to save the surrogate: " + ioe.getMessage());
+                        logEngineInstance.log(LogEngine.LEVEL_ERROR, "ScenarioApproach: failed to save the surrogate: " + ioe.getMessage());
+                    }
+                } else {
+                    System.out.println("Surrogates can be saved only for polynomial templates");
+                    logEngineInstance.log(LogEngine.LEVEL_ERROR, "ScenarioApproach: surrogates can be saved only for polynomial templates");
+                }
+            }
+        }
+    } 
+    
+    /**
+     * Fits polynomial templates of the given degrees on the same samples, 
+     * which are model checked only once. The samples are sized for the 
+     * largest template; each template is fitted on the shortest prefix of 
+     * the samples providing its PAC guarantee, so the result for each degree
+     * is the same as the one of a separate analysis with the same seed. The 
+     * LP problems of the different degrees are solved in parallel.
+     * 
+     * @param degrees
+     *            the degrees of the polynomial templates
+     * @param blocks
+     *            the blocks of the samples, sized for the largest template
+     * @param boundarySamples
+     *            the number of boundary samples preceding the random ones
+     * @param samplingTime
+     *            the time spent generating the samples before model checking,
+     *            in milliseconds; the samples generated while model checking
+     *            count in the model checking time
+     */
+    private void sweep(List<Integer> degrees, SampleBlocks blocks, int boundarySamples, long samplingTime) {
+        SampleMatrix samples = blocks.getSamples();
+        long modelCheckingStart = System.currentTimeMillis();
+        List<BigDecimal> results = new ArrayList<>(samples.size());
+        if (!checkSamples(blocks, results)) {
+            return;
+        }
+        long modelCheckingTime = System.currentTimeMillis() - modelCheckingStart;
+        
+        // the variables are registered once, since the registry is not thread safe
+        List<TemplateFunction> templateFunctions = new ArrayList<>(degrees.size());
+        Set<String> lpVariableNames = new LinkedHashSet<>();
+        lpVariableNames.add(LAMBDA);
+        for (int degree : degrees) {
+            TemplateFunction templateFunction = OptionsPacPMA.getTemplateFunction(degree);
+            templateFunctions.add(templateFunction);
+            lpVariableNames.addAll(templateFunction.getCoefficients());
+        }
+        LPVariable.setVariables(new ArrayList<>(lpVariableNames));
+        
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Fitting " + degrees.size() + " templates");
+        Fit[] fits = new Fit[degrees.size()];
+        IntStream.range(0, fits.length).parallel().forEach(i -> {
+            TemplateFunction templateFunction = templateFunctions.get(i);
+            int randomSamples = OptionsPacPMA.getNumberSamples(templateFunction.getCoefficients().size());
+            int numberSamples = OptionsPacPMA.useVerticesAsAdditionalSamples() 
+                    ? boundarySamples + randomSamples 
+                    : Math.max(boundarySamples, randomSamples);
+            numberSamples = Math.min(numberSamples, samples.size());
+            fits[i] = fit(templateFunction, samples, 0, numberSamples, results, "degree " + degrees.get(i));
+        });
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Fitting " + degrees.size() + " templates done");
+        
+        System.out.println("Number of samples: " + samples.size());
+        System.out.println("Sampling time: " + samplingTime + " ms");
+        System.out.println("Model checking time: " + modelCheckingTime + " ms");
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "Number of samples: " + samples.size());
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "Sampling time: " + samplingTime + " ms");
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "Model checking time: " + modelCheckingTime + " ms");
+        for (int i = 0; i < fits.length; i++) {
+            Fit fit = fits[i];
+            int degree = degrees.get(i);
+            String lambdaValue = (fit.lambda == null) ? "not computed" : fit.lambda.toString();
+            String summary = "Degree " + degree 
+                    + ": λ = " + lambdaValue 
+                    + ", coefficients: " + fit.coefficients 
+                    + ", samples: " + fit.numberSamples 
+                    + ", evaluation time: " + fit.evaluationTime + " ms" 
+                    + ", LP time: " + fit.lpTime + " ms";
+            System.out.println(summary);
+            logEngineInstance.log(LogEngine.LEVEL_INFO, summary);
+            if (fit.templateExpression == null) {
+                System.out.println("Failed to approximate the function for " + OptionsPacPMA.getPropertyFormula() 
+                    + " with degree " + degree);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "Failed to approximate the function for " 
+                    + OptionsPacPMA.getPropertyFormula() + " with degree " + degree);
+            } else {
+                System.out.println("Appromixated function of degree " + degree + ": " + fit.templateExpression);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "Appromixated function of degree " + degree + ": " 
+                    + fit.templateExpression);
+            }
+        }
+        printBasis(templateFunctions.get(0));
+        if (OptionsPacPMA.getSurrogateFile() != null) {
+            System.out.println("Surrogates are not saved for degree sweeps");
+            logEngineInstance.log(LogEngine.LEVEL_ERROR, "ScenarioApproach: surrogates are not saved for degree sweeps");
+        }
+    }
+    
+    /**
+     * Fits a template function on each region of a partition of the 
+     * parameters' ranges: the regions of the initial grid are fitted first, 
+     * then the regions whose λ exceeds the region λ are bisected and their
+     * halves fitted, the regions with largest λ first, until no region needs
+     * to be bisected or the maximum number of regions is reached. Each region
+     * has its own samples, drawn uniformly in the region, so each function 
+     * has the PAC guarantee given by ε and η on its region. In each round, 
+     * the samples of all new regions are checked by the same model checker
+     * pool and the LP problems of the regions are solved in parallel.
+     * 
+     * @param parameters
+     *            the parameters
+     * @param templateFunction
+     *            the template function, whose coefficients are shared by the 
+     *            templates of the regions
+     */
+    private void piecewise(List<Parameter> parameters, TemplateFunction templateFunction) {
+        SplittableRandom regionSeeds = new SplittableRandom(OptionsPacPMA.getSeed());
+        List<Region> newRegions = Region.grid(parameters, OptionsPacPMA.getRegions(), regionSeeds);
+        int maximumRegions = newRegions.size();
+        if (OptionsPacPMA.getMaximumRegions() != null) {
+            maximumRegions = Math.max(maximumRegions, OptionsPacPMA.getMaximumRegions());
+        }
+        
+        if (OptionsPacPMA.printStatistics()) {
+            System.out.println("Value of ε: " + OptionsPacPMA.getEpsilon());
+            System.out.println("Value of η: " + OptionsPacPMA.getEta());
+            System.out.println("Number of parameters: " + parameters.size());
+            System.out.println("Number of regions of the grid: " + newRegions.size());
+            System.out.println("Maximum number of regions: " + maximumRegions);
+            System.out.println("Number of random samples for each region: " + OptionsPacPMA.getNumberSamples());
+            System.out.println("Number of template function coefficients: " + templateFunction.getCoefficients().size());
+            return;
+        }
+        
+        List<String> lpVariableNames = new LinkedList<>();
+        lpVariableNames.add(LAMBDA);
+        lpVariableNames.addAll(templateFunction.getCoefficients());
+        LPVariable.setVariables(lpVariableNames);
+        
+        double regionLambda = OptionsPacPMA.getRegionLambda();
+        List<Region> regions = new ArrayList<>();
+        Map<Region, Fit> fits = new HashMap<>();
+        int numberSamples = 0;
+        while (!newRegions.isEmpty()) {
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Generating samples for " + newRegions.size() + " regions");
+            // the samples of the regions follow each other and are generated while model checking them
+            SampleMatrix samples = new SampleMatrix(parameters, newRegions.size() * OptionsPacPMA.getNumberSamples());
+            SampleBlocks blocks = new SampleBlocks(samples);
+            int[] offsets = new int[newRegions.size() + 1];
+            for (int r = 0; r < newRegions.size(); r++) {
+                addSamples(blocks, newRegions.get(r));
+                offsets[r + 1] = samples.size();
+            }
+            numberSamples += samples.size();
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Generating samples for " + newRegions.size() + " regions done");
+            
+            List<BigDecimal> results = new ArrayList<>(samples.size());
+            if (!checkSamples(blocks, results)) {
+                return;
+            }
+            
+            List<Region> currentRegions = newRegions;
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Fitting " + currentRegions.size() + " regions");
+            Fit[] currentFits = new Fit[currentRegions.size()];
+            IntStream.range(0, currentFits.length).parallel().forEach(r -> {
+                Region region = currentRegions.get(r);
+                currentFits[r] = fit(OptionsPacPMA.getTemplateFunction(region.getParameters()), samples, offsets[r], 
+                        offsets[r + 1] - offsets[r], results.subList(offsets[r], offsets[r + 1]), "region " + region);
+            });
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Fitting " + currentRegions.size() + " regions done");
+            for (int r = 0; r < currentFits.length; r++) {
+                regions.add(currentRegions.get(r));
+                fits.put(currentRegions.get(r), currentFits[r]);
+            }
+            
+            // the regions with largest λ are bisected first, as long as the maximum number of regions allows it
+            List<Region> candidates = new ArrayList<>();
+            for (Region region : regions) {
+                BigDecimal lambda = fits.get(region).lambda;
+                if (lambda != null && lambda.doubleValue() > regionLambda) {
+                    candidates.add(region);
+                }
+            }
+            candidates.sort((r1, r2) -> fits.get(r2).lambda.compareTo(fits.get(r1).lambda));
+            newRegions = new ArrayList<>();
+            int bisections = Math.min(candidates.size(), maximumRegions - regions.size());
+            for (Region region : candidates.subList(0, Math.max(bisections, 0))) {
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Bisecting region " + region 
+                        + " with λ " + fits.get(region).lambda);
+                regions.remove(region);
+                fits.remove(region);
+                newRegions.addAll(region.bisect(parameters, regionSeeds));
+            }
+        }
+        
+        BigDecimal maximumLambda = null;
+        for (int r = 0; r < regions.size(); r++) {
+            Region region = regions.get(r);
+            Fit fit = fits.get(region);
+            String lambdaValue = (fit.lambda == null) ? "not computed" : fit.lambda.toString();
+            System.out.println("Region " + r + ": " + region);
+            System.out.println("Value of λ in region " + r + ": " + lambdaValue);
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "Region " + r + ": " + region);
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "Value of λ in region " + r + ": " + lambdaValue);
+            if (fit.templateExpression == null) {
+                System.out.println("Failed to approximate the function for " + OptionsPacPMA.getPropertyFormula() + " in region " + r);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "Failed to approximate the function for " 
+                        + OptionsPacPMA.getPropertyFormula() + " in region " + r);
+            } else {
+                System.out.println("Appromixated function in region " + r + ": " + fit.templateExpression);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "Appromixated function in region " + r + ": " + fit.templateExpression);
+                if (maximumLambda == null || maximumLambda.compareTo(fit.lambda) < 0) {
+                    maximumLambda = fit.lambda;
+                }
+            }
+        }
+        printBasis(templateFunction);
+        System.out.println("Number of regions: " + regions.size());
+        System.out.println("Maximum value of λ: " + maximumLambda);
+        System.out.println("Number of samples: " + numberSamples);
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "Number of regions: " + regions.size());
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "Maximum value of λ: " + maximumLambda);
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "Number of samples: " + numberSamples);
+        printFallbacks(templateFunction);
+        if (OptionsPacPMA.getSurrogateFile() != null) {
+            System.out.println("Surrogates are not saved for piecewise templates");
+            logEngineInstance.log(LogEngine.LEVEL_ERROR, "ScenarioApproach: surrogates are not saved for piecewise templates");
+        }
+    }
+    
+    /**
+     * Appends to the blocks the samples of the given region, as the samples of
+     * the whole parameters' ranges: the boundary points of the region, if 
+     * requested, and the random samples drawn with the seed of the region.
+     */
+    private void addSamples(SampleBlocks blocks, Region region) {
+        List<Parameter> regionParameters = region.getParameters();
+        int boundarySamples = 0;
+        if (OptionsPacPMA.useVerticesAsSamples()) {
+            BoundaryPointsGenerator boundaryPointsGenerator = new BoundaryPointsGenerator();
+            boundarySamples = boundaryPointsGenerator.getNumberSamples(regionParameters);
+            blocks.add(boundaryPointsGenerator, regionParameters, 0, boundarySamples);
+        }
+        int randomSamples = OptionsPacPMA.getNumberSamples();
+        if (!OptionsPacPMA.useVerticesAsAdditionalSamples()) {
+            randomSamples = Math.max(randomSamples - boundarySamples, 0);
+        }
+        if (randomSamples > 0) {
+            blocks.add(new RandomSampler(region.getSeed(), randomSamples), regionParameters, 0, randomSamples);
+        }
+    }
+    
+    /**
+     * Fits the template function to each of the given properties on the same
+     * samples: each sample is model checked once against all properties, the
+     * template function is evaluated once on the samples, and the LP problems
+     * of the different properties are solved in parallel. Each property gets 
+     * its own λ, with the PAC guarantee given by ε and η.
+     * 
+     * @param propertyFormulas
+     *            the property formulas
+     * @param templateFunction
+     *            the template function
+     * @param blocks
+     *            the blocks of the samples
+     */
+    private void analyzeProperties(List<String> propertyFormulas, TemplateFunction templateFunction, SampleBlocks blocks) {
+        SampleMatrix samples = blocks.getSamples();
+        int numberFormulas = propertyFormulas.size();
+        List<List<BigDecimal>> results = new ArrayList<>(numberFormulas);
+        for (int formula = 0; formula < numberFormulas; formula++) {
+            results.add(new ArrayList<>(samples.size()));
+        }
+        if (!checkSamples(blocks, propertyFormulas, results)) {
+            return;
+        }
+        
+        List<String> lpVariableNames = new LinkedList<>();
+        lpVariableNames.add(LAMBDA);
+        lpVariableNames.addAll(templateFunction.getCoefficients());
+        LPVariable.setVariables(lpVariableNames);
+        
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Evaluating template function");
+        int numberSamples = samples.size();
+        double[] samplesMatrix = samples.toColumnMajor();
+        double[] designMatrix = new double[templateFunction.getCoefficients().size() * numberSamples];
+        templateFunction.evaluate(samplesMatrix, numberSamples, designMatrix);
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Evaluating template function done");
+        
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Fitting " + numberFormulas + " properties");
+        Fit[] fits = new Fit[numberFormulas];
+        IntStream.range(0, numberFormulas).parallel().forEach(formula -> 
+            fits[formula] = solve(templateFunction, designMatrix, numberSamples, results.get(formula), 
+                    "property " + propertyFormulas.get(formula)));
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Fitting " + numberFormulas + " properties done");
+        
+        for (int formula = 0; formula < numberFormulas; formula++) {
+            Fit fit = fits[formula];
+            String propertyFormula = propertyFormulas.get(formula);
+            System.out.println("Property: " + propertyFormula);
+            logEngineInstance.log(LogEngine.LEVEL_INFO, "Property: " + propertyFormula);
+            if (fit.lambda == null) {
+                System.out.println("Failed to approximate the function for " + propertyFormula);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "Failed to approximate the function for " + propertyFormula);
+            } else {
+                System.out.println("Value of λ: " + fit.lambda);
+                System.out.println("Appromixated function: " + fit.templateExpression);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "Value of λ: " + fit.lambda);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "Appromixated function: " + fit.templateExpression);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: LP time for " + propertyFormula + ": " + fit.lpTime + " ms");
+            }
+        }
+        printBasis(templateFunction);
+        System.out.println("Number of samples: " + numberSamples);
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "Number of samples: " + numberSamples);
+        printFallbacks(templateFunction);
+        if (OptionsPacPMA.getSurrogateFile() != null) {
+            System.out.println("Surrogates are not saved for several properties");
+            logEngineInstance.log(LogEngine.LEVEL_ERROR, "ScenarioApproach: surrogates are not saved for several properties");
+        }
+    }
+    
+    /**
+     * Fits the given template on the {@code numberSamples} samples starting
+     * from {@code from}, whose results are {@code results}.
+     */
+    private Fit fit(TemplateFunction templateFunction, SampleMatrix samples, int from, int numberSamples, 
+            List<BigDecimal> results, String description) {
+        long evaluationStart = System.currentTimeMillis();
+        double[] samplesMatrix = samples.toColumnMajor(from, from + numberSamples);
+        double[] designMatrix = new double[templateFunction.getCoefficients().size() * numberSamples];
+        templateFunction.evaluate(samplesMatrix, numberSamples, designMatrix);
+        long evaluationTime = System.currentTimeMillis() - evaluationStart;
         
-        Map<LPVariable, BigDecimal> lpObjectiveFunction = new HashMap<>();
-        lpVariables.forEach(lpvar -> lpObjectiveFunction.put(lpvar, BigDecimal.ZERO));
-        lpObjectiveFunction.put(LP_LAMBDA, BigDecimal.ONE);
-        lpSolver.setObjectiveFunction(OptimizationDirection.MIN, lpObjectiveFunction);
+        Fit fit = solve(templateFunction, designMatrix, numberSamples, results, description);
+        fit.evaluationTime = evaluationTime;
+        return fit;
+    }
+    
+    /**
+     * Solves the LP problem fitting the given template to the results of the
+     * first {@code numberSamples} samples, given the values of the monomials
+     * of the template as the column-major {@code designMatrix}; the LP 
+     * variables must have been registered already.
+     */
+    private Fit solve(TemplateFunction templateFunction, double[] designMatrix, int numberSamples, 
+            List<BigDecimal> results, String description) {
+        Fit fit = new Fit(numberSamples, templateFunction.getCoefficients().size());
         
+        long lpStart = System.currentTimeMillis();
+        final LPVariable LP_LAMBDA = LPVariable.asVariable(LAMBDA);
+        List<LPVariable> lpVariables = new ArrayList<>(fit.coefficients + 1);
+        lpVariables.add(LP_LAMBDA);
+        LPVariable[] coefficientVariables = new LPVariable[fit.coefficients];
+        for (int k = 0; k < coefficientVariables.length; k++) {
+            coefficientVariables[k] = LPVariable.asVariable(templateFunction.getCoefficients().get(k));
+            lpVariables.add(coefficientVariables[k]);
+        }
+        
+        Presolver presolver = null;
+        if (OptionsPacPMA.useLPSolverPresolve()) {
+            presolver = new Presolver(lpVariables);
+        }
+        LPSolver lpSolver = OptionsPacPMA.getLPSolverInstance();
+        Map<LPVariable, BigDecimal> lpSolution;
+        try {
+            lpSolver.setVariables(lpVariables);
+            Map<LPVariable, BigDecimal> lpObjectiveFunction = new HashMap<>();
+            lpVariables.forEach(lpvar -> lpObjectiveFunction.put(lpvar, BigDecimal.ZERO));
+            lpObjectiveFunction.put(LP_LAMBDA, BigDecimal.ONE);
+            lpSolver.setObjectiveFunction(OptimizationDirection.MIN, lpObjectiveFunction);
+            for (int identifier = 0; identifier < numberSamples; identifier++) {
+                BigDecimal result = results.get(identifier);
+                Map<LPVariable, BigDecimal> lpConstraint = new HashMap<>();
+                for (int k = 0; k < coefficientVariables.length; k++) {
+                    lpConstraint.put(coefficientVariables[k], BigDecimal.valueOf(designMatrix[k * numberSamples + identifier]));
+                }
+                if (presolver == null) {
+                    lpConstraint.put(LP_LAMBDA, BigDecimal.ONE);
+                    lpSolver.addConstraint(lpConstraint, ConstraintComparison.GE, result);
+                    lpConstraint.put(LP_LAMBDA, BigDecimal.ONE.negate());
+                    lpSolver.addConstraint(lpConstraint, ConstraintComparison.LE, result);
+                } else {
+                    lpConstraint.put(LP_LAMBDA, BigDecimal.ONE);
+                    presolver.addConstraint(lpConstraint, ConstraintComparison.GE, result);
+                    lpConstraint.put(LP_LAMBDA, BigDecimal.ONE.negate());
+                    presolver.addConstraint(lpConstraint, ConstraintComparison.LE, result);
+                }
+            }
+            if (presolver != null) {
+                presolver.transferConstraints(lpSolver);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: LP presolve for " + description 
+                        + ": " + presolver.getSummary());
+            }
+            lpSolution = lpSolver.solve();
+        } finally {
+            lpSolver.dispose();
+        }
+        if (lpSolution != null) {
+            fit.lambda = lpSolver.getLambdaValue();
+            fit.solution = new HashMap<>();
+            lpSolution.forEach((variable, value) -> fit.solution.put(variable.getName(), value));
+            fit.templateExpression = getTemplateExpression(templateFunction, fit.solution);
+        }
+        fit.lpTime = System.currentTimeMillis() - lpStart;
+        return fit;
+    }
+    
+    /**
+     * Prints how to read the approximated functions given in a polynomial 
+     * basis other than the monomial one; λ refers to these functions as 
+     * printed, since converting them to monomials may lose more than λ.
+     */
+    private void printBasis(TemplateFunction templateFunction) {
+        if (templateFunction instanceof Polynomial) {
+            PolynomialBasis basis = ((Polynomial) templateFunction).getBasis();
+            if (basis != PolynomialBasis.MONOMIAL) {
+                String message = "Basis of the approximated function: " + basis 
+                        + " polynomials of each parameter x in [l, u] mapped onto (2 * x - (l + u)) / (u - l) in [-1, 1];" 
+                        + " λ refers to the function in this basis";
+                System.out.println(message);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, message);
+            }
+        }
+    }
+    
+    /**
+     * Prints the number of template evaluations that needed arbitrary 
+     * precision, for template functions given by expressions.
+     */
+    private void printFallbacks(TemplateFunction templateFunction) {
+        if (templateFunction instanceof ExpressionFunction) {
+            ExpressionFunction expressionFunction = (ExpressionFunction) templateFunction;
+            String message = "Number of samples evaluated with arbitrary precision: " 
+                    + expressionFunction.getNumberFallbacks() + " out of " + expressionFunction.getNumberEvaluations();
+            System.out.println(message);
+            logEngineInstance.log(LogEngine.LEVEL_INFO, message);
+        }
+    }
+    
+    private static String getTemplateExpression(TemplateFunction templateFunction, Map<String, BigDecimal> solution) {
+        switch (OptionsPacPMA.getFunctionFormat()) {
+        case OptionsPacPMA.FORMAT_LATEX:
+            return templateFunction.getLatexExpression(solution);
+        case OptionsPacPMA.FORMAT_MATH:
+            return templateFunction.getMathExpression(solution);
+        case OptionsPacPMA.FORMAT_MATLAB:
+            return templateFunction.getMatlabExpression(solution);
+        default:
+            return null;
+        }
+    }
+    
+    /**
+     * Outcome of the fitting of one template to the results of one property.
+     */
+    private static class Fit {
+        final int numberSamples;
+        final int coefficients;
+        BigDecimal lambda = null;
+        Map<String, BigDecimal> solution = null;
+        String templateExpression = null;
+        long evaluationTime;
+        long lpTime;
+        
+        Fit(int numberSamples, int coefficients) {
+            this.numberSamples = numberSamples;
+            this.coefficients = coefficients;
+        }
+    }
+    
+    /**
+     * Model checks the given samples and appends their results to 
+     * {@code results}, in the order of the samples.
+     * 
+     * @param samples
+     *            the samples to check
+     * @param results
+     *            the list receiving the results
+     * @return whether all results have been computed and are finite
+     */
+    private boolean checkSamples(SampleMatrix samples, List<BigDecimal> results) {
+        return checkSamples(new SampleBlocks(samples), results);
+    }
+    
+    /**
+     * Model checks the samples of the given blocks, generating them if needed,
+     * and appends their results to {@code results}, in the order of the 
+     * samples.
+     * 
+     * @param blocks
+     *            the blocks of the samples to check
+     * @param results
+     *            the list receiving the results
+     * @return whether all results have been computed and are finite
+     */
+    private boolean checkSamples(SampleBlocks blocks, List<BigDecimal> results) {
+        return checkSamples(blocks, List.of(OptionsPacPMA.getPropertyFormula()), List.of(results));
+    }
+    
+    /**
+     * Model checks the samples of the given blocks against all given 
+     * formulas, so that each model instance is shared by the formulas when 
+     * the model checker supports it, and appends the results of each formula
+     * to the corresponding list of {@code results}, in the order of the 
+     * samples. The samples still to be generated are generated block by 
+     * block by the model checking threads.
+     * 
+     * @param blocks
+     *            the blocks of the samples to check
+     * @param propertyFormulas
+     *            the property formulas to check
+     * @param results
+     *            the lists receiving the results, one for each formula
+     * @return whether all results have been computed and are finite
+     */
+    private boolean checkSamples(SampleBlocks blocks, List<String> propertyFormulas, List<List<BigDecimal>> results) {
+        SampleMatrix samples = blocks.getSamples();
         logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Setting up model checker pool");
         
         int numberThreads = OptionsPacPMA.getModelCheckerThreads();
-        List<ModelCheckerInstance> modelCheckerInstances = new ArrayList<>(numberThreads);
-        List<Map<Integer, List<Constant>>> bucketParameterValues = new ArrayList<>(numberThreads);
+        List<BatchModelChecker> modelCheckers = new ArrayList<>(numberThreads);
         for (int i = 0; i < numberThreads; i++) {
-            Map<Integer, List<Constant>> currentParameterValues = new HashMap<Integer, List<Constant>>();
-            bucketParameterValues.add(currentParameterValues);
-
             BatchModelChecker currentModelChecker = OptionsPacPMA.getModelCheckerInstance();
             currentModelChecker.setModelFile(OptionsPacPMA.getModelFile());
             currentModelChecker.setModelType(OptionsPacPMA.getModelType());
-            currentModelChecker.setPropertyFormula(OptionsPacPMA.getPropertyFormula());
+            currentModelChecker.setPropertyFormula(propertyFormulas.get(0));
             currentModelChecker.setConstants(OptionsPacPMA.getConstants());
-            currentModelChecker.setParameterValues(currentParameterValues);
             currentModelChecker.setOptions(OptionsPacPMA.getModelCheckerOptions());
-            modelCheckerInstances.add(new ModelCheckerInstance(currentModelChecker));
-        }
-        int i = 0;
-        for (Map<Parameter, BigDecimal> sample : samples) {
-            List<Constant> modelcheckerParameterValues = new LinkedList<>();
-            sample.forEach((p,v) -> modelcheckerParameterValues.add(new Constant(p.getName(), v.toString())));
-            bucketParameterValues.get(i % numberThreads).put(i, modelcheckerParameterValues);
-            i++;
+            modelCheckers.add(currentModelChecker);
         }
-        ModelCheckerParallel modelcheckerparallel = new ModelCheckerParallel(modelCheckerInstances);
+        ModelCheckerParallel modelcheckerparallel = new ModelCheckerParallel(modelCheckers, blocks, propertyFormulas);
         logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Setting up model checker pool done");
         
         logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Calling model checker");
-        Map<Integer, ModelCheckerResult> modelcheckerResults = modelcheckerparallel.check();
+        Map<Integer, List<ModelCheckerResult>> modelcheckerResults = modelcheckerparallel.checkFormulas();
         logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Calling model checker done");
+        int numberFormulas = propertyFormulas.size();
         if (OptionsPacPMA.showRange()) {
-            Range range = modelcheckerparallel.getRange();
-            logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: computed range: [" + range.getLowerbound() + ", " + range.getUpperbound() + "]");
-            System.out.println("Computed range: [" + range.getLowerbound() + ", " + range.getUpperbound() + "]");
-            if (OptionsPacPMA.showRangeParameters()) {
-                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: range lower bound parameters: " + formatConstants(range.getLowerboundParameters()));
-                System.out.println("Range lower bound parameters: " + formatConstants(range.getLowerboundParameters()));
-                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: range upper bound parameters: " + formatConstants(range.getUpperboundParameters()));
-                System.out.println("Range upper bound parameters: " + formatConstants(range.getUpperboundParameters()));
-            }
-        }
-        
-        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Collecting model checker results");
-        for (Map<Integer, List<Constant>> samplesValues : bucketParameterValues) {
-            for (Integer identifier : samplesValues.keySet()) {
-                Map<Parameter, BigDecimal> sample = samples.get(identifier);
-                ModelCheckerResult modelcheckerResult = modelcheckerResults.get(identifier);
-                if (modelcheckerResult == null) {
-                    System.out.println("No result computed");
-                    logEngineInstance.log(LogEngine.LEVEL_ERROR, "No result computed");
-                    return;
+            if (ranges == null) {
+                ranges = new Range[numberFormulas];
+                for (int formula = 0; formula < numberFormulas; formula++) {
+                    ranges[formula] = new Range();
                 }
+            }
+            modelcheckerResults.forEach((identifier, values) -> {
+                List<Constant> constants = samples.getConstants(identifier);
+                for (int formula = 0; formula < values.size(); formula++) {
+                    ranges[formula].updateRange(values.get(formula), constants);
+                }
+            });
+            for (int formula = 0; formula < numberFormulas; formula++) {
+                Range range = ranges[formula];
+                String property = (numberFormulas == 1) ? "" : " for " + propertyFormulas.get(formula);
+                logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: computed range" + property + ": [" + range.getLowerbound() + ", " + range.getUpperbound() + "]");
+                System.out.println("Computed range" + property + ": [" + range.getLowerbound() + ", " + range.getUpperbound() + "]");
+                if (OptionsPacPMA.showRangeParameters()) {
+                    logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: range lower bound parameters" + property + ": " + formatConstants(range.getLowerboundParameters()));
+                    System.out.println("Range lower bound parameters" + property + ": " + formatConstants(range.getLowerboundParameters()));
+                    logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: range upper bound parameters" + property + ": " + formatConstants(range.getUpperboundParameters()));
+                    System.out.println("Range upper bound parameters" + property + ": " + formatConstants(range.getUpperboundParameters()));
+                }
+            }
+        }
+        
+        for (int identifier = blocks.getFrom(); identifier < blocks.getTo(); identifier++) {
+            List<ModelCheckerResult> modelcheckerValues = modelcheckerResults.get(identifier);
+            if (modelcheckerValues == null || modelcheckerValues.size() != numberFormulas) {
+                System.out.println("No result computed");
+                logEngineInstance.log(LogEngine.LEVEL_ERROR, "No result computed");
+                return false;
+            }
+            for (int formula = 0; formula < numberFormulas; formula++) {
+                ModelCheckerResult modelcheckerResult = modelcheckerValues.get(formula);
                 if (modelcheckerResult.isInfinite()) {
+                    if (numberFormulas > 1) {
+                        System.out.println("Property: " + propertyFormulas.get(formula));
+                        logEngineInstance.log(LogEngine.LEVEL_INFO, "Property: " + propertyFormulas.get(formula));
+                    }
                     System.out.println("Value of λ: not computed");
                     System.out.println("Appromixated function: infinity");
                     logEngineInstance.log(LogEngine.LEVEL_INFO, "Value of λ: not computed");
                     logEngineInstance.log(LogEngine.LEVEL_INFO, "Appromixated function: infinity");
-                    return;
+                    return false;
                 }
-                Map<Variable, BigDecimal> variablesValues = new HashMap<>();
-                sample.forEach((p,v) -> variablesValues.put(Variable.asVariable(p), v));
-                Map<String, BigDecimal> templateCoefficients = templateFunction.evaluate(variablesValues);
-                
+                results.get(formula).add(modelcheckerResult.getResult());
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Computes the size of a compression set of the random samples, that is,
+     * of a subset of the random samples that, together with the boundary 
+     * samples, gives the same solution as all samples. Starting from the 
+     * samples whose constraints are active in the given solution, each random
+     * sample is dropped if the LP problem on the remaining samples still has 
+     * the same solution. Counting all active samples would give the number of
+     * LP variables for a non-degenerate problem, while the compression set 
+     * is smaller when the problem is degenerate, for instance when the 
+     * template function fits the results exactly. The LP problems involve only
+     * the active samples, so they are much smaller than the original one.
+     * <p>
+     * The removal costs one LP problem for each active sample, so it is done
+     * only when {@code reducible}, that is, when a small enough compression
+     * set would meet ε; otherwise, the active random samples are taken as 
+     * compression set, provided that they give the same solution.
+     * 
+     * @return the size of the compression set, or the number of random 
+     *         samples if the active samples do not give the same solution
+     */
+    private int countSupportConstraints(Map<LPVariable, BigDecimal> lpSolution, LPVariable lambda, List<LPVariable> lpVariables,
+            LPVariable[] coefficientVariables, double[] designMatrix, List<BigDecimal> results, int boundarySamples, 
+            boolean reducible) {
+        int numberSamples = results.size();
+        double[] coefficientValues = new double[coefficientVariables.length];
+        for (int k = 0; k < coefficientValues.length; k++) {
+            coefficientValues[k] = lpSolution.get(coefficientVariables[k]).doubleValue();
+        }
+        double lambdaValue = lpSolution.get(lambda).doubleValue();
+        double tolerance = Math.max(OptionsPacPMA.getLPSolverPrecision().doubleValue(), 1e-9 * lambdaValue);
+        List<Integer> compression = new ArrayList<>();
+        for (int sample = 0; sample < numberSamples; sample++) {
+            double value = 0.0;
+            for (int k = 0; k < coefficientValues.length; k++) {
+                value += coefficientValues[k] * designMatrix[k * numberSamples + sample];
+            }
+            if (Math.abs(results.get(sample).doubleValue() - value) >= lambdaValue - tolerance) {
+                compression.add(sample);
+            }
+        }
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: " + compression.size() + " active constraints");
+        
+        if (!isSameSolution(lpSolution, solveSubset(lpVariables, lambda, coefficientVariables, designMatrix, results, compression))) {
+            return numberSamples - boundarySamples;
+        }
+        if (!reducible) {
+            return (int) compression.stream().filter(sample -> sample >= boundarySamples).count();
+        }
+        for (int index = compression.size() - 1; index >= 0; index--) {
+            int sample = compression.get(index);
+            if (sample < boundarySamples) {
+                continue;
+            }
+            compression.remove(index);
+            if (!isSameSolution(lpSolution, solveSubset(lpVariables, lambda, coefficientVariables, designMatrix, results, compression))) {
+                compression.add(index, sample);
+            }
+        }
+        return (int) compression.stream().filter(sample -> sample >= boundarySamples).count();
+    }
+    
+    /**
+     * Solves the LP problem fitting the template to the given samples only,
+     * without presolving.
+     */
+    private Map<LPVariable, BigDecimal> solveSubset(List<LPVariable> lpVariables, LPVariable lambda, LPVariable[] coefficientVariables, 
+            double[] designMatrix, List<BigDecimal> results, List<Integer> subset) {
+        int numberSamples = results.size();
+        LPSolver lpSolver = OptionsPacPMA.getLPSolverInstance();
+        try {
+            lpSolver.setVariables(lpVariables);
+            Map<LPVariable, BigDecimal> lpObjectiveFunction = new HashMap<>();
+            lpVariables.forEach(lpvar -> lpObjectiveFunction.put(lpvar, BigDecimal.ZERO));
+            lpObjectiveFunction.put(lambda, BigDecimal.ONE);
+            lpSolver.setObjectiveFunction(OptimizationDirection.MIN, lpObjectiveFunction);
+            for (int identifier : subset) {
+                BigDecimal result = results.get(identifier);
                 Map<LPVariable, BigDecimal> lpConstraint = new HashMap<>();
-                templateCoefficients.forEach((coefficient, value) -> lpConstraint.put(LPVariable.asVariable(coefficient), value));
-                lpConstraint.put(LP_LAMBDA, BigDecimal.ONE);
-                lpSolver.addConstraint(lpConstraint, ConstraintComparison.GE, modelcheckerResult.getResult());
-                lpConstraint.put(LP_LAMBDA, BigDecimal.ONE.negate());
-                lpSolver.addConstraint(lpConstraint, ConstraintComparison.LE, modelcheckerResult.getResult());
+                for (int k = 0; k < coefficientVariables.length; k++) {
+                    lpConstraint.put(coefficientVariables[k], BigDecimal.valueOf(designMatrix[k * numberSamples + identifier]));
+                }
+                lpConstraint.put(lambda, BigDecimal.ONE);
+                lpSolver.addConstraint(lpConstraint, ConstraintComparison.GE, result);
+                lpConstraint.put(lambda, BigDecimal.ONE.negate());
+                lpSolver.addConstraint(lpConstraint, ConstraintComparison.LE, result);
             }
+            return lpSolver.solve();
+        } finally {
+            lpSolver.dispose();
         }
-        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Collecting model checker results done");
-        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Setting up LP solver done");
-
-        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Calling LP solver");
-        Map<LPVariable, BigDecimal> lpSolution = lpSolver.solve();
-        logEngineInstance.log(LogEngine.LEVEL_INFO, "ScenarioApproach: Calling LP solver done");
-        if (lpSolution == null) {
-            System.out.println("Failed to approximate the function for " + OptionsPacPMA.getPropertyFormula());
-            logEngineInstance.log(LogEngine.LEVEL_INFO, "Failed to approximate the function for " + OptionsPacPMA.getPropertyFormula());
-        } else {
-            String lambdaValue = lpSolver.getLambdaValue().toString();
-            Map<String, BigDecimal> solution = new HashMap<>();
-            lpSolution.forEach((variable, value) -> solution.put(variable.getName(), value));
-            String templateExpression = null;
-            switch (OptionsPacPMA.getFunctionFormat()) {
-            case OptionsPacPMA.FORMAT_LATEX:
-                templateExpression = templateFunction.getLatexExpression(solution);
-                break;
-            case OptionsPacPMA.FORMAT_MATH:
-                templateExpression = templateFunction.getMathExpression(solution);
-                break;
-            case OptionsPacPMA.FORMAT_MATLAB:
-                templateExpression = templateFunction.getMatlabExpression(solution);
-                break;
+    }
+    
+    /**
+     * Checks whether the two solutions coincide up to the precision of the LP
+     * solver, relative to the magnitude of the values.
+     */
+    private boolean isSameSolution(Map<LPVariable, BigDecimal> solution, Map<LPVariable, BigDecimal> otherSolution) {
+        if (otherSolution == null) {
+            return false;
+        }
+        double precision = OptionsPacPMA.getLPSolverPrecision().doubleValue();
+        for (Map.Entry<LPVariable, BigDecimal> entry : solution.entrySet()) {
+            BigDecimal otherValue = otherSolution.get(entry.getKey());
+            if (otherValue == null) {
+                return false;
+            }
+            double value = entry.getValue().doubleValue();
+            double tolerance = Math.max(precision, 1e-9 * Math.abs(value));
+            if (Math.abs(value - otherValue.doubleValue()) > tolerance) {
+                return false;
             }
-            System.out.println("Value of λ: " + lambdaValue);
-            System.out.println("Appromixated function: " + templateExpression);
-            System.out.println("Number of samples: " + samples.size());
-            logEngineInstance.log(LogEngine.LEVEL_INFO, "Value of λ: " + lambdaValue);
-            logEngineInstance.log(LogEngine.LEVEL_INFO, "Appromixated function: " + templateExpression);
-            logEngineInstance.log(LogEngine.LEVEL_INFO, "Number of samples: " + samples.size());
         }
-    } 
-
+        return true;
+    }
 }
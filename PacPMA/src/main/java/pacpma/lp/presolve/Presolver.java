@@ -0,0 +1,193 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.lp.presolve;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import pacpma.lp.ConstraintComparison;
+import pacpma.lp.LPVariable;
+import pacpma.lp.solver.LPSolver;
+
+/**
+ * Presolve stage for the LP problems, to be placed between the generation of
+ * the constraints and {@link LPSolver#addConstraint(Map, ConstraintComparison, BigDecimal)}.
+ * 
+ * The constraints are hashed on their left-hand side and comparison direction:
+ * among the constraints sharing the same left-hand side, only the tightest one
+ * is kept, that is, the one with the largest bound for
+ * {@link ConstraintComparison#GE} and the one with the smallest bound for
+ * {@link ConstraintComparison#LE}; the others can never be active and are
+ * dropped.
+ * 
+ * In the scenario approach, two samples with the same valuation of the
+ * template terms thus collapse into the single pair of constraints given by
+ * the minimum and maximum model checker results. This is the only reduction:
+ * the coefficients of the template are unbounded, so the activity of a row
+ * with a different left-hand side is unbounded as well and no bound-based
+ * test can show that it is redundant. Outside of repeated samples (for 
+ * instance, the vertices added to random samples, or parameters having few
+ * distinct values) the problem is passed on unchanged.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class Presolver {
+    private final LPVariable[] lpvariables;
+    private final Map<ConstraintKey, BigDecimal> constraints = new LinkedHashMap<>();
+    
+    private long receivedConstraints = 0;
+    
+    /**
+     * @param listOfVariables
+     *            the variables that can occur in the constraints, in the same
+     *            order given to {@link LPSolver#setVariables(List)}
+     */
+    public Presolver(List<LPVariable> listOfVariables) {
+        this.lpvariables = listOfVariables.toArray(new LPVariable[0]);
+    }
+
+    /**
+     * Adds a constraint to the presolved LP problem.
+     * 
+     * @param terms
+     *            the terms of the constraints, as variables and relative
+     *            coefficients; missing variables have coefficient zero
+     * @param comparison
+     *            the comparison direction
+     * @param bound
+     *            the boundary value
+     */
+    public void addConstraint(Map<LPVariable, BigDecimal> terms, ConstraintComparison comparison, BigDecimal bound) {
+        receivedConstraints++;
+        
+        BigDecimal[] coefficients = new BigDecimal[lpvariables.length];
+        for (int var = 0; var < lpvariables.length; var++) {
+            BigDecimal coefficient = terms.getOrDefault(lpvariables[var], BigDecimal.ZERO);
+            if (coefficient.signum() == 0) {
+                coefficients[var] = BigDecimal.ZERO;
+            } else {
+                coefficients[var] = coefficient.stripTrailingZeros();
+            }
+        }
+        
+        constraints.merge(new ConstraintKey(coefficients, comparison), bound, 
+                (previous, current) -> tightest(comparison, previous, current));
+    }
+    
+    /**
+     * Passes the retained constraints to the given solver, in the order in 
+     * which their left-hand side has been first added to this presolver.
+     * 
+     * @param lpSolver
+     *            the solver to pass the constraints to; it must be ready to 
+     *            accept constraints
+     */
+    public void transferConstraints(LPSolver lpSolver) {
+        for (Map.Entry<ConstraintKey, BigDecimal> entry : constraints.entrySet()) {
+            ConstraintKey key = entry.getKey();
+            Map<LPVariable, BigDecimal> terms = new LinkedHashMap<>();
+            for (int var = 0; var < lpvariables.length; var++) {
+                terms.put(lpvariables[var], key.coefficients[var]);
+            }
+            lpSolver.addConstraint(terms, key.comparison, entry.getValue());
+        }
+    }
+    
+    /**
+     * @return the number of constraints received by this presolver
+     */
+    public long getReceivedConstraints() {
+        return receivedConstraints;
+    }
+    
+    /**
+     * @return the number of constraints that will be passed to the solver
+     */
+    public long getRetainedConstraints() {
+        return constraints.size();
+    }
+
+    /**
+     * @return the number of constraints dropped since dominated by another 
+     *         constraint with the same left-hand side, that is, merged with it
+     */
+    public long getDominatedConstraints() {
+        return receivedConstraints - constraints.size();
+    }
+    
+    /**
+     * Provides a human readable summary of the reduction of the LP problem.
+     * 
+     * @return the summary of the reduction
+     */
+    public String getSummary() {
+        long dropped = getDominatedConstraints();
+        double percentage = receivedConstraints == 0 ? 0 : 100.0 * dropped / receivedConstraints;
+        return "received " + receivedConstraints + " constraints, retained " + constraints.size()
+            + ", merged " + dropped + " with the same left-hand side (" + String.format("%.2f", percentage) + "%)";
+    }
+    
+    private static BigDecimal tightest(ConstraintComparison comparison, BigDecimal previous, BigDecimal current) {
+        switch (comparison) {
+        case GE:
+            return previous.max(current);
+        case LE:
+            return previous.min(current);
+        }
+        return previous;
+    }
+    
+    /**
+     * Left-hand side and comparison of a constraint, with coefficients 
+     * normalized so that numerically equal rows have the same key.
+     */
+    private final static class ConstraintKey {
+        private final BigDecimal[] coefficients;
+        private final ConstraintComparison comparison;
+        private final int hashCode;
+        
+        private ConstraintKey(BigDecimal[] coefficients, ConstraintComparison comparison) {
+            this.coefficients = coefficients;
+            this.comparison = comparison;
+            this.hashCode = 31 * Arrays.hashCode(coefficients) + comparison.hashCode();
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof ConstraintKey) {
+                ConstraintKey key = (ConstraintKey) other;
+                return hashCode == key.hashCode 
+                        && comparison == key.comparison
+                        && Arrays.equals(coefficients, key.coefficients);
+            }
+            return false;
+        }
+    }
+}
@@ -41,6 +41,14 @@ import pacpma.options.OptionsPacPMA;
  * <li>{@link #solve()}
  * </ul>
  * Calling methods in different order can cause assertion failures.
+ * <p>
+ * Solvers supporting incremental solving (see
+ * {@link #supportsIncrementalSolving()}) also accept, after {@link #solve()},
+ * further calls of {@link #addConstraint(Map, ConstraintComparison, BigDecimal)}
+ * and {@link #updateVariableBounds(LPVariable, BigDecimal, BigDecimal)}
+ * followed by a new call of {@link #solve()}, which restarts from the basis
+ * of the previous solution instead of solving the problem from scratch. Such
+ * solvers may hold resources until {@link #dispose()} is called.
  * 
  * @author Andrea Turrini
  *
@@ -105,4 +113,42 @@ public interface LPSolver {
      *         {@link #solve()}, or {@code null} if the problem was not satisfiable
      */
     public BigDecimal getLambdaValue();
+    
+    /**
+     * States whether this solver supports adding constraints and updating
+     * variable bounds after {@link #solve()} and solving again the modified
+     * problem starting from the previous solution.
+     * 
+     * @return whether incremental solving is supported
+     */
+    public default boolean supportsIncrementalSolving() {
+        return false;
+    }
+    
+    /**
+     * Updates the bounds of the given variable. It can be called after
+     * {@link #setVariables(List)}, also after {@link #solve()}, and the new
+     * bounds are taken into account by the next call of {@link #solve()}.
+     * 
+     * @param variable
+     *            the variable whose bounds have to be changed
+     * @param lowerbound
+     *            the new lower bound, or {@code null} if the variable has no
+     *            lower bound
+     * @param upperbound
+     *            the new upper bound, or {@code null} if the variable has no
+     *            upper bound
+     * @throws UnsupportedOperationException
+     *             if this solver does not support incremental solving
+     */
+    public default void updateVariableBounds(LPVariable variable, BigDecimal lowerbound, BigDecimal upperbound) {
+        throw new UnsupportedOperationException("Incremental solving not supported by " + getClass().getSimpleName());
+    }
+    
+    /**
+     * Releases the resources held by this solver; no other method can be called
+     * afterwards.
+     */
+    public default void dispose() {
+    }
 }
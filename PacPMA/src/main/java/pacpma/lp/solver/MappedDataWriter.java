@@ -0,0 +1,150 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.lp.solver;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writer storing values in binary form in a file through a sequence of
+ * memory-mapped windows, so that arbitrarily large LP problems can be passed to
+ * external tools without keeping them on the heap or formatting them as text.
+ * Values are stored in little-endian byte order: doubles as IEEE 754 binary64
+ * numbers, and bytes as they are.
+ * <p>
+ * In Octave and MATLAB, a matrix with {@code n} columns and {@code m} rows
+ * written row by row can be read by
+ * {@code fread(fid, [n, m], 'double', 0, 'ieee-le')'}.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class MappedDataWriter implements Closeable {
+    /** Size of each mapped window; it is a multiple of {@link Double#BYTES} */
+    private final static long WINDOW_SIZE = 1L << 26;
+    
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private MappedByteBuffer window = null;
+    private long position = 0;
+    private boolean closed = false;
+    
+    /**
+     * Creates a writer on a new temporary file, deleted on exit.
+     * 
+     * @param prefix
+     *            the prefix of the temporary file name
+     * @throws IOException
+     *             if the file can not be created
+     */
+    public MappedDataWriter(String prefix) throws IOException {
+        file = File.createTempFile(prefix, ".bin");
+        file.deleteOnExit();
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+    }
+    
+    /**
+     * @return the file written by this writer
+     */
+    public File getFile() {
+        return file;
+    }
+    
+    /**
+     * Writes a double value.
+     * 
+     * @param value
+     *            the value to write
+     * @throws IOException
+     *             if the file can not be extended
+     */
+    public void writeDouble(double value) throws IOException {
+        ensureAvailable(Double.BYTES);
+        window.putDouble(value);
+        position += Double.BYTES;
+    }
+    
+    /**
+     * Writes a byte value.
+     * 
+     * @param value
+     *            the value to write
+     * @throws IOException
+     *             if the file can not be extended
+     */
+    public void writeByte(byte value) throws IOException {
+        ensureAvailable(1);
+        window.put(value);
+        position++;
+    }
+    
+    /**
+     * Completes the writing; the file is cut to the written size.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (window != null) {
+            window.force();
+            window = null;
+        }
+        try {
+            channel.truncate(position);
+        } catch (IOException ioe) {
+            // some platforms do not allow to truncate a file still mapped; 
+            // readers get the size of the data anyway
+        }
+        channel.close();
+        randomAccessFile.close();
+    }
+    
+    /**
+     * Closes this writer, if still open, and deletes its file. The file is
+     * left to the deletion on exit when it can not be deleted now, for
+     * instance because the platform keeps it mapped until the window is
+     * garbage collected.
+     */
+    public void delete() {
+        try {
+            close();
+        } catch (IOException ioe) {
+            // the file is deleted anyway
+        }
+        file.delete();
+    }
+    
+    private void ensureAvailable(int bytes) throws IOException {
+        if (window == null || window.remaining() < bytes) {
+            window = channel.map(FileChannel.MapMode.READ_WRITE, position, WINDOW_SIZE);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
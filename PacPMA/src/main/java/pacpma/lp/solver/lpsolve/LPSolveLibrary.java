@@ -70,6 +70,9 @@ public class LPSolveLibrary implements LPSolver {
 
     private final static int NEUTRAL = 0; //the most quiet one...
 
+    /** Value used by lp_solve to represent infinity. */
+    private final static double INFINITY = 1e30;
+
     private final static class LpSolve {
 
         static native Pointer make_lp(int rows, int columns);
@@ -104,6 +107,8 @@ public class LPSolveLibrary implements LPSolver {
 
         static native byte set_unbounded(Pointer lp, int column);
 
+        static native long get_total_iter(Pointer lp);
+
         static {
             registerLibrary(LpSolve.class, "lpsolve55");
         }
@@ -136,6 +141,8 @@ public class LPSolveLibrary implements LPSolver {
     private LPSolverExecutionStep solverExpectedStep = LPSolverExecutionStep.SET_VARIABLES;
     
     private BigDecimal lambdaValue = null;
+    
+    private long previousIterations = 0;
 
     @Override
     public void setVariables(List<LPVariable> listOfVariables) {
@@ -158,7 +165,7 @@ public class LPSolveLibrary implements LPSolver {
         if (OptionsPacPMA.isLambdaUnbounded()) {
             LpSolve.set_lowbo(lpsolveInstance, 1, 0.0);
         } else {
-            LpSolve.set_bounds(lpsolveInstance, 1, 0.0, OptionsPacPMA.getLambda().doubleValue());
+            LpSolve.set_bounds(lpsolveInstance, 1, 0.0, getScaledBound(OptionsPacPMA.getLambda()));
         }
         for (int var = 2; var <= lpvariables.length; var++) {
             LpSolve.set_unbounded(lpsolveInstance, var);
@@ -192,7 +199,8 @@ public class LPSolveLibrary implements LPSolver {
 
     @Override
     public void addConstraint(Map<LPVariable, BigDecimal> terms, ConstraintComparison comparison, BigDecimal bound) {
-        assert solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS;
+        assert solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS
+                || solverExpectedStep == LPSolverExecutionStep.SOLVED;
 
         BigDecimal factor = OptionsPacPMA.getLPSolverFactor();
         
@@ -206,15 +214,20 @@ public class LPSolveLibrary implements LPSolver {
     @Override
     public Map<LPVariable, BigDecimal> solve() {
         logEngine.log(LogEngine.LEVEL_INFO, "LPSolveLibrary: starting solving problem");
-        assert solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS;
+        assert solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS
+                || solverExpectedStep == LPSolverExecutionStep.SOLVED;
+        
+        if (solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS) {
+            LpSolve.set_add_rowmode(lpsolveInstance, FALSE);
+        }
         solverExpectedStep = LPSolverExecutionStep.SOLVED;
-       
-        LpSolve.set_add_rowmode(lpsolveInstance, FALSE);
         
         logEngine.log(LogEngine.LEVEL_INFO, "LPSolveLibrary: calling lpsolve");
-        //solving the problem
+        //solving the problem; on later calls, lp_solve restarts from the last basis
         int solveStatus = LpSolve.solve(lpsolveInstance);
-        logEngine.log(LogEngine.LEVEL_INFO, "LPSolveLibrary: calling lpsolve done");
+        long totalIterations = LpSolve.get_total_iter(lpsolveInstance);
+        logEngine.log(LogEngine.LEVEL_INFO, "LPSolveLibrary: calling lpsolve done, " + (totalIterations - previousIterations) + " iterations");
+        previousIterations = totalIterations;
         
         logEngine.log(LogEngine.LEVEL_INFO, "LPSolveLibrary: collecting output values");
         Map<LPVariable, BigDecimal> results = null;
@@ -234,8 +247,6 @@ public class LPSolveLibrary implements LPSolver {
         }
         logEngine.log(LogEngine.LEVEL_INFO, "LPSolveLibrary: collecting output values done");
         
-        LpSolve.delete_lp(lpsolveInstance);
-        
         logEngine.log(LogEngine.LEVEL_INFO, "LPSolveLibrary: solving problem done");
         return results;
     }
@@ -245,6 +256,54 @@ public class LPSolveLibrary implements LPSolver {
         return lambdaValue;
     }
     
+    @Override
+    public boolean supportsIncrementalSolving() {
+        return true;
+    }
+    
+    @Override
+    public void updateVariableBounds(LPVariable variable, BigDecimal lowerbound, BigDecimal upperbound) {
+        assert solverExpectedStep != LPSolverExecutionStep.SET_VARIABLES;
+        assert lpsolveInstance != null;
+        
+        int column = 0;
+        for (int var = 0; var < lpvariables.length; var++) {
+            if (lpvariables[var].equals(variable)) {
+                column = var + 1;
+                break;
+            }
+        }
+        assert column > 0;
+        
+        LpSolve.set_bounds(lpsolveInstance, column, 
+                lowerbound == null ? -INFINITY : getScaledBound(lowerbound), 
+                upperbound == null ? INFINITY : getScaledBound(upperbound));
+    }
+    
+    @Override
+    public void dispose() {
+        if (lpsolveInstance != null) {
+            LpSolve.delete_lp(lpsolveInstance);
+            lpsolveInstance = null;
+        }
+    }
+    
+    /**
+     * Returns the given variable bound as it results from the constraint
+     * {@code factor·x ≤ factor·bound} scaled like the constraints in
+     * {@link #addConstraint(Map, ConstraintComparison, BigDecimal)}: lp_solve
+     * keeps the column bounds unscaled, so the scaled bound is divided back by
+     * the factor.
+     * 
+     * @param bound
+     *            the bound of the variable
+     * @return the bound to pass to lp_solve
+     */
+    private double getScaledBound(BigDecimal bound) {
+        BigDecimal factor = OptionsPacPMA.getLPSolverFactor();
+        return bound.multiply(factor).doubleValue() / factor.doubleValue();
+    }
+    
     private int getBoundDirection(ConstraintComparison comparison) {
         switch (comparison){
         case GE: return GE;
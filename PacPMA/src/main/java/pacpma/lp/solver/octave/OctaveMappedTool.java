@@ -0,0 +1,314 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.lp.solver.octave;
+
+import static pacpma.util.Util.zeroByPrecision;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import pacpma.externaltool.ToolRunner;
+import pacpma.log.LogEngine;
+import pacpma.lp.ConstraintComparison;
+import pacpma.lp.LPVariable;
+import pacpma.lp.OptimizationDirection;
+import pacpma.lp.solver.LPSolver;
+import pacpma.lp.solver.LPSolverExecutionStep;
+import pacpma.lp.solver.MappedDataWriter;
+import pacpma.options.OptionsPacPMA;
+
+/**
+ * Class to use Octave as an external LP solver, passing the constraints
+ * through memory-mapped binary files written by {@link MappedDataWriter}, so
+ * that the LP problem is neither kept on the heap nor formatted as text.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class OctaveMappedTool implements LPSolver {
+    private final static LogEngine logEngine = OptionsPacPMA.getLogEngineInstance();
+    
+    private final static String FIELD_SEPARATOR = ":";
+    private final static String ENTRY_SEPARATOR = ",";
+    
+    private final static byte CTYPE_LOWER = 'L';
+    private final static byte CTYPE_UPPER = 'U';
+    
+    private final static String CONFIGURATION = "format long;\n"; 
+    private final static String MYFUN = "function str = myfun(vec)\n"
+            + "\tstr = sprintf('" + ENTRY_SEPARATOR + "%.20f',vec);\n"
+            + "\tstr = str(2:end);\n"
+            + "end\n";
+    private final static String PARAMS = "param.msglev=0;\nparam.lpsolver=1;\n";
+    private final static String CALL = "[opt_var, opt_value, errnum, extra] = glpk (c, A, b, lb, ub, ctype, vartype, sense, param);\n";
+    private final static String ERRNUM = "fprintf('errnum:%d\\n', errnum);\n";
+    private final static String STATUS = "fprintf('extra.status:%d\\n', extra.status);\n";
+    private final static String OPT_VARIABLES = "fprintf('opt_var:%s\\n', myfun(opt_var));\n";
+
+    private LPSolverExecutionStep solverExpectedStep = LPSolverExecutionStep.SET_VARIABLES;
+    
+    private LPVariable[] lpvariables = null;
+    
+    private StringBuilder vartype = null;
+    private StringBuilder lowerbound = null;
+    private StringBuilder upperbound = null;
+
+    private StringBuilder objectiveFunction = null;
+    private String sense = null;
+    
+    private MappedDataWriter matrixA = null;
+    private MappedDataWriter vectorB = null;
+    private MappedDataWriter ctype = null;
+    private long numberConstraints = 0;
+    private File lpproblemTempFile = null;
+    
+    private BigDecimal lambdaValue = null;
+    
+    public OctaveMappedTool() {
+        try {
+            matrixA = new MappedDataWriter("lpproblemMatrixA");
+            vectorB = new MappedDataWriter("lpproblemVectorB");
+            ctype = new MappedDataWriter("lpproblemCtype");
+        } catch (IOException ioe) {
+            dispose();
+            logEngine.log(LogEngine.LEVEL_ERROR, "OctaveMappedTool: unable to create the LP problem files: " + ioe.getMessage());
+            throw new IllegalStateException("OctaveMappedTool: unable to create the LP problem files", ioe);
+        }
+    }
+    
+    @Override
+    public void setVariables(List<LPVariable> listOfVariables) {
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: setting variables");
+        assert solverExpectedStep == LPSolverExecutionStep.SET_VARIABLES;
+        solverExpectedStep = LPSolverExecutionStep.SET_OBJECTIVE_FUNCTION;
+        
+        lpvariables = listOfVariables.toArray(new LPVariable[0]);
+        
+        vartype = new StringBuilder("vartype = \"");
+        lowerbound = new StringBuilder("lb = [");
+        upperbound = new StringBuilder("ub = [");
+        int nvariables = lpvariables.length;
+        // variable 0 is lambda; we manage it explicitly
+        vartype.append('C');
+        lowerbound.append("0");
+        if (OptionsPacPMA.isLambdaUnbounded()) {
+            upperbound.append("Inf");
+        } else {
+            upperbound.append(OptionsPacPMA.getLambda().toPlainString());
+        }
+        // all other variables are unbounded
+        for (int i = 1; i < nvariables; i++) {
+            vartype.append('C');
+            lowerbound.append(";-Inf");
+            upperbound.append(";Inf");
+        }
+        vartype.append("\";\n");
+        lowerbound.append("];\n");
+        upperbound.append("];\n");
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: setting variables done");
+    }
+
+    @Override
+    public void setObjectiveFunction(OptimizationDirection direction, Map<LPVariable, BigDecimal> terms) {
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: setting objective");
+        assert solverExpectedStep == LPSolverExecutionStep.SET_OBJECTIVE_FUNCTION;
+        solverExpectedStep = LPSolverExecutionStep.ADD_CONSTRAINTS;
+        
+        switch (direction) {
+        case MIN:
+            sense = "sense = 1;\n";
+            break;
+        case MAX:
+            sense = "sense = -1;\n";
+            break;
+        }
+        boolean isFirst = true;
+        objectiveFunction = new StringBuilder("c = [");
+        for (LPVariable lpvariable : lpvariables) {
+            BigDecimal coefficient = terms.get(lpvariable);
+            if (coefficient != null) {
+                if (isFirst) {
+                    isFirst = false;
+                } else {
+                    objectiveFunction.append(",");
+                }
+                objectiveFunction.append(coefficient.toPlainString());
+            }
+        }
+        objectiveFunction.append("];\n");
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: setting objective done");
+    }
+
+    @Override
+    public void addConstraint(Map<LPVariable, BigDecimal> terms, ConstraintComparison comparison, BigDecimal bound) {
+        assert solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS;
+        
+        BigDecimal factor = OptionsPacPMA.getLPSolverFactor();
+        
+        try {
+            for (LPVariable lpvariable : lpvariables) {
+                matrixA.writeDouble(terms.getOrDefault(lpvariable, BigDecimal.ZERO).multiply(factor).doubleValue());
+            }
+            vectorB.writeDouble(bound.multiply(factor).doubleValue());
+            switch(comparison) {
+            case GE:
+                ctype.writeByte(CTYPE_LOWER);
+                break;
+            case LE:
+                ctype.writeByte(CTYPE_UPPER);
+                break;
+            }
+        } catch (IOException ioe) {
+            logEngine.log(LogEngine.LEVEL_ERROR, "OctaveMappedTool: unable to write the LP problem files: " + ioe.getMessage());
+            throw new IllegalStateException("OctaveMappedTool: unable to write the LP problem files", ioe);
+        }
+        numberConstraints++;
+    }
+
+    @Override
+    public Map<LPVariable, BigDecimal> solve() {
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: starting solving problem");
+        assert solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS;
+        solverExpectedStep = LPSolverExecutionStep.SOLVED;
+        
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: creating LP problem file");
+        try {
+            matrixA.close();
+            vectorB.close();
+            ctype.close();
+        } catch (IOException ioe) {
+            return null;
+        }
+
+        try {
+            lpproblemTempFile = File.createTempFile("lpproblem", ".octave");
+            lpproblemTempFile.deleteOnExit();
+        } catch (Exception ioe) {
+            return null;
+        }
+
+        String sizeA = "[" + lpvariables.length + ", " + numberConstraints + "]";
+        String sizeB = "[" + numberConstraints + ", 1]";
+        String sizeCtype = "[1, " + numberConstraints + "]";
+        StringBuilder lpProblem = new StringBuilder();
+        lpProblem.append(CONFIGURATION)
+            .append(MYFUN)
+            .append(sense)
+            .append(objectiveFunction)
+            .append(readBinary("A", matrixA, sizeA, "'double', 0, 'ieee-le'", true))
+            .append(readBinary("b", vectorB, sizeB, "'double', 0, 'ieee-le'", false))
+            .append(readBinary("ctype", ctype, sizeCtype, "'char=>char'", false))
+            .append(vartype)
+            .append(lowerbound)
+            .append(upperbound)
+            .append(PARAMS)
+            .append(CALL)
+            .append(ERRNUM)
+            .append(STATUS)
+            .append(OPT_VARIABLES);
+    
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(lpproblemTempFile))) {
+            bw.write(lpProblem.toString());
+        } catch (IOException ioe) {
+            return null;
+        }
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: creating LP problem file done");
+        
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: calling octave");
+        List<String> command = new LinkedList<>();
+        command.add("octave");
+        command.add("--no-gui");
+        command.add("--no-history");
+        command.add("--no-window-system");
+        command.add("--silent");
+        command.add("--no-line-editing");
+        command.add(lpproblemTempFile.getAbsolutePath());
+        
+        List<String> octaveOutput = new ToolRunner(command).run();
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: calling octave done");
+
+        // first line is "errnum:number"
+        if (!"0".equals(octaveOutput.get(0).split(FIELD_SEPARATOR)[1])) {
+            // some error occurred during the LP problem solution
+            return null;
+        }
+        
+        // second line is "extra.status:number"
+        String number = octaveOutput.get(1).split(FIELD_SEPARATOR)[1];
+        if (!"2".equals(number) && !"5".equals(number)) {
+            // no feasible (optimal, resp.) solution found
+            return null;
+        }
+        
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: collecting output values");
+        // third line is "opt_var:value,value,..."
+        Map<LPVariable, BigDecimal> results = new HashMap<>();
+
+        String[] values = octaveOutput.get(2).split(FIELD_SEPARATOR)[1].split(ENTRY_SEPARATOR);
+        for (int i = 0; i < lpvariables.length; i++) {
+            results.put(lpvariables[i], zeroByPrecision(new BigDecimal(values[i])));
+        }
+
+        lambdaValue = results.get(lpvariables[0]);
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: collecting output values done");
+
+        logEngine.log(LogEngine.LEVEL_INFO, "OctaveMappedTool: solving problem done");
+        return results;
+    }
+
+    @Override
+    public BigDecimal getLambdaValue() {
+        return lambdaValue;
+    }
+    
+    @Override
+    public void dispose() {
+        if (matrixA != null) {
+            matrixA.delete();
+            matrixA = null;
+        }
+        if (vectorB != null) {
+            vectorB.delete();
+            vectorB = null;
+        }
+        if (ctype != null) {
+            ctype.delete();
+            ctype = null;
+        }
+        if (lpproblemTempFile != null) {
+            lpproblemTempFile.delete();
+            lpproblemTempFile = null;
+        }
+    }
+    
+    private String readBinary(String variable, MappedDataWriter writer, String size, String precision, boolean transpose) {
+        return "fid = fopen('" + writer.getFile().getAbsolutePath() + "', 'r');\n"
+                + variable + " = fread(fid, " + size + ", " + precision + ")" + (transpose ? "'" : "") + ";\n"
+                + "fclose(fid);\n";
+    }
+}
@@ -0,0 +1,295 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.lp.solver.simplex;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import pacpma.log.LogEngine;
+import pacpma.lp.ConstraintComparison;
+import pacpma.lp.LPVariable;
+import pacpma.lp.OptimizationDirection;
+import pacpma.lp.solver.LPSolver;
+import pacpma.lp.solver.LPSolverExecutionStep;
+import pacpma.options.OptionsPacPMA;
+
+/**
+ * An LP solver based on the exchange method, in the style of the Remez
+ * algorithm for minimax approximation.
+ * <p>
+ * The LP problems generated by the scenario approach are discrete Chebyshev
+ * approximation problems: minimize {@code lambda} subject to 
+ * |Σ<sub>k</sub> c<sub>k</sub> φ<sub>k</sub>(x<sub>i</sub>) - y<sub>i</sub>|
+ * ≤ {@code lambda} for each sample {@code i}. At the optimum only a reference
+ * set of at most #coefficients + 1 constraints is active, so instead of 
+ * solving the LP problem with all constraints, this solver solves the LP 
+ * problem restricted to a small reference set, checks all constraints against
+ * the restricted solution and exchanges the most violated constraints into 
+ * the reference set, until no constraint is violated. The restricted 
+ * problems are solved by {@link SimplexSolver}, restarting each time from the
+ * previous basis; constraints that left the basis are dropped from the 
+ * reference set when it grows too much.
+ * <p>
+ * Since the final solution is optimal for the restricted problem and satisfies
+ * all constraints, it is an optimal solution of the whole LP problem.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class ExchangeSolver implements LPSolver {
+    private final static LogEngine logEngine = OptionsPacPMA.getLogEngineInstance();
+    
+    private final static double TOLERANCE_VIOLATION = 1e-9;
+    
+    /** Number of reference sizes after which the non active constraints are dropped */
+    private final static int REFERENCE_GROWTH_LIMIT = 4;
+    
+    private final static int INITIAL_CAPACITY = 64;
+    
+    private final static int NOT_IN_REFERENCE = -1;
+    
+    private final SimplexSolver simplexSolver = new SimplexSolver();
+    private LPSolverExecutionStep solverExpectedStep = LPSolverExecutionStep.SET_VARIABLES;
+    
+    private LPVariable[] lpvariables = null;
+    private int numberVariables;
+    private Map<LPVariable, Integer> variableIndex = null;
+    
+    /* all constraints a_i·x ≥ b_i, scaled by the LP solver factor */
+    
+    private double[][] rows = new double[INITIAL_CAPACITY][];
+    private double[] bounds = new double[INITIAL_CAPACITY];
+    
+    /** For each constraint, its index in {@link #simplexSolver} if it is in the reference set */
+    private int[] referenceIndex = new int[INITIAL_CAPACITY];
+    private int numberRows = 0;
+    private int referenceSize = 0;
+    
+    private BigDecimal lambdaValue = null;
+
+    @Override
+    public void setVariables(List<LPVariable> listOfVariables) {
+        logEngine.log(LogEngine.LEVEL_INFO, "ExchangeSolver: setting variables");
+        assert solverExpectedStep == LPSolverExecutionStep.SET_VARIABLES;
+        solverExpectedStep = LPSolverExecutionStep.SET_OBJECTIVE_FUNCTION;
+        
+        lpvariables = listOfVariables.toArray(new LPVariable[0]);
+        numberVariables = lpvariables.length;
+        simplexSolver.setVariables(listOfVariables);
+        variableIndex = new HashMap<>();
+        for (int var = 0; var < numberVariables; var++) {
+            variableIndex.put(lpvariables[var], var);
+        }
+        logEngine.log(LogEngine.LEVEL_INFO, "ExchangeSolver: setting variables done");
+    }
+
+    @Override
+    public void setObjectiveFunction(OptimizationDirection direction, Map<LPVariable, BigDecimal> terms) {
+        logEngine.log(LogEngine.LEVEL_INFO, "ExchangeSolver: setting objective");
+        assert solverExpectedStep == LPSolverExecutionStep.SET_OBJECTIVE_FUNCTION;
+        solverExpectedStep = LPSolverExecutionStep.ADD_CONSTRAINTS;
+        
+        simplexSolver.setObjectiveFunction(direction, terms);
+        logEngine.log(LogEngine.LEVEL_INFO, "ExchangeSolver: setting objective done");
+    }
+
+    @Override
+    public void addConstraint(Map<LPVariable, BigDecimal> terms, ConstraintComparison comparison, BigDecimal bound) {
+        assert solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS
+                || solverExpectedStep == LPSolverExecutionStep.SOLVED;
+
+        BigDecimal factor = OptionsPacPMA.getLPSolverFactor();
+        double sign = (comparison == ConstraintComparison.GE) ? 1.0 : -1.0;
+        
+        double[] row = new double[numberVariables];
+        for (Entry<LPVariable, BigDecimal> entry : terms.entrySet()) {
+            row[variableIndex.get(entry.getKey())] = sign * entry.getValue().multiply(factor).doubleValue();
+        }
+        if (numberRows == rows.length) {
+            int capacity = 2 * rows.length;
+            rows = Arrays.copyOf(rows, capacity);
+            bounds = Arrays.copyOf(bounds, capacity);
+            referenceIndex = Arrays.copyOf(referenceIndex, capacity);
+        }
+        rows[numberRows] = row;
+        bounds[numberRows] = sign * bound.multiply(factor).doubleValue();
+        referenceIndex[numberRows] = NOT_IN_REFERENCE;
+        numberRows++;
+    }
+
+    @Override
+    public Map<LPVariable, BigDecimal> solve() {
+        logEngine.log(LogEngine.LEVEL_INFO, "ExchangeSolver: starting solving problem");
+        assert solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS
+                || solverExpectedStep == LPSolverExecutionStep.SOLVED;
+        solverExpectedStep = LPSolverExecutionStep.SOLVED;
+        
+        lambdaValue = null;
+        if (referenceSize == 0) {
+            initializeReference();
+        }
+        
+        long startIterations = simplexSolver.getIterations();
+        int exchanges = 0;
+        Map<LPVariable, BigDecimal> results;
+        while (true) {
+            results = simplexSolver.solve();
+            if (results == null) {
+                // the restricted problem is infeasible, or unbounded for objectives
+                // not bounded by the variable bounds: use all constraints
+                if (referenceSize < numberRows) {
+                    logEngine.log(LogEngine.LEVEL_INFO, "ExchangeSolver: restricted problem not solved, using all constraints");
+                    for (int row = 0; row < numberRows; row++) {
+                        addToReference(row);
+                    }
+                    continue;
+                }
+                break;
+            }
+            
+            double[] solution = new double[numberVariables];
+            for (int var = 0; var < numberVariables; var++) {
+                solution[var] = results.get(lpvariables[var]).doubleValue();
+            }
+            int[] violated = findMostViolated(solution, numberVariables);
+            if (violated.length == 0) {
+                break;
+            }
+            exchanges++;
+            // dropping stops after as many exchanges as needed to add all constraints, 
+            // so that cycling is not possible 
+            if (referenceSize + violated.length > REFERENCE_GROWTH_LIMIT * numberVariables
+                    && exchanges <= numberRows / numberVariables) {
+                dropInactive();
+            }
+            for (int row : violated) {
+                addToReference(row);
+            }
+        }
+        if (results != null) {
+            lambdaValue = results.get(lpvariables[0]);
+        }
+        
+        logEngine.log(LogEngine.LEVEL_INFO, "ExchangeSolver: solving problem done, " 
+                + exchanges + " exchanges, " 
+                + (simplexSolver.getIterations() - startIterations) + " iterations, "
+                + referenceSize + " constraints in the reference set out of " + numberRows);
+        return results;
+    }
+
+    @Override
+    public BigDecimal getLambdaValue() {
+        return lambdaValue;
+    }
+    
+    @Override
+    public boolean supportsIncrementalSolving() {
+        return true;
+    }
+    
+    @Override
+    public void updateVariableBounds(LPVariable variable, BigDecimal lowerbound, BigDecimal upperbound) {
+        simplexSolver.updateVariableBounds(variable, lowerbound, upperbound);
+    }
+    
+    @Override
+    public void dispose() {
+        simplexSolver.dispose();
+        rows = null;
+        bounds = null;
+    }
+    
+    /**
+     * Initializes the reference set with #variables constraints spread over
+     * the constraints received so far.
+     */
+    private void initializeReference() {
+        int initialSize = Math.min(numberRows, numberVariables + 1);
+        for (int k = 0; k < initialSize; k++) {
+            addToReference((int) ((long) k * numberRows / initialSize));
+        }
+    }
+    
+    private void addToReference(int row) {
+        if (referenceIndex[row] == NOT_IN_REFERENCE) {
+            referenceIndex[row] = simplexSolver.addRow(rows[row], bounds[row]);
+            referenceSize++;
+        }
+    }
+    
+    /**
+     * Removes from the reference set the constraints that are not active in
+     * the current basis; they can enter the reference set again later.
+     */
+    private void dropInactive() {
+        for (int row = 0; row < numberRows; row++) {
+            int index = referenceIndex[row];
+            if (index != NOT_IN_REFERENCE && !simplexSolver.isBasic(index)) {
+                simplexSolver.removeRow(index);
+                referenceIndex[row] = NOT_IN_REFERENCE;
+                referenceSize--;
+            }
+        }
+    }
+    
+    /**
+     * Finds the constraints not in the reference set violated by the given
+     * solution.
+     * 
+     * @return the indices of at most {@code limit} violated constraints, most
+     *         violated first
+     */
+    private int[] findMostViolated(double[] solution, int limit) {
+        int[] candidates = new int[limit];
+        double[] violations = new double[limit];
+        int found = 0;
+        for (int row = 0; row < numberRows; row++) {
+            if (referenceIndex[row] != NOT_IN_REFERENCE) {
+                continue;
+            }
+            double[] a = rows[row];
+            double value = 0.0;
+            for (int var = 0; var < numberVariables; var++) {
+                value += a[var] * solution[var];
+            }
+            double violation = bounds[row] - value;
+            if (violation <= TOLERANCE_VIOLATION * Math.max(1.0, Math.abs(bounds[row]))) {
+                continue;
+            }
+            if (found < limit || violation > violations[found - 1]) {
+                // insertion in the list sorted by decreasing violation
+                int position = (found < limit) ? found++ : found - 1;
+                while (position > 0 && violations[position - 1] < violation) {
+                    violations[position] = violations[position - 1];
+                    candidates[position] = candidates[position - 1];
+                    position--;
+                }
+                violations[position] = violation;
+                candidates[position] = row;
+            }
+        }
+        return Arrays.copyOf(candidates, found);
+    }
+}
@@ -0,0 +1,588 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.lp.solver.simplex;
+
+import static pacpma.util.Util.zeroByPrecision;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import pacpma.log.LogEngine;
+import pacpma.lp.ConstraintComparison;
+import pacpma.lp.LPVariable;
+import pacpma.lp.OptimizationDirection;
+import pacpma.lp.solver.LPSolver;
+import pacpma.lp.solver.LPSolverExecutionStep;
+import pacpma.options.OptionsPacPMA;
+
+/**
+ * A pure Java LP solver based on the revised simplex method.
+ * <p>
+ * The LP problems generated by the scenario approach have few variables (the
+ * template coefficients and {@code lambda}) and many constraints (two for each
+ * sample). The solver therefore works on the dual problem: given the primal
+ * problem min c·x subject to a<sub>i</sub>·x ≥ b<sub>i</sub> for each
+ * constraint {@code i} (≤ constraints are negated and variable bounds are
+ * represented as constraints), it solves by the primal simplex method the dual
+ * problem max b·y subject to A<sup>T</sup>y = c, y ≥ 0, whose basis has size
+ * equal to the number of primal variables. The primal solution is given by the
+ * simplex multipliers of the optimal basis.
+ * <p>
+ * This choice makes incremental solving natural: a constraint added to the
+ * primal problem is a new column of the dual problem and a change of the
+ * bound of a constraint is a change of the cost of a column, so in both cases
+ * the previous basis is still feasible and the simplex method restarts from
+ * it.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class SimplexSolver implements LPSolver {
+    private final static LogEngine logEngine = OptionsPacPMA.getLogEngineInstance();
+    
+    private final static double TOLERANCE_FEASIBILITY = 1e-9;
+    private final static double TOLERANCE_OPTIMALITY = 1e-9;
+    private final static double TOLERANCE_PIVOT = 1e-11;
+    
+    /** Number of pivots after which the basis inverse is recomputed from scratch */
+    private final static int REFACTORIZATION_INTERVAL = 100;
+    
+    /** Number of consecutive degenerate pivots after which Bland's rule is used to avoid cycling */
+    private final static int DEGENERATE_PIVOTS_LIMIT = 50;
+    
+    private final static int INITIAL_CAPACITY = 64;
+    
+    private final static int NO_ROW = -1;
+    
+    private enum Status {
+        OPTIMAL,
+        UNBOUNDED,
+        ITERATION_LIMIT;
+    }
+    
+    private LPVariable[] lpvariables = null;
+    private final Map<LPVariable, Integer> variableIndex = new HashMap<>();
+    private LPSolverExecutionStep solverExpectedStep = LPSolverExecutionStep.SET_VARIABLES;
+    
+    /** Number of primal variables, i.e., of rows of the dual problem */
+    private int numberVariables;
+    
+    /** Primal objective function, in minimization form */
+    private double[] objective;
+    
+    /* the primal constraints a_i·x ≥ b_i, that is, the columns of the dual problem */
+    
+    private double[][] rows = new double[INITIAL_CAPACITY][];
+    private double[] bounds = new double[INITIAL_CAPACITY];
+    private boolean[] enabled = new boolean[INITIAL_CAPACITY];
+    private boolean[] inBasis = new boolean[INITIAL_CAPACITY];
+    private int numberRows = 0;
+    
+    /* for each primal variable, the constraints representing its bounds */
+    
+    private int[] lowerboundRow;
+    private int[] upperboundRow;
+    
+    /* the basis of the dual problem; artificial variable k is encoded as -(k+1) */
+    
+    private int[] basis = null;
+    private double[][] basisInverse = null;
+    private double[] basisValues = null;
+    private boolean isFeasible = false;
+    private int pivotsSinceRefactorization = 0;
+    private int consecutiveDegeneratePivots = 0;
+    private long iterations = 0;
+    
+    private BigDecimal lambdaValue = null;
+
+    @Override
+    public void setVariables(List<LPVariable> listOfVariables) {
+        logEngine.log(LogEngine.LEVEL_INFO, "SimplexSolver: setting variables");
+        assert solverExpectedStep == LPSolverExecutionStep.SET_VARIABLES;
+        solverExpectedStep = LPSolverExecutionStep.SET_OBJECTIVE_FUNCTION;
+        
+        lpvariables = listOfVariables.toArray(new LPVariable[0]);
+        numberVariables = lpvariables.length;
+        for (int var = 0; var < numberVariables; var++) {
+            variableIndex.put(lpvariables[var], var);
+        }
+        lowerboundRow = new int[numberVariables];
+        upperboundRow = new int[numberVariables];
+        Arrays.fill(lowerboundRow, NO_ROW);
+        Arrays.fill(upperboundRow, NO_ROW);
+        
+        //setting all variables as unbounded, except for lambda (variable 0)
+        if (OptionsPacPMA.isLambdaUnbounded()) {
+            updateVariableBounds(lpvariables[0], BigDecimal.ZERO, null);
+        } else {
+            updateVariableBounds(lpvariables[0], BigDecimal.ZERO, OptionsPacPMA.getLambda());
+        }
+        logEngine.log(LogEngine.LEVEL_INFO, "SimplexSolver: setting variables done");
+    }
+
+    @Override
+    public void setObjectiveFunction(OptimizationDirection direction, Map<LPVariable, BigDecimal> terms) {
+        logEngine.log(LogEngine.LEVEL_INFO, "SimplexSolver: setting objective");
+        assert solverExpectedStep == LPSolverExecutionStep.SET_OBJECTIVE_FUNCTION;
+        solverExpectedStep = LPSolverExecutionStep.ADD_CONSTRAINTS;
+        
+        objective = new double[numberVariables];
+        for (Entry<LPVariable, BigDecimal> entry : terms.entrySet()) {
+            double value = entry.getValue().doubleValue();
+            objective[variableIndex.get(entry.getKey())] = (direction == OptimizationDirection.MAX) ? -value : value;
+        }
+        logEngine.log(LogEngine.LEVEL_INFO, "SimplexSolver: setting objective done");
+    }
+
+    @Override
+    public void addConstraint(Map<LPVariable, BigDecimal> terms, ConstraintComparison comparison, BigDecimal bound) {
+        assert solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS
+                || solverExpectedStep == LPSolverExecutionStep.SOLVED;
+        
+        BigDecimal factor = OptionsPacPMA.getLPSolverFactor();
+        double sign = (comparison == ConstraintComparison.GE) ? 1.0 : -1.0;
+        
+        double[] row = new double[numberVariables];
+        for (Entry<LPVariable, BigDecimal> entry : terms.entrySet()) {
+            row[variableIndex.get(entry.getKey())] = sign * entry.getValue().multiply(factor).doubleValue();
+        }
+        addRow(row, sign * bound.multiply(factor).doubleValue());
+    }
+
+    @Override
+    public Map<LPVariable, BigDecimal> solve() {
+        logEngine.log(LogEngine.LEVEL_INFO, "SimplexSolver: starting solving problem");
+        assert solverExpectedStep == LPSolverExecutionStep.ADD_CONSTRAINTS
+                || solverExpectedStep == LPSolverExecutionStep.SOLVED;
+        solverExpectedStep = LPSolverExecutionStep.SOLVED;
+        
+        lambdaValue = null;
+        long startIterations = iterations;
+        if (basis == null) {
+            logEngine.log(LogEngine.LEVEL_INFO, "SimplexSolver: starting from the artificial basis");
+            initializeBasis();
+        } else {
+            logEngine.log(LogEngine.LEVEL_INFO, "SimplexSolver: starting from the previous basis");
+        }
+        
+        Map<LPVariable, BigDecimal> results = null;
+        Status status = Status.OPTIMAL;
+        if (!isFeasible) {
+            status = iterate(true);
+            if (status == Status.OPTIMAL) {
+                double infeasibility = 0.0;
+                for (int r = 0; r < numberVariables; r++) {
+                    if (basis[r] < 0) {
+                        infeasibility += basisValues[r];
+                    }
+                }
+                isFeasible = infeasibility <= TOLERANCE_FEASIBILITY;
+                if (!isFeasible) {
+                    logEngine.log(LogEngine.LEVEL_WARNING, "SimplexSolver: the problem is unbounded or infeasible");
+                }
+            }
+        }
+        if (isFeasible) {
+            status = iterate(false);
+            switch (status) {
+            case OPTIMAL:
+                double[] multipliers = computeMultipliers(false);
+                results = new HashMap<>();
+                for (int var = 0; var < numberVariables; var++) {
+                    results.put(lpvariables[var], zeroByPrecision(new BigDecimal(-multipliers[var])));
+                }
+                lambdaValue = results.get(lpvariables[0]);
+                break;
+            case UNBOUNDED:
+                logEngine.log(LogEngine.LEVEL_WARNING, "SimplexSolver: the problem is infeasible");
+                break;
+            case ITERATION_LIMIT:
+                break;
+            }
+        }
+        if (status == Status.ITERATION_LIMIT) {
+            logEngine.log(LogEngine.LEVEL_WARNING, "SimplexSolver: iteration limit reached");
+        }
+        
+        logEngine.log(LogEngine.LEVEL_INFO, "SimplexSolver: solving problem done, " + (iterations - startIterations) + " iterations");
+        return results;
+    }
+
+    @Override
+    public BigDecimal getLambdaValue() {
+        return lambdaValue;
+    }
+    
+    @Override
+    public boolean supportsIncrementalSolving() {
+        return true;
+    }
+    
+    @Override
+    public void updateVariableBounds(LPVariable variable, BigDecimal lowerbound, BigDecimal upperbound) {
+        assert solverExpectedStep != LPSolverExecutionStep.SET_VARIABLES;
+        assert variableIndex.containsKey(variable);
+        
+        int var = variableIndex.get(variable);
+        lowerboundRow[var] = updateBoundRow(var, lowerboundRow[var], 1.0, lowerbound);
+        upperboundRow[var] = updateBoundRow(var, upperboundRow[var], -1.0, upperbound);
+    }
+    
+    @Override
+    public void dispose() {
+        rows = null;
+        bounds = null;
+        basisInverse = null;
+    }
+    
+    /**
+     * Updates the constraint {@code sign * x_var ≥ sign * bound} representing a
+     * bound of the given variable.
+     * 
+     * @return the index of the constraint, or {@link #NO_ROW} if the variable
+     *         has no such bound anymore
+     */
+    private int updateBoundRow(int var, int row, double sign, BigDecimal bound) {
+        if (bound == null) {
+            if (row != NO_ROW) {
+                enabled[row] = false;
+                if (inBasis[row]) {
+                    // the constraint can not just be dropped from the basis
+                    logEngine.log(LogEngine.LEVEL_INFO, "SimplexSolver: active bound removed, the basis is discarded");
+                    basis = null;
+                }
+            }
+            return NO_ROW;
+        }
+        if (row == NO_ROW) {
+            double[] boundRow = new double[numberVariables];
+            boundRow[var] = sign;
+            return addRow(boundRow, sign * bound.doubleValue());
+        } else {
+            bounds[row] = sign * bound.doubleValue();
+            return row;
+        }
+    }
+    
+    /**
+     * Adds the constraint {@code row·x ≥ bound}, already scaled and in
+     * ≥-form.
+     * 
+     * @param row
+     *            the coefficients of the constraint, indexed as the variables
+     * @param bound
+     *            the boundary value
+     * @return the index of the new constraint
+     */
+    int addRow(double[] row, double bound) {
+        if (numberRows == rows.length) {
+            int capacity = 2 * rows.length;
+            rows = Arrays.copyOf(rows, capacity);
+            bounds = Arrays.copyOf(bounds, capacity);
+            enabled = Arrays.copyOf(enabled, capacity);
+            inBasis = Arrays.copyOf(inBasis, capacity);
+        }
+        rows[numberRows] = row;
+        bounds[numberRows] = bound;
+        enabled[numberRows] = true;
+        inBasis[numberRows] = false;
+        return numberRows++;
+    }
+    
+    /**
+     * Removes the given constraint, which must not be in the current basis.
+     * Since the dual variable of such constraint is zero, the current basis
+     * stays feasible and optimal.
+     * 
+     * @param row
+     *            the index of the constraint to remove
+     */
+    void removeRow(int row) {
+        assert !inBasis[row];
+        enabled[row] = false;
+    }
+    
+    /**
+     * States whether the given constraint is in the current basis, i.e.,
+     * whether it is active at the current solution.
+     * 
+     * @param row
+     *            the index of the constraint
+     * @return whether the constraint is basic
+     */
+    boolean isBasic(int row) {
+        return basis != null && inBasis[row];
+    }
+    
+    /**
+     * @return the number of simplex iterations performed so far
+     */
+    long getIterations() {
+        return iterations;
+    }
+    
+    /**
+     * Sets the basis to the artificial variables, with artificial variable
+     * {@code k} having column {@code ±e_k} so that its value is
+     * {@code |c_k| ≥ 0}.
+     */
+    private void initializeBasis() {
+        basis = new int[numberVariables];
+        basisInverse = new double[numberVariables][numberVariables];
+        basisValues = new double[numberVariables];
+        Arrays.fill(inBasis, false);
+        for (int k = 0; k < numberVariables; k++) {
+            basis[k] = -(k + 1);
+            basisInverse[k][k] = artificialSign(k);
+            basisValues[k] = Math.abs(objective[k]);
+        }
+        isFeasible = false;
+        pivotsSinceRefactorization = 0;
+        consecutiveDegeneratePivots = 0;
+    }
+    
+    private double artificialSign(int k) {
+        return objective[k] >= 0 ? 1.0 : -1.0;
+    }
+    
+    private double[] getColumn(int column) {
+        if (column >= 0) {
+            return rows[column];
+        }
+        int k = -column - 1;
+        double[] artificial = new double[numberVariables];
+        artificial[k] = artificialSign(k);
+        return artificial;
+    }
+    
+    private double getCost(int column, boolean phaseOne) {
+        if (column < 0) {
+            return phaseOne ? 1.0 : 0.0;
+        } else {
+            return phaseOne ? 0.0 : -bounds[column];
+        }
+    }
+    
+    /**
+     * Computes the simplex multipliers π = c<sub>B</sub><sup>T</sup>
+     * B<sup>-1</sup> for the current basis.
+     */
+    private double[] computeMultipliers(boolean phaseOne) {
+        double[] multipliers = new double[numberVariables];
+        for (int r = 0; r < numberVariables; r++) {
+            double cost = getCost(basis[r], phaseOne);
+            if (cost != 0.0) {
+                double[] inverseRow = basisInverse[r];
+                for (int k = 0; k < numberVariables; k++) {
+                    multipliers[k] += cost * inverseRow[k];
+                }
+            }
+        }
+        return multipliers;
+    }
+    
+    private Status iterate(boolean phaseOne) {
+        long iterationLimit = iterations + 50L * (numberRows + numberVariables) + 1000;
+        while (iterations < iterationLimit) {
+            iterations++;
+            
+            // pricing
+            double[] multipliers = computeMultipliers(phaseOne);
+            boolean useBland = consecutiveDegeneratePivots > DEGENERATE_PIVOTS_LIMIT;
+            int entering = NO_ROW;
+            double bestReducedCost = -TOLERANCE_OPTIMALITY;
+            for (int j = 0; j < numberRows; j++) {
+                if (!enabled[j] || inBasis[j]) {
+                    continue;
+                }
+                double[] row = rows[j];
+                double reducedCost = getCost(j, phaseOne);
+                for (int k = 0; k < numberVariables; k++) {
+                    reducedCost -= multipliers[k] * row[k];
+                }
+                if (reducedCost < bestReducedCost) {
+                    entering = j;
+                    if (useBland) {
+                        break;
+                    }
+                    bestReducedCost = reducedCost;
+                }
+            }
+            if (entering == NO_ROW) {
+                return Status.OPTIMAL;
+            }
+            
+            // ratio test
+            double[] alpha = multiply(basisInverse, rows[entering]);
+            int leaving = NO_ROW;
+            double bestRatio = Double.POSITIVE_INFINITY;
+            double bestAlpha = 0.0;
+            for (int r = 0; r < numberVariables; r++) {
+                double ratio;
+                double a = alpha[r];
+                if (!phaseOne && basis[r] < 0) {
+                    // artificial variables left in the basis must stay at 0
+                    if (Math.abs(a) <= TOLERANCE_PIVOT) {
+                        continue;
+                    }
+                    ratio = 0.0;
+                    a = Math.abs(a);
+                } else {
+                    if (a <= TOLERANCE_PIVOT) {
+                        continue;
+                    }
+                    ratio = Math.max(basisValues[r], 0.0) / a;
+                }
+                boolean isBetter;
+                if (ratio < bestRatio - TOLERANCE_FEASIBILITY) {
+                    isBetter = true;
+                } else if (ratio <= bestRatio + TOLERANCE_FEASIBILITY) {
+                    isBetter = useBland ? basis[r] < basis[leaving] : a > bestAlpha;
+                } else {
+                    isBetter = false;
+                }
+                if (isBetter) {
+                    leaving = r;
+                    bestRatio = Math.min(ratio, bestRatio);
+                    bestAlpha = a;
+                }
+            }
+            if (leaving == NO_ROW) {
+                return Status.UNBOUNDED;
+            }
+            
+            pivot(leaving, entering, alpha);
+        }
+        return Status.ITERATION_LIMIT;
+    }
+    
+    private void pivot(int leaving, int entering, double[] alpha) {
+        double pivotElement = alpha[leaving];
+        double step = basisValues[leaving] / pivotElement;
+        if (basis[leaving] < 0 && step < 0) {
+            step = 0.0;
+        }
+        if (Math.abs(step) <= TOLERANCE_FEASIBILITY) {
+            consecutiveDegeneratePivots++;
+        } else {
+            consecutiveDegeneratePivots = 0;
+        }
+        
+        double[] pivotRow = basisInverse[leaving];
+        for (int k = 0; k < numberVariables; k++) {
+            pivotRow[k] /= pivotElement;
+        }
+        for (int r = 0; r < numberVariables; r++) {
+            if (r != leaving) {
+                double a = alpha[r];
+                if (a != 0.0) {
+                    double[] inverseRow = basisInverse[r];
+                    for (int k = 0; k < numberVariables; k++) {
+                        inverseRow[k] -= a * pivotRow[k];
+                    }
+                    basisValues[r] -= a * step;
+                }
+            }
+        }
+        basisValues[leaving] = step;
+        
+        if (basis[leaving] >= 0) {
+            inBasis[basis[leaving]] = false;
+        }
+        basis[leaving] = entering;
+        inBasis[entering] = true;
+        
+        pivotsSinceRefactorization++;
+        if (pivotsSinceRefactorization >= REFACTORIZATION_INTERVAL) {
+            refactorize();
+        }
+    }
+    
+    /**
+     * Recomputes the inverse of the basis and the values of the basic
+     * variables from scratch, to avoid the accumulation of rounding errors.
+     */
+    private void refactorize() {
+        pivotsSinceRefactorization = 0;
+        int size = numberVariables;
+        double[][] matrix = new double[size][2 * size];
+        for (int r = 0; r < size; r++) {
+            double[] column = getColumn(basis[r]);
+            for (int k = 0; k < size; k++) {
+                matrix[k][r] = column[k];
+            }
+            matrix[r][size + r] = 1.0;
+        }
+        for (int col = 0; col < size; col++) {
+            int pivotRow = col;
+            for (int r = col + 1; r < size; r++) {
+                if (Math.abs(matrix[r][col]) > Math.abs(matrix[pivotRow][col])) {
+                    pivotRow = r;
+                }
+            }
+            if (Math.abs(matrix[pivotRow][col]) <= TOLERANCE_PIVOT) {
+                logEngine.log(LogEngine.LEVEL_WARNING, "SimplexSolver: singular basis, keeping the updated inverse");
+                return;
+            }
+            double[] tmp = matrix[pivotRow];
+            matrix[pivotRow] = matrix[col];
+            matrix[col] = tmp;
+            double pivotElement = matrix[col][col];
+            for (int k = 0; k < 2 * size; k++) {
+                matrix[col][k] /= pivotElement;
+            }
+            for (int r = 0; r < size; r++) {
+                double factor = matrix[r][col];
+                if (r != col && factor != 0.0) {
+                    for (int k = 0; k < 2 * size; k++) {
+                        matrix[r][k] -= factor * matrix[col][k];
+                    }
+                }
+            }
+        }
+        for (int r = 0; r < size; r++) {
+            basisInverse[r] = Arrays.copyOfRange(matrix[r], size, 2 * size);
+        }
+        basisValues = multiply(basisInverse, objective);
+        for (int r = 0; r < size; r++) {
+            if (basisValues[r] < 0 && basisValues[r] >= -TOLERANCE_FEASIBILITY) {
+                basisValues[r] = 0.0;
+            }
+        }
+    }
+    
+    private double[] multiply(double[][] matrix, double[] vector) {
+        double[] result = new double[matrix.length];
+        for (int r = 0; r < matrix.length; r++) {
+            double[] matrixRow = matrix[r];
+            double value = 0.0;
+            for (int k = 0; k < vector.length; k++) {
+                value += matrixRow[k] * vector[k];
+            }
+            result[r] = value;
+        }
+        return result;
+    }
+}
@@ -20,6 +20,8 @@
 
 package pacpma.modelchecker.batch;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -57,4 +59,30 @@ public interface BatchModelChecker extends ModelChecker {
      *             if the model can't be checked with the provided information
      */
     public Map<Integer, ModelCheckerResult> check() throws IllegalStateException;
+
+    /**
+     * Checks each of the given formulas against the model instantiated with
+     * the provided constants, replacing the formula set by 
+     * {@link #setPropertyFormula(String)}. The default implementation checks
+     * the formulas one at a time by {@link #check()}, so the model is 
+     * instantiated once for each formula; model checkers able to check 
+     * several formulas on the same instantiated model override it.
+     * 
+     * @param propertyFormulas
+     *            the property formulas
+     * @return a map associating to each integer identifier given in
+     *         {@link #setParameterValues(Map)} the values of the checked
+     *         quantitative formulas, in the order of {@code propertyFormulas}
+     * @throws IllegalStateException
+     *             if the model can't be checked with the provided information
+     */
+    default Map<Integer, List<ModelCheckerResult>> check(List<String> propertyFormulas) throws IllegalStateException {
+        Map<Integer, List<ModelCheckerResult>> results = new HashMap<>();
+        for (String propertyFormula : propertyFormulas) {
+            setPropertyFormula(propertyFormula);
+            check().forEach((identifier, result) -> 
+                results.computeIfAbsent(identifier, id -> new ArrayList<>(propertyFormulas.size())).add(result));
+        }
+        return results;
+    }
 }
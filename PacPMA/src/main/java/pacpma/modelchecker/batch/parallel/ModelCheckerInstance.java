@@ -20,11 +20,14 @@
 
 package pacpma.modelchecker.batch.parallel;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import pacpma.modelchecker.ModelCheckerResult;
 import pacpma.modelchecker.Range;
 import pacpma.modelchecker.batch.BatchModelChecker;
+import pacpma.sample.SampleBlocks;
 
 /**
  * @author Andrea Turrini
@@ -33,16 +36,93 @@ import pacpma.modelchecker.batch.BatchModelChecker;
 public class ModelCheckerInstance extends Thread {
     
     private final BatchModelChecker modelChecker;
+    private final List<String> propertyFormulas;
+    private final SampleBlocks blocks;
+    private final int blockSize;
     private Map<Integer, ModelCheckerResult> results = null;
+    private Map<Integer, List<ModelCheckerResult>> formulasResults = null;
     private Range range = null;
     
     public ModelCheckerInstance(BatchModelChecker modelChecker) {
+        this(modelChecker, null);
+    }
+    
+    /**
+     * Creates an instance checking the given formulas, or the formula set
+     * in the model checker when {@code propertyFormulas} is {@code null}.
+     * 
+     * @param modelChecker
+     *            the model checker
+     * @param propertyFormulas
+     *            the property formulas to check
+     */
+    public ModelCheckerInstance(BatchModelChecker modelChecker, List<String> propertyFormulas) {
+        this(modelChecker, propertyFormulas, null, 0);
+    }
+    
+    /**
+     * Creates an instance checking the given formulas, or the formula set
+     * in the model checker when {@code propertyFormulas} is {@code null}, on
+     * the blocks of samples it takes from {@code blocks} until none is left;
+     * the parameter values of each block are set in the model checker right
+     * before checking it.
+     * 
+     * @param modelChecker
+     *            the model checker
+     * @param propertyFormulas
+     *            the property formulas to check
+     * @param blocks
+     *            the blocks of samples shared with the other instances
+     * @param blockSize
+     *            the maximum number of samples of a block
+     */
+    public ModelCheckerInstance(BatchModelChecker modelChecker, List<String> propertyFormulas, SampleBlocks blocks, int blockSize) {
         this.modelChecker = modelChecker;
+        this.propertyFormulas = propertyFormulas;
+        this.blocks = blocks;
+        this.blockSize = blockSize;
     }
 
     @Override
     public void run() {
-        results = modelChecker.check();
+        if (blocks == null) {
+            check();
+            return;
+        }
+        Map<Integer, ModelCheckerResult> allResults = new HashMap<>();
+        Map<Integer, List<ModelCheckerResult>> allFormulasResults = new HashMap<>();
+        Range allRange = null;
+        SampleBlocks.Block block;
+        while ((block = blocks.next(blockSize)) != null) {
+            modelChecker.setParameterValues(block.getParameterValues());
+            check();
+            if (results != null) {
+                allResults.putAll(results);
+            }
+            if (formulasResults != null) {
+                allFormulasResults.putAll(formulasResults);
+            }
+            if (range != null && range.getLowerbound() != null) {
+                if (allRange == null) {
+                    allRange = new Range();
+                }
+                allRange.updateRange(range);
+            }
+        }
+        if (propertyFormulas == null) {
+            results = allResults;
+        } else {
+            formulasResults = allFormulasResults;
+        }
+        range = allRange;
+    }
+    
+    private void check() {
+        if (propertyFormulas == null) {
+            results = modelChecker.check();
+        } else {
+            formulasResults = modelChecker.check(propertyFormulas);
+        }
         range = modelChecker.getRange();
     }
     
@@ -50,6 +130,10 @@ public class ModelCheckerInstance extends Thread {
         return results;
     }
     
+    public Map<Integer, List<ModelCheckerResult>> getFormulasResults() {
+        return formulasResults;
+    }
+    
     public Range getRange() {
         return range;
     }
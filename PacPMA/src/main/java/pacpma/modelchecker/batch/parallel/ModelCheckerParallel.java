@@ -20,14 +20,20 @@
 
 package pacpma.modelchecker.batch.parallel;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import pacpma.log.LogEngine;
 import pacpma.modelchecker.ModelCheckerResult;
 import pacpma.modelchecker.Range;
+import pacpma.modelchecker.batch.BatchModelChecker;
 import pacpma.options.OptionsPacPMA;
+import pacpma.sample.SampleBlocks;
+import pacpma.sample.SampleMatrix;
+import pacpma.sample.Sampler;
 
 /**
  * @author Andrea Turrini
@@ -48,9 +54,101 @@ public class ModelCheckerParallel {
         }
     }
     
+    /**
+     * Creates a parallel model checker for all samples of the given matrix,
+     * as in {@link #ModelCheckerParallel(List, SampleBlocks, List)}.
+     * 
+     * @param modelCheckers
+     *            the model checkers, one for each thread
+     * @param samples
+     *            the samples to check
+     */
+    public ModelCheckerParallel(List<BatchModelChecker> modelCheckers, SampleMatrix samples) {
+        this(modelCheckers, new SampleBlocks(samples), null);
+    }
+    
+    /**
+     * Creates a parallel model checker distributing the blocks of samples 
+     * among the given model checkers: each model checker takes the next block
+     * when it is done with the previous one, generates its samples and checks
+     * them, so the blocks are balanced among the threads and the generation
+     * overlaps with the model checking. The samples are identified by their
+     * index in the matrix of {@code blocks}; each model checker checks all 
+     * given formulas, whose results are provided by {@link #checkFormulas()},
+     * or the formula set in it when {@code propertyFormulas} is {@code null}.
+     * 
+     * @param modelCheckers
+     *            the model checkers, one for each thread
+     * @param blocks
+     *            the blocks of samples to check
+     * @param propertyFormulas
+     *            the property formulas to check
+     */
+    public ModelCheckerParallel(List<BatchModelChecker> modelCheckers, SampleBlocks blocks, List<String> propertyFormulas) {
+        this(distribute(modelCheckers, blocks, propertyFormulas));
+    }
+    
+    /**
+     * The blocks have at most {@link Sampler#GENERATION_BLOCK_SIZE} samples,
+     * and fewer when there are not enough samples to give a block to each
+     * model checker.
+     */
+    private static Collection<ModelCheckerInstance> distribute(List<BatchModelChecker> modelCheckers, SampleBlocks blocks, 
+            List<String> propertyFormulas) {
+        int numberSamples = blocks.getTo() - blocks.getFrom();
+        int blockSize = (numberSamples + modelCheckers.size() - 1) / modelCheckers.size();
+        blockSize = Math.max(1, Math.min(blockSize, Sampler.GENERATION_BLOCK_SIZE));
+        List<ModelCheckerInstance> instances = new ArrayList<>(modelCheckers.size());
+        for (BatchModelChecker modelChecker : modelCheckers) {
+            instances.add(new ModelCheckerInstance(modelChecker, propertyFormulas, blocks, blockSize));
+        }
+        return instances;
+    }
+    
     public Map<Integer, ModelCheckerResult> check() throws IllegalStateException {
         logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerParallel: starting check procedure");
         
+        runInstances();
+
+        logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: collecting threads's outcome");
+        Map<Integer, ModelCheckerResult> results = new HashMap<>();
+        modelCheckerInstances.forEach(mci -> {if (mci.getResults() != null) results.putAll(mci.getResults());});
+        if (range != null) {
+            modelCheckerInstances.forEach(mci -> {if (mci.getRange() != null) range.updateRange(mci.getRange());});
+        }
+        logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: collecting threads's outcome done");
+
+        logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: check procedure done");
+        return results;
+    }
+    
+    /**
+     * Checks the formulas given in 
+     * {@link #ModelCheckerParallel(List, SampleBlocks, List)}.
+     * 
+     * @return a map associating to each sample identifier the values of the
+     *         formulas, in the order they have been given
+     * @throws IllegalStateException
+     *             if the model can't be checked with the provided information
+     */
+    public Map<Integer, List<ModelCheckerResult>> checkFormulas() throws IllegalStateException {
+        logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerParallel: starting check procedure");
+        
+        runInstances();
+
+        logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: collecting threads's outcome");
+        Map<Integer, List<ModelCheckerResult>> results = new HashMap<>();
+        modelCheckerInstances.forEach(mci -> {if (mci.getFormulasResults() != null) results.putAll(mci.getFormulasResults());});
+        if (range != null) {
+            modelCheckerInstances.forEach(mci -> {if (mci.getRange() != null) range.updateRange(mci.getRange());});
+        }
+        logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: collecting threads's outcome done");
+
+        logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: check procedure done");
+        return results;
+    }
+    
+    private void runInstances() {
         logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: starting threads");
         modelCheckerInstances.forEach(mci -> mci.start());
         logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: starting threads done");
@@ -67,17 +165,6 @@ public class ModelCheckerParallel {
             }
         });
         logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: waiting for threads' termination done");
-
-        logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: collecting threads's outcome");
-        Map<Integer, ModelCheckerResult> results = new HashMap<>();
-        modelCheckerInstances.forEach(mci -> {if (mci.getResults() != null) results.putAll(mci.getResults());});
-        if (range != null) {
-            modelCheckerInstances.forEach(mci -> {if (mci.getRange() != null) range.updateRange(mci.getRange());});
-        }
-        logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: collecting threads's outcome done");
-
-        logEngine.log(LogEngine.LEVEL_INFO, "ModelCheckerWrapper: check procedure done");
-        return results;
     }
     
     public Range getRange() {
@@ -24,6 +24,7 @@ import static pacpma.util.Util.appendConstant;
 
 import java.io.File;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -50,6 +51,8 @@ public class StormPython implements BatchModelChecker {
     
     private final static String FIELD_SEPARATOR = ":";
     
+    private final static String PROPERTY_SEPARATOR = ";";
+    
     private String filePath = null;
     private String modelType = null;
     private String propertyFormula = null;
@@ -92,6 +95,28 @@ public class StormPython implements BatchModelChecker {
 
     @Override
     public Map<Integer, ModelCheckerResult> check() throws IllegalStateException {
+        if (propertyFormula == null) {
+            throw new IllegalStateException("Property formula not specified");
+        }
+        Map<Integer, ModelCheckerResult> results = new HashMap<>();
+        check(propertyFormula, 1).forEach((identifier, values) -> results.put(identifier, values.get(0)));
+        return results;
+    }
+
+    /**
+     * Checks all formulas by a single invocation of storm-python.py, so each 
+     * model instance is built once and checked against all formulas; the
+     * range, if requested, refers to the first formula.
+     */
+    @Override
+    public Map<Integer, List<ModelCheckerResult>> check(List<String> propertyFormulas) throws IllegalStateException {
+        if (propertyFormulas.isEmpty()) {
+            throw new IllegalStateException("Property formula not specified");
+        }
+        return check(String.join(PROPERTY_SEPARATOR, propertyFormulas), propertyFormulas.size());
+    }
+
+    private Map<Integer, List<ModelCheckerResult>> check(String propertyFormula, int numberFormulas) throws IllegalStateException {
         logEngine.log(LogEngine.LEVEL_INFO, "StormPython: starting check procedure");
         if (filePath == null) {
             throw new IllegalStateException("Model file not specified");
@@ -102,11 +127,8 @@ public class StormPython implements BatchModelChecker {
         if (modelType == null) {
             throw new IllegalStateException("Model type not specified");
         }
-        if (propertyFormula == null) {
-            throw new IllegalStateException("Property formula not specified");
-        }
 
-        Map<Integer, ModelCheckerResult> results = new HashMap<>();
+        Map<Integer, List<ModelCheckerResult>> results = new HashMap<>();
 
         List<String> command = new LinkedList<>();
         List<String> messages = new LinkedList<>();
@@ -148,22 +170,27 @@ public class StormPython implements BatchModelChecker {
             logEngine.log(LogEngine.LEVEL_DEBUG, "StormPython: raw result: " + message);
             if (message.startsWith(RESULT_IDENTIFIER)) {
                 String[] messageSplit = message.split(FIELD_SEPARATOR);
+                if (messageSplit.length != numberFormulas + 2) {
+                    throw new IllegalStateException(message);
+                }
                 Integer identifier = Integer.valueOf(messageSplit[1]);
-                String result = messageSplit[2];
-                ModelCheckerResult modelCheckerResult;
-                if (result.equals("inf")) {
-                    modelCheckerResult = new ModelCheckerResult();
-                } else {
-                    modelCheckerResult = new ModelCheckerResult(new BigDecimal(result));
+                List<ModelCheckerResult> values = new ArrayList<>(numberFormulas);
+                for (int formula = 0; formula < numberFormulas; formula++) {
+                    String result = messageSplit[formula + 2];
+                    if (result.equals("inf")) {
+                        values.add(new ModelCheckerResult());
+                    } else {
+                        values.add(new ModelCheckerResult(new BigDecimal(result)));
+                    }
                 }
                 if (computeRange) {
                     if (range == null) {
-                        range = new Range(modelCheckerResult, parameterValues.get(identifier));
+                        range = new Range(values.get(0), parameterValues.get(identifier));
                     } else {
-                        range.updateRange(modelCheckerResult, parameterValues.get(identifier));
+                        range.updateRange(values.get(0), parameterValues.get(identifier));
                     }
                 }
-                results.put(identifier, modelCheckerResult);
+                results.put(identifier, values);
             } else { //something wrong happened, probably a std::bad_alloc; just throw it
                 throw new IllegalStateException(message);
             }
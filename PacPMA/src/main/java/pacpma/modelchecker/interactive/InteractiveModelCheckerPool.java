@@ -0,0 +1,159 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.modelchecker.interactive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import pacpma.algebra.Constant;
+import pacpma.log.LogEngine;
+import pacpma.modelchecker.ModelCheckerResult;
+import pacpma.options.OptionsPacPMA;
+
+/**
+ * A pool of started interactive model checkers, each one used by at most one
+ * thread at a time, so that up to {@link #size()} points are checked in 
+ * parallel.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class InteractiveModelCheckerPool {
+    private final static LogEngine logEngineInstance = OptionsPacPMA.getLogEngineInstance();
+    
+    private final List<InteractiveModelChecker> modelCheckers;
+    private final BlockingQueue<InteractiveModelChecker> idleModelCheckers;
+    private final ExecutorService executor;
+    
+    /**
+     * Creates and starts the model checkers of the pool.
+     * 
+     * @param size
+     *            the number of model checkers, at least 1
+     * @param modelCheckerSupplier
+     *            the supplier of configured, not yet started, model checkers
+     * @throws IllegalStateException
+     *             if a model checker can't be started
+     */
+    public InteractiveModelCheckerPool(int size, Supplier<InteractiveModelChecker> modelCheckerSupplier) 
+            throws IllegalStateException {
+        assert size >= 1;
+        
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "InteractiveModelCheckerPool: starting " + size + " model checkers");
+        modelCheckers = new ArrayList<>(size);
+        idleModelCheckers = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            InteractiveModelChecker modelChecker = modelCheckerSupplier.get();
+            modelChecker.startModelChecker();
+            modelCheckers.add(modelChecker);
+            idleModelCheckers.add(modelChecker);
+        }
+        executor = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "InteractiveModelCheckerPool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "InteractiveModelCheckerPool: starting " + size + " model checkers done");
+    }
+    
+    /**
+     * @return the number of model checkers of the pool
+     */
+    public int size() {
+        return modelCheckers.size();
+    }
+    
+    /**
+     * Submits the given point to the first idle model checker.
+     * 
+     * @param parameterValues
+     *            the values of the parameters
+     * @return the future result from the model checker; it completes 
+     *         exceptionally if the model checker fails
+     */
+    public CompletableFuture<ModelCheckerResult> submit(List<Constant> parameterValues) {
+        return CompletableFuture.supplyAsync(() -> {
+            InteractiveModelChecker modelChecker = takeIdle();
+            try {
+                return modelChecker.check(parameterValues);
+            } finally {
+                idleModelCheckers.add(modelChecker);
+            }
+        }, executor);
+    }
+    
+    /**
+     * Checks the given point, waiting for the result.
+     * 
+     * @param parameterValues
+     *            the values of the parameters
+     * @return the result from the model checker
+     * @throws IllegalStateException
+     *             if the model checker fails
+     */
+    public ModelCheckerResult check(List<Constant> parameterValues) throws IllegalStateException {
+        try {
+            return submit(parameterValues).join();
+        } catch (CompletionException ce) {
+            if (ce.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ce.getCause();
+            }
+            throw new IllegalStateException(ce.getCause());
+        }
+    }
+    
+    /**
+     * Waits for the submitted points to be checked and stops the model 
+     * checkers.
+     */
+    public void stop() {
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "InteractiveModelCheckerPool: stopping the model checkers");
+        executor.shutdown();
+        while (true) {
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ie) {
+                continue;
+            }
+            break;
+        }
+        modelCheckers.forEach(modelChecker -> modelChecker.stopModelChecker());
+        logEngineInstance.log(LogEngine.LEVEL_INFO, "InteractiveModelCheckerPool: stopping the model checkers done");
+    }
+    
+    private InteractiveModelChecker takeIdle() {
+        while (true) {
+            try {
+                return idleModelCheckers.take();
+            } catch (InterruptedException ie) {
+                continue;
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
@@ -41,10 +42,14 @@ import pacpma.algebra.Constant;
 import pacpma.algebra.Parameter;
 import pacpma.algebra.TemplateFunction;
 import pacpma.algebra.function.ExpressionFunction;
+import pacpma.algebra.polynomial.MonomialSet;
 import pacpma.algebra.polynomial.Polynomial;
+import pacpma.algebra.polynomial.PolynomialBasis;
 import pacpma.approach.Approach;
 import pacpma.approach.nlopt.NLOPTApproach;
+import pacpma.approach.lipo.AsynchronousLIPOApproach;
 import pacpma.approach.lipo.LIPOApproach;
+import pacpma.approach.lipo.TwoSidedLIPOApproach;
 import pacpma.approach.scenario.ScenarioApproach;
 import pacpma.log.OnfileLogEngine;
 import pacpma.log.LogEngine;
@@ -53,9 +58,13 @@ import pacpma.log.InmemoryLogEngine;
 import pacpma.lp.solver.LPSolver;
 import pacpma.lp.solver.lpsolve.LPSolveLibrary;
 import pacpma.lp.solver.matlab.MatlabFileTool;
+import pacpma.lp.solver.matlab.MatlabMappedTool;
 import pacpma.lp.solver.matlab.MatlabTool;
 import pacpma.lp.solver.octave.OctaveFileTool;
+import pacpma.lp.solver.octave.OctaveMappedTool;
 import pacpma.lp.solver.octave.OctaveTool;
+import pacpma.lp.solver.simplex.ExchangeSolver;
+import pacpma.lp.solver.simplex.SimplexSolver;
 import pacpma.modelchecker.batch.BatchModelChecker;
 import pacpma.modelchecker.batch.prism.PrismSMCTool;
 import pacpma.modelchecker.batch.storm.StormCWrapper;
@@ -123,6 +132,10 @@ public class OptionsPacPMA {
     public final static String NLOPT_ALGORITHM_MLSL_LDS = "mlsl-lds";
     public final static String NLOPT_ALGORITHM_ORIG_DIRECT = "orig-direct";
     public final static String NLOPT_ALGORITHM_ORIG_DIRECT_L = "orig-direct-l";
+    public final static String NLOPT_ALGORITHM_LBFGS = "lbfgs";
+    public final static String NLOPT_ALGORITHM_MMA = "mma";
+    public final static String NLOPT_ALGORITHM_SLSQP = "slsqp";
+    public final static String NLOPT_ALGORITHM_CCSAQ = "ccsaq";
     public final static String DEFAULT_NLOPT_ALGORITHM = NLOPT_ALGORITHM_DIRECT;
     private final static Collection<String> COLLECTION_NLOPT_ALGORITHM = new HashSet<>();
     static {
@@ -140,16 +153,40 @@ public class OptionsPacPMA {
         COLLECTION_NLOPT_ALGORITHM.add(NLOPT_ALGORITHM_DIRECT_NOSCAL);
         COLLECTION_NLOPT_ALGORITHM.add(NLOPT_ALGORITHM_ORIG_DIRECT);
         COLLECTION_NLOPT_ALGORITHM.add(NLOPT_ALGORITHM_ORIG_DIRECT_L);
+        COLLECTION_NLOPT_ALGORITHM.add(NLOPT_ALGORITHM_LBFGS);
+        COLLECTION_NLOPT_ALGORITHM.add(NLOPT_ALGORITHM_MMA);
+        COLLECTION_NLOPT_ALGORITHM.add(NLOPT_ALGORITHM_SLSQP);
+        COLLECTION_NLOPT_ALGORITHM.add(NLOPT_ALGORITHM_CCSAQ);
     }
+    private final static Collection<String> COLLECTION_NLOPT_GRADIENT_ALGORITHM = new HashSet<>();
+    static {
+        COLLECTION_NLOPT_GRADIENT_ALGORITHM.add(NLOPT_ALGORITHM_LBFGS);
+        COLLECTION_NLOPT_GRADIENT_ALGORITHM.add(NLOPT_ALGORITHM_MMA);
+        COLLECTION_NLOPT_GRADIENT_ALGORITHM.add(NLOPT_ALGORITHM_SLSQP);
+        COLLECTION_NLOPT_GRADIENT_ALGORITHM.add(NLOPT_ALGORITHM_CCSAQ);
+    }
+    
+    private final static String NLOPT_GRADIENT_FORWARD = "forward";
+    private final static String NLOPT_GRADIENT_CENTRAL = "central";
+    private final static Collection<String> COLLECTION_NLOPT_GRADIENT = new HashSet<>();
+    static {
+        COLLECTION_NLOPT_GRADIENT.add(NLOPT_GRADIENT_FORWARD);
+        COLLECTION_NLOPT_GRADIENT.add(NLOPT_GRADIENT_CENTRAL);
+    }
+    private final static String DEFAULT_NLOPT_GRADIENT = NLOPT_GRADIENT_FORWARD;
+    private final static String DEFAULT_NLOPT_GRADIENT_STEP = "1e-6";
+    private final static String DEFAULT_NLOPT_STARTS = "1";
    
     private final static String DEFAULT_OPTIMIZATION_STOPPING_VALUE_ABSOLUTE = "1e-8";
     
     private final static String OPTIMIZATION_DIRECTION_MIN = "min";
     private final static String OPTIMIZATION_DIRECTION_MAX = "max";
+    private final static String OPTIMIZATION_DIRECTION_BOTH = "both";
     private final static Collection<String> COLLECTION_OPTIMIZATION_DIRECTION = new HashSet<>();
     static {
         COLLECTION_OPTIMIZATION_DIRECTION.add(OPTIMIZATION_DIRECTION_MAX);
         COLLECTION_OPTIMIZATION_DIRECTION.add(OPTIMIZATION_DIRECTION_MIN);
+        COLLECTION_OPTIMIZATION_DIRECTION.add(OPTIMIZATION_DIRECTION_BOTH);
     }
     private final static String DEFAULT_OPTIMIZATION_DIRECTION = OPTIMIZATION_DIRECTION_MIN;
 
@@ -157,19 +194,27 @@ public class OptionsPacPMA {
 
     private final static String DEFAULT_EXPLOITATION_THRESHOLD = "0.5";
     
+    public final static String LPSOLVER_EXCHANGE = "exchange";
     public final static String LPSOLVER_LPSOLVE = "lpsolve";
     public final static String LPSOLVER_MATLAB = "matlab";
     public final static String LPSOLVER_MATLAB_FILE = "matlab-file";
+    public final static String LPSOLVER_MATLAB_MAPPED = "matlab-mapped";
     public final static String LPSOLVER_OCTAVE = "octave";
     public final static String LPSOLVER_OCTAVE_FILE = "octave-file";
+    public final static String LPSOLVER_OCTAVE_MAPPED = "octave-mapped";
+    public final static String LPSOLVER_SIMPLEX = "simplex";
     private final static String DEFAULT_LPSOLVER = LPSOLVER_OCTAVE;
     private final static Collection<String> COLLECTION_LPSOLVER = new HashSet<>();
     static {
+        COLLECTION_LPSOLVER.add(LPSOLVER_EXCHANGE);
         COLLECTION_LPSOLVER.add(LPSOLVER_LPSOLVE);
         COLLECTION_LPSOLVER.add(LPSOLVER_MATLAB_FILE);
+        COLLECTION_LPSOLVER.add(LPSOLVER_MATLAB_MAPPED);
         COLLECTION_LPSOLVER.add(LPSOLVER_MATLAB);
         COLLECTION_LPSOLVER.add(LPSOLVER_OCTAVE_FILE);
+        COLLECTION_LPSOLVER.add(LPSOLVER_OCTAVE_MAPPED);
         COLLECTION_LPSOLVER.add(LPSOLVER_OCTAVE);
+        COLLECTION_LPSOLVER.add(LPSOLVER_SIMPLEX);
     }
     
     public final static String LOGENGINE_INMEMORY = "inmemory";
@@ -226,6 +271,11 @@ public class OptionsPacPMA {
     
     private final static String DEFAULT_EXPRESSION_PRECISION = "10";
     
+    private final static String DEFAULT_EXPRESSION_TOLERANCE = "1e-12";
+    
+    private final static String DEFAULT_REGIONS = "1";
+    private final static String DEFAULT_REGION_LAMBDA = "0";
+    
     private final static String LAMBDA_INFINITE = "Infinity";
 
     public final static String DEFAULT_LPSOLVER_PRECISION = "10e-10";
@@ -234,6 +284,14 @@ public class OptionsPacPMA {
     
     private final static String DEFAULT_DEGREE = "2";
     
+    private final static String DEFAULT_POLYNOMIAL_BASIS = PolynomialBasis.MONOMIAL.getName();
+    private final static Collection<String> COLLECTION_POLYNOMIAL_BASIS = new HashSet<>();
+    static {
+        for (PolynomialBasis basis : PolynomialBasis.values()) {
+            COLLECTION_POLYNOMIAL_BASIS.add(basis.getName());
+        }
+    }
+    
     private final static String DEFAULT_LAMBDA = LAMBDA_INFINITE;
     private final static String DEFAULT_EPSILON = "0.05";
     private final static String DEFAULT_ETA = "0.05";
@@ -321,6 +379,15 @@ public class OptionsPacPMA {
                 .desc("use all 2^#parameters vertices of the parameters' hypercube as samples; add one of <" + getAlternatives(COLLECTION_VERTICES) + "> to use them in addition to ordinary samples")
                 .build();
     
+    private final static Option option_sequential = 
+            Option.builder()
+                .longOpt("sequential")
+                .hasArg()
+                .argName("int")
+                .optionalArg(true)
+                .desc("sample sequentially: start with the given number of random samples (default: a quarter of the a-priori number) and add samples only until the a-posteriori guarantee, based on a compression set of the LP solution, meets ε and η; fewer samples than the a-priori number are needed only when the compression set is smaller than the number of template coefficients, e.g., for degenerate or exact fits")
+                .build();
+    
     private final static Option option_boundary_points = 
             Option.builder("b")
                 .longOpt("boundary-points")
@@ -345,6 +412,84 @@ public class OptionsPacPMA {
                 .desc("degree of the polynomial, with degree ≥ 0; default: " + DEFAULT_DEGREE + ". Ignored when a template function is provided")
                 .build();
     
+    private final static Option option_degree_sweep = 
+            Option.builder()
+                .longOpt("degree-sweep")
+                .argName("degrees")
+                .hasArg()
+                .desc("fit polynomials of all given degrees, as \"min:max\" or as a comma-separated list, on one set of samples sized for the largest degree; the degree option is ignored")
+                .build();
+    
+    private final static Option option_regions = 
+            Option.builder()
+                .longOpt("regions")
+                .argName("integer")
+                .hasArg()
+                .desc("number of intervals ≥ 1 each parameter's range is split into; a template function is fitted on each region of the resulting grid, with its own samples and λ; default: " + DEFAULT_REGIONS)
+                .build();
+    
+    private final static Option option_region_bisection = 
+            Option.builder()
+                .longOpt("region-bisection")
+                .argName("integer")
+                .hasArg()
+                .desc("maximum number of regions; the regions whose λ exceeds the region λ are bisected along their widest parameter and fitted again, the ones with largest λ first")
+                .build();
+    
+    private final static Option option_region_lambda = 
+            Option.builder()
+                .longOpt("region-lambda")
+                .argName("decimal")
+                .hasArg()
+                .desc("value of λ ≥ 0 below which a region is not bisected; default: " + DEFAULT_REGION_LAMBDA)
+                .build();
+    
+    private final static Option option_polynomial_basis = 
+            Option.builder()
+                .longOpt("polynomial-basis")
+                .argName(getAlternatives(COLLECTION_POLYNOMIAL_BASIS))
+                .hasArg()
+                .desc("basis of the polynomial terms; the non-monomial bases are scaled to the range of each parameter, improving the conditioning of the LP problem; default: " + DEFAULT_POLYNOMIAL_BASIS + ". Ignored when a template function is provided")
+                .build();
+    
+    private final static Option option_hyperbolic_cross = 
+            Option.builder()
+                .longOpt("hyperbolic-cross")
+                .desc("keep only the monomials of the polynomial in the hyperbolic cross, i.e., whose exponents e satisfy ∏ (e + 1) ≤ degree + 1. Ignored when a template function or a list of monomials is provided")
+                .build();
+    
+    private final static Option option_interaction_order = 
+            Option.builder()
+                .longOpt("interaction-order")
+                .argName("integer")
+                .hasArg()
+                .desc("maximum number of parameters occurring in each monomial of the polynomial, with value ≥ 1; default: no limit. Ignored when a template function or a list of monomials is provided")
+                .build();
+    
+    private final static Option option_degree_caps = 
+            Option.builder()
+                .longOpt("degree-caps")
+                .argName("name=integer[,name=integer]*")
+                .hasArg()
+                .desc("maximum exponent of the given parameters in the monomials of the polynomial, with exponent ≥ 0. Ignored when a template function or a list of monomials is provided")
+                .build();
+    
+    private final static Option option_monomials = 
+            Option.builder()
+                .longOpt("monomials")
+                .argName("monomial[,monomial]*")
+                .hasArg()
+                .desc("monomials of the polynomial, each one given as 1 or as a product of powers name^exponent, e.g., '1,p,p*q^2'; the degree and the other restrictions on the monomials are ignored. Ignored when a template function is provided")
+                .build();
+    
+    private final static Option option_surrogate_file = 
+            Option.builder()
+                .longOpt("surrogate-file")
+                .hasArg()
+                .argName("filepath")
+                .desc("file where to save the learned polynomial with its λ as a surrogate artefact, to be evaluated by pacpma.surrogate.SurrogateEvaluator; JSON if the name ends with .json, binary otherwise")
+                .build();
+    
     private final static Option option_template = 
             Option.builder("tf")
                 .longOpt("template-function")
@@ -398,7 +543,7 @@ public class OptionsPacPMA {
                 .longOpt("prop")
                 .argName("string")
                 .hasArg()
-                .desc("property formula to analyze")
+                .desc("property formula to analyze; the option can be repeated to analyze several properties on the same samples, in which case the range shown by --" + option_show_range.getLongOpt() + " refers to the first property")
                 .build();
 
     private final static Option option_consts = 
@@ -449,12 +594,36 @@ public class OptionsPacPMA {
                 .desc("underlying NLOPT algorithm; default: " + DEFAULT_NLOPT_ALGORITHM + ". For details, see https://https://nlopt.readthedocs.io/en/latest/NLopt_Algorithms/")
                 .build();
     
+    private final static Option option_nlopt_gradient = 
+            Option.builder()
+                .longOpt("nlopt-gradient")
+                .argName(getAlternatives(COLLECTION_NLOPT_GRADIENT))
+                .hasArg()
+                .desc("finite differences approximating the gradient for the gradient-based NLOPT algorithms " + getAlternatives(COLLECTION_NLOPT_GRADIENT_ALGORITHM) + "; default: " + DEFAULT_NLOPT_GRADIENT)
+                .build();
+    
+    private final static Option option_nlopt_gradient_step = 
+            Option.builder()
+                .longOpt("nlopt-gradient-step")
+                .argName("double")
+                .hasArg()
+                .desc("step of the finite differences, relative to the range of each parameter; default: " + DEFAULT_NLOPT_GRADIENT_STEP)
+                .build();
+    
+    private final static Option option_nlopt_starts = 
+            Option.builder()
+                .longOpt("nlopt-starts")
+                .argName("integer")
+                .hasArg()
+                .desc("number of NLOPT optimizations ≥ 1 run in parallel from quasi-random starting points, each one with its own model checker; the iteration limit is shared among them, the other stopping thresholds apply to each of them; default: " + DEFAULT_NLOPT_STARTS)
+                .build();
+    
     private final static Option option_optimization_direction = 
             Option.builder()
                 .longOpt("optimization-direction")
                 .argName(getAlternatives(COLLECTION_OPTIMIZATION_DIRECTION))
                 .hasArg()
-                .desc("optimization direction; default: " + DEFAULT_OPTIMIZATION_DIRECTION)
+                .desc("optimization direction; " + OPTIMIZATION_DIRECTION_BOTH + " looks for the minimum and the maximum in the same run; default: " + DEFAULT_OPTIMIZATION_DIRECTION)
                 .build();
     
     private final static Option option_optimization_stopping_iteration_limit = 
@@ -505,6 +674,14 @@ public class OptionsPacPMA {
                 .desc("bit-size precision ≥ 0 when evaluating expressions possibly requiring infinitely many bits; default: " + DEFAULT_EXPRESSION_PRECISION)
                 .build();
     
+    private final static Option option_expression_tolerance = 
+            Option.builder()
+                .longOpt("expression-tolerance")
+                .argName("double")
+                .hasArg()
+                .desc("relative error bound ≥ 0 above which an expression evaluated in double precision is evaluated again with arbitrary precision; default: " + DEFAULT_EXPRESSION_TOLERANCE)
+                .build();
+    
     private final static Option option_lpsolver = 
             Option.builder("l")
                 .longOpt("lpsolver")
@@ -529,6 +706,12 @@ public class OptionsPacPMA {
                 .desc("scaling factor ≥ 0 for the LP solver: all coefficients are multiplied by 10^factor and the result divided by 10^factor; default: " + DEFAULT_LPSOLVER_SCALING_FACTOR)
                 .build();
     
+    private final static Option option_lpsolver_presolve = 
+            Option.builder()
+                .longOpt("lpsolver-presolve")
+                .desc("merge the LP constraints with the same left-hand side, keeping the tightest bound, before passing them to the LP solver")
+                .build();
+    
     private final static Option option_modelchecker = 
             Option.builder("mc")
                 .longOpt("model-checker")
@@ -624,10 +807,21 @@ public class OptionsPacPMA {
        
         options.addOption(option_samples);
         options.addOption(option_vertices);
+        options.addOption(option_sequential);
         options.addOption(option_boundary_points);
         options.addOption(option_seed);
         options.addOption(option_degree);
+        options.addOption(option_degree_sweep);
+        options.addOption(option_regions);
+        options.addOption(option_region_bisection);
+        options.addOption(option_region_lambda);
+        options.addOption(option_polynomial_basis);
+        options.addOption(option_hyperbolic_cross);
+        options.addOption(option_interaction_order);
+        options.addOption(option_degree_caps);
+        options.addOption(option_monomials);
         options.addOption(option_template);
+        options.addOption(option_surrogate_file);
         options.addOption(option_lambda);
         options.addOption(option_epsilon);
         options.addOption(option_eta);
@@ -640,6 +834,9 @@ public class OptionsPacPMA {
         options.addOption(option_exploitation_limit);
         options.addOption(option_exploitation_threshold);
         options.addOption(option_nlopt_algorithm);
+        options.addOption(option_nlopt_starts);
+        options.addOption(option_nlopt_gradient);
+        options.addOption(option_nlopt_gradient_step);
         options.addOption(option_optimization_direction);
         options.addOption(option_optimization_stopping_iteration_limit);
         options.addOption(option_optimization_stopping_value_absolute);
@@ -649,7 +846,9 @@ public class OptionsPacPMA {
         options.addOption(option_lpsolver);
         options.addOption(option_lpsolver_precision);
         options.addOption(option_lpsolver_scaling_factor);
+        options.addOption(option_lpsolver_presolve);
         options.addOption(option_expression_precision);
+        options.addOption(option_expression_tolerance);
         options.addOption(option_modelchecker);
         options.addOption(option_modelcheckerPath);
 //        options.addOption(option_modelcheckerOptions);
@@ -674,14 +873,27 @@ public class OptionsPacPMA {
     private static boolean useLog;
     
     private static final List<String> parsingErrors = new ArrayList<>(10);
-    private static int samples;
+    private static Integer samples;
+    private static boolean samplesGiven;
     private static boolean vertices;
     private static boolean verticesAddition;
+    private static boolean sequential;
+    private static Integer sequentialSamples;
     private static int boundaryPoints;
     private static long seed;
     private static int degree;
+    private static List<Integer> sweepDegrees;
+    private static int regions;
+    private static Integer maximumRegions;
+    private static double regionLambda;
     private static String templateFunctionString;
+    private static String surrogateFile;
     private static TemplateFunction templateFunction = null;
+    private static PolynomialBasis polynomialBasis;
+    private static boolean hyperbolicCross;
+    private static Integer interactionOrder;
+    private static int[] degreeCaps;
+    private static List<int[]> monomials;
     private static BigDecimal epsilon;
     private static BigDecimal eta;
     private static BigDecimal lambda;
@@ -690,19 +902,26 @@ public class OptionsPacPMA {
     private static String modelFile;
     private static String modelType;
     private static String property;
+    private static List<String> properties;
     private static String lpsolver;
     private static BigDecimal lpsolverPrecision;
     private static BigDecimal lpsolverFactor;
+    private static boolean lpsolverPresolve;
     private static int expressionPrecision;
+    private static double expressionTolerance;
     private static int exploitationLimit;
     private static double exploitationThreshold;
     private static boolean optimizationDirectionMin;
+    private static boolean optimizationDirectionBoth;
     private static Integer optimizationStoppingIterationLimit = null;
     private static Double optimizationStoppingValueAbsolute = null;
     private static Double optimizationStoppingValueRelative = null;
     private static Double optimizationStoppingParametersAbsolute = null;
     private static Double optimizationStoppingParametersRelative = null;
     private static String nloptAlgorithm = null;
+    private static int nloptStarts;
+    private static boolean nloptGradientCentral;
+    private static double nloptGradientStep;
     private static String modelchecker;
     private static String modelcheckerPath;
     private static List<String> modelcheckerOptions;
@@ -803,6 +1022,19 @@ public class OptionsPacPMA {
                 }
                 degree = tmpInt;
 
+                sweepDegrees = null;
+                if (commandline.hasOption(option_degree_sweep)) {
+                    sweepDegrees = parseSweepDegrees(commandline);
+                    if (sweepDegrees != null) {
+                        degree = Collections.max(sweepDegrees);
+                    }
+                }
+
+                polynomialBasis = PolynomialBasis.fromName(commandline.getOptionValue(option_polynomial_basis, DEFAULT_POLYNOMIAL_BASIS));
+                if (polynomialBasis == null) {
+                    parsingErrors.add(getInvalidMessage(commandline, option_polynomial_basis));
+                }
+
                 try {
                     tmpBD = new BigDecimal(commandline.getOptionValue(option_epsilon, DEFAULT_EPSILON));
                     if (tmpBD.compareTo(BigDecimal.ZERO) <= 0 || tmpBD.compareTo(BigDecimal.ONE) >= 0) {
@@ -863,12 +1095,43 @@ public class OptionsPacPMA {
                     parsingErrors.add(getInvalidMessage(commandline, option_nlopt_algorithm));
                 }
                 
+                try {
+                    tmpInt = Integer.valueOf(commandline.getOptionValue(option_nlopt_starts, DEFAULT_NLOPT_STARTS));
+                    if (tmpInt < 1) {
+                        parsingErrors.add("The option " + option_nlopt_starts.getLongOpt() + " must be at least 1");
+                    }
+                } catch (NumberFormatException nfe) {
+                    parsingErrors.add(getInvalidMessage(commandline, option_nlopt_starts));
+                }
+                nloptStarts = tmpInt;
+                
+                String nloptGradient = commandline.getOptionValue(option_nlopt_gradient, DEFAULT_NLOPT_GRADIENT);
+                if (!COLLECTION_NLOPT_GRADIENT.contains(nloptGradient)) {
+                    parsingErrors.add(getInvalidMessage(commandline, option_nlopt_gradient));
+                }
+                nloptGradientCentral = NLOPT_GRADIENT_CENTRAL.equals(nloptGradient);
+                
+                try {
+                    nloptGradientStep = Double.valueOf(commandline.getOptionValue(option_nlopt_gradient_step, DEFAULT_NLOPT_GRADIENT_STEP));
+                    if (!(nloptGradientStep > 0 && nloptGradientStep < 1)) {
+                        parsingErrors.add("The option " + option_nlopt_gradient_step.getLongOpt() + " must be strictly between 0 and 1");
+                    }
+                } catch (NumberFormatException nfe) {
+                    parsingErrors.add(getInvalidMessage(commandline, option_nlopt_gradient_step));
+                }
+                
                 switch (commandline.getOptionValue(option_optimization_direction, DEFAULT_OPTIMIZATION_DIRECTION)) {
                 case OPTIMIZATION_DIRECTION_MIN:
                     optimizationDirectionMin = true;
+                    optimizationDirectionBoth = false;
                     break;
                 case OPTIMIZATION_DIRECTION_MAX:
                     optimizationDirectionMin = false;
+                    optimizationDirectionBoth = false;
+                    break;
+                case OPTIMIZATION_DIRECTION_BOTH:
+                    optimizationDirectionMin = false;
+                    optimizationDirectionBoth = true;
                     break;
                 default:
                     parsingErrors.add(getInvalidMessage(commandline, option_optimization_direction)); 
@@ -936,7 +1199,11 @@ public class OptionsPacPMA {
                 }
 
                 if (commandline.hasOption(option_property)) {
-                    property = commandline.getOptionValue(option_property);
+                    properties = Arrays.asList(commandline.getOptionValues(option_property));
+                    property = properties.get(0);
+                    if (properties.size() > 1 && !APPROACH_SCENARIO.equals(approach)) {
+                        parsingErrors.add("Several properties can be analyzed only by the " + APPROACH_SCENARIO + " approach");
+                    }
                 } else {
                     parsingErrors.add(getMissingMandatoryOptionMessage(option_property));
                 }
@@ -949,8 +1216,12 @@ public class OptionsPacPMA {
                     parsingErrors.add(getMissingMandatoryOptionMessage(option_params));
                 }
 
+                // when not given, the number of samples is computed from the 
+                // number of coefficients of the template function
+                samples = null;
+                samplesGiven = commandline.hasOption(option_samples);
                 if (parsingErrors.isEmpty()) {
-                    if (commandline.hasOption(option_samples)) {
+                    if (samplesGiven) {
                         try {
                             tmpInt = Integer.valueOf(commandline.getOptionValue(option_samples));
                             if (tmpInt <= 0) {
@@ -959,19 +1230,50 @@ public class OptionsPacPMA {
                         } catch (NumberFormatException nfe) {
                             parsingErrors.add(getInvalidMessage(commandline, option_samples));
                         }
-                    } else {
-                        tmpInt = Util.minimumNumberSamples(epsilon.doubleValue(), eta.doubleValue(), 1 + Util.numberCoefficients(parameters.size(), degree));
-                        if (tmpInt <= 0) {
-                            parsingErrors.add("The computed value '" + tmpInt
-                                    + "' for the option" + option_samples.getLongOpt() + " is not valid");
+                        samples = tmpInt;
+                    }
+                }
+                
+                hyperbolicCross = commandline.hasOption(option_hyperbolic_cross);
+                
+                interactionOrder = null;
+                if (commandline.hasOption(option_interaction_order)) {
+                    try {
+                        interactionOrder = Integer.valueOf(commandline.getOptionValue(option_interaction_order));
+                        if (interactionOrder < 1) {
+                            parsingErrors.add("The option " + option_interaction_order.getLongOpt() + " must be at least 1");
                         }
+                    } catch (NumberFormatException nfe) {
+                        parsingErrors.add(getInvalidMessage(commandline, option_interaction_order));
                     }
                 }
-                samples = tmpInt;
+                
+                degreeCaps = null;
+                if (parameters != null && commandline.hasOption(option_degree_caps)) {
+                    degreeCaps = parseDegreeCaps(commandline);
+                }
+                
+                monomials = null;
+                if (parameters != null && commandline.hasOption(option_monomials)) {
+                    monomials = parseMonomials(commandline);
+                }
 
                 vertices = commandline.hasOption(option_vertices);
                 verticesAddition = vertices && COLLECTION_VERTICES.contains(commandline.getOptionValue(option_vertices, EMPTY));
 
+                sequential = commandline.hasOption(option_sequential);
+                sequentialSamples = null;
+                if (sequential && commandline.getOptionValue(option_sequential) != null) {
+                    try {
+                        sequentialSamples = Integer.valueOf(commandline.getOptionValue(option_sequential));
+                        if (sequentialSamples < 1) {
+                            parsingErrors.add(option_sequential.getLongOpt() + " must be at least 1");
+                        }
+                    } catch (NumberFormatException nfe) {
+                        parsingErrors.add(getInvalidMessage(commandline, option_sequential));
+                    }
+                }
+
                 boundaryPoints = Integer.valueOf(DEFAULT_BOUNDARY_POINTS);
                 if (vertices) {
                     try {
@@ -1009,6 +1311,8 @@ public class OptionsPacPMA {
                     parsingErrors.add(getInvalidMessage(commandline, option_lpsolver_scaling_factor));
                 }
                 lpsolverFactor = BigDecimal.TEN.pow(tmpInt);
+                
+                lpsolverPresolve = commandline.hasOption(option_lpsolver_presolve);
 
                 try {
                     tmpInt = Integer.valueOf(commandline.getOptionValue(option_expression_precision, DEFAULT_EXPRESSION_PRECISION));
@@ -1020,10 +1324,26 @@ public class OptionsPacPMA {
                 }
                 expressionPrecision = tmpInt;
 
+                try {
+                    expressionTolerance = Double.valueOf(commandline.getOptionValue(option_expression_tolerance, DEFAULT_EXPRESSION_TOLERANCE));
+                    if (!(expressionTolerance >= 0)) {
+                        parsingErrors.add("The option " + option_expression_tolerance.getLongOpt() + " must be at least 0");
+                    }
+                } catch (NumberFormatException nfe) {
+                    parsingErrors.add(getInvalidMessage(commandline, option_expression_tolerance));
+                }
+
                 modelchecker = commandline.getOptionValue(option_modelchecker, DEFAULT_MODELCHECKER);
                 if (!COLLECTION_MODELCHECKER.contains(modelchecker)) {
                     parsingErrors.add(getInvalidMessage(commandline, option_modelchecker));
                 }
+                if (MODELCHECKER_STORMC.equals(modelchecker) && properties != null) {
+                    for (String formula : properties) {
+                        if (formula.contains(";")) {
+                            parsingErrors.add("The property formula " + formula + " cannot contain ';' when using the " + MODELCHECKER_STORMC + " model checker; use the option " + option_property.getLongOpt() + " once per property instead");
+                        }
+                    }
+                }
 
                 if (commandline.hasOption(option_modelcheckerPath)) {
                     modelcheckerPath = commandline.getOptionValue(option_modelcheckerPath);
@@ -1104,6 +1424,9 @@ public class OptionsPacPMA {
                     parsingErrors.add(getInvalidMessage(commandline, option_modelcheckerThreads));
                 }
                 modelcheckerThreads = tmpInt;
+                if (optimizationDirectionBoth && APPROACH_LIPO.equals(approach) && modelcheckerThreads > 1) {
+                    parsingErrors.add("The optimization direction " + OPTIMIZATION_DIRECTION_BOTH + " is not available for the asynchronous " + APPROACH_LIPO + " approach");
+                }
                 
                 format = commandline.getOptionValue(option_format, DEFAULT_FORMAT);
                 if (!COLLECTION_FORMAT.contains(format)) {
@@ -1111,6 +1434,44 @@ public class OptionsPacPMA {
                 }
                 
                 templateFunctionString = commandline.getOptionValue(option_template);
+                if (sweepDegrees != null && (templateFunctionString != null || monomials != null || sequential)) {
+                    parsingErrors.add("The option " + option_degree_sweep.getLongOpt() + " requires a polynomial template given by its degree and is not available in sequential mode");
+                }
+                if (properties != null && properties.size() > 1 && (sweepDegrees != null || sequential)) {
+                    parsingErrors.add("Several properties cannot be analyzed in sequential mode or in a degree sweep");
+                }
+                
+                try {
+                    regions = Integer.valueOf(commandline.getOptionValue(option_regions, DEFAULT_REGIONS));
+                    if (regions < 1) {
+                        parsingErrors.add("The option " + option_regions.getLongOpt() + " must be at least 1");
+                    }
+                } catch (NumberFormatException nfe) {
+                    parsingErrors.add(getInvalidMessage(commandline, option_regions));
+                }
+                maximumRegions = null;
+                if (commandline.hasOption(option_region_bisection)) {
+                    try {
+                        maximumRegions = Integer.valueOf(commandline.getOptionValue(option_region_bisection));
+                        if (maximumRegions < 1) {
+                            parsingErrors.add("The option " + option_region_bisection.getLongOpt() + " must be at least 1");
+                        }
+                    } catch (NumberFormatException nfe) {
+                        parsingErrors.add(getInvalidMessage(commandline, option_region_bisection));
+                    }
+                }
+                try {
+                    regionLambda = Double.valueOf(commandline.getOptionValue(option_region_lambda, DEFAULT_REGION_LAMBDA));
+                    if (!(regionLambda >= 0)) {
+                        parsingErrors.add("The option " + option_region_lambda.getLongOpt() + " must be at least 0");
+                    }
+                } catch (NumberFormatException nfe) {
+                    parsingErrors.add(getInvalidMessage(commandline, option_region_lambda));
+                }
+                if (isPiecewise() && ((properties != null && properties.size() > 1) || sweepDegrees != null || sequential)) {
+                    parsingErrors.add("Piecewise templates cannot be used with several properties, in sequential mode, or in a degree sweep");
+                }
+                surrogateFile = commandline.getOptionValue(option_surrogate_file);
             }
         } catch (ParseException pe) {
             parsingErrors.add(pe.getMessage());
@@ -1161,6 +1522,14 @@ public class OptionsPacPMA {
         return logLevel;
     }
     
+    /**
+     * @return the file where to save the surrogate, or {@code null} if no
+     *         surrogate has to be saved
+     */
+    public static String getSurrogateFile() {
+        return surrogateFile;
+    }
+    
     /**
      * @return the file where to store logged information
      */
@@ -1176,12 +1545,68 @@ public class OptionsPacPMA {
     }
     
     /**
+     * Provides the number of random samples: either the given one, or the
+     * minimum number of samples according to the PAC theorem for the number of
+     * coefficients of the template function (plus λ), so that sparser
+     * templates require fewer samples. Since the template function is
+     * generated, the variables must have been set in
+     * {@link pacpma.algebra.Variable}. When sampling sequentially, half of 
+     * η is reserved to the a-posteriori checks, so the minimum number of 
+     * samples is computed for η/2.
+     * 
      * @return the samples
      */
     public static int getNumberSamples() {
+        if (samples == null) {
+            int coefficients = getTemplateFunction().getCoefficients().size();
+            double samplesEta = sequential ? eta.doubleValue() / 2 : eta.doubleValue();
+            samples = Util.minimumNumberSamples(epsilon.doubleValue(), samplesEta, 1 + coefficients);
+        }
         return samples;
     }
 
+    /**
+     * Provides the number of random samples for a template function with the
+     * given number of coefficients: either the given one, or the minimum 
+     * number of samples according to the PAC theorem for the coefficients 
+     * (plus λ). Differently from {@link #getNumberSamples()}, the result is 
+     * not cached, so it can be used for templates other than the one given
+     * by the options.
+     * 
+     * @param coefficients
+     *            the number of coefficients of the template function
+     * @return the samples
+     */
+    public static int getNumberSamples(int coefficients) {
+        if (samplesGiven) {
+            return samples;
+        }
+        return Util.minimumNumberSamples(epsilon.doubleValue(), eta.doubleValue(), 1 + coefficients);
+    }
+
+    /**
+     * @return whether to sample sequentially, checking the a-posteriori 
+     *         guarantee after each batch of samples
+     */
+    public static boolean isSequential() {
+        return sequential;
+    }
+
+    /**
+     * Provides the number of random samples of the first batch when sampling
+     * sequentially: either the given one or a quarter of 
+     * {@link #getNumberSamples()}, but never more than 
+     * {@link #getNumberSamples()}.
+     * 
+     * @return the number of samples of the first batch
+     */
+    public static int getSequentialSamples() {
+        if (sequentialSamples == null) {
+            return Math.max(1, getNumberSamples() / 4);
+        }
+        return Math.min(sequentialSamples, getNumberSamples());
+    }
+
     /**
      * @return whether to use parameters' hypercube's vertices as samples
      */
@@ -1217,13 +1642,60 @@ public class OptionsPacPMA {
         return degree;
     }
 
+    /**
+     * @return the degrees of the polynomial templates to fit on the same
+     *         samples, in increasing order, or {@code null} when no sweep 
+     *         has been requested
+     */
+    public static List<Integer> getSweepDegrees() {
+        return sweepDegrees;
+    }
+
+    /**
+     * @return whether to fit a template function on each region of a 
+     *         partition of the parameters' ranges
+     */
+    public static boolean isPiecewise() {
+        return regions > 1 || maximumRegions != null;
+    }
+
+    /**
+     * @return the number of intervals each parameter's range is split into
+     *         by the initial grid of regions
+     */
+    public static int getRegions() {
+        return regions;
+    }
+
+    /**
+     * @return the maximum number of regions obtained by bisection, or 
+     *         {@code null} if regions are not bisected
+     */
+    public static Integer getMaximumRegions() {
+        return maximumRegions;
+    }
+
+    /**
+     * @return the value of λ below which a region is not bisected
+     */
+    public static double getRegionLambda() {
+        return regionLambda;
+    }
+
+    /**
+     * @return the basis of the polynomial template
+     */
+    public static PolynomialBasis getPolynomialBasis() {
+        return polynomialBasis;
+    }
+
     /**
      * @return the template function
      */
     public static TemplateFunction getTemplateFunction() {
         if (templateFunction == null) {
             if (templateFunctionString == null) {
-                templateFunction = new Polynomial(degree);
+                templateFunction = new Polynomial(getMonomialSet(degree), polynomialBasis, parameters);
             } else {
                  templateFunction = new ExpressionFunction(templateFunctionString);
             }
@@ -1231,6 +1703,50 @@ public class OptionsPacPMA {
         return templateFunction;
     }
     
+    /**
+     * Provides the template function for the given region: a new polynomial 
+     * as {@link #getTemplateFunction()}, whose basis is scaled to the region 
+     * instead of the parameters' ranges, or the template function given by 
+     * expressions, which does not depend on the region and is shared by all 
+     * regions.
+     * 
+     * @param region
+     *            the parameters with the bounds of the region
+     * @return the template function for the region
+     */
+    public static TemplateFunction getTemplateFunction(List<Parameter> region) {
+        if (templateFunctionString == null) {
+            return new Polynomial(getMonomialSet(degree), polynomialBasis, region);
+        } else {
+            return getTemplateFunction();
+        }
+    }
+    
+    /**
+     * Provides a new polynomial template of the given degree, with the basis
+     * and the pruning of the monomials given by the options; the template is
+     * not cached, so each call generates a new polynomial with its own 
+     * coefficients.
+     * 
+     * @param degree
+     *            the degree of the polynomial
+     * @return the polynomial template of the given degree
+     */
+    public static TemplateFunction getTemplateFunction(int degree) {
+        return new Polynomial(getMonomialSet(degree), polynomialBasis, parameters);
+    }
+    
+    private static MonomialSet getMonomialSet(int degree) {
+        if (monomials != null) {
+            return MonomialSet.of(parameters.size(), monomials);
+        } else if (hyperbolicCross || interactionOrder != null || degreeCaps != null) {
+            return MonomialSet.pruned(parameters.size(), degree, hyperbolicCross, 
+                    (interactionOrder == null) ? parameters.size() : interactionOrder, degreeCaps);
+        } else {
+            return MonomialSet.totalDegree(parameters.size(), degree);
+        }
+    }
+    
     /**
      * @return the epsilon
      */
@@ -1280,6 +1796,13 @@ public class OptionsPacPMA {
         return optimizationDirectionMin;
     }
     
+    /**
+     * @return whether both the minimum and the maximum are looked for
+     */
+    public static boolean isOptimizationDirectionBoth() {
+        return optimizationDirectionBoth;
+    }
+    
     /**
      * @return the optimization stopping threshold based on maximum number of iterations; {@code null} if not set
      */
@@ -1330,12 +1853,19 @@ public class OptionsPacPMA {
     }
 
     /**
-     * @return the property
+     * @return the property, or the first property when several are given
      */
     public static String getPropertyFormula() {
         return property;
     }
 
+    /**
+     * @return the properties, in the order they have been given
+     */
+    public static List<String> getPropertyFormulas() {
+        return properties;
+    }
+
     /**
      * @return the constants
      */
@@ -1357,6 +1887,14 @@ public class OptionsPacPMA {
         return expressionPrecision;
     }
 
+    /**
+     * @return the relative error bound above which expressions are evaluated
+     *         again with arbitrary precision
+     */
+    public static double getExpressionTolerance() {
+        return expressionTolerance;
+    }
+
     /**
      * @return the LP solver
      */
@@ -1373,6 +1911,12 @@ public class OptionsPacPMA {
         LogEngine logEngineInstance = getLogEngineInstance();
         switch (approach) {
         case APPROACH_LIPO:
+            if (optimizationDirectionBoth) {
+                return new TwoSidedLIPOApproach(logEngineInstance);
+            }
+            if (modelcheckerThreads > 1) {
+                return new AsynchronousLIPOApproach(logEngineInstance);
+            }
             return new LIPOApproach(logEngineInstance);
         case APPROACH_NLOPT:
             return new NLOPTApproach(logEngineInstance);
@@ -1383,6 +1927,36 @@ public class OptionsPacPMA {
         }
     }
     
+    /**
+     * @return the number of NLOPT optimizations run in parallel
+     */
+    public static int getNloptStarts() {
+        return nloptStarts;
+    }
+    
+    /**
+     * @return whether the NLOPT algorithm needs the gradient of the objective
+     */
+    public static boolean isNloptGradientBased() {
+        return COLLECTION_NLOPT_GRADIENT_ALGORITHM.contains(nloptAlgorithm);
+    }
+    
+    /**
+     * @return whether the gradient is approximated by central differences, 
+     *         instead of forward differences
+     */
+    public static boolean isNloptGradientCentral() {
+        return nloptGradientCentral;
+    }
+    
+    /**
+     * @return the step of the finite differences, relative to the range of 
+     *         each parameter
+     */
+    public static double getNloptGradientStep() {
+        return nloptGradientStep;
+    }
+    
     /**
      * Returns the underlying NLOPT algorithm.
      * 
@@ -1418,6 +1992,14 @@ public class OptionsPacPMA {
             return Algorithm.GN_ORIG_DIRECT;
         case NLOPT_ALGORITHM_ORIG_DIRECT_L:
             return Algorithm.GN_ORIG_DIRECT_L;
+        case NLOPT_ALGORITHM_LBFGS:
+            return Algorithm.LD_LBFGS;
+        case NLOPT_ALGORITHM_MMA:
+            return Algorithm.LD_MMA;
+        case NLOPT_ALGORITHM_SLSQP:
+            return Algorithm.LD_SLSQP;
+        case NLOPT_ALGORITHM_CCSAQ:
+            return Algorithm.LD_CCSAQ;
         default:
             throw new UnsupportedOperationException("Unexpected NLOPT algorithm " + nloptAlgorithm);
         }
@@ -1431,16 +2013,24 @@ public class OptionsPacPMA {
      */
     public static LPSolver getLPSolverInstance() {
         switch (lpsolver) {
+        case LPSOLVER_EXCHANGE:
+            return new ExchangeSolver();
         case LPSOLVER_LPSOLVE:
             return new LPSolveLibrary();
         case LPSOLVER_MATLAB_FILE:
             return new MatlabFileTool();
+        case LPSOLVER_MATLAB_MAPPED:
+            return new MatlabMappedTool();
         case LPSOLVER_MATLAB:
             return new MatlabTool();
         case LPSOLVER_OCTAVE_FILE:
             return new OctaveFileTool();
+        case LPSOLVER_OCTAVE_MAPPED:
+            return new OctaveMappedTool();
         case LPSOLVER_OCTAVE:
             return new OctaveTool();
+        case LPSOLVER_SIMPLEX:
+            return new SimplexSolver();
         default:
             throw new UnsupportedOperationException("Unexpected LP solver " + lpsolver);
         }
@@ -1460,6 +2050,13 @@ public class OptionsPacPMA {
         return lpsolverFactor;
     }
 
+    /**
+     * @return whether to presolve the LP problem
+     */
+    public static boolean useLPSolverPresolve() {
+        return lpsolverPresolve;
+    }
+
     /**
      * Generates and returns a new instance of the log engine specified as option
      * at command line.
@@ -1597,6 +2194,99 @@ public class OptionsPacPMA {
         return constants;
     }
 
+    private static List<Integer> parseSweepDegrees(CommandLine commandline) {
+        String clsweep = commandline.getOptionValue(option_degree_sweep);
+        List<Integer> degrees = new ArrayList<>();
+        try {
+            String[] bounds = clsweep.split(COLON);
+            if (bounds.length == 2) {
+                int lower = Integer.valueOf(bounds[0].trim());
+                int upper = Integer.valueOf(bounds[1].trim());
+                for (int d = lower; d <= upper; d++) {
+                    degrees.add(d);
+                }
+            } else {
+                for (String cldegree : clsweep.split(COMMA)) {
+                    int d = Integer.valueOf(cldegree.trim());
+                    if (!degrees.contains(d)) {
+                        degrees.add(d);
+                    }
+                }
+            }
+        } catch (NumberFormatException nfe) {
+            degrees.clear();
+        }
+        if (degrees.isEmpty() || Collections.min(degrees) < 0) {
+            parsingErrors.add(getInvalidMessage(commandline, option_degree_sweep));
+            return null;
+        }
+        Collections.sort(degrees);
+        return degrees;
+    }
+
+    private static int[] parseDegreeCaps(CommandLine commandline) {
+        int[] caps = new int[parameters.size()];
+        Arrays.fill(caps, Integer.MAX_VALUE);
+        for (String clcap : commandline.getOptionValue(option_degree_caps).split(COMMA)) {
+            String[] components = clcap.split(EQUAL);
+            int var = (components.length == 2) ? indexOfParameter(components[0].trim()) : -1;
+            int cap = -1;
+            if (var >= 0) {
+                try {
+                    cap = Integer.valueOf(components[1].trim());
+                } catch (NumberFormatException nfe) {
+                }
+            }
+            if (cap >= 0) {
+                caps[var] = cap;
+            } else {
+                parsingErrors.add("Invalid degree cap: " + clcap);
+            }
+        }
+        return caps;
+    }
+    
+    private static List<int[]> parseMonomials(CommandLine commandline) {
+        List<int[]> monomials = new ArrayList<>();
+        for (String clmonomial : commandline.getOptionValue(option_monomials).split(COMMA)) {
+            int[] exponents = new int[parameters.size()];
+            boolean isValid = true;
+            if (!clmonomial.trim().equals("1")) {
+                for (String power : clmonomial.split("\\*")) {
+                    String[] components = power.split("\\^");
+                    int var = (components.length <= 2) ? indexOfParameter(components[0].trim()) : -1;
+                    int exponent = -1;
+                    if (var >= 0) {
+                        try {
+                            exponent = (components.length == 2) ? Integer.valueOf(components[1].trim()) : 1;
+                        } catch (NumberFormatException nfe) {
+                        }
+                    }
+                    if (exponent >= 0) {
+                        exponents[var] += exponent;
+                    } else {
+                        isValid = false;
+                    }
+                }
+            }
+            if (isValid) {
+                monomials.add(exponents);
+            } else {
+                parsingErrors.add("Invalid monomial: " + clmonomial);
+            }
+        }
+        return monomials;
+    }
+    
+    private static int indexOfParameter(String name) {
+        for (int var = 0; var < parameters.size(); var++) {
+            if (parameters.get(var).getName().equals(name)) {
+                return var;
+            }
+        }
+        return -1;
+    }
+
     private static List<Parameter> parseParameters(CommandLine commandline) {
         List<Parameter> parameters = new ArrayList<>();
         String[] clparameters = commandline.getOptionValue(option_params).split(COMMA);
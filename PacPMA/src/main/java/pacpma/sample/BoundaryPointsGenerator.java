@@ -18,22 +18,28 @@
 
  *****************************************************************************/
 
+
 package pacpma.sample;
 
-import java.math.BigDecimal;
-import java.math.MathContext;
-import java.math.RoundingMode;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 import pacpma.algebra.Parameter;
 import pacpma.options.OptionsPacPMA;
 
 /**
  * Class that generates samples corresponding to the vertices of the hypercube
- * induced by the parameters.
+ * induced by the parameters, together with 
+ * {@link OptionsPacPMA#getBoundaryPoints()} points taken uniformly in the 
+ * interior of each edge of the hypercube.
+ * <p>
+ * Each sample is computed from its index, so no sample is stored: the first
+ * {@code 2^d} indices are the vertices, in Gray-code order, where the bit 
+ * {@code p} of the code tells whether the parameter {@code p} is at its upper
+ * bound; the remaining indices are the edge points, grouped by edge. An edge
+ * is identified by the parameter varying along it and by the bounds of the
+ * other {@code d-1} parameters.
  * 
  * @author Andrea Turrini
  *
@@ -43,52 +49,99 @@ public class BoundaryPointsGenerator implements Sampler {
     public BoundaryPointsGenerator() {}
 
     @Override
-    public List<Map<Parameter, BigDecimal>> getSamples(List<Parameter> parameters) {
-        List<Map<Parameter, BigDecimal>> samples = new LinkedList<>();
-        Map<Parameter, BigDecimal> currentSample = new HashMap<>();
-        
-        recursiveGenerator(samples, parameters, currentSample, 0);
-        
-        return samples;
+    public int getNumberSamples(List<Parameter> parameters) {
+        int dimension = parameters.size();
+        long vertices = 1L << dimension;
+        long edgePoints = (long) OptionsPacPMA.getBoundaryPoints() * dimension * (vertices / 2);
+        return Math.toIntExact(vertices + edgePoints);
     }
-
-    private void recursiveGenerator(
-            List<Map<Parameter, BigDecimal>> samples, 
-            List<Parameter> parameters, 
-            Map<Parameter, BigDecimal> currentSample, 
-            int index) {
-        if (index >= parameters.size()) {
-            samples.addAll(getBoundaryPoints(currentSample));
-        } else {
-            Parameter parameter = parameters.get(index);
-            currentSample.put(parameter, parameter.getLowerbound());
-            recursiveGenerator(samples, parameters, currentSample, index + 1);
-            currentSample.put(parameter, parameter.getUpperbound());
-            recursiveGenerator(samples, parameters, currentSample, index + 1);
+    
+    @Override
+    public Spliterator<double[]> spliterator(List<Parameter> parameters, int from, int to) {
+        assert 0 <= from && from <= to && to <= getNumberSamples(parameters);
+        
+        double[] lowerbounds = new double[parameters.size()];
+        double[] upperbounds = new double[parameters.size()];
+        for (int p = 0; p < lowerbounds.length; p++) {
+            lowerbounds[p] = parameters.get(p).getLowerbound().doubleValue();
+            upperbounds[p] = parameters.get(p).getUpperbound().doubleValue();
         }
+        return new BoundarySpliterator(lowerbounds, upperbounds, OptionsPacPMA.getBoundaryPoints(), from, to);
     }
     
-    private List<Map<Parameter, BigDecimal>> getBoundaryPoints(Map<Parameter, BigDecimal> currentSample) {
-        MathContext mathContext = new MathContext(15, RoundingMode.HALF_DOWN); 
-        List<Map<Parameter, BigDecimal>> boundarySamples = new LinkedList<>();
-        boundarySamples.add(currentSample);
-        for (Parameter boundary : currentSample.keySet()) {
-            BigDecimal boundaryLowerbound = boundary.getLowerbound();
-            if (currentSample.get(boundary).equals(boundaryLowerbound)) {
-                int numPoints = OptionsPacPMA.getBoundaryPoints();
-                if (numPoints > 0) {
-                    BigDecimal step = boundary.getUpperbound().subtract(boundaryLowerbound).divide(new BigDecimal(numPoints + 1), mathContext);
-                    BigDecimal currentValue = boundaryLowerbound;
-                    for (int i = 1; i <= numPoints; i++) {
-                        currentValue = currentValue.add(step);
-                        Map<Parameter, BigDecimal> newSample = new HashMap<>();
-                        currentSample.forEach((p,v) -> newSample.put(p, v));
-                        newSample.put(boundary, currentValue);
-                        boundarySamples.add(newSample);
+    private static class BoundarySpliterator implements Spliterator<double[]> {
+        private final double[] lowerbounds;
+        private final double[] upperbounds;
+        private final int numberPoints;
+        private int current;
+        private final int end;
+        
+        BoundarySpliterator(double[] lowerbounds, double[] upperbounds, int numberPoints, int from, int to) {
+            this.lowerbounds = lowerbounds;
+            this.upperbounds = upperbounds;
+            this.numberPoints = numberPoints;
+            this.current = from;
+            this.end = to;
+        }
+        
+        private double[] getSample(int index) {
+            int dimension = lowerbounds.length;
+            double[] values = new double[dimension];
+            long vertices = 1L << dimension;
+            if (index < vertices) {
+                long code = index ^ (index >>> 1);
+                for (int p = 0; p < dimension; p++) {
+                    values[p] = ((code >>> p) & 1) == 0 ? lowerbounds[p] : upperbounds[p];
+                }
+            } else {
+                long edgePoint = index - vertices;
+                long edge = edgePoint / numberPoints;
+                int point = (int) (edgePoint % numberPoints) + 1;
+                long edgesPerParameter = vertices / 2;
+                int varying = (int) (edge / edgesPerParameter);
+                long others = edge % edgesPerParameter;
+                int bit = 0;
+                for (int p = 0; p < dimension; p++) {
+                    if (p == varying) {
+                        values[p] = lowerbounds[p] + (upperbounds[p] - lowerbounds[p]) * point / (numberPoints + 1);
+                    } else {
+                        values[p] = ((others >>> bit) & 1) == 0 ? lowerbounds[p] : upperbounds[p];
+                        bit++;
                     }
                 }
             }
+            return values;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super double[]> action) {
+            if (current >= end) {
+                return false;
+            }
+            action.accept(getSample(current));
+            current++;
+            return true;
+        }
+        
+        @Override
+        public Spliterator<double[]> trySplit() {
+            int middle = (current + end) >>> 1;
+            if (middle <= current) {
+                return null;
+            }
+            Spliterator<double[]> prefix = new BoundarySpliterator(lowerbounds, upperbounds, numberPoints, current, middle);
+            current = middle;
+            return prefix;
+        }
+        
+        @Override
+        public long estimateSize() {
+            return end - current;
+        }
+        
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
         }
-        return boundarySamples;
     }
 }
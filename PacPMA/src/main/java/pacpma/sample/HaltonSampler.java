@@ -0,0 +1,171 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.sample;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import pacpma.algebra.Parameter;
+
+/**
+ * Quasi-random sample generator based on the Halton sequence, with the 
+ * radical inverse in the i-th prime base for the i-th parameter. To avoid
+ * that different seeds give the same samples, each coordinate is shifted 
+ * modulo 1 by a random offset derived from the seed (Cranley-Patterson 
+ * rotation), which preserves the low discrepancy of the sequence.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class HaltonSampler implements Sampler {
+    private final long seed;
+    private final int numberSamples;
+    
+    public HaltonSampler(long seed, int numberSamples) {
+        this.seed = seed;
+        this.numberSamples = numberSamples;
+    }
+    
+    @Override
+    public int getNumberSamples(List<Parameter> parameters) {
+        return numberSamples;
+    }
+    
+    @Override
+    public Spliterator<double[]> spliterator(List<Parameter> parameters, int from, int to) {
+        assert 0 <= from && from <= to && to <= numberSamples;
+        
+        int numberParameters = parameters.size();
+        double[] lowerbounds = new double[numberParameters];
+        double[] upperbounds = new double[numberParameters];
+        for (int p = 0; p < numberParameters; p++) {
+            lowerbounds[p] = parameters.get(p).getLowerbound().doubleValue();
+            upperbounds[p] = parameters.get(p).getUpperbound().doubleValue();
+        }
+        int[] bases = primes(numberParameters);
+        double[] shifts = new double[numberParameters];
+        SplittableRandom randomGenerator = new SplittableRandom(seed);
+        for (int p = 0; p < numberParameters; p++) {
+            shifts[p] = randomGenerator.nextDouble();
+        }
+        return new HaltonSpliterator(lowerbounds, upperbounds, bases, shifts, from, to);
+    }
+    
+    /**
+     * Provides the radical inverse of the given index in the given base, 
+     * that is, the digits of {@code index} in base {@code base} mirrored 
+     * around the radix point.
+     * 
+     * @param index
+     *            the index, at least 0
+     * @param base
+     *            the base, at least 2
+     * @return the radical inverse, in [0,1)
+     */
+    static double radicalInverse(int index, int base) {
+        double inverse = 0;
+        double digitWeight = 1.0 / base;
+        while (index > 0) {
+            inverse += (index % base) * digitWeight;
+            index /= base;
+            digitWeight /= base;
+        }
+        return inverse;
+    }
+    
+    private static int[] primes(int count) {
+        int[] primes = new int[count];
+        int found = 0;
+        for (int candidate = 2; found < count; candidate++) {
+            boolean isPrime = true;
+            for (int i = 0; i < found && primes[i] * primes[i] <= candidate; i++) {
+                if (candidate % primes[i] == 0) {
+                    isPrime = false;
+                    break;
+                }
+            }
+            if (isPrime) {
+                primes[found++] = candidate;
+            }
+        }
+        return primes;
+    }
+    
+    private static class HaltonSpliterator implements Spliterator<double[]> {
+        private final double[] lowerbounds;
+        private final double[] upperbounds;
+        private final int[] bases;
+        private final double[] shifts;
+        private int current;
+        private final int end;
+        
+        HaltonSpliterator(double[] lowerbounds, double[] upperbounds, int[] bases, double[] shifts, int from, int to) {
+            this.lowerbounds = lowerbounds;
+            this.upperbounds = upperbounds;
+            this.bases = bases;
+            this.shifts = shifts;
+            this.current = from;
+            this.end = to;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super double[]> action) {
+            if (current >= end) {
+                return false;
+            }
+            double[] values = new double[lowerbounds.length];
+            for (int p = 0; p < values.length; p++) {
+                // the index 0 is skipped, since its radical inverse is 0 in all bases
+                double unit = radicalInverse(current + 1, bases[p]) + shifts[p];
+                if (unit >= 1) {
+                    unit -= 1;
+                }
+                values[p] = lowerbounds[p] + unit * (upperbounds[p] - lowerbounds[p]);
+            }
+            current++;
+            action.accept(values);
+            return true;
+        }
+        
+        @Override
+        public Spliterator<double[]> trySplit() {
+            int middle = (current + end) >>> 1;
+            if (middle <= current) {
+                return null;
+            }
+            Spliterator<double[]> prefix = new HaltonSpliterator(lowerbounds, upperbounds, bases, shifts, current, middle);
+            current = middle;
+            return prefix;
+        }
+        
+        @Override
+        public long estimateSize() {
+            return end - current;
+        }
+        
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -18,50 +18,118 @@
 
  *****************************************************************************/
 
+
 package pacpma.sample;
 
-import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 import pacpma.algebra.Parameter;
 
 /**
- * Random sample generator
+ * Random sample generator. The samples are divided in blocks of 
+ * {@link #SAMPLES_PER_BLOCK} samples, each one drawn from its own 
+ * {@link SplittableRandom} stream whose seed is derived from the seed of the 
+ * sampler, so the samples only depend on the seed and not on the order in
+ * which the blocks are generated.
  * 
  * @author Andrea Turrini
  *
  */
 public class RandomSampler implements Sampler {
-    private final Random randomGenerator;
-    private final long numberSamples;
+    /** The number of samples drawn from the same random stream */
+    public static final int SAMPLES_PER_BLOCK = 1024;
+    
+    private final int numberSamples;
+    private final long[] blockSeeds;
     
-    public RandomSampler(Random randomGenerator, long numberSamples) {
-        this.randomGenerator = randomGenerator;
+    public RandomSampler(long seed, int numberSamples) {
         this.numberSamples = numberSamples;
+        
+        SplittableRandom seedGenerator = new SplittableRandom(seed);
+        blockSeeds = new long[(numberSamples + SAMPLES_PER_BLOCK - 1) / SAMPLES_PER_BLOCK];
+        for (int block = 0; block < blockSeeds.length; block++) {
+            blockSeeds[block] = seedGenerator.nextLong();
+        }
     }
     
     @Override
-    public List<Map<Parameter, BigDecimal>> getSamples(List<Parameter> parameters) {
-        List<Map<Parameter, BigDecimal>> samples = new LinkedList<>();
-        
-        for (int i = 0; i < numberSamples; i++) {
-            Map<Parameter, BigDecimal> singleSample = new HashMap<>(2*parameters.size());
-            parameters.forEach((p) -> singleSample.put(p, getSample(p)));
-            samples.add(singleSample);
-        }
-        
-        return samples;
+    public int getNumberSamples(List<Parameter> parameters) {
+        return numberSamples;
     }
     
-    private BigDecimal getSample(Parameter p) {
-        return nextValue(p.getLowerbound(), p.getUpperbound());
+    @Override
+    public Spliterator<double[]> spliterator(List<Parameter> parameters, int from, int to) {
+        assert 0 <= from && from <= to && to <= numberSamples;
+        
+        double[] lowerbounds = new double[parameters.size()];
+        double[] upperbounds = new double[parameters.size()];
+        for (int p = 0; p < lowerbounds.length; p++) {
+            lowerbounds[p] = parameters.get(p).getLowerbound().doubleValue();
+            upperbounds[p] = parameters.get(p).getUpperbound().doubleValue();
+        }
+        return new RandomSpliterator(lowerbounds, upperbounds, from, to);
     }
     
-    private BigDecimal nextValue(BigDecimal lowerbound, BigDecimal upperbound) {
-        return new BigDecimal(randomGenerator.nextDouble(lowerbound.doubleValue(), upperbound.doubleValue()));
+    private class RandomSpliterator implements Spliterator<double[]> {
+        private final double[] lowerbounds;
+        private final double[] upperbounds;
+        private int current;
+        private final int end;
+        private SplittableRandom randomGenerator = null;
+        
+        RandomSpliterator(double[] lowerbounds, double[] upperbounds, int from, int to) {
+            this.lowerbounds = lowerbounds;
+            this.upperbounds = upperbounds;
+            this.current = from;
+            this.end = to;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super double[]> action) {
+            if (current >= end) {
+                return false;
+            }
+            if (randomGenerator == null || current % SAMPLES_PER_BLOCK == 0) {
+                randomGenerator = new SplittableRandom(blockSeeds[current / SAMPLES_PER_BLOCK]);
+                // skip the samples of the block before the current one
+                for (int skip = current % SAMPLES_PER_BLOCK * lowerbounds.length; skip > 0; skip--) {
+                    randomGenerator.nextLong();
+                }
+            }
+            double[] values = new double[lowerbounds.length];
+            for (int p = 0; p < values.length; p++) {
+                values[p] = randomGenerator.nextDouble(lowerbounds[p], upperbounds[p]);
+            }
+            current++;
+            action.accept(values);
+            return true;
+        }
+        
+        @Override
+        public Spliterator<double[]> trySplit() {
+            // split at a block boundary, so no sample has to be skipped
+            int middle = (current + end) >>> 1;
+            middle = middle - middle % SAMPLES_PER_BLOCK;
+            if (middle <= current) {
+                return null;
+            }
+            Spliterator<double[]> prefix = new RandomSpliterator(lowerbounds, upperbounds, current, middle);
+            current = middle;
+            randomGenerator = null;
+            return prefix;
+        }
+        
+        @Override
+        public long estimateSize() {
+            return end - current;
+        }
+        
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
     }
 }
@@ -0,0 +1,207 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.sample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+
+import pacpma.algebra.Constant;
+import pacpma.algebra.Parameter;
+
+/**
+ * A range of samples of a {@link SampleMatrix} handed out in blocks, to be 
+ * model checked by several threads. The range is made of segments, each one
+ * either already stored in the matrix or to be generated by a 
+ * {@link Sampler}; the samples of a segment to be generated are produced 
+ * from the spliterator of the sampler only when their block is taken, and 
+ * stored in the matrix, so the generation of a block overlaps with the 
+ * model checking of the other ones and only the constants of the blocks 
+ * being checked exist at any time.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class SampleBlocks {
+    private final SampleMatrix samples;
+    private final int from;
+    private final List<Segment> segments = new ArrayList<>();
+    private int next;
+    
+    /**
+     * A block of samples, with identifiers from {@link #getFrom()} 
+     * (inclusive) to {@link #getTo()} (exclusive) in the matrix.
+     */
+    public class Block {
+        private final Segment segment;
+        private final int from;
+        private final int to;
+        
+        private Block(Segment segment, int from, int to) {
+            this.segment = segment;
+            this.from = from;
+            this.to = to;
+        }
+        
+        public int getFrom() {
+            return from;
+        }
+        
+        public int getTo() {
+            return to;
+        }
+        
+        /**
+         * Generates the samples of this block, if they are not already 
+         * stored, and provides their constants as in 
+         * {@link SampleMatrix#getBlock(int, int)}.
+         * 
+         * @return the view of the samples in this block
+         */
+        public Map<Integer, List<Constant>> getParameterValues() {
+            if (segment.sampler != null) {
+                int shift = segment.samplerFrom - segment.from;
+                Spliterator<double[]> generator = segment.sampler.spliterator(segment.parameters, from + shift, to + shift);
+                for (int sample = from; sample < to; sample++) {
+                    final int current = sample;
+                    generator.tryAdvance(values -> samples.setSample(current, values));
+                }
+            }
+            return samples.getBlock(from, to);
+        }
+    }
+    
+    private static class Segment {
+        private final int from;
+        private final int to;
+        private final Sampler sampler;
+        private final List<Parameter> parameters;
+        private final int samplerFrom;
+        
+        Segment(int from, int to, Sampler sampler, List<Parameter> parameters, int samplerFrom) {
+            this.from = from;
+            this.to = to;
+            this.sampler = sampler;
+            this.parameters = parameters;
+            this.samplerFrom = samplerFrom;
+        }
+    }
+    
+    /**
+     * Creates the blocks of the samples of the given matrix starting from 
+     * {@code from}: the samples already in the matrix are stored ones, while
+     * the samples added by {@link #add(Sampler, List, int, int)} are 
+     * generated when their block is taken.
+     * 
+     * @param samples
+     *            the matrix of the samples
+     * @param from
+     *            the first sample of the range
+     */
+    public SampleBlocks(SampleMatrix samples, int from) {
+        assert 0 <= from && from <= samples.size();
+        
+        this.samples = samples;
+        this.from = from;
+        this.next = from;
+        if (from < samples.size()) {
+            segments.add(new Segment(from, samples.size(), null, null, 0));
+        }
+    }
+    
+    /**
+     * Creates the blocks of all samples of the given matrix.
+     * 
+     * @param samples
+     *            the matrix of the samples
+     */
+    public SampleBlocks(SampleMatrix samples) {
+        this(samples, 0);
+    }
+    
+    /**
+     * Appends to the matrix the samples of {@code sampler} from 
+     * {@code samplerFrom} (inclusive) to {@code samplerTo} (exclusive), to be
+     * generated when their block is taken; they must be appended before any
+     * block is taken.
+     * 
+     * @param sampler
+     *            the sampler generating the samples
+     * @param parameters
+     *            the parameters for which generate samples
+     * @param samplerFrom
+     *            the first sample of the sampler
+     * @param samplerTo
+     *            the sample of the sampler after the last one
+     * @return the identifier in the matrix of the first appended sample
+     */
+    public int add(Sampler sampler, List<Parameter> parameters, int samplerFrom, int samplerTo) {
+        assert samplerFrom <= samplerTo;
+        
+        int first = samples.addSamples(samplerTo - samplerFrom);
+        segments.add(new Segment(first, samples.size(), sampler, parameters, samplerFrom));
+        return first;
+    }
+    
+    /**
+     * @return the matrix of the samples
+     */
+    public SampleMatrix getSamples() {
+        return samples;
+    }
+    
+    /**
+     * @return the first sample of the range
+     */
+    public int getFrom() {
+        return from;
+    }
+    
+    /**
+     * @return the sample after the last one of the range
+     */
+    public int getTo() {
+        return segments.isEmpty() ? from : segments.get(segments.size() - 1).to;
+    }
+    
+    /**
+     * Takes the next block of at most {@code blockSize} samples; a block 
+     * never spans two segments. Several threads can take blocks concurrently.
+     * 
+     * @param blockSize
+     *            the maximum size of the block
+     * @return the next block, or {@code null} if all blocks have been taken
+     */
+    public synchronized Block next(int blockSize) {
+        assert blockSize > 0;
+        
+        for (Segment segment : segments) {
+            if (next < segment.to) {
+                int blockFrom = Math.max(next, segment.from);
+                int blockTo = Math.min(blockFrom + blockSize, segment.to);
+                next = blockTo;
+                return new Block(segment, blockFrom, blockTo);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,403 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.sample;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import pacpma.algebra.Constant;
+import pacpma.algebra.Parameter;
+
+/**
+ * A set of samples stored by columns: for each parameter, the values it takes
+ * in the samples are kept in a primitive array indexed by the sample
+ * identifier, so no object is allocated for each sample.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class SampleMatrix {
+    private final List<Parameter> parameters;
+    private double[][] columns;
+    private int size = 0;
+    
+    /**
+     * Creates an empty sample matrix for the given parameters.
+     * 
+     * @param parameters
+     *            the parameters, one for each column
+     * @param capacity
+     *            the expected number of samples
+     */
+    public SampleMatrix(List<Parameter> parameters, int capacity) {
+        this.parameters = parameters;
+        columns = new double[parameters.size()][Math.max(capacity, 1)];
+    }
+    
+    /**
+     * @return the parameters of this matrix, in the order of the columns
+     */
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+    
+    /**
+     * @return the number of parameters
+     */
+    public int getNumberParameters() {
+        return columns.length;
+    }
+    
+    /**
+     * @return the number of samples
+     */
+    public int size() {
+        return size;
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (columns.length > 0 && columns[0].length < capacity) {
+            int newCapacity = Math.max(capacity, 2 * columns[0].length);
+            for (int parameter = 0; parameter < columns.length; parameter++) {
+                columns[parameter] = Arrays.copyOf(columns[parameter], newCapacity);
+            }
+        }
+    }
+    
+    /**
+     * Appends a sample.
+     * 
+     * @param values
+     *            the value of each parameter, in the order of 
+     *            {@link #getParameters()}
+     * @return the identifier of the new sample
+     */
+    public int addSample(double... values) {
+        assert values.length == columns.length;
+        
+        ensureCapacity(size + 1);
+        for (int parameter = 0; parameter < columns.length; parameter++) {
+            columns[parameter][size] = values[parameter];
+        }
+        return size++;
+    }
+    
+    /**
+     * Appends the given number of samples, all with value {@code 0} for each
+     * parameter, to be set by {@link #setSample(int, double...)}; samples 
+     * with different identifiers can then be set concurrently.
+     * 
+     * @param count
+     *            the number of samples to append
+     * @return the identifier of the first appended sample
+     */
+    public int addSamples(int count) {
+        ensureCapacity(size + count);
+        int first = size;
+        size += count;
+        return first;
+    }
+    
+    /**
+     * Sets the values of a sample.
+     * 
+     * @param sample
+     *            the identifier of the sample
+     * @param values
+     *            the value of each parameter, in the order of 
+     *            {@link #getParameters()}
+     */
+    public void setSample(int sample, double... values) {
+        assert sample < size;
+        assert values.length == columns.length;
+        
+        for (int parameter = 0; parameter < columns.length; parameter++) {
+            columns[parameter][sample] = values[parameter];
+        }
+    }
+    
+    /**
+     * Appends all samples of the given matrix, which must have the same 
+     * parameters, possibly with the bounds of a region of their ranges; the
+     * identifiers of the appended samples are shifted by the current size of
+     * this matrix.
+     * 
+     * @param samples
+     *            the samples to append
+     */
+    public void addAll(SampleMatrix samples) {
+        assert parameters.size() == samples.parameters.size();
+        
+        ensureCapacity(size + samples.size);
+        for (int parameter = 0; parameter < columns.length; parameter++) {
+            System.arraycopy(samples.columns[parameter], 0, columns[parameter], size, samples.size);
+        }
+        size += samples.size;
+    }
+    
+    /**
+     * Returns the value of a parameter in a sample.
+     * 
+     * @param sample
+     *            the identifier of the sample
+     * @param parameter
+     *            the index of the parameter in {@link #getParameters()}
+     * @return the value of the parameter
+     */
+    public double get(int sample, int parameter) {
+        assert sample < size;
+        
+        return columns[parameter][sample];
+    }
+    
+    /**
+     * Provides the samples as a column-major matrix, as expected by
+     * {@link pacpma.algebra.TemplateFunction#evaluate(double[], int, double[])}:
+     * the value of the parameter {@code p} in the sample {@code s} is at
+     * position {@code p * size() + s}.
+     * 
+     * @return the column-major matrix of the samples
+     */
+    public double[] toColumnMajor() {
+        return toColumnMajor(size);
+    }
+    
+    /**
+     * Provides the first {@code numberSamples} samples as a column-major 
+     * matrix, as in {@link #toColumnMajor()}: the value of the parameter 
+     * {@code p} in the sample {@code s} is at position 
+     * {@code p * numberSamples + s}.
+     * 
+     * @param numberSamples
+     *            the number of samples to include
+     * @return the column-major matrix of the first samples
+     */
+    public double[] toColumnMajor(int numberSamples) {
+        return toColumnMajor(0, numberSamples);
+    }
+    
+    /**
+     * Provides the samples from {@code from} (inclusive) to {@code to} 
+     * (exclusive) as a column-major matrix, as in {@link #toColumnMajor()}: 
+     * the value of the parameter {@code p} in the sample {@code from + s} is
+     * at position {@code p * (to - from) + s}.
+     * 
+     * @param from
+     *            the first sample to include
+     * @param to
+     *            the sample after the last one to include
+     * @return the column-major matrix of the samples
+     */
+    public double[] toColumnMajor(int from, int to) {
+        assert 0 <= from && from <= to && to <= size;
+        
+        int numberSamples = to - from;
+        double[] matrix = new double[columns.length * numberSamples];
+        for (int parameter = 0; parameter < columns.length; parameter++) {
+            System.arraycopy(columns[parameter], from, matrix, parameter * numberSamples, numberSamples);
+        }
+        return matrix;
+    }
+    
+    /**
+     * Provides a spliterator over the samples from {@code from} (inclusive) to
+     * {@code to} (exclusive), in order; each sample is given as the array of 
+     * the values of the parameters, in the order of {@link #getParameters()}.
+     * 
+     * @param from
+     *            the first sample
+     * @param to
+     *            the sample after the last one
+     * @return the spliterator over the samples
+     */
+    public Spliterator<double[]> spliterator(int from, int to) {
+        assert 0 <= from && from <= to && to <= size;
+        
+        return new Spliterator<double[]>() {
+            private int current = from;
+            private final int end = to;
+            
+            @Override
+            public boolean tryAdvance(Consumer<? super double[]> action) {
+                if (current >= end) {
+                    return false;
+                }
+                double[] values = new double[columns.length];
+                for (int parameter = 0; parameter < columns.length; parameter++) {
+                    values[parameter] = columns[parameter][current];
+                }
+                current++;
+                action.accept(values);
+                return true;
+            }
+            
+            @Override
+            public Spliterator<double[]> trySplit() {
+                int middle = (current + end) >>> 1;
+                if (middle <= current) {
+                    return null;
+                }
+                Spliterator<double[]> prefix = spliterator(current, middle);
+                current = middle;
+                return prefix;
+            }
+            
+            @Override
+            public long estimateSize() {
+                return end - current;
+            }
+            
+            @Override
+            public int characteristics() {
+                return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+            }
+        };
+    }
+    
+    /**
+     * Provides the values of the parameters in a sample as constants, to be
+     * passed to a model checker.
+     * 
+     * @param sample
+     *            the identifier of the sample
+     * @return the list of constants
+     */
+    public List<Constant> getConstants(int sample) {
+        assert sample < size;
+        
+        List<Constant> constants = new ArrayList<>(columns.length);
+        for (int parameter = 0; parameter < columns.length; parameter++) {
+            constants.add(new Constant(parameters.get(parameter).getName(), 
+                    BigDecimal.valueOf(columns[parameter][sample]).toPlainString()));
+        }
+        return constants;
+    }
+    
+    /**
+     * Provides a read-only view of the samples from {@code from} (inclusive)
+     * to {@code to} (exclusive), mapping the identifier of each sample to the
+     * list of its constants, as expected by
+     * {@link pacpma.modelchecker.batch.BatchModelChecker#setParameterValues(Map)}.
+     * The constants are generated when they are accessed.
+     * 
+     * @param from
+     *            the first sample
+     * @param to
+     *            the sample after the last one
+     * @return the view of the samples in the block
+     */
+    public Map<Integer, List<Constant>> getBlock(int from, int to) {
+        assert 0 <= from && from <= to && to <= size;
+        
+        return new AbstractMap<Integer, List<Constant>>() {
+            @Override
+            public int size() {
+                return to - from;
+            }
+            
+            @Override
+            public boolean containsKey(Object key) {
+                if (key instanceof Integer) {
+                    int sample = (Integer) key;
+                    return from <= sample && sample < to;
+                }
+                return false;
+            }
+            
+            @Override
+            public List<Constant> get(Object key) {
+                return containsKey(key) ? getConstants((Integer) key) : null;
+            }
+            
+            @Override
+            public Set<Integer> keySet() {
+                return new AbstractSet<Integer>() {
+                    @Override
+                    public int size() {
+                        return to - from;
+                    }
+                    
+                    @Override
+                    public boolean contains(Object key) {
+                        return containsKey(key);
+                    }
+                    
+                    @Override
+                    public Iterator<Integer> iterator() {
+                        return new Iterator<Integer>() {
+                            private int sample = from;
+                            
+                            @Override
+                            public boolean hasNext() {
+                                return sample < to;
+                            }
+                            
+                            @Override
+                            public Integer next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                return sample++;
+                            }
+                        };
+                    }
+                };
+            }
+            
+            @Override
+            public Set<Map.Entry<Integer, List<Constant>>> entrySet() {
+                return new AbstractSet<Map.Entry<Integer, List<Constant>>>() {
+                    @Override
+                    public int size() {
+                        return to - from;
+                    }
+                    
+                    @Override
+                    public Iterator<Map.Entry<Integer, List<Constant>>> iterator() {
+                        Iterator<Integer> keys = keySet().iterator();
+                        return new Iterator<Map.Entry<Integer, List<Constant>>>() {
+                            @Override
+                            public boolean hasNext() {
+                                return keys.hasNext();
+                            }
+                            
+                            @Override
+                            public Map.Entry<Integer, List<Constant>> next() {
+                                int sample = keys.next();
+                                return new AbstractMap.SimpleImmutableEntry<>(sample, getConstants(sample));
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+}
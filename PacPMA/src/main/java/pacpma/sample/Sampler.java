@@ -20,27 +20,105 @@
 
 package pacpma.sample;
 
-import java.math.BigDecimal;
 import java.util.List;
-import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import pacpma.algebra.Parameter;
+import pacpma.util.ParallelBlocks;
 
 /**
- * Interface representing a generator of samples.
+ * Interface representing a generator of samples. The samples are identified 
+ * by their index and can be generated lazily, on any range of indices; a 
+ * sample depends only on its index, so the samples do not depend on how the
+ * ranges are split among threads.
  * 
  * @author Andrea Turrini
  *
  */
 public interface Sampler {
-
     /**
-     * Generates the samples, by assigning a valid value to each of the parameters.
+     * The number of samples generated by each parallel task in
+     * {@link #getSamples(List)}, and the maximum number of samples of the 
+     * blocks of {@link SampleBlocks} model checked by each thread.
+     */
+    public static final int GENERATION_BLOCK_SIZE = 4096;
+    
+    /**
+     * Provides the number of samples of this sampler.
      * 
      * @param parameters
      *            the parameters for which generate samples
-     * @return the list of generated samples
+     * @return the number of samples
      */
-    List<Map<Parameter, BigDecimal>> getSamples(List<Parameter> parameters);
-
-}
\ No newline at end of file
+    int getNumberSamples(List<Parameter> parameters);
+    
+    /**
+     * Generates lazily the samples from {@code from} (inclusive) to 
+     * {@code to} (exclusive), in order, by assigning a valid value to each of
+     * the parameters; each sample is given as the array of the values of the
+     * parameters, in the order of {@code parameters}.
+     * 
+     * @param parameters
+     *            the parameters for which generate samples
+     * @param from
+     *            the first sample
+     * @param to
+     *            the sample after the last one
+     * @return the spliterator generating the samples
+     */
+    Spliterator<double[]> spliterator(List<Parameter> parameters, int from, int to);
+    
+    /**
+     * Generates lazily all samples, as a sequential stream; use 
+     * {@link Stream#parallel()} to generate them in parallel.
+     * 
+     * @param parameters
+     *            the parameters for which generate samples
+     * @return the stream of samples
+     */
+    default Stream<double[]> stream(List<Parameter> parameters) {
+        return StreamSupport.stream(spliterator(parameters, 0, getNumberSamples(parameters)), false);
+    }
+    
+    /**
+     * Generates the samples, by assigning a valid value to each of the 
+     * parameters; blocks of samples are generated in parallel.
+     * 
+     * @param parameters
+     *            the parameters for which generate samples
+     * @return the matrix of generated samples, with one column for each 
+     *         parameter
+     */
+    default SampleMatrix getSamples(List<Parameter> parameters) {
+        return getSamples(parameters, 0, getNumberSamples(parameters));
+    }
+    
+    /**
+     * Generates the samples from {@code from} (inclusive) to {@code to} 
+     * (exclusive); blocks of samples are generated in parallel. The sample 
+     * {@code from} gets the identifier {@code 0} in the resulting matrix.
+     * 
+     * @param parameters
+     *            the parameters for which generate samples
+     * @param from
+     *            the first sample
+     * @param to
+     *            the sample after the last one
+     * @return the matrix of generated samples, with one column for each 
+     *         parameter
+     */
+    default SampleMatrix getSamples(List<Parameter> parameters, int from, int to) {
+        SampleMatrix samples = new SampleMatrix(parameters, to - from);
+        samples.addSamples(to - from);
+        ParallelBlocks.run(to - from, GENERATION_BLOCK_SIZE, (blockFrom, blockTo) -> {
+            Spliterator<double[]> block = spliterator(parameters, from + blockFrom, from + blockTo);
+            for (int sample = blockFrom; sample < blockTo; sample++) {
+                final int current = sample;
+                block.tryAdvance(values -> samples.setSample(current, values));
+            }
+        });
+        return samples;
+    }
+}
@@ -0,0 +1,132 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.surrogate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The multivariate Horner scheme of a polynomial: the polynomial is written as
+ * a polynomial in the first variable occurring in it, whose coefficients are
+ * polynomials in the remaining variables, recursively; each level is
+ * evaluated by the univariate Horner scheme.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+class HornerScheme {
+    /** The variable of this level, or {@code -1} for a constant */
+    private final int variable;
+    
+    /** The value of the constant, when {@link #variable} is {@code -1} */
+    private final double constant;
+    
+    /** The coefficient of each power of the variable; {@code null} when zero */
+    private final HornerScheme[] coefficients;
+    
+    private HornerScheme(double constant) {
+        this.variable = -1;
+        this.constant = constant;
+        this.coefficients = null;
+    }
+    
+    private HornerScheme(int variable, HornerScheme[] coefficients) {
+        this.variable = variable;
+        this.constant = 0.0;
+        this.coefficients = coefficients;
+    }
+    
+    /**
+     * Builds the Horner scheme of the polynomial with the given monomials.
+     * 
+     * @param exponents
+     *            the exponents of each monomial
+     * @param values
+     *            the coefficient of each monomial
+     * @return the Horner scheme
+     */
+    static HornerScheme build(int[][] exponents, double[] values) {
+        List<Integer> monomials = new ArrayList<>(values.length);
+        for (int index = 0; index < values.length; index++) {
+            if (values[index] != 0.0) {
+                monomials.add(index);
+            }
+        }
+        return build(exponents, values, monomials, 0);
+    }
+    
+    private static HornerScheme build(int[][] exponents, double[] values, List<Integer> monomials, int firstVariable) {
+        int numberVariables = (exponents.length == 0) ? 0 : exponents[0].length;
+        for (int var = firstVariable; var < numberVariables; var++) {
+            int degree = 0;
+            for (int index : monomials) {
+                degree = Math.max(degree, exponents[index][var]);
+            }
+            if (degree > 0) {
+                List<List<Integer>> powers = new ArrayList<>(degree + 1);
+                for (int exp = 0; exp <= degree; exp++) {
+                    powers.add(new ArrayList<>());
+                }
+                for (int index : monomials) {
+                    powers.get(exponents[index][var]).add(index);
+                }
+                HornerScheme[] coefficients = new HornerScheme[degree + 1];
+                for (int exp = 0; exp <= degree; exp++) {
+                    if (!powers.get(exp).isEmpty()) {
+                        coefficients[exp] = build(exponents, values, powers.get(exp), var + 1);
+                    }
+                }
+                return new HornerScheme(var, coefficients);
+            }
+        }
+        // no variable left: the monomials are all the constant monomial
+        double constant = 0.0;
+        for (int index : monomials) {
+            constant += values[index];
+        }
+        return new HornerScheme(constant);
+    }
+    
+    /**
+     * Evaluates the polynomial at the point whose coordinates start at 
+     * {@code point[offset]}.
+     * 
+     * @param point
+     *            the array containing the point
+     * @param offset
+     *            the position of the first coordinate
+     * @return the value of the polynomial
+     */
+    double evaluate(double[] point, int offset) {
+        if (variable < 0) {
+            return constant;
+        }
+        double x = point[offset + variable];
+        double value = 0.0;
+        for (int exp = coefficients.length - 1; exp >= 0; exp--) {
+            value = value * x;
+            if (coefficients[exp] != null) {
+                value += coefficients[exp].evaluate(point, offset);
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,249 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.surrogate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal reader for JSON documents, sufficient for the surrogate 
+ * artefacts: objects are read as {@link Map}s, arrays as {@link List}s,
+ * numbers as {@link BigDecimal}s, strings as {@link String}s, and the
+ * literals as {@link Boolean}s or {@code null}.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+class JsonReader {
+    private final String text;
+    private int position = 0;
+    
+    private JsonReader(String text) {
+        this.text = text;
+    }
+    
+    /**
+     * Parses the given JSON document.
+     * 
+     * @param text
+     *            the document
+     * @return the value represented by the document
+     * @throws IOException
+     *             if the document is not valid JSON
+     */
+    static Object parse(String text) throws IOException {
+        JsonReader reader = new JsonReader(text);
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position != text.length()) {
+            throw reader.error("end of document");
+        }
+        return value;
+    }
+    
+    private IOException error(String expected) {
+        return new IOException("Invalid JSON: expected " + expected + " at position " + position);
+    }
+    
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+    
+    private boolean consume(char c) {
+        skipWhitespace();
+        if (position < text.length() && text.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+    
+    private void expect(char c) throws IOException {
+        if (!consume(c)) {
+            throw error("'" + c + "'");
+        }
+    }
+    
+    private Object readValue() throws IOException {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("a value");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+        case '{':
+            return readObject();
+        case '[':
+            return readArray();
+        case '"':
+            return readString();
+        default:
+            if (text.startsWith("true", position)) {
+                position += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", position)) {
+                position += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            return readNumber();
+        }
+    }
+    
+    private Map<String, Object> readObject() throws IOException {
+        Map<String, Object> object = new LinkedHashMap<>();
+        expect('{');
+        if (consume('}')) {
+            return object;
+        }
+        do {
+            skipWhitespace();
+            String key = readString();
+            expect(':');
+            object.put(key, readValue());
+        } while (consume(','));
+        expect('}');
+        return object;
+    }
+    
+    private List<Object> readArray() throws IOException {
+        List<Object> array = new ArrayList<>();
+        expect('[');
+        if (consume(']')) {
+            return array;
+        }
+        do {
+            array.add(readValue());
+        } while (consume(','));
+        expect(']');
+        return array;
+    }
+    
+    private String readString() throws IOException {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (position < text.length()) {
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c == '\\') {
+                if (position >= text.length()) {
+                    break;
+                }
+                char e = text.charAt(position++);
+                switch (e) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("a unicode escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException nfe) {
+                        throw error("a unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    sb.append(e);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        throw error("'\"'");
+    }
+    
+    private BigDecimal readNumber() throws IOException {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        try {
+            return new BigDecimal(text.substring(start, position));
+        } catch (NumberFormatException nfe) {
+            position = start;
+            throw error("a value");
+        }
+    }
+    
+    /**
+     * Escapes the given string as a JSON string literal.
+     * 
+     * @param value
+     *            the string
+     * @return the JSON string literal
+     */
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
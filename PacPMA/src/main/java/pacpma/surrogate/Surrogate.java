@@ -0,0 +1,472 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.surrogate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import pacpma.algebra.Parameter;
+import pacpma.algebra.polynomial.Polynomial;
+import pacpma.algebra.polynomial.PolynomialBasis;
+import pacpma.util.ParallelBlocks;
+
+/**
+ * A learned approximation, saved as an artefact that can be evaluated without
+ * running the analysis again. The approximation is the learned polynomial 
+ * over the parameters, kept in the basis used for learning: each term is 
+ * the product of the basis polynomials P<sub>k</sub> applied to each variable
+ * x, which is mapped onto [-1, 1] by t = (2x - (l + u)) / (u - l) from its 
+ * learning range [l, u] unless the basis is the monomial one. Each value it 
+ * provides comes with the margin λ computed by the scenario approach, so the
+ * property value lies in [value - λ, value + λ] with the PAC guarantees of the
+ * analysis.
+ * <p>
+ * The artefact is written in a compact binary format or, when the file name
+ * ends with {@code .json}, as a JSON document with the fields
+ * {@code property}, {@code basis}, {@code variables} (each with {@code name},
+ * {@code lower} and {@code upper}), {@code lambda} and {@code terms} (each 
+ * with {@code exponents}, the degrees of the basis polynomials, and 
+ * {@code coefficient}). Artefacts without basis, with {@code monomials} in 
+ * place of {@code terms}, are in the monomial basis.
+ * <p>
+ * A polynomial in the monomial basis is evaluated through its multivariate 
+ * Horner scheme; in the other bases, the basis polynomials of each variable
+ * are evaluated by their three-term recurrence. Points are evaluated in 
+ * parallel by {@link #evaluate(double[], int, double[])}.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class Surrogate {
+    /** The magic number of the binary format, "PACS" */
+    private final static int MAGIC = 0x50414353;
+    private final static int VERSION = 2;
+    /** The version of the binary format without basis, always monomial */
+    private final static int VERSION_MONOMIAL = 1;
+    private final static String JSON_EXTENSION = ".json";
+    
+    /** The number of points evaluated together */
+    private final static int BLOCK_SIZE = 4096;
+    
+    private final String property;
+    private final PolynomialBasis basis;
+    private final String[] variables;
+    private final double[] lowerbounds;
+    private final double[] upperbounds;
+    private final BigDecimal lambda;
+    private final double lambdaValue;
+    private final int[][] exponents;
+    private final double[] coefficients;
+    /** The Horner scheme of the polynomial, {@code null} unless the basis is monomial */
+    private final HornerScheme horner;
+    /** The maximum exponent of each variable */
+    private final int[] maximumExponents;
+    
+    private Surrogate(String property, PolynomialBasis basis, String[] variables, double[] lowerbounds, double[] upperbounds, BigDecimal lambda, int[][] exponents, double[] coefficients) {
+        this.property = property;
+        this.basis = basis;
+        this.variables = variables;
+        this.lowerbounds = lowerbounds;
+        this.upperbounds = upperbounds;
+        this.lambda = lambda;
+        this.lambdaValue = lambda.doubleValue();
+        this.exponents = exponents;
+        this.coefficients = coefficients;
+        this.horner = (basis == PolynomialBasis.MONOMIAL) ? HornerScheme.build(exponents, coefficients) : null;
+        this.maximumExponents = new int[variables.length];
+        for (int[] termExponents : exponents) {
+            for (int var = 0; var < variables.length; var++) {
+                maximumExponents[var] = Math.max(maximumExponents[var], termExponents[var]);
+            }
+        }
+    }
+    
+    /**
+     * Creates the surrogate for the given polynomial, in its basis.
+     * 
+     * @param property
+     *            the property approximated by the polynomial
+     * @param parameters
+     *            the parameters, in the order of the polynomial variables
+     * @param polynomial
+     *            the template polynomial
+     * @param coefficientValues
+     *            the values of the coefficients of the polynomial
+     * @param lambda
+     *            the margin of the approximation
+     * @return the surrogate
+     */
+    public static Surrogate fromPolynomial(String property, List<Parameter> parameters, Polynomial polynomial, Map<String, BigDecimal> coefficientValues, BigDecimal lambda) {
+        int numberVariables = parameters.size();
+        String[] variables = new String[numberVariables];
+        double[] lowerbounds = new double[numberVariables];
+        double[] upperbounds = new double[numberVariables];
+        for (int var = 0; var < numberVariables; var++) {
+            Parameter parameter = parameters.get(var);
+            variables[var] = parameter.getName();
+            lowerbounds[var] = parameter.getLowerbound().doubleValue();
+            upperbounds[var] = parameter.getUpperbound().doubleValue();
+        }
+        
+        int[][] termExponents = polynomial.getTermExponents();
+        List<String> names = polynomial.getCoefficients();
+        List<Integer> nonzero = new ArrayList<>();
+        for (int index = 0; index < termExponents.length; index++) {
+            if (coefficientValues.get(names.get(index)).signum() != 0) {
+                nonzero.add(index);
+            }
+        }
+        int[][] exponents = new int[nonzero.size()][];
+        double[] coefficients = new double[nonzero.size()];
+        for (int index = 0; index < exponents.length; index++) {
+            exponents[index] = termExponents[nonzero.get(index)];
+            coefficients[index] = coefficientValues.get(names.get(nonzero.get(index))).doubleValue();
+        }
+        return new Surrogate(property, polynomial.getBasis(), variables, lowerbounds, upperbounds, lambda, exponents, coefficients);
+    }
+    
+    /**
+     * @return the property approximated by this surrogate
+     */
+    public String getProperty() {
+        return property;
+    }
+    
+    /**
+     * @return the basis of the polynomial of this surrogate
+     */
+    public PolynomialBasis getBasis() {
+        return basis;
+    }
+    
+    /**
+     * @return the names of the variables, in the order expected by the 
+     *         evaluation methods
+     */
+    public List<String> getVariables() {
+        return Collections.unmodifiableList(Arrays.asList(variables));
+    }
+    
+    /**
+     * @return the number of variables
+     */
+    public int getNumberVariables() {
+        return variables.length;
+    }
+    
+    /**
+     * @param variable
+     *            the index of the variable
+     * @return the lower bound of the range of the variable used for learning
+     */
+    public double getLowerbound(int variable) {
+        return lowerbounds[variable];
+    }
+    
+    /**
+     * @param variable
+     *            the index of the variable
+     * @return the upper bound of the range of the variable used for learning
+     */
+    public double getUpperbound(int variable) {
+        return upperbounds[variable];
+    }
+    
+    /**
+     * @return the margin λ of the approximation
+     */
+    public BigDecimal getLambda() {
+        return lambda;
+    }
+    
+    /**
+     * Evaluates this surrogate at the given point.
+     * 
+     * @param point
+     *            the values of the variables, in the order of
+     *            {@link #getVariables()}
+     * @return the value of the approximation
+     */
+    public double evaluate(double[] point) {
+        assert point.length == variables.length;
+        
+        if (horner != null) {
+            return horner.evaluate(point, 0);
+        }
+        return evaluateBasis(point, 0, newBasisTable());
+    }
+    
+    /**
+     * Evaluates this surrogate at the given points, in parallel. The points are
+     * stored row by row: the value of the variable {@code v} for the point
+     * {@code i} is {@code points[i * getNumberVariables() + v]}. For each point
+     * {@code i}, the value of the approximation and the bounds guaranteed by λ
+     * are stored in {@code values[3 * i]} (the value), {@code values[3 * i + 1]}
+     * (the value minus λ), and {@code values[3 * i + 2]} (the value plus λ).
+     * 
+     * @param points
+     *            the points
+     * @param numberPoints
+     *            the number of points
+     * @param values
+     *            the array receiving the values
+     */
+    public void evaluate(double[] points, int numberPoints, double[] values) {
+        assert points.length >= numberPoints * variables.length;
+        assert values.length >= 3 * numberPoints;
+        
+        int numberVariables = variables.length;
+        ParallelBlocks.run(numberPoints, BLOCK_SIZE, (from, to) -> {
+            double[][] table = (horner == null) ? newBasisTable() : null;
+            for (int point = from; point < to; point++) {
+                double value = (horner != null) 
+                        ? horner.evaluate(points, point * numberVariables) 
+                        : evaluateBasis(points, point * numberVariables, table);
+                values[3 * point] = value;
+                values[3 * point + 1] = value - lambdaValue;
+                values[3 * point + 2] = value + lambdaValue;
+            }
+        });
+    }
+    
+    private double[][] newBasisTable() {
+        double[][] table = new double[variables.length][];
+        for (int var = 0; var < variables.length; var++) {
+            table[var] = new double[maximumExponents[var] + 1];
+        }
+        return table;
+    }
+    
+    /**
+     * Evaluates the polynomial in a non-monomial basis at the point starting
+     * at {@code offset}; {@code table} receives the values of the basis
+     * polynomials of each mapped variable.
+     */
+    private double evaluateBasis(double[] points, int offset, double[][] table) {
+        for (int var = 0; var < variables.length; var++) {
+            double t = (2 * points[offset + var] - (lowerbounds[var] + upperbounds[var])) / (upperbounds[var] - lowerbounds[var]);
+            basis.evaluate(t, table[var]);
+        }
+        double value = 0.0;
+        for (int index = 0; index < coefficients.length; index++) {
+            double term = coefficients[index];
+            for (int var = 0; var < variables.length; var++) {
+                term *= table[var][exponents[index][var]];
+            }
+            value += term;
+        }
+        return value;
+    }
+    
+    /**
+     * Writes this surrogate to the given file, as JSON document if the file
+     * name ends with {@code .json}, in the binary format otherwise.
+     * 
+     * @param fileName
+     *            the name of the file
+     * @throws IOException
+     *             if the file can not be written
+     */
+    public void write(String fileName) throws IOException {
+        if (fileName.endsWith(JSON_EXTENSION)) {
+            writeJson(fileName);
+        } else {
+            writeBinary(fileName);
+        }
+    }
+    
+    private void writeBinary(String fileName) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(property);
+            out.writeUTF(basis.getName());
+            out.writeInt(variables.length);
+            for (int var = 0; var < variables.length; var++) {
+                out.writeUTF(variables[var]);
+                out.writeDouble(lowerbounds[var]);
+                out.writeDouble(upperbounds[var]);
+            }
+            out.writeUTF(lambda.toString());
+            out.writeInt(coefficients.length);
+            for (int index = 0; index < coefficients.length; index++) {
+                for (int var = 0; var < variables.length; var++) {
+                    out.writeShort(exponents[index][var]);
+                }
+                out.writeDouble(coefficients[index]);
+            }
+        }
+    }
+    
+    private void writeJson(String fileName) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8))) {
+            out.println("{");
+            out.println("  \"property\": " + JsonReader.quote(property) + ",");
+            out.println("  \"basis\": " + JsonReader.quote(basis.getName()) + ",");
+            out.println("  \"variables\": [");
+            for (int var = 0; var < variables.length; var++) {
+                out.println("    {\"name\": " + JsonReader.quote(variables[var]) 
+                    + ", \"lower\": " + lowerbounds[var] 
+                    + ", \"upper\": " + upperbounds[var] + "}"
+                    + (var < variables.length - 1 ? "," : ""));
+            }
+            out.println("  ],");
+            out.println("  \"lambda\": " + lambda.toPlainString() + ",");
+            out.println("  \"terms\": [");
+            for (int index = 0; index < coefficients.length; index++) {
+                StringBuilder sb = new StringBuilder("    {\"exponents\": [");
+                for (int var = 0; var < variables.length; var++) {
+                    if (var > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append(exponents[index][var]);
+                }
+                sb.append("], \"coefficient\": ").append(coefficients[index]).append("}");
+                if (index < coefficients.length - 1) {
+                    sb.append(",");
+                }
+                out.println(sb);
+            }
+            out.println("  ]");
+            out.println("}");
+        }
+    }
+    
+    /**
+     * Reads a surrogate from the given file, written by {@link #write(String)}.
+     * 
+     * @param fileName
+     *            the name of the file
+     * @return the surrogate
+     * @throws IOException
+     *             if the file can not be read or is not a surrogate artefact
+     */
+    public static Surrogate read(String fileName) throws IOException {
+        if (fileName.endsWith(JSON_EXTENSION)) {
+            return readJson(fileName);
+        } else {
+            return readBinary(fileName);
+        }
+    }
+    
+    private static Surrogate readBinary(String fileName) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a surrogate file: " + fileName);
+            }
+            int version = in.readInt();
+            if (version != VERSION && version != VERSION_MONOMIAL) {
+                throw new IOException("Not a surrogate file: " + fileName);
+            }
+            String property = in.readUTF();
+            PolynomialBasis basis = PolynomialBasis.MONOMIAL;
+            if (version == VERSION) {
+                basis = PolynomialBasis.fromName(in.readUTF());
+                if (basis == null) {
+                    throw new IOException("Unknown basis in " + fileName);
+                }
+            }
+            int numberVariables = in.readInt();
+            String[] variables = new String[numberVariables];
+            double[] lowerbounds = new double[numberVariables];
+            double[] upperbounds = new double[numberVariables];
+            for (int var = 0; var < numberVariables; var++) {
+                variables[var] = in.readUTF();
+                lowerbounds[var] = in.readDouble();
+                upperbounds[var] = in.readDouble();
+            }
+            BigDecimal lambda = new BigDecimal(in.readUTF());
+            int numberTerms = in.readInt();
+            int[][] exponents = new int[numberTerms][numberVariables];
+            double[] coefficients = new double[numberTerms];
+            for (int index = 0; index < numberTerms; index++) {
+                for (int var = 0; var < numberVariables; var++) {
+                    exponents[index][var] = in.readShort();
+                }
+                coefficients[index] = in.readDouble();
+            }
+            return new Surrogate(property, basis, variables, lowerbounds, upperbounds, lambda, exponents, coefficients);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Surrogate readJson(String fileName) throws IOException {
+        String text = new String(Files.readAllBytes(Paths.get(fileName)), StandardCharsets.UTF_8);
+        try {
+            Map<String, Object> document = (Map<String, Object>) JsonReader.parse(text);
+            String property = (String) document.get("property");
+            PolynomialBasis basis = PolynomialBasis.MONOMIAL;
+            if (document.containsKey("basis")) {
+                basis = PolynomialBasis.fromName((String) document.get("basis"));
+                if (basis == null) {
+                    throw new IOException("Unknown basis in " + fileName);
+                }
+            }
+            List<Object> jsonVariables = (List<Object>) document.get("variables");
+            int numberVariables = jsonVariables.size();
+            String[] variables = new String[numberVariables];
+            double[] lowerbounds = new double[numberVariables];
+            double[] upperbounds = new double[numberVariables];
+            for (int var = 0; var < numberVariables; var++) {
+                Map<String, Object> jsonVariable = (Map<String, Object>) jsonVariables.get(var);
+                variables[var] = (String) jsonVariable.get("name");
+                lowerbounds[var] = ((BigDecimal) jsonVariable.get("lower")).doubleValue();
+                upperbounds[var] = ((BigDecimal) jsonVariable.get("upper")).doubleValue();
+            }
+            BigDecimal lambda = (BigDecimal) document.get("lambda");
+            List<Object> jsonTerms = (List<Object>) document.get(document.containsKey("terms") ? "terms" : "monomials");
+            int[][] exponents = new int[jsonTerms.size()][numberVariables];
+            double[] coefficients = new double[jsonTerms.size()];
+            for (int index = 0; index < coefficients.length; index++) {
+                Map<String, Object> jsonTerm = (Map<String, Object>) jsonTerms.get(index);
+                List<Object> jsonExponents = (List<Object>) jsonTerm.get("exponents");
+                if (jsonExponents.size() != numberVariables) {
+                    throw new IOException("Wrong number of exponents in " + fileName);
+                }
+                for (int var = 0; var < numberVariables; var++) {
+                    exponents[index][var] = ((BigDecimal) jsonExponents.get(var)).intValueExact();
+                }
+                coefficients[index] = ((BigDecimal) jsonTerm.get("coefficient")).doubleValue();
+            }
+            if (property == null || lambda == null) {
+                throw new IOException("Missing fields in " + fileName);
+            }
+            return new Surrogate(property, basis, variables, lowerbounds, upperbounds, lambda, exponents, coefficients);
+        } catch (ClassCastException | NullPointerException | ArithmeticException e) {
+            throw new IOException("Not a surrogate file: " + fileName);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.surrogate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * Command line tool evaluating a {@link Surrogate} on the points of a file.
+ * <p>
+ * Files whose name ends with {@code .csv} are read and written as CSV: each
+ * input line is a point, with the values of the variables separated by
+ * commas, optionally preceded by a header line with the names of the
+ * variables, in any order; each output line has the value of the surrogate
+ * and the bounds obtained by subtracting and adding λ. Any other file is
+ * binary: the input is the sequence of the values of the variables of each
+ * point, and the output the sequence of the three values of each point, as
+ * little-endian doubles.
+ * <p>
+ * The points are processed in chunks, so files of any size can be evaluated.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public final class SurrogateEvaluator {
+    private final static String CSV_EXTENSION = ".csv";
+    private final static String COMMA = ",";
+    
+    /** The number of points read and evaluated together */
+    private final static int CHUNK_POINTS = 1 << 20;
+    
+    private final static Option option_help = 
+            Option.builder("h")
+                .longOpt("help")
+                .desc("print this help message")
+                .build();
+    
+    private final static Option option_surrogate = 
+            Option.builder("s")
+                .longOpt("surrogate")
+                .argName("file")
+                .hasArg()
+                .desc("the surrogate to evaluate, as saved by PacPMA")
+                .build();
+    
+    private final static Option option_points = 
+            Option.builder("i")
+                .longOpt("points")
+                .argName("file")
+                .hasArg()
+                .desc("the file with the points to evaluate; CSV if its name ends with " + CSV_EXTENSION + ", binary otherwise")
+                .build();
+    
+    private final static Option option_output = 
+            Option.builder("o")
+                .longOpt("output")
+                .argName("file")
+                .hasArg()
+                .desc("the file receiving the values; CSV if its name ends with " + CSV_EXTENSION + ", binary otherwise")
+                .build();
+    
+    private SurrogateEvaluator() {}
+    
+    public static void main(String[] args) {
+        Options options = new Options();
+        options.addOption(option_help);
+        options.addOption(option_surrogate);
+        options.addOption(option_points);
+        options.addOption(option_output);
+        
+        CommandLine commandline;
+        try {
+            commandline = new DefaultParser().parse(options, args);
+        } catch (ParseException pe) {
+            System.out.println(pe.getMessage());
+            return;
+        }
+        if (commandline.hasOption(option_help) 
+                || !commandline.hasOption(option_surrogate) 
+                || !commandline.hasOption(option_points) 
+                || !commandline.hasOption(option_output)) {
+            HelpFormatter help = new HelpFormatter();
+            help.printHelp("PAC Model surrogate evaluator", options);
+            return;
+        }
+        
+        try {
+            Surrogate surrogate = Surrogate.read(commandline.getOptionValue(option_surrogate));
+            long evaluated = evaluate(surrogate, commandline.getOptionValue(option_points), commandline.getOptionValue(option_output));
+            System.out.println("Evaluated points: " + evaluated);
+            System.out.println("Value of λ: " + surrogate.getLambda());
+        } catch (IOException ioe) {
+            System.out.println("Surrogate evaluation failed: " + ioe.getMessage());
+        }
+    }
+    
+    /**
+     * Evaluates the surrogate on the points in the input file and writes the
+     * values to the output file.
+     * 
+     * @param surrogate
+     *            the surrogate
+     * @param pointsFile
+     *            the input file
+     * @param outputFile
+     *            the output file
+     * @return the number of evaluated points
+     * @throws IOException
+     *             if a file can not be read or written
+     */
+    public static long evaluate(Surrogate surrogate, String pointsFile, String outputFile) throws IOException {
+        int numberVariables = surrogate.getNumberVariables();
+        double[] points = new double[CHUNK_POINTS * numberVariables];
+        double[] values = new double[3 * CHUNK_POINTS];
+        long evaluated = 0;
+        try (PointReader reader = pointsFile.endsWith(CSV_EXTENSION) ? new CsvPointReader(pointsFile, surrogate.getVariables()) : new BinaryPointReader(pointsFile, numberVariables);
+                ValueWriter writer = outputFile.endsWith(CSV_EXTENSION) ? new CsvValueWriter(outputFile) : new BinaryValueWriter(outputFile)) {
+            int read;
+            while ((read = reader.read(points, CHUNK_POINTS)) > 0) {
+                surrogate.evaluate(points, read, values);
+                writer.write(values, read);
+                evaluated += read;
+            }
+        }
+        return evaluated;
+    }
+    
+    private interface PointReader extends Closeable {
+        /**
+         * Reads at most {@code maximumPoints} points into {@code points}.
+         * 
+         * @return the number of points read, {@code 0} at the end of the file
+         */
+        int read(double[] points, int maximumPoints) throws IOException;
+    }
+    
+    private interface ValueWriter extends Closeable {
+        /**
+         * Writes the three values of each of the {@code numberPoints} points.
+         */
+        void write(double[] values, int numberPoints) throws IOException;
+    }
+    
+    private static class CsvPointReader implements PointReader {
+        private final String fileName;
+        private final BufferedReader reader;
+        private final int numberVariables;
+        /** For each column, the index of its variable */
+        private int[] columnVariable = null;
+        private long line = 0;
+        private String pending = null;
+        
+        CsvPointReader(String fileName, List<String> variables) throws IOException {
+            this.fileName = fileName;
+            this.reader = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8);
+            this.numberVariables = variables.size();
+            
+            String first = nextLine();
+            if (first != null) {
+                String[] fields = first.split(COMMA);
+                boolean isHeader = false;
+                for (String field : fields) {
+                    try {
+                        Double.parseDouble(field.trim());
+                    } catch (NumberFormatException nfe) {
+                        isHeader = true;
+                    }
+                }
+                if (isHeader) {
+                    columnVariable = new int[fields.length];
+                    boolean[] isPresent = new boolean[numberVariables];
+                    for (int column = 0; column < fields.length; column++) {
+                        columnVariable[column] = variables.indexOf(fields[column].trim());
+                        if (columnVariable[column] >= 0) {
+                            isPresent[columnVariable[column]] = true;
+                        }
+                    }
+                    for (int var = 0; var < numberVariables; var++) {
+                        if (!isPresent[var]) {
+                            throw new IOException("Missing column " + variables.get(var) + " in " + fileName);
+                        }
+                    }
+                } else {
+                    pending = first;
+                }
+            }
+            if (columnVariable == null) {
+                columnVariable = new int[numberVariables];
+                for (int var = 0; var < numberVariables; var++) {
+                    columnVariable[var] = var;
+                }
+            }
+        }
+        
+        private String nextLine() throws IOException {
+            String current;
+            do {
+                current = reader.readLine();
+                line++;
+            } while (current != null && current.isBlank());
+            return current;
+        }
+        
+        @Override
+        public int read(double[] points, int maximumPoints) throws IOException {
+            int read = 0;
+            while (read < maximumPoints) {
+                String current = (pending != null) ? pending : nextLine();
+                pending = null;
+                if (current == null) {
+                    break;
+                }
+                String[] fields = current.split(COMMA);
+                if (fields.length != columnVariable.length) {
+                    throw new IOException("Wrong number of values at line " + line + " of " + fileName);
+                }
+                for (int column = 0; column < fields.length; column++) {
+                    int var = columnVariable[column];
+                    if (var >= 0) {
+                        try {
+                            points[read * numberVariables + var] = Double.parseDouble(fields[column].trim());
+                        } catch (NumberFormatException nfe) {
+                            throw new IOException("Invalid value at line " + line + " of " + fileName);
+                        }
+                    }
+                }
+                read++;
+            }
+            return read;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+    
+    private static class BinaryPointReader implements PointReader {
+        private final FileChannel channel;
+        private final int numberVariables;
+        private ByteBuffer buffer = null;
+        
+        BinaryPointReader(String fileName, int numberVariables) throws IOException {
+            this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+            this.numberVariables = numberVariables;
+            if (channel.size() % (Double.BYTES * Math.max(numberVariables, 1)) != 0) {
+                channel.close();
+                throw new IOException("The size of " + fileName + " is not a multiple of the size of a point");
+            }
+        }
+        
+        @Override
+        public int read(double[] points, int maximumPoints) throws IOException {
+            int bytes = maximumPoints * numberVariables * Double.BYTES;
+            if (buffer == null || buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            buffer.clear().limit(bytes);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+            int read = (numberVariables == 0) ? 0 : buffer.remaining() / (numberVariables * Double.BYTES);
+            buffer.asDoubleBuffer().get(points, 0, read * numberVariables);
+            return read;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+    
+    private static class CsvValueWriter implements ValueWriter {
+        private final PrintWriter writer;
+        
+        CsvValueWriter(String fileName) throws IOException {
+            BufferedWriter buffered = Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8);
+            writer = new PrintWriter(buffered);
+            writer.println("value,lower,upper");
+        }
+        
+        @Override
+        public void write(double[] values, int numberPoints) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            for (int point = 0; point < numberPoints; point++) {
+                sb.setLength(0);
+                sb.append(values[3 * point]).append(COMMA)
+                    .append(values[3 * point + 1]).append(COMMA)
+                    .append(values[3 * point + 2]);
+                writer.println(sb);
+            }
+            if (writer.checkError()) {
+                throw new IOException("Failed to write the values");
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+    
+    private static class BinaryValueWriter implements ValueWriter {
+        private final FileChannel channel;
+        private ByteBuffer buffer = null;
+        
+        BinaryValueWriter(String fileName) throws IOException {
+            channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        
+        @Override
+        public void write(double[] values, int numberPoints) throws IOException {
+            int bytes = 3 * numberPoints * Double.BYTES;
+            if (buffer == null || buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            buffer.clear();
+            buffer.asDoubleBuffer().put(values, 0, 3 * numberPoints);
+            buffer.limit(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+/**
+ * Surrogate package of the PAC-based Parametric Model Analyzer. This package 
+ * contains classes to save the learned approximations as compact artefacts
+ * and to evaluate them on large sets of points, outside of the analysis.
+ * 
+ * @author Andrea Turrini
+ */
+package pacpma.surrogate;
@@ -0,0 +1,96 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs an action over the blocks of a range of indices, in parallel through
+ * the common fork/join pool.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class ParallelBlocks {
+    
+    /**
+     * An action applied to the block of indices {@code [from, to)}.
+     */
+    @FunctionalInterface
+    public interface BlockAction {
+        void apply(int from, int to);
+    }
+    
+    private ParallelBlocks() {}
+    
+    /**
+     * Applies the action to blocks of at most {@code blockSize} indices
+     * covering {@code [0, size)}; blocks are processed in parallel and this
+     * method returns when all of them have been processed.
+     * 
+     * @param size
+     *            the number of indices
+     * @param blockSize
+     *            the maximum size of a block
+     * @param action
+     *            the action to apply to each block
+     */
+    public static void run(int size, int blockSize, BlockAction action) {
+        if (size <= blockSize) {
+            if (size > 0) {
+                action.apply(0, size);
+            }
+        } else {
+            ForkJoinPool.commonPool().invoke(new BlockTask(0, size, blockSize, action));
+        }
+    }
+    
+    private static class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final int from;
+        private final int to;
+        private final int blockSize;
+        private final BlockAction action;
+        
+        BlockTask(int from, int to, int blockSize, BlockAction action) {
+            this.from = from;
+            this.to = to;
+            this.blockSize = blockSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= blockSize) {
+                action.apply(from, to);
+            } else {
+                // split on a block boundary
+                int middle = from + ((to - from) / blockSize / 2) * blockSize;
+                if (middle == from) {
+                    middle += blockSize;
+                }
+                invokeAll(new BlockTask(from, middle, blockSize, action), new BlockTask(middle, to, blockSize, action));
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The implementation of {@link VectorKernels} through the Vector API. This
+ * class must be loaded only when the {@code jdk.incubator.vector} module is
+ * available.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+class SimdKernels {
+    private final static VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    
+    private SimdKernels() {}
+    
+    static void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] result, int resultOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+            va.mul(vb).intoArray(result, resultOffset + i);
+        }
+        for (; i < length; i++) {
+            result[resultOffset + i] = a[aOffset + i] * b[bOffset + i];
+        }
+    }
+    
+    static void add(double[] a, int aOffset, double[] b, int bOffset, double[] result, int resultOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+            va.add(vb).intoArray(result, resultOffset + i);
+        }
+        for (; i < length; i++) {
+            result[resultOffset + i] = a[aOffset + i] + b[bOffset + i];
+        }
+    }
+    
+    static void subtract(double[] a, int aOffset, double[] b, int bOffset, double[] result, int resultOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+            va.sub(vb).intoArray(result, resultOffset + i);
+        }
+        for (; i < length; i++) {
+            result[resultOffset + i] = a[aOffset + i] - b[bOffset + i];
+        }
+    }
+    
+    static void divide(double[] a, int aOffset, double[] b, int bOffset, double[] result, int resultOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+            va.div(vb).intoArray(result, resultOffset + i);
+        }
+        for (; i < length; i++) {
+            result[resultOffset + i] = a[aOffset + i] / b[bOffset + i];
+        }
+    }
+    
+    static void negate(double[] a, int aOffset, double[] result, int resultOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + i).neg().intoArray(result, resultOffset + i);
+        }
+        for (; i < length; i++) {
+            result[resultOffset + i] = -a[aOffset + i];
+        }
+    }
+    
+    static void affine(double[] x, int xOffset, double scale, double offset, double[] result, int resultOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        DoubleVector vscale = DoubleVector.broadcast(SPECIES, scale);
+        DoubleVector voffset = DoubleVector.broadcast(SPECIES, offset);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector vx = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+            vx.mul(vscale).add(voffset).intoArray(result, resultOffset + i);
+        }
+        for (; i < length; i++) {
+            result[resultOffset + i] = x[xOffset + i] * scale + offset;
+        }
+    }
+    
+    static void recurrence(double scale, double[] t, int tOffset, double[] p, int pOffset, double shift, double[] q, int qOffset, double[] result, int resultOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector vt = DoubleVector.fromArray(SPECIES, t, tOffset + i);
+            DoubleVector vp = DoubleVector.fromArray(SPECIES, p, pOffset + i);
+            DoubleVector vq = DoubleVector.fromArray(SPECIES, q, qOffset + i);
+            vt.mul(scale).mul(vp).sub(vq.mul(shift)).intoArray(result, resultOffset + i);
+        }
+        for (; i < length; i++) {
+            result[resultOffset + i] = scale * t[tOffset + i] * p[pOffset + i] - shift * q[qOffset + i];
+        }
+    }
+    
+    static void sqrt(double[] a, int aOffset, double[] result, int resultOffset, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, aOffset + i).lanewise(VectorOperators.SQRT).intoArray(result, resultOffset + i);
+        }
+        for (; i < length; i++) {
+            result[resultOffset + i] = Math.sqrt(a[aOffset + i]);
+        }
+    }
+}
@@ -164,6 +164,101 @@ public class Util {
         return (int) Math.ceil((2 / epsilon) * (Math.log(1 / eta) + coefficients));
     }
     
+    /**
+     * Computes the a-posteriori error rate of a scenario program solved on
+     * {@code numberSamples} samples, given the size of a compression set of 
+     * its solution, according to the risk-and-complexity bound (Garatti and
+     * Campi, 2022): {@code ε(k) = 1 - t}, where {@code t} is the solution in 
+     * (0, 1) of
+     * {@code η / N · Σ_{m=k..N-1} C(m, k) t^(m - k) = C(N, k) t^(N - k)}.
+     * Unlike the wait-and-judge bound, it holds also for degenerate problems,
+     * whose compression sets can be smaller than the number of variables.
+     * The solution is found by bisection; {@code ε(k)} is rounded upwards.
+     * 
+     * @param numberSamples
+     *            the number {@code N} of samples
+     * @param supportConstraints
+     *            the size {@code k} of the compression set
+     * @param eta
+     *            the significance level
+     * @return the error rate guaranteed with confidence {@code 1 - eta}
+     */
+    public static double aPosterioriEpsilon(int numberSamples, int supportConstraints, double eta) {
+        assert eta > 0;
+        assert supportConstraints >= 0;
+        
+        if (supportConstraints >= numberSamples) {
+            return 1.0;
+        }
+        double low = 0.0;
+        double high = 1.0;
+        for (int iteration = 0; iteration < 64; iteration++) {
+            double middle = (low + high) / 2;
+            if (exceedsRiskThreshold(numberSamples, supportConstraints, eta, middle)) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return 1.0 - low;
+    }
+    
+    /**
+     * Checks whether {@code Σ_{m=k..N-1} C(m, k) / C(N, k) · t^(m - N)}, 
+     * decreasing in {@code t}, exceeds {@code N / η}; the terms are computed
+     * from {@code m = N - 1} downwards, so that they do not overflow before
+     * the threshold is exceeded.
+     */
+    private static boolean exceedsRiskThreshold(int numberSamples, int supportConstraints, double eta, double t) {
+        double threshold = numberSamples / eta;
+        // the term for m = N, not part of the sum
+        double term = 1.0;
+        double sum = 0.0;
+        for (int m = numberSamples; m > supportConstraints; m--) {
+            term = term * (m - supportConstraints) / (m * t);
+            sum += term;
+            if (sum > threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Computes the minimum number of samples in {@code [minimum, maximum]} for
+     * which {@link #aPosterioriEpsilon(int, int, double)} does not exceed
+     * {@code epsilon}, assuming that the size of the compression set does 
+     * not change.
+     * 
+     * @param supportConstraints
+     *            the size of the compression set
+     * @param epsilon
+     *            the error rate
+     * @param eta
+     *            the significance level
+     * @param minimum
+     *            the minimum number of samples
+     * @param maximum
+     *            the maximum number of samples
+     * @return the number of samples, or {@code maximum} if even 
+     *         {@code maximum} samples are not enough
+     */
+    public static int aPosterioriNumberSamples(int supportConstraints, double epsilon, double eta, int minimum, int maximum) {
+        assert minimum <= maximum;
+        
+        int low = minimum;
+        int high = maximum;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (aPosterioriEpsilon(middle, supportConstraints, eta) <= epsilon) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+    
     
     /**
      * Formats the given constants as a pretty string to be printed
@@ -0,0 +1,169 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.util;
+
+/**
+ * Element-wise operations on slices of double arrays, used by the bulk
+ * evaluation of template functions. When the {@code jdk.incubator.vector}
+ * module is available (e.g., the JVM has been started with
+ * {@code --add-modules jdk.incubator.vector}), the operations are executed
+ * with SIMD instructions through the Vector API; otherwise plain loops are
+ * used.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class VectorKernels {
+    private final static boolean IS_VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    
+    private VectorKernels() {}
+    
+    /**
+     * @return whether the operations are executed through the Vector API
+     */
+    public static boolean isVectorized() {
+        return IS_VECTORIZED;
+    }
+    
+    /**
+     * Computes {@code result[resultOffset + i] = a[aOffset + i] * b[bOffset + i]}
+     * for {@code 0 ≤ i < length}.
+     */
+    public static void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] result, int resultOffset, int length) {
+        if (IS_VECTORIZED) {
+            SimdKernels.multiply(a, aOffset, b, bOffset, result, resultOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = a[aOffset + i] * b[bOffset + i];
+            }
+        }
+    }
+    
+    /**
+     * Computes {@code result[resultOffset + i] = a[aOffset + i] + b[bOffset + i]}
+     * for {@code 0 ≤ i < length}.
+     */
+    public static void add(double[] a, int aOffset, double[] b, int bOffset, double[] result, int resultOffset, int length) {
+        if (IS_VECTORIZED) {
+            SimdKernels.add(a, aOffset, b, bOffset, result, resultOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = a[aOffset + i] + b[bOffset + i];
+            }
+        }
+    }
+    
+    /**
+     * Computes {@code result[resultOffset + i] = a[aOffset + i] - b[bOffset + i]}
+     * for {@code 0 ≤ i < length}.
+     */
+    public static void subtract(double[] a, int aOffset, double[] b, int bOffset, double[] result, int resultOffset, int length) {
+        if (IS_VECTORIZED) {
+            SimdKernels.subtract(a, aOffset, b, bOffset, result, resultOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = a[aOffset + i] - b[bOffset + i];
+            }
+        }
+    }
+    
+    /**
+     * Computes {@code result[resultOffset + i] = a[aOffset + i] / b[bOffset + i]}
+     * for {@code 0 ≤ i < length}.
+     */
+    public static void divide(double[] a, int aOffset, double[] b, int bOffset, double[] result, int resultOffset, int length) {
+        if (IS_VECTORIZED) {
+            SimdKernels.divide(a, aOffset, b, bOffset, result, resultOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = a[aOffset + i] / b[bOffset + i];
+            }
+        }
+    }
+    
+    /**
+     * Computes {@code result[resultOffset + i] = -a[aOffset + i]}
+     * for {@code 0 ≤ i < length}.
+     */
+    public static void negate(double[] a, int aOffset, double[] result, int resultOffset, int length) {
+        if (IS_VECTORIZED) {
+            SimdKernels.negate(a, aOffset, result, resultOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = -a[aOffset + i];
+            }
+        }
+    }
+    
+    /**
+     * Computes {@code result[resultOffset + i] = x[xOffset + i] * scale + offset}
+     * for {@code 0 ≤ i < length}.
+     */
+    public static void affine(double[] x, int xOffset, double scale, double offset, double[] result, int resultOffset, int length) {
+        if (IS_VECTORIZED) {
+            SimdKernels.affine(x, xOffset, scale, offset, result, resultOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = x[xOffset + i] * scale + offset;
+            }
+        }
+    }
+    
+    /**
+     * Computes one step of a three-term recurrence,
+     * {@code result[resultOffset + i] = scale * t[tOffset + i] * p[pOffset + i] - shift * q[qOffset + i]}
+     * for {@code 0 ≤ i < length}.
+     */
+    public static void recurrence(double scale, double[] t, int tOffset, double[] p, int pOffset, double shift, double[] q, int qOffset, double[] result, int resultOffset, int length) {
+        if (IS_VECTORIZED) {
+            SimdKernels.recurrence(scale, t, tOffset, p, pOffset, shift, q, qOffset, result, resultOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = scale * t[tOffset + i] * p[pOffset + i] - shift * q[qOffset + i];
+            }
+        }
+    }
+    
+    /**
+     * Computes {@code result[resultOffset + i] = sqrt(a[aOffset + i])}
+     * for {@code 0 ≤ i < length}.
+     */
+    public static void sqrt(double[] a, int aOffset, double[] result, int resultOffset, int length) {
+        if (IS_VECTORIZED) {
+            SimdKernels.sqrt(a, aOffset, result, resultOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[resultOffset + i] = Math.sqrt(a[aOffset + i]);
+            }
+        }
+    }
+    
+    /**
+     * Computes {@code result[resultOffset + i] = ceil(a[aOffset + i])}
+     * for {@code 0 ≤ i < length}; the Vector API has no ceiling operation, so
+     * this is always a plain loop.
+     */
+    public static void ceil(double[] a, int aOffset, double[] result, int resultOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            result[resultOffset + i] = Math.ceil(a[aOffset + i]);
+        }
+    }
+}
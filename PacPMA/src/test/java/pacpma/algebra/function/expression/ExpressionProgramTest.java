@@ -0,0 +1,164 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.function.expression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import pacpma.algebra.Variable;
+import pacpma.algebra.function.parser.ExpressionParser;
+import pacpma.options.OptionsPacPMA;
+
+/**
+ * Tests of {@link ExpressionProgram}: sharing and folding of the 
+ * instructions, and agreement of the evaluation in double precision, both
+ * compiled and interpreted, with the evaluation in {@link BigDecimal}.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class ExpressionProgramTest {
+    private static final String TERMS = "p, q, p*q, q*p + 1, (p - q)/(1 + q*q), sqrt(p + q) * p, ceil(3*p) - q, -p/3";
+    
+    @BeforeAll
+    public static void setUp() {
+        OptionsPacPMA.parseOptions(new String[] {"-f", "model.pm", "-p", "P=? [F \"a\"]", "-P", "p=0:1,q=0:2"});
+        if (Variable.getVariables().isEmpty()) {
+            Variable.setVariables(OptionsPacPMA.getParameters());
+        }
+    }
+    
+    private static ExpressionProgram program(String terms) {
+        return new ExpressionProgram(new ExpressionParser(new StringReader(terms)).parseTerms());
+    }
+    
+    @Test
+    public void sharesCommonSubexpressions() {
+        ExpressionProgram program = program("p*q, q*p, p*q + 1, 1 + q*p");
+        int[] outputs = program.getOutputs();
+        assertEquals(outputs[0], outputs[1]);
+        assertEquals(outputs[2], outputs[3]);
+        // p, q, p*q, 1, p*q + 1
+        assertEquals(5, program.size());
+        assertEquals(16, program.getNumberNodes());
+    }
+    
+    @Test
+    public void foldsConstants() {
+        ExpressionProgram program = program("(1 + 3)/8 * 2, sqrt(4) * p, ceil(2.5) - 3, 1/0 + p");
+        int[] outputs = program.getOutputs();
+        assertEquals(ExpressionProgram.CONSTANT, program.getOperation(outputs[0]));
+        assertEquals(1.0, program.getConstantValue(outputs[0]));
+        assertEquals(ExpressionProgram.TIMES, program.getOperation(outputs[1]));
+        assertEquals(2.0, program.getConstantValue(program.getFirstOperand(outputs[1])));
+        assertEquals(ExpressionProgram.CONSTANT, program.getOperation(outputs[2]));
+        assertEquals(0.0, program.getConstantValue(outputs[2]));
+        // the division by zero is not folded
+        assertEquals(ExpressionProgram.PLUS, program.getOperation(outputs[3]));
+    }
+    
+    @Test
+    public void doubleAgreesWithBigDecimal() {
+        ExpressionProgram program = program(TERMS);
+        assertTrue(program.isCompiled());
+        Random random = new Random(11);
+        for (int point = 0; point < 1000; point++) {
+            double p = random.nextDouble();
+            double q = 2 * random.nextDouble();
+            double[] values = program.evaluate(new double[] {p, q});
+            BigDecimal[] expected = program.evaluate(new BigDecimal[] {new BigDecimal(p), new BigDecimal(q)});
+            for (int index = 0; index < values.length; index++) {
+                assertEquals(expected[index].doubleValue(), values[index], 1e-9 * Math.max(1.0, Math.abs(values[index])));
+            }
+        }
+    }
+    
+    @Test
+    public void compiledAgreesWithInterpreted() {
+        ExpressionProgram compiled = program(TERMS);
+        // too many outputs to be compiled
+        ExpressionProgram interpreted = program(TERMS + ", " + TERMS);
+        assertTrue(compiled.isCompiled());
+        assertFalse(interpreted.isCompiled());
+        
+        int numberTerms = TERMS.split(",").length;
+        int numberSamples = 1000;
+        double[] samples = new double[2 * numberSamples];
+        Random random = new Random(13);
+        for (int sample = 0; sample < numberSamples; sample++) {
+            samples[sample] = random.nextDouble();
+            samples[numberSamples + sample] = 2 * random.nextDouble();
+        }
+        int from = 17;
+        int to = 901;
+        double[] compiledResults = new double[numberTerms * numberSamples];
+        double[] interpretedResults = new double[2 * numberTerms * numberSamples];
+        compiled.evaluate(samples, numberSamples, from, to, compiledResults);
+        interpreted.evaluate(samples, numberSamples, from, to, interpretedResults);
+        for (int index = 0; index < numberTerms; index++) {
+            for (int sample = 0; sample < numberSamples; sample++) {
+                double value = compiledResults[index * numberSamples + sample];
+                if (sample < from || sample >= to) {
+                    assertEquals(0.0, value);
+                } else {
+                    assertEquals(value, interpretedResults[index * numberSamples + sample]);
+                    assertEquals(value, interpretedResults[(index + numberTerms) * numberSamples + sample]);
+                }
+            }
+        }
+        assertEquals(to - from, compiled.getNumberEvaluations());
+    }
+    
+    @Test
+    public void fallsBackOnCancellation() {
+        String terms = "(p + 100000000000000000000) - 100000000000000000000";
+        ExpressionProgram compiled = program(terms);
+        ExpressionProgram interpreted = program(terms + ", p, p, p, p, p, p, p, p, p, p, p, q*q");
+        assertTrue(compiled.isCompiled());
+        assertFalse(interpreted.isCompiled());
+        for (ExpressionProgram program : new ExpressionProgram[] {compiled, interpreted}) {
+            assertNotEquals(0.3, (0.3 + 1e20) - 1e20);
+            assertEquals(0.3, program.evaluate(new double[] {0.3, 1.0})[0]);
+            assertEquals(1, program.getNumberFallbacks());
+        }
+        
+        // no fallback when the double values are accurate
+        ExpressionProgram accurate = program(TERMS);
+        accurate.evaluate(new double[] {0.3, 1.0});
+        assertEquals(1, accurate.getNumberEvaluations());
+        assertEquals(0, accurate.getNumberFallbacks());
+    }
+    
+    @Test
+    public void rejectsUndefinedIdentifiers() {
+        assertThrows(UnsupportedOperationException.class, () -> program("p * r"));
+    }
+}
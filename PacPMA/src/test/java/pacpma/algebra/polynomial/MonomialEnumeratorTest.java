@@ -0,0 +1,133 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.polynomial;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link MonomialEnumerator} against the explicit list of the 
+ * monomials sorted in graded lexicographic order.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class MonomialEnumeratorTest {
+    /** graded lexicographic order: by degree, then by decreasing exponents */
+    private static final Comparator<int[]> GRADED_LEX = (first, second) -> {
+        int difference = degree(first) - degree(second);
+        for (int var = 0; difference == 0 && var < first.length; var++) {
+            difference = second[var] - first[var];
+        }
+        return difference;
+    };
+    
+    @Test
+    public void twoVariablesDegreeTwo() {
+        MonomialEnumerator enumerator = new MonomialEnumerator(2, 2);
+        int[][] expected = {{0, 0}, {1, 0}, {0, 1}, {2, 0}, {1, 1}, {0, 2}};
+        assertEquals(expected.length, enumerator.size());
+        int[] exponents = new int[2];
+        for (int index = 0; index < expected.length; index++) {
+            enumerator.unrank(index, exponents);
+            assertArrayEquals(expected[index], exponents);
+            assertEquals(index, enumerator.rank(expected[index]));
+        }
+    }
+    
+    @Test
+    public void matchesTheSortedMonomials() {
+        for (int numberVariables = 1; numberVariables <= 4; numberVariables++) {
+            for (int maximumDegree = 0; maximumDegree <= 5; maximumDegree++) {
+                List<int[]> monomials = new ArrayList<>();
+                collect(new int[numberVariables], 0, maximumDegree, monomials);
+                monomials.sort(GRADED_LEX);
+                
+                MonomialEnumerator enumerator = new MonomialEnumerator(numberVariables, maximumDegree);
+                assertEquals(monomials.size(), enumerator.size());
+                int[] exponents = new int[numberVariables];
+                int[] iterated = new int[numberVariables];
+                for (int index = 0; index < monomials.size(); index++) {
+                    assertEquals(index, enumerator.rank(monomials.get(index)));
+                    enumerator.unrank(index, exponents);
+                    assertArrayEquals(monomials.get(index), exponents);
+                    assertArrayEquals(monomials.get(index), iterated);
+                    assertEquals(index < monomials.size() - 1, enumerator.next(iterated));
+                }
+                assertArrayEquals(monomials.get(monomials.size() - 1), iterated);
+            }
+        }
+    }
+    
+    @Test
+    public void noVariables() {
+        MonomialEnumerator enumerator = new MonomialEnumerator(0, 3);
+        assertEquals(1, enumerator.size());
+        assertEquals(0, enumerator.rank(new int[0]));
+        assertFalse(enumerator.next(new int[0]));
+    }
+    
+    @Test
+    public void rankRoundTripOnLargeEnumeration() {
+        MonomialEnumerator enumerator = new MonomialEnumerator(12, 8);
+        assertEquals(125970, enumerator.size());
+        int[] exponents = new int[12];
+        for (int index = 0; index < enumerator.size(); index += 97) {
+            enumerator.unrank(index, exponents);
+            assertTrue(degree(exponents) <= 8);
+            assertEquals(index, enumerator.rank(exponents));
+        }
+    }
+    
+    @Test
+    public void tooManyMonomials() {
+        assertThrows(ArithmeticException.class, () -> new MonomialEnumerator(40, 40));
+    }
+    
+    private static int degree(int[] exponents) {
+        int degree = 0;
+        for (int exponent : exponents) {
+            degree += exponent;
+        }
+        return degree;
+    }
+    
+    private static void collect(int[] exponents, int var, int remaining, List<int[]> monomials) {
+        if (var == exponents.length) {
+            monomials.add(exponents.clone());
+            return;
+        }
+        for (int exponent = 0; exponent <= remaining; exponent++) {
+            exponents[var] = exponent;
+            collect(exponents, var + 1, remaining - exponent, monomials);
+        }
+        exponents[var] = 0;
+    }
+}
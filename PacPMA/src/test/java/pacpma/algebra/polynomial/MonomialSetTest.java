@@ -0,0 +1,151 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.polynomial;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link MonomialSet}: the pruned sets are compared with the 
+ * complete set filtered monomial by monomial.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class MonomialSetTest {
+    private static final int VARIABLES = 4;
+    private static final int DEGREE = 6;
+    
+    @Test
+    public void totalDegreeIndexing() {
+        MonomialSet set = MonomialSet.totalDegree(VARIABLES, DEGREE);
+        assertEquals(210, set.size());
+        checkIndexing(set, monomial -> true);
+        assertEquals(-1, set.indexOf(new int[] {DEGREE, 1, 0, 0}));
+    }
+    
+    @Test
+    public void hyperbolicCross() {
+        MonomialSet set = MonomialSet.pruned(VARIABLES, DEGREE, true, VARIABLES, null);
+        checkIndexing(set, monomial -> {
+            int product = 1;
+            for (int exponent : monomial) {
+                product *= exponent + 1;
+            }
+            return product <= DEGREE + 1;
+        });
+    }
+    
+    @Test
+    public void interactionOrder() {
+        MonomialSet set = MonomialSet.pruned(VARIABLES, DEGREE, false, 2, null);
+        checkIndexing(set, monomial -> {
+            int interactions = 0;
+            for (int exponent : monomial) {
+                interactions += (exponent > 0) ? 1 : 0;
+            }
+            return interactions <= 2;
+        });
+    }
+    
+    @Test
+    public void degreeCaps() {
+        int[] caps = {0, 1, 3, DEGREE + 2};
+        MonomialSet set = MonomialSet.pruned(VARIABLES, DEGREE, false, VARIABLES, caps);
+        checkIndexing(set, monomial -> {
+            for (int var = 0; var < VARIABLES; var++) {
+                if (monomial[var] > caps[var]) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+    
+    @Test
+    public void unrestrictedPruningIsComplete() {
+        MonomialSet set = MonomialSet.pruned(VARIABLES, DEGREE, false, VARIABLES, null);
+        assertEquals(MonomialSet.totalDegree(VARIABLES, DEGREE).size(), set.size());
+        assertSame(set, set.getDivisorClosure());
+    }
+    
+    @Test
+    public void explicitMonomials() {
+        List<int[]> monomials = List.of(new int[] {0, 2}, new int[] {3, 0}, new int[] {0, 2}, new int[] {1, 1});
+        MonomialSet set = MonomialSet.of(2, monomials);
+        assertEquals(3, set.size());
+        assertEquals(3, set.getMaximumDegree());
+        
+        // ordered as in the enumeration: x y, y², x³
+        int[] exponents = new int[2];
+        int[][] expected = {{1, 1}, {0, 2}, {3, 0}};
+        for (int index = 0; index < expected.length; index++) {
+            set.getExponents(index, exponents);
+            assertArrayEquals(expected[index], exponents);
+            assertEquals(index, set.indexOf(expected[index]));
+        }
+        assertTrue(set.indexOf(new int[] {1, 0}) < 0);
+    }
+    
+    @Test
+    public void divisorClosure() {
+        MonomialSet set = MonomialSet.of(2, List.of(new int[] {2, 1}, new int[] {0, 3}));
+        MonomialSet closure = set.getDivisorClosure();
+        // 1, x, y, x², x y, y², x² y, y³
+        assertEquals(8, closure.size());
+        checkIndexing(closure, monomial -> (monomial[0] <= 2 && monomial[1] <= 1) || monomial[0] == 0);
+        assertSame(closure, closure.getDivisorClosure());
+    }
+    
+    /**
+     * Checks that {@code set} contains exactly the monomials up to its 
+     * maximum degree satisfying {@code filter}, indexed in the order of the
+     * enumeration.
+     */
+    private static void checkIndexing(MonomialSet set, Predicate<int[]> filter) {
+        int numberVariables = set.getNumberVariables();
+        MonomialEnumerator enumerator = new MonomialEnumerator(numberVariables, set.getMaximumDegree());
+        List<int[]> expected = new ArrayList<>();
+        int[] exponents = new int[numberVariables];
+        do {
+            if (filter.test(exponents)) {
+                expected.add(exponents.clone());
+            } else {
+                assertTrue(set.indexOf(exponents) < 0);
+            }
+        } while (enumerator.next(exponents));
+        
+        assertEquals(expected.size(), set.size());
+        for (int index = 0; index < expected.size(); index++) {
+            set.getExponents(index, exponents);
+            assertArrayEquals(expected.get(index), exponents);
+            assertEquals(index, set.indexOf(expected.get(index)));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.algebra.polynomial;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link PolynomialBasis}.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class PolynomialBasisTest {
+    private static final int DEGREE = 12;
+    
+    private static final double[] POINTS = {-1.0, -0.93, -0.5, -0.11, 0.0, 0.25, 0.5, 0.77, 1.0};
+    
+    @Test
+    public void chebyshevMatchesTheTrigonometricDefinition() {
+        double[] values = new double[DEGREE + 1];
+        for (double t : POINTS) {
+            PolynomialBasis.CHEBYSHEV.evaluate(t, values);
+            for (int k = 0; k <= DEGREE; k++) {
+                assertEquals(Math.cos(k * Math.acos(t)), values[k], 1e-12, "T_" + k + "(" + t + ")");
+            }
+        }
+    }
+    
+    @Test
+    public void legendreHasTheKnownValues() {
+        double[] values = new double[DEGREE + 1];
+        PolynomialBasis.LEGENDRE.evaluate(1.0, values);
+        for (int k = 0; k <= DEGREE; k++) {
+            assertEquals(1.0, values[k], 1e-12);
+        }
+        PolynomialBasis.LEGENDRE.evaluate(-1.0, values);
+        for (int k = 0; k <= DEGREE; k++) {
+            assertEquals((k % 2 == 0) ? 1.0 : -1.0, values[k], 1e-12);
+        }
+        PolynomialBasis.LEGENDRE.evaluate(0.5, values);
+        assertEquals(-0.125, values[2], 1e-15);
+        assertEquals(-0.4375, values[3], 1e-15);
+    }
+    
+    @Test
+    public void recurrenceMatchesTheMonomialExpansion() {
+        double[] values = new double[DEGREE + 1];
+        for (PolynomialBasis basis : PolynomialBasis.values()) {
+            BigDecimal[][] coefficients = basis.getCoefficients(DEGREE);
+            for (double t : POINTS) {
+                basis.evaluate(t, values);
+                BigDecimal point = new BigDecimal(t);
+                for (int k = 0; k <= DEGREE; k++) {
+                    BigDecimal expected = BigDecimal.ZERO;
+                    for (int j = DEGREE; j >= 0; j--) {
+                        expected = expected.multiply(point).add(coefficients[k][j]);
+                    }
+                    assertEquals(expected.doubleValue(), values[k], 1e-12, basis + " " + k + "(" + t + ")");
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void findsTheBasisByName() {
+        for (PolynomialBasis basis : PolynomialBasis.values()) {
+            assertEquals(basis, PolynomialBasis.fromName(basis.getName()));
+        }
+        assertNull(PolynomialBasis.fromName("bernstein"));
+    }
+}
@@ -0,0 +1,162 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.approach.lipo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link LipschitzBound} against the brute-force minimum of
+ * y<sub>i</sub> + k ‖x<sub>i</sub> − x‖ over all points, also when many
+ * points coincide and the k-d tree can not split its leaves.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class LipschitzBoundTest {
+    private static final int DIMENSION = 3;
+    private static final double[] CONSTANTS = {0.0, 0.5, 3.0, 100.0};
+    
+    private final List<double[]> points = new ArrayList<>();
+    private final List<Double> values = new ArrayList<>();
+    
+    /**
+     * @return the bound of {@code numberPoints} points: uniform points, 
+     *         points on a coarse grid sharing their coordinates, and copies
+     *         of the same point
+     */
+    private LipschitzBound generate(int numberPoints, long seed) {
+        Random random = new Random(seed);
+        LipschitzBound bound = new LipschitzBound(DIMENSION);
+        for (int i = 0; i < numberPoints; i++) {
+            double[] point = new double[DIMENSION];
+            for (int j = 0; j < DIMENSION; j++) {
+                switch (i % 3) {
+                case 0:
+                    point[j] = random.nextDouble();
+                    break;
+                case 1:
+                    point[j] = random.nextInt(4) / 4.0;
+                    break;
+                default:
+                    point[j] = 0.5;
+                }
+            }
+            double value = Math.sin(5 * point[0]) + point[1] * point[2] + 0.1 * random.nextDouble();
+            bound.add(point, value);
+            points.add(point);
+            values.add(value);
+        }
+        assertEquals(numberPoints, bound.size());
+        return bound;
+    }
+    
+    private double bruteForceUpperBound(double[] point, double k) {
+        double minimum = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < points.size(); i++) {
+            double distance = distance(points.get(i), point);
+            minimum = Math.min(minimum, (distance == 0) ? values.get(i) : values.get(i) + k * distance);
+        }
+        return minimum;
+    }
+    
+    private static double[][] candidates(int numberCandidates, Random random) {
+        double[][] candidates = new double[numberCandidates][DIMENSION];
+        for (double[] candidate : candidates) {
+            for (int j = 0; j < DIMENSION; j++) {
+                candidate[j] = 1.2 * random.nextDouble() - 0.1;
+            }
+        }
+        return candidates;
+    }
+    
+    @Test
+    public void upperBoundMatchesBruteForce() {
+        LipschitzBound bound = generate(3000, 1);
+        Random random = new Random(2);
+        for (double[] candidate : candidates(200, random)) {
+            for (double k : CONSTANTS) {
+                assertEquals(bruteForceUpperBound(candidate, k), bound.upperBound(candidate, k));
+            }
+        }
+        // at an evaluated point, the bound is at most its value
+        for (double k : CONSTANTS) {
+            assertEquals(bruteForceUpperBound(points.get(2), k), bound.upperBound(points.get(2), k));
+            assertTrue(bound.upperBound(points.get(2), k) <= values.get(2));
+        }
+    }
+    
+    @Test
+    public void screensPotentialMaximizers() {
+        for (int numberPoints : new int[] {40, 3000}) {
+            points.clear();
+            values.clear();
+            LipschitzBound bound = generate(numberPoints, numberPoints);
+            double maximum = values.stream().mapToDouble(Double::doubleValue).max().getAsDouble();
+            Random random = new Random(3);
+            for (double k : CONSTANTS) {
+                double[][] candidates = candidates(30, random);
+                int expected = -1;
+                for (int c = 0; c < candidates.length; c++) {
+                    boolean isPotentialMaximizer = bruteForceUpperBound(candidates[c], k) >= maximum;
+                    assertEquals(isPotentialMaximizer, bound.isPotentialMaximizer(candidates[c], k, maximum));
+                    if (isPotentialMaximizer && expected < 0) {
+                        expected = c;
+                    }
+                }
+                assertEquals(expected, bound.firstPotentialMaximizer(candidates, k, maximum));
+            }
+        }
+    }
+    
+    @Test
+    public void maximumSlopeMatchesBruteForce() {
+        LipschitzBound bound = new LipschitzBound(DIMENSION);
+        assertEquals(Double.POSITIVE_INFINITY, bound.upperBound(new double[DIMENSION], 1.0));
+        assertEquals(Double.NEGATIVE_INFINITY, bound.maximumSlope(new double[DIMENSION], 1.0));
+        
+        bound = generate(500, 4);
+        Random random = new Random(5);
+        for (double[] candidate : candidates(50, random)) {
+            double value = random.nextDouble();
+            double expected = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < points.size(); i++) {
+                expected = Math.max(expected, Math.abs(values.get(i) - value) / distance(points.get(i), candidate));
+            }
+            assertEquals(expected, bound.maximumSlope(candidate, value));
+        }
+    }
+    
+    private static double distance(double[] first, double[] second) {
+        double distance2 = 0;
+        for (int j = 0; j < DIMENSION; j++) {
+            double difference = first[j] - second[j];
+            distance2 += difference * difference;
+        }
+        return Math.sqrt(distance2);
+    }
+}
@@ -0,0 +1,179 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.lp.presolve;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import pacpma.lp.ConstraintComparison;
+import pacpma.lp.LPVariable;
+import pacpma.lp.OptimizationDirection;
+import pacpma.lp.solver.LPSolver;
+import pacpma.lp.solver.simplex.SimplexSolver;
+import pacpma.options.OptionsPacPMA;
+
+/**
+ * Tests of {@link Presolver}.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class PresolverTest {
+    private static LPVariable lambda;
+    private static LPVariable c0;
+    private static LPVariable c1;
+    private static List<LPVariable> variables;
+    
+    @BeforeAll
+    public static void setUp() {
+        OptionsPacPMA.parseOptions(new String[] {"-f", "model.pm", "-p", "P=? [F \"a\"]", "-P", "p=0:1"});
+        LPVariable.setVariables(List.of("lambda", "c0", "c1"));
+        lambda = LPVariable.asVariable("lambda");
+        c0 = LPVariable.asVariable("c0");
+        c1 = LPVariable.asVariable("c1");
+        // LPVariable.getVariables() accumulates the variables of all tests
+        variables = List.of(lambda, c0, c1);
+    }
+    
+    /**
+     * A solver recording the constraints it receives.
+     */
+    private static class RecordingSolver implements LPSolver {
+        private final List<Map<LPVariable, BigDecimal>> terms = new ArrayList<>();
+        private final List<ConstraintComparison> comparisons = new ArrayList<>();
+        private final List<BigDecimal> bounds = new ArrayList<>();
+        
+        @Override
+        public void setVariables(List<LPVariable> listOfVariables) {}
+        
+        @Override
+        public void setObjectiveFunction(OptimizationDirection direction, Map<LPVariable, BigDecimal> terms) {}
+        
+        @Override
+        public void addConstraint(Map<LPVariable, BigDecimal> terms, ConstraintComparison comparison, BigDecimal bound) {
+            this.terms.add(terms);
+            comparisons.add(comparison);
+            bounds.add(bound);
+        }
+        
+        @Override
+        public Map<LPVariable, BigDecimal> solve() {
+            return null;
+        }
+        
+        @Override
+        public BigDecimal getLambdaValue() {
+            return null;
+        }
+    }
+    
+    private static Map<LPVariable, BigDecimal> row(String lambdaValue, String c0Value, String c1Value) {
+        Map<LPVariable, BigDecimal> row = new HashMap<>();
+        row.put(lambda, new BigDecimal(lambdaValue));
+        row.put(c0, new BigDecimal(c0Value));
+        row.put(c1, new BigDecimal(c1Value));
+        return row;
+    }
+    
+    @Test
+    public void keepsTheTightestBoundOfEqualLeftHandSides() {
+        Presolver presolver = new Presolver(variables);
+        presolver.addConstraint(row("1", "1", "0.5"), ConstraintComparison.GE, new BigDecimal("0.2"));
+        presolver.addConstraint(row("-1", "1", "0.5"), ConstraintComparison.LE, new BigDecimal("0.2"));
+        // the same sample, with coefficients written with a different scale
+        presolver.addConstraint(row("1.0", "1.00", "0.50"), ConstraintComparison.GE, new BigDecimal("0.3"));
+        presolver.addConstraint(row("-1.0", "1.00", "0.50"), ConstraintComparison.LE, new BigDecimal("0.3"));
+        
+        assertEquals(4, presolver.getReceivedConstraints());
+        assertEquals(2, presolver.getRetainedConstraints());
+        assertEquals(2, presolver.getDominatedConstraints());
+        
+        RecordingSolver solver = new RecordingSolver();
+        presolver.transferConstraints(solver);
+        assertEquals(List.of(ConstraintComparison.GE, ConstraintComparison.LE), solver.comparisons);
+        assertEquals(0, new BigDecimal("0.3").compareTo(solver.bounds.get(0)));
+        assertEquals(0, new BigDecimal("0.2").compareTo(solver.bounds.get(1)));
+    }
+    
+    @Test
+    public void keepsDifferentLeftHandSidesInOrder() {
+        Presolver presolver = new Presolver(variables);
+        presolver.addConstraint(row("1", "1", "0.5"), ConstraintComparison.GE, new BigDecimal("0.2"));
+        presolver.addConstraint(row("1", "1", "0.25"), ConstraintComparison.GE, new BigDecimal("0.1"));
+        // c1 missing: the coefficient is zero
+        Map<LPVariable, BigDecimal> partial = new HashMap<>();
+        partial.put(lambda, BigDecimal.ONE);
+        partial.put(c0, BigDecimal.ONE);
+        presolver.addConstraint(partial, ConstraintComparison.GE, new BigDecimal("0.4"));
+        presolver.addConstraint(row("1", "1", "0"), ConstraintComparison.GE, new BigDecimal("0.5"));
+        
+        assertEquals(3, presolver.getRetainedConstraints());
+        RecordingSolver solver = new RecordingSolver();
+        presolver.transferConstraints(solver);
+        assertEquals(3, solver.terms.size());
+        assertEquals(0, new BigDecimal("0.25").compareTo(solver.terms.get(1).get(c1)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(solver.terms.get(2).get(c1)));
+        assertEquals(0, new BigDecimal("0.5").compareTo(solver.bounds.get(2)));
+    }
+    
+    @Test
+    public void preservesTheOptimum() {
+        // fit c0 + c1 x to samples with repeated points and different results
+        double[] xs = {0.0, 0.5, 0.5, 1.0, 1.0, 1.0, 0.25};
+        double[] ys = {0.1, 0.4, 0.7, 0.9, 1.2, 1.0, 0.3};
+        Presolver presolver = new Presolver(variables);
+        LPSolver full = newSolver();
+        for (int i = 0; i < xs.length; i++) {
+            String x = Double.toString(xs[i]);
+            BigDecimal y = BigDecimal.valueOf(ys[i]);
+            presolver.addConstraint(row("1", "1", x), ConstraintComparison.GE, y);
+            presolver.addConstraint(row("-1", "1", x), ConstraintComparison.LE, y);
+            full.addConstraint(row("1", "1", x), ConstraintComparison.GE, y);
+            full.addConstraint(row("-1", "1", x), ConstraintComparison.LE, y);
+        }
+        assertEquals(8, presolver.getRetainedConstraints());
+        LPSolver presolved = newSolver();
+        presolver.transferConstraints(presolved);
+        
+        full.solve();
+        presolved.solve();
+        assertEquals(full.getLambdaValue().doubleValue(), presolved.getLambdaValue().doubleValue(), 1e-9);
+    }
+    
+    private static LPSolver newSolver() {
+        LPSolver solver = new SimplexSolver();
+        solver.setVariables(variables);
+        Map<LPVariable, BigDecimal> objective = new HashMap<>();
+        objective.put(lambda, BigDecimal.ONE);
+        objective.put(c0, BigDecimal.ZERO);
+        objective.put(c1, BigDecimal.ZERO);
+        solver.setObjectiveFunction(OptimizationDirection.MIN, objective);
+        return solver;
+    }
+}
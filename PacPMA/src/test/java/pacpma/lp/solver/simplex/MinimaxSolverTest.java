@@ -0,0 +1,224 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.lp.solver.simplex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import pacpma.lp.ConstraintComparison;
+import pacpma.lp.LPVariable;
+import pacpma.lp.OptimizationDirection;
+import pacpma.lp.solver.LPSolver;
+import pacpma.options.OptionsPacPMA;
+
+/**
+ * Tests of {@link SimplexSolver} and {@link ExchangeSolver} on minimax 
+ * polynomial fits, against the brute-force minimax error: since the powers
+ * of {@code x} form a Haar system, the minimax error of a fit of degree 
+ * {@code d} on distinct points is the largest levelled error among all 
+ * references of {@code d + 2} points.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class MinimaxSolverTest {
+    private static final int DEGREE = 2;
+    
+    private static List<LPVariable> lpVariables;
+    
+    @BeforeAll
+    public static void setUp() {
+        OptionsPacPMA.parseOptions(new String[] {"-f", "model.pm", "-p", "P=? [F \"a\"]", "-P", "p=0:1"});
+        List<String> names = new ArrayList<>();
+        names.add("lambda");
+        for (int k = 0; k <= DEGREE; k++) {
+            names.add("c" + k);
+        }
+        LPVariable.setVariables(names);
+        // LPVariable.getVariables() accumulates the variables of all tests
+        lpVariables = new ArrayList<>();
+        names.forEach(name -> lpVariables.add(LPVariable.asVariable(name)));
+    }
+    
+    @Test
+    public void simplexFindsTheMinimaxFit() {
+        checkAgainstBruteForce(SimplexSolver::new, 40, 1);
+    }
+    
+    @Test
+    public void exchangeFindsTheMinimaxFit() {
+        checkAgainstBruteForce(ExchangeSolver::new, 40, 2);
+        checkAgainstBruteForce(ExchangeSolver::new, 100, 3);
+    }
+    
+    @Test
+    public void solversAgreeWhenAddingConstraintsIncrementally() {
+        for (Supplier<LPSolver> supplier : List.<Supplier<LPSolver>>of(SimplexSolver::new, ExchangeSolver::new)) {
+            double[][] points = generatePoints(60, 4);
+            LPSolver solver = newSolver(supplier);
+            for (int batch = 20; batch <= 60; batch += 20) {
+                for (int i = batch - 20; i < batch; i++) {
+                    addSample(solver, points[0][i], points[1][i]);
+                }
+                assertNotNull(solver.solve());
+                double expected = bruteForce(points[0], points[1], batch);
+                assertEquals(expected, solver.getLambdaValue().doubleValue(), 1e-9);
+            }
+            solver.dispose();
+        }
+    }
+    
+    private static void checkAgainstBruteForce(Supplier<LPSolver> supplier, int numberPoints, long seed) {
+        double[][] points = generatePoints(numberPoints, seed);
+        LPSolver solver = newSolver(supplier);
+        for (int i = 0; i < numberPoints; i++) {
+            addSample(solver, points[0][i], points[1][i]);
+        }
+        Map<LPVariable, BigDecimal> solution = solver.solve();
+        assertNotNull(solution);
+        double lambda = solver.getLambdaValue().doubleValue();
+        assertEquals(bruteForce(points[0], points[1], numberPoints), lambda, 1e-9);
+        
+        // the coefficients attain λ
+        double maximumError = 0.0;
+        for (int i = 0; i < numberPoints; i++) {
+            double value = 0.0;
+            for (int k = DEGREE; k >= 0; k--) {
+                value = value * points[0][i] + solution.get(lpVariables.get(k + 1)).doubleValue();
+            }
+            maximumError = Math.max(maximumError, Math.abs(value - points[1][i]));
+        }
+        assertEquals(lambda, maximumError, 1e-9);
+        solver.dispose();
+    }
+    
+    /**
+     * @return the sorted abscissas and the ordinates of noisy samples of a 
+     *         smooth function on [0, 1]
+     */
+    private static double[][] generatePoints(int numberPoints, long seed) {
+        Random random = new Random(seed);
+        double[] xs = new double[numberPoints];
+        double[] ys = new double[numberPoints];
+        for (int i = 0; i < numberPoints; i++) {
+            xs[i] = (i + random.nextDouble()) / numberPoints;
+            ys[i] = Math.exp(xs[i]) * Math.sin(3 * xs[i]) + 0.05 * random.nextGaussian();
+        }
+        return new double[][] {xs, ys};
+    }
+    
+    private static LPSolver newSolver(Supplier<LPSolver> supplier) {
+        LPSolver solver = supplier.get();
+        solver.setVariables(lpVariables);
+        Map<LPVariable, BigDecimal> objective = new HashMap<>();
+        lpVariables.forEach(variable -> objective.put(variable, BigDecimal.ZERO));
+        objective.put(lpVariables.get(0), BigDecimal.ONE);
+        solver.setObjectiveFunction(OptimizationDirection.MIN, objective);
+        return solver;
+    }
+    
+    private static void addSample(LPSolver solver, double x, double y) {
+        Map<LPVariable, BigDecimal> constraint = new HashMap<>();
+        for (int k = 0; k <= DEGREE; k++) {
+            constraint.put(lpVariables.get(k + 1), BigDecimal.valueOf(Math.pow(x, k)));
+        }
+        constraint.put(lpVariables.get(0), BigDecimal.ONE);
+        solver.addConstraint(constraint, ConstraintComparison.GE, BigDecimal.valueOf(y));
+        constraint.put(lpVariables.get(0), BigDecimal.ONE.negate());
+        solver.addConstraint(constraint, ConstraintComparison.LE, BigDecimal.valueOf(y));
+    }
+    
+    /**
+     * Computes the minimax error on the first {@code numberPoints} points,
+     * with abscissas sorted increasingly, as the largest levelled error 
+     * |h| of the references of {@code DEGREE + 2} points, where 
+     * Σ c<sub>k</sub> x<sub>i</sub><sup>k</sup> - y<sub>i</sub> = (-1)<sup>i</sup> h 
+     * on the reference.
+     */
+    private static double bruteForce(double[] xs, double[] ys, int numberPoints) {
+        int size = DEGREE + 2;
+        int[] reference = new int[size];
+        for (int i = 0; i < size; i++) {
+            reference[i] = i;
+        }
+        double maximum = 0.0;
+        while (true) {
+            maximum = Math.max(maximum, Math.abs(levelledError(xs, ys, reference)));
+            // next combination in lexicographic order
+            int position = size - 1;
+            while (position >= 0 && reference[position] == numberPoints - size + position) {
+                position--;
+            }
+            if (position < 0) {
+                return maximum;
+            }
+            reference[position]++;
+            for (int i = position + 1; i < size; i++) {
+                reference[i] = reference[i - 1] + 1;
+            }
+        }
+    }
+    
+    private static double levelledError(double[] xs, double[] ys, int[] reference) {
+        int size = reference.length;
+        // unknowns c_0, ..., c_DEGREE, h
+        double[][] matrix = new double[size][size + 1];
+        for (int row = 0; row < size; row++) {
+            double x = xs[reference[row]];
+            for (int k = 0; k <= DEGREE; k++) {
+                matrix[row][k] = Math.pow(x, k);
+            }
+            matrix[row][size - 1] = (row % 2 == 0) ? -1.0 : 1.0;
+            matrix[row][size] = ys[reference[row]];
+        }
+        for (int column = 0; column < size; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < size; row++) {
+                if (Math.abs(matrix[row][column]) > Math.abs(matrix[pivot][column])) {
+                    pivot = row;
+                }
+            }
+            double[] swap = matrix[column];
+            matrix[column] = matrix[pivot];
+            matrix[pivot] = swap;
+            for (int row = 0; row < size; row++) {
+                if (row != column) {
+                    double factor = matrix[row][column] / matrix[column][column];
+                    for (int j = column; j <= size; j++) {
+                        matrix[row][j] -= factor * matrix[column][j];
+                    }
+                }
+            }
+        }
+        return matrix[size - 1][size] / matrix[size - 1][size - 1];
+    }
+}
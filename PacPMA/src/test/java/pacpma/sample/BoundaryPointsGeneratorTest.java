@@ -0,0 +1,146 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.sample;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import pacpma.algebra.Parameter;
+import pacpma.options.OptionsPacPMA;
+
+/**
+ * Tests of {@link BoundaryPointsGenerator}: the samples computed from their
+ * indices are the vertices of the hypercube, in Gray-code order, followed by 
+ * the points in the interior of the edges, each taken once.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class BoundaryPointsGeneratorTest {
+    private static final int BOUNDARY_POINTS = 2;
+    private static final List<Parameter> PARAMETERS = List.of(
+            new Parameter("p", BigDecimal.ZERO, BigDecimal.ONE),
+            new Parameter("q", new BigDecimal("-3"), new BigDecimal("3")),
+            new Parameter("r", new BigDecimal("0.25"), new BigDecimal("1.75")));
+    
+    @BeforeAll
+    public static void setUp() {
+        OptionsPacPMA.parseOptions(new String[] {"-f", "model.pm", "-p", "P=? [F \"a\"]", "-P", "p=0:1", 
+                "-b", String.valueOf(BOUNDARY_POINTS), "-V"});
+        assertEquals(BOUNDARY_POINTS, OptionsPacPMA.getBoundaryPoints());
+    }
+    
+    private static List<double[]> generate(int from, int to) {
+        List<double[]> samples = new ArrayList<>();
+        new BoundaryPointsGenerator().spliterator(PARAMETERS, from, to).forEachRemaining(samples::add);
+        return samples;
+    }
+    
+    @Test
+    public void countsVerticesAndEdgePoints() {
+        // 8 vertices, 12 edges with 2 points each
+        assertEquals(8 + 12 * BOUNDARY_POINTS, new BoundaryPointsGenerator().getNumberSamples(PARAMETERS));
+        assertEquals(2 + BOUNDARY_POINTS, new BoundaryPointsGenerator().getNumberSamples(PARAMETERS.subList(0, 1)));
+    }
+    
+    @Test
+    public void verticesFollowTheGrayCode() {
+        List<double[]> vertices = generate(0, 8);
+        assertArrayEquals(new double[] {0, -3, 0.25}, vertices.get(0));
+        Set<List<Double>> distinct = new HashSet<>();
+        for (int index = 0; index < vertices.size(); index++) {
+            double[] vertex = vertices.get(index);
+            for (int p = 0; p < vertex.length; p++) {
+                assertTrue(vertex[p] == lowerbound(p) || vertex[p] == upperbound(p));
+            }
+            distinct.add(asList(vertex));
+            if (index > 0) {
+                int changed = 0;
+                for (int p = 0; p < vertex.length; p++) {
+                    changed += (vertex[p] != vertices.get(index - 1)[p]) ? 1 : 0;
+                }
+                assertEquals(1, changed);
+            }
+        }
+        assertEquals(8, distinct.size());
+    }
+    
+    @Test
+    public void edgePointsCoverEachEdgeOnce() {
+        int numberSamples = new BoundaryPointsGenerator().getNumberSamples(PARAMETERS);
+        Set<List<Double>> expected = new HashSet<>();
+        for (int varying = 0; varying < PARAMETERS.size(); varying++) {
+            for (int others = 0; others < 4; others++) {
+                for (int point = 1; point <= BOUNDARY_POINTS; point++) {
+                    double[] values = new double[PARAMETERS.size()];
+                    int bit = 0;
+                    for (int p = 0; p < values.length; p++) {
+                        if (p == varying) {
+                            values[p] = lowerbound(p) + (upperbound(p) - lowerbound(p)) * point / (BOUNDARY_POINTS + 1);
+                        } else {
+                            values[p] = ((others >>> bit++) & 1) == 0 ? lowerbound(p) : upperbound(p);
+                        }
+                    }
+                    expected.add(asList(values));
+                }
+            }
+        }
+        Set<List<Double>> generated = new HashSet<>();
+        generate(8, numberSamples).forEach(values -> generated.add(asList(values)));
+        assertEquals(expected, generated);
+    }
+    
+    @Test
+    public void samplesDependOnlyOnTheirIndex() {
+        int numberSamples = new BoundaryPointsGenerator().getNumberSamples(PARAMETERS);
+        List<double[]> all = generate(0, numberSamples);
+        for (int from = 0; from < numberSamples; from += 5) {
+            int to = Math.min(from + 7, numberSamples);
+            List<double[]> range = generate(from, to);
+            for (int index = from; index < to; index++) {
+                assertArrayEquals(all.get(index), range.get(index - from));
+            }
+        }
+    }
+    
+    private static double lowerbound(int parameter) {
+        return PARAMETERS.get(parameter).getLowerbound().doubleValue();
+    }
+    
+    private static double upperbound(int parameter) {
+        return PARAMETERS.get(parameter).getUpperbound().doubleValue();
+    }
+    
+    private static List<Double> asList(double[] values) {
+        return Arrays.asList(Arrays.stream(values).boxed().toArray(Double[]::new));
+    }
+}
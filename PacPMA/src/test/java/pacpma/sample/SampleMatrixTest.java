@@ -0,0 +1,149 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.sample;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+import pacpma.algebra.Constant;
+import pacpma.algebra.Parameter;
+
+/**
+ * Tests of {@link SampleMatrix}: the views of the samples agree with the
+ * values they have been added with, also after the matrix has grown.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class SampleMatrixTest {
+    private static final List<Parameter> PARAMETERS = List.of(
+            new Parameter("p", BigDecimal.ZERO, BigDecimal.ONE),
+            new Parameter("q", BigDecimal.ONE, BigDecimal.TEN));
+    
+    /**
+     * @return a matrix with {@code numberSamples} samples, the sample 
+     *         {@code i} being ({@code i}/1000, 1 + {@code i}/100); the 
+     *         initial capacity is small, so the matrix has to grow
+     */
+    private static SampleMatrix matrix(int numberSamples) {
+        SampleMatrix samples = new SampleMatrix(PARAMETERS, 1);
+        for (int sample = 0; sample < numberSamples; sample++) {
+            assertEquals(sample, samples.addSample(sample / 1000.0, 1 + sample / 100.0));
+        }
+        return samples;
+    }
+    
+    @Test
+    public void addsAndReservesSamples() {
+        SampleMatrix samples = matrix(100);
+        assertEquals(100, samples.size());
+        assertEquals(2, samples.getNumberParameters());
+        assertEquals(0.042, samples.get(42, 0));
+        assertEquals(1.42, samples.get(42, 1));
+        
+        int first = samples.addSamples(50);
+        assertEquals(100, first);
+        assertEquals(150, samples.size());
+        samples.setSample(120, 0.5, 5.0);
+        assertEquals(0.5, samples.get(120, 0));
+        assertEquals(5.0, samples.get(120, 1));
+        assertEquals(0.099, samples.get(99, 0));
+    }
+    
+    @Test
+    public void addsAllSamplesOfAnotherMatrix() {
+        SampleMatrix samples = matrix(10);
+        samples.addAll(matrix(30));
+        assertEquals(40, samples.size());
+        assertEquals(0.009, samples.get(9, 0));
+        assertEquals(0.0, samples.get(10, 0));
+        assertEquals(1.29, samples.get(39, 1));
+    }
+    
+    @Test
+    public void convertsToColumnMajor() {
+        SampleMatrix samples = matrix(20);
+        double[] all = samples.toColumnMajor();
+        assertEquals(40, all.length);
+        assertEquals(0.007, all[7]);
+        assertEquals(1.07, all[20 + 7]);
+        
+        double[] range = samples.toColumnMajor(5, 8);
+        assertArrayEquals(new double[] {0.005, 0.006, 0.007, 1.05, 1.06, 1.07}, range);
+        assertArrayEquals(samples.toColumnMajor(0, 12), samples.toColumnMajor(12));
+    }
+    
+    @Test
+    public void splitsTheSamples() {
+        SampleMatrix samples = matrix(1000);
+        List<double[]> sequential = new ArrayList<>();
+        samples.spliterator(100, 900).forEachRemaining(sequential::add);
+        assertEquals(800, sequential.size());
+        for (int index = 0; index < sequential.size(); index++) {
+            assertArrayEquals(new double[] {samples.get(100 + index, 0), samples.get(100 + index, 1)}, sequential.get(index));
+        }
+        
+        List<double[]> parallel = StreamSupport.stream(samples.spliterator(100, 900), true).collect(Collectors.toList());
+        assertEquals(sequential.size(), parallel.size());
+        for (int index = 0; index < parallel.size(); index++) {
+            assertArrayEquals(sequential.get(index), parallel.get(index));
+        }
+        assertFalse(samples.spliterator(5, 5).tryAdvance(values -> {}));
+    }
+    
+    @Test
+    public void providesBlocksOfConstants() {
+        SampleMatrix samples = matrix(100);
+        List<Constant> constants = samples.getConstants(25);
+        assertEquals("p", constants.get(0).getName());
+        assertEquals("0.025", constants.get(0).getValue());
+        assertEquals("q", constants.get(1).getName());
+        assertEquals("1.25", constants.get(1).getValue());
+        
+        Map<Integer, List<Constant>> block = samples.getBlock(20, 30);
+        assertEquals(10, block.size());
+        assertTrue(block.containsKey(20));
+        assertFalse(block.containsKey(30));
+        assertFalse(block.containsKey("20"));
+        assertNull(block.get(19));
+        assertEquals("1.25", block.get(25).get(1).getValue());
+        
+        int expected = 20;
+        for (Map.Entry<Integer, List<Constant>> entry : block.entrySet()) {
+            assertEquals(expected, entry.getKey());
+            assertEquals(samples.getConstants(expected).toString(), entry.getValue().toString());
+            expected++;
+        }
+        assertEquals(30, expected);
+    }
+}
@@ -0,0 +1,187 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.surrogate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import pacpma.algebra.polynomial.PolynomialBasis;
+
+/**
+ * Tests of {@link Surrogate}, {@link JsonReader} and 
+ * {@link SurrogateEvaluator}: the artefacts written in both formats are read
+ * back and evaluated on a few points.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class SurrogateTest {
+    private static final String PROPERTY = "P=? [F \"goal\"]";
+    private static final double[][] POINTS = {{0.0, -1.0}, {0.5, 0.25}, {1.3, -0.7}, {2.0, 1.0}};
+    private static final double TOLERANCE = 1e-12;
+    
+    @TempDir
+    Path directory;
+    
+    /**
+     * @return the artefact of 1 + 2x - 0.5xy + 3y² in the given basis, with 
+     *         x in [0, 2] and y in [-1, 1]
+     */
+    private static String document(String basis) {
+        return "{\n"
+                + "  \"property\": " + JsonReader.quote(PROPERTY) + ",\n"
+                + (basis == null ? "" : "  \"basis\": \"" + basis + "\",\n")
+                + "  \"variables\": [{\"name\": \"x\", \"lower\": 0, \"upper\": 2}, {\"name\": \"y\", \"lower\": -1.0, \"upper\": 1.0}],\n"
+                + "  \"lambda\": 0.0125,\n"
+                + "  \"" + (basis == null ? "monomials" : "terms") + "\": [\n"
+                + "    {\"exponents\": [0, 0], \"coefficient\": 1},\n"
+                + "    {\"exponents\": [1, 0], \"coefficient\": 2.0},\n"
+                + "    {\"exponents\": [1, 1], \"coefficient\": -0.5},\n"
+                + "    {\"exponents\": [0, 2], \"coefficient\": 3e0}\n"
+                + "  ]\n"
+                + "}\n";
+    }
+    
+    private static double monomial(double x, double y) {
+        return 1 + 2 * x - 0.5 * x * y + 3 * y * y;
+    }
+    
+    private static double chebyshev(double x, double y) {
+        double t = x - 1;
+        return 1 + 2 * t - 0.5 * t * y + 3 * (2 * y * y - 1);
+    }
+    
+    @Test
+    public void readsMonomialArtefactWithoutBasis() throws IOException {
+        Surrogate surrogate = readDocument("old.json", document(null));
+        assertEquals(PolynomialBasis.MONOMIAL, surrogate.getBasis());
+        assertEquals(PROPERTY, surrogate.getProperty());
+        assertEquals(List.of("x", "y"), surrogate.getVariables());
+        assertEquals(0.0, surrogate.getLowerbound(0));
+        assertEquals(1.0, surrogate.getUpperbound(1));
+        assertEquals(new BigDecimal("0.0125"), surrogate.getLambda());
+        for (double[] point : POINTS) {
+            assertEquals(monomial(point[0], point[1]), surrogate.evaluate(point), TOLERANCE);
+        }
+    }
+    
+    @Test
+    public void evaluatesInTheChebyshevBasis() throws IOException {
+        Surrogate surrogate = readDocument("chebyshev.json", document("chebyshev"));
+        assertEquals(PolynomialBasis.CHEBYSHEV, surrogate.getBasis());
+        for (double[] point : POINTS) {
+            assertEquals(chebyshev(point[0], point[1]), surrogate.evaluate(point), TOLERANCE);
+        }
+    }
+    
+    @Test
+    public void roundTripsThroughBothFormats() throws IOException {
+        for (String basis : new String[] {null, "chebyshev", "legendre"}) {
+            Surrogate original = readDocument("original.json", document(basis));
+            for (String fileName : new String[] {"copy.json", "copy.pacs"}) {
+                String path = directory.resolve(fileName).toString();
+                original.write(path);
+                Surrogate copy = Surrogate.read(path);
+                assertEquals(original.getProperty(), copy.getProperty());
+                assertEquals(original.getBasis(), copy.getBasis());
+                assertEquals(original.getVariables(), copy.getVariables());
+                assertEquals(original.getLambda(), copy.getLambda());
+                for (double[] point : POINTS) {
+                    assertEquals(original.evaluate(point), copy.evaluate(point));
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void evaluatesPointsInParallel() throws IOException {
+        Surrogate surrogate = readDocument("chebyshev.json", document("chebyshev"));
+        int numberPoints = 10000;
+        double[] points = new double[2 * numberPoints];
+        for (int point = 0; point < numberPoints; point++) {
+            points[2 * point] = 2.0 * point / numberPoints;
+            points[2 * point + 1] = Math.sin(point);
+        }
+        double[] values = new double[3 * numberPoints];
+        surrogate.evaluate(points, numberPoints, values);
+        for (int point = 0; point < numberPoints; point++) {
+            double value = surrogate.evaluate(new double[] {points[2 * point], points[2 * point + 1]});
+            assertEquals(value, values[3 * point]);
+            assertEquals(value - 0.0125, values[3 * point + 1]);
+            assertEquals(value + 0.0125, values[3 * point + 2]);
+        }
+    }
+    
+    @Test
+    public void evaluatorMapsCsvColumnsByName() throws IOException {
+        Surrogate surrogate = readDocument("monomial.json", document("monomial"));
+        Path points = directory.resolve("points.csv");
+        Files.writeString(points, "y,x\n-1.0,0.0\n0.25,0.5\n");
+        Path output = directory.resolve("values.csv");
+        assertEquals(2, SurrogateEvaluator.evaluate(surrogate, points.toString(), output.toString()));
+        
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals("value,lower,upper", lines.get(0));
+        for (int point = 0; point < 2; point++) {
+            String[] fields = lines.get(point + 1).split(",");
+            double expected = monomial(POINTS[point][0], POINTS[point][1]);
+            assertEquals(expected, Double.parseDouble(fields[0]), TOLERANCE);
+            assertEquals(expected - 0.0125, Double.parseDouble(fields[1]), TOLERANCE);
+            assertEquals(expected + 0.0125, Double.parseDouble(fields[2]), TOLERANCE);
+        }
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    public void jsonStringsRoundTrip() throws IOException {
+        String value = "a \"quoted\" \\ string\nwith\ttabs and \u0001 controls, λ";
+        Map<String, Object> document = (Map<String, Object>) JsonReader.parse("{\"s\": " + JsonReader.quote(value) + ", \"n\": [-1.5e2]}");
+        assertEquals(value, document.get("s"));
+        assertEquals(List.of(new BigDecimal("-1.5e2")), document.get("n"));
+    }
+    
+    @Test
+    public void rejectsInvalidArtefacts() throws IOException {
+        assertThrows(IOException.class, () -> JsonReader.parse("{\"a\": [1, 2}"));
+        assertThrows(IOException.class, () -> readDocument("basis.json", document("fourier")));
+        assertThrows(IOException.class, () -> readDocument("lambda.json", document(null).replace("\"lambda\"", "\"margin\"")));
+        Path binary = directory.resolve("garbage.pacs");
+        Files.write(binary, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> Surrogate.read(binary.toString()));
+    }
+    
+    private Surrogate readDocument(String fileName, String text) throws IOException {
+        Path path = directory.resolve(fileName);
+        Files.writeString(path, text);
+        return Surrogate.read(path.toString());
+    }
+}
@@ -0,0 +1,116 @@
+/****************************************************************************
+
+    PacPMA - the PAC-based Parametric Model Analyzer
+    Copyright (C) 2025
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+ *****************************************************************************/
+
+package pacpma.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the a-posteriori bounds of {@link Util}, against reference values
+ * and against the risk-and-complexity equation solved directly on small 
+ * instances.
+ * 
+ * @author Andrea Turrini
+ *
+ */
+public class UtilTest {
+    private static final double ETA = 0.0125;
+    
+    @Test
+    public void matchesReferenceValues() {
+        assertEquals(0.048455614282533754, Util.aPosterioriEpsilon(400, 7, ETA), 1e-12);
+        assertEquals(0.04729280489850185, Util.aPosterioriEpsilon(410, 7, ETA), 1e-12);
+        assertEquals(0.04689251759322388, Util.aPosterioriEpsilon(343, 5, ETA), 1e-12);
+    }
+    
+    @Test
+    public void solvesTheRiskAndComplexityEquation() {
+        for (int numberSamples : new int[] {10, 25, 60}) {
+            for (int supportConstraints = 0; supportConstraints < numberSamples; supportConstraints += 3) {
+                double expected = 1.0 - solve(numberSamples, supportConstraints, 0.05);
+                assertEquals(expected, Util.aPosterioriEpsilon(numberSamples, supportConstraints, 0.05), 1e-9);
+            }
+        }
+    }
+    
+    @Test
+    public void isMonotone() {
+        double previous = 0.0;
+        for (int supportConstraints = 0; supportConstraints < 50; supportConstraints++) {
+            double epsilon = Util.aPosterioriEpsilon(500, supportConstraints, ETA);
+            assertTrue(epsilon > previous);
+            previous = epsilon;
+        }
+        previous = 1.0;
+        for (int numberSamples = 20; numberSamples <= 2000; numberSamples += 20) {
+            double epsilon = Util.aPosterioriEpsilon(numberSamples, 11, ETA);
+            assertTrue(epsilon < previous);
+            previous = epsilon;
+        }
+        assertEquals(1.0, Util.aPosterioriEpsilon(11, 11, ETA));
+        assertEquals(1.0, Util.aPosterioriEpsilon(5, 11, ETA));
+    }
+    
+    @Test
+    public void findsTheNumberOfSamples() {
+        for (int supportConstraints : new int[] {0, 2, 7, 11}) {
+            int numberSamples = Util.aPosterioriNumberSamples(supportConstraints, 0.05, ETA, 1, 100000);
+            assertTrue(Util.aPosterioriEpsilon(numberSamples, supportConstraints, ETA) <= 0.05);
+            assertTrue(Util.aPosterioriEpsilon(numberSamples - 1, supportConstraints, ETA) > 0.05);
+        }
+        assertEquals(400, Util.aPosterioriNumberSamples(7, 0.01, ETA, 100, 400));
+        assertEquals(300, Util.aPosterioriNumberSamples(0, 0.5, ETA, 300, 400));
+    }
+    
+    /**
+     * Solves η / N · Σ_{m=k..N-1} C(m, k) t^(m - k) = C(N, k) t^(N - k) for
+     * t in (0, 1) by bisection, evaluating both sides as written.
+     */
+    private static double solve(int numberSamples, int supportConstraints, double eta) {
+        double low = 0.0;
+        double high = 1.0;
+        for (int iteration = 0; iteration < 100; iteration++) {
+            double t = (low + high) / 2;
+            double sum = 0.0;
+            for (int m = supportConstraints; m < numberSamples; m++) {
+                sum += binomial(m, supportConstraints) * Math.pow(t, m - supportConstraints);
+            }
+            double difference = eta / numberSamples * sum 
+                    - binomial(numberSamples, supportConstraints) * Math.pow(t, numberSamples - supportConstraints);
+            if (difference > 0) {
+                low = t;
+            } else {
+                high = t;
+            }
+        }
+        return low;
+    }
+    
+    private static double binomial(int n, int k) {
+        double result = 1.0;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+}
@@ -82,7 +82,7 @@ void applyOptions(storm::Environment &env, std::string values) {
     }
 }
 
-void checkCtmc(std::shared_ptr<storm::models::sparse::Ctmc<storm::RationalFunction>> ctmc, std::shared_ptr<storm::logic::Formula const> formula, storm::Environment &env) {
+void checkCtmc(std::shared_ptr<storm::models::sparse::Ctmc<storm::RationalFunction>> ctmc, std::vector<std::shared_ptr<storm::logic::Formula const>> const& formulas, storm::Environment &env) {
     storm::utility::ModelInstantiator<storm::models::sparse::Ctmc<storm::RationalFunction>, storm::models::sparse::Ctmc<double>> modelInstantiator(*ctmc);
 
     std::set<storm::RationalFunctionVariable> variables = storm::models::sparse::getAllParameters(*ctmc);
@@ -107,16 +107,21 @@ void checkCtmc(std::shared_ptr<storm::models::sparse::Ctmc<storm::RationalFuncti
 
             storm::modelchecker::SparseCtmcCslModelChecker<storm::models::sparse::Ctmc<double>> checker(concrete_model);
                 
-            std::unique_ptr<storm::modelchecker::CheckResult> checkerResult = checker.check(env, *formula);
+            // the same instance is checked against all formulas, one value each
+            std::cout << "StormCWrapper_RESULT:" << instanceValues[0];
+            for (std::shared_ptr<storm::logic::Formula const> const& formula : formulas) {
+                std::unique_ptr<storm::modelchecker::CheckResult> checkerResult = checker.check(env, *formula);
                 
-            storm::modelchecker::ExplicitQuantitativeCheckResult<double>& quantitativeResult = checkerResult->asExplicitQuantitativeCheckResult<double>();
+                storm::modelchecker::ExplicitQuantitativeCheckResult<double>& quantitativeResult = checkerResult->asExplicitQuantitativeCheckResult<double>();
                 
-            std::cout << "StormCWrapper_RESULT:" << instanceValues[0] << ":" << quantitativeResult[*concrete_model.getInitialStates().begin()] << "\n";
+                std::cout << ":" << quantitativeResult[*concrete_model.getInitialStates().begin()];
+            }
+            std::cout << "\n";
         }
     }
 }
 
-void checkDtmc(std::shared_ptr<storm::models::sparse::Dtmc<storm::RationalFunction>> dtmc, std::shared_ptr<storm::logic::Formula const> formula, storm::Environment &env) {
+void checkDtmc(std::shared_ptr<storm::models::sparse::Dtmc<storm::RationalFunction>> dtmc, std::vector<std::shared_ptr<storm::logic::Formula const>> const& formulas, storm::Environment &env) {
     storm::utility::ModelInstantiator<storm::models::sparse::Dtmc<storm::RationalFunction>, storm::models::sparse::Dtmc<double>> modelInstantiator(*dtmc);
 
     std::set<storm::RationalFunctionVariable> variables = storm::models::sparse::getAllParameters(*dtmc);
@@ -141,16 +146,21 @@ void checkDtmc(std::shared_ptr<storm::models::sparse::Dtmc<storm::RationalFuncti
 
             storm::modelchecker::SparseDtmcPrctlModelChecker<storm::models::sparse::Dtmc<double>> checker(concrete_model);
                 
-            std::unique_ptr<storm::modelchecker::CheckResult> checkerResult = checker.check(env, *formula);
+            // the same instance is checked against all formulas, one value each
+            std::cout << "StormCWrapper_RESULT:" << instanceValues[0];
+            for (std::shared_ptr<storm::logic::Formula const> const& formula : formulas) {
+                std::unique_ptr<storm::modelchecker::CheckResult> checkerResult = checker.check(env, *formula);
                 
-            storm::modelchecker::ExplicitQuantitativeCheckResult<double>& quantitativeResult = checkerResult->asExplicitQuantitativeCheckResult<double>();
+                storm::modelchecker::ExplicitQuantitativeCheckResult<double>& quantitativeResult = checkerResult->asExplicitQuantitativeCheckResult<double>();
                 
-            std::cout << "StormCWrapper_RESULT:" << instanceValues[0] << ":" << quantitativeResult[*concrete_model.getInitialStates().begin()] << "\n";
+                std::cout << ":" << quantitativeResult[*concrete_model.getInitialStates().begin()];
+            }
+            std::cout << "\n";
         }
     }
 }
 
-void checkMdp(std::shared_ptr<storm::models::sparse::Mdp<storm::RationalFunction>> mdp, std::shared_ptr<storm::logic::Formula const> formula, storm::Environment &env) {
+void checkMdp(std::shared_ptr<storm::models::sparse::Mdp<storm::RationalFunction>> mdp, std::vector<std::shared_ptr<storm::logic::Formula const>> const& formulas, storm::Environment &env) {
     storm::utility::ModelInstantiator<storm::models::sparse::Mdp<storm::RationalFunction>, storm::models::sparse::Mdp<double>> modelInstantiator(*mdp);
 
     std::set<storm::RationalFunctionVariable> variables = storm::models::sparse::getAllParameters(*mdp);
@@ -175,11 +185,16 @@ void checkMdp(std::shared_ptr<storm::models::sparse::Mdp<storm::RationalFunction
 
             storm::modelchecker::SparseMdpPrctlModelChecker<storm::models::sparse::Mdp<double>> checker(concrete_model);
                 
-            std::unique_ptr<storm::modelchecker::CheckResult> checkerResult = checker.check(env, *formula);
+            // the same instance is checked against all formulas, one value each
+            std::cout << "StormCWrapper_RESULT:" << instanceValues[0];
+            for (std::shared_ptr<storm::logic::Formula const> const& formula : formulas) {
+                std::unique_ptr<storm::modelchecker::CheckResult> checkerResult = checker.check(env, *formula);
                 
-            storm::modelchecker::ExplicitQuantitativeCheckResult<double>& quantitativeResult = checkerResult->asExplicitQuantitativeCheckResult<double>();
+                storm::modelchecker::ExplicitQuantitativeCheckResult<double>& quantitativeResult = checkerResult->asExplicitQuantitativeCheckResult<double>();
                 
-            std::cout << "StormCWrapper_RESULT:" << instanceValues[0] << ":" << quantitativeResult[*concrete_model.getInitialStates().begin()] << "\n";
+                std::cout << ":" << quantitativeResult[*concrete_model.getInitialStates().begin()];
+            }
+            std::cout << "\n";
         }
     }
 }
@@ -214,7 +229,7 @@ int main (int argc, char *argv[]) {
     storm::utility::setOutputDigitsFromGeneralPrecision(storm::settings::getModule<storm::settings::modules::GeneralSettings>().getPrecision());
 
     std::shared_ptr<storm::models::sparse::Model<storm::RationalFunction>> common_model;
-    std::shared_ptr<storm::logic::Formula const> formula;
+    std::vector<std::shared_ptr<storm::logic::Formula const>> formulas;
 
     if (modelType == "prism") {
         storm::prism::Program program = storm::api::parseProgram(modelFile, true);
@@ -223,9 +238,9 @@ int main (int argc, char *argv[]) {
             program = storm::utility::prism::preprocess(program, constants);
         }
 
-        formula = storm::api::extractFormulasFromProperties(storm::api::parsePropertiesForPrismProgram(propertyFormula, program)).front();
+        formulas = storm::api::extractFormulasFromProperties(storm::api::parsePropertiesForPrismProgram(propertyFormula, program));
 
-        storm::generator::NextStateGeneratorOptions options(*formula);
+        storm::generator::NextStateGeneratorOptions options(formulas);
         
         common_model = storm::builder::ExplicitModelBuilder<storm::RationalFunction>(program, options).build();
     } else if (modelType == "jani") {
@@ -239,9 +254,9 @@ int main (int argc, char *argv[]) {
             pair_input.first = input.preprocess(constantDefinitions).asJaniModel();
         }
 
-        formula = storm::api::extractFormulasFromProperties(storm::api::parsePropertiesForJaniModel(propertyFormula, pair_input.first)).front();
+        formulas = storm::api::extractFormulasFromProperties(storm::api::parsePropertiesForJaniModel(propertyFormula, pair_input.first));
 
-        storm::generator::NextStateGeneratorOptions options(*formula);
+        storm::generator::NextStateGeneratorOptions options(formulas);
         
         common_model = storm::builder::ExplicitModelBuilder<storm::RationalFunction>(pair_input.first, options).build();
     } else {
@@ -254,16 +269,16 @@ int main (int argc, char *argv[]) {
     if (common_model->isDiscreteTimeModel()) {
         // discrete time models
         if (common_model->isNondeterministicModel()) {
-            checkMdp(common_model->as<storm::models::sparse::Mdp<storm::RationalFunction>>(), formula, env);
+            checkMdp(common_model->as<storm::models::sparse::Mdp<storm::RationalFunction>>(), formulas, env);
         } else {
-            checkDtmc(common_model->as<storm::models::sparse::Dtmc<storm::RationalFunction>>(), formula, env);
+            checkDtmc(common_model->as<storm::models::sparse::Dtmc<storm::RationalFunction>>(), formulas, env);
         }
     } else {
         // continuous time model
         if (common_model->isNondeterministicModel()) {
             return -3;
         } else {
-            checkCtmc(common_model->as<storm::models::sparse::Ctmc<storm::RationalFunction>>(), formula, env);
+            checkCtmc(common_model->as<storm::models::sparse::Ctmc<storm::RationalFunction>>(), formulas, env);
         }
     }
     return 0;
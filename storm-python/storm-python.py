@@ -54,5 +54,6 @@ for entry in sys.stdin:
     for p in parameters:
         instance[p] = values.get(p.name)
     instantiated_model = instantiator.instantiate(instance)
-    result = stormpy.model_checking(instantiated_model, properties[0]).at(model.initial_states[0])
-    print(f'StormPython_RESULT:{identifier}:{result}')
+    # the same instance is checked against all properties, one value each
+    results = [str(stormpy.model_checking(instantiated_model, p).at(model.initial_states[0])) for p in properties]
+    print(f'StormPython_RESULT:{identifier}:' + ':'.join(results))